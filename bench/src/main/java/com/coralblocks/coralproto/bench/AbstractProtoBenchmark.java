@@ -0,0 +1,106 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+
+/**
+ * Measures <code>write</code>, <code>ProtoParser.parse</code>, <code>writeAscii</code>, <code>toString(StringBuilder)</code> and <code>getLength</code> for a message.
+ * The concrete subclasses choose which messages (and repeating group sizes) are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractProtoBenchmark {
+	
+	private static final int BUFFER_SIZE = 1024 * 1024;
+	
+	private Proto proto;
+	private ProtoParser parser;
+	private ByteBuffer writeBuffer;
+	private ByteBuffer parseBuffer;
+	private ByteBuffer asciiBuffer;
+	private StringBuilder sb;
+	
+	protected abstract Proto createMessage();
+	
+	protected abstract Proto newInstance();
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		proto = createMessage();
+		parser = BenchMessages.newParser(newInstance());
+		writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		asciiBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		sb = new StringBuilder(BUFFER_SIZE);
+		parseBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		proto.write(parseBuffer);
+		parseBuffer.flip();
+		if (parser.parse(parseBuffer) == null) throw new IllegalStateException("Cannot parse: " + proto);
+	}
+	
+	@Benchmark
+	public ByteBuffer write() {
+		writeBuffer.clear();
+		proto.write(writeBuffer);
+		return writeBuffer;
+	}
+	
+	@Benchmark
+	public Proto parse() {
+		parseBuffer.position(0);
+		return parser.parse(parseBuffer);
+	}
+	
+	@Benchmark
+	public ByteBuffer writeAscii() {
+		asciiBuffer.clear();
+		proto.writeAscii(true, asciiBuffer);
+		return asciiBuffer;
+	}
+	
+	@Benchmark
+	public StringBuilder toStringBuilder() {
+		sb.setLength(0);
+		((AbstractProto) proto).toString(sb);
+		return sb;
+	}
+	
+	@Benchmark
+	public int getLength() {
+		return proto.getLength();
+	}
+}
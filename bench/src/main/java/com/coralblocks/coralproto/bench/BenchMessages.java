@@ -0,0 +1,210 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+import com.coralblocks.coralproto.example.CompactMarketDataMessage;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+import com.coralblocks.coralproto.example.SampleProtoMessage;
+
+/**
+ * Creates and populates the example messages used by the benchmarks.
+ */
+public class BenchMessages {
+	
+	private BenchMessages() {
+		
+	}
+	
+	public static Proto newInstance(String message) {
+		switch(message) {
+			case "PriceChangeMessage": return new PriceChangeMessage();
+			case "MarketDataMessage": return new MarketDataMessage();
+			case "CompactMarketDataMessage": return new CompactMarketDataMessage();
+			case "SampleProtoMessage": return new SampleProtoMessage();
+			case "ProtoMessage1": return new ProtoMessage1();
+			case "ProtoMessage2": return new ProtoMessage2();
+			default: throw new IllegalArgumentException("Unknown message: " + message);
+		}
+	}
+	
+	/**
+	 * Creates the given message and populates all its fields. The repeating groups (if any) will have <code>groupSize</code> elements.
+	 * 
+	 * @param message the simple class name of the example message
+	 * @param groupSize the number of elements of each repeating group
+	 * @return the populated message
+	 */
+	public static Proto create(String message, int groupSize) {
+		Proto proto = newInstance(message);
+		if (proto instanceof PriceChangeMessage) {
+			fill((PriceChangeMessage) proto, groupSize);
+		} else if (proto instanceof MarketDataMessage) {
+			fill((MarketDataMessage) proto, groupSize);
+		} else if (proto instanceof CompactMarketDataMessage) {
+			fill((CompactMarketDataMessage) proto, groupSize);
+		} else if (proto instanceof SampleProtoMessage) {
+			fill((SampleProtoMessage) proto);
+		} else if (proto instanceof ProtoMessage1) {
+			fill((ProtoMessage1) proto);
+		} else if (proto instanceof ProtoMessage2) {
+			fill((ProtoMessage2) proto);
+		}
+		return proto;
+	}
+	
+	/**
+	 * Returns a parser that only knows about the given message. The example messages do not all have distinct type and subtype
+	 * (<code>SampleProtoMessage</code> and <code>MarketDataMessage</code> are both <code>PM</code>), so each benchmark gets its own parser.
+	 * 
+	 * @param proto the message to register
+	 * @return a new parser
+	 */
+	public static ProtoParser newParser(Proto proto) {
+		return new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { proto };
+			}
+		};
+	}
+	
+	/**
+	 * Copies the contents of a message into another one (of any class with the same schema) through the wire.
+	 * 
+	 * @param from the source message
+	 * @param to the destination message
+	 * @param bb a buffer large enough for the message
+	 */
+	public static void copy(Proto from, Proto to, ByteBuffer bb) {
+		bb.clear();
+		from.write(bb);
+		bb.flip();
+		bb.position(4); // type, subtype and version
+		to.read(bb);
+	}
+	
+	static void fill(PriceChangeMessage proto, int groupSize) {
+		proto.symbolId.set(1111L);
+		proto.symbolDesc.set("IBM");
+		proto.mqReqId.set(2L);
+		proto.orders.clear();
+		for(int i = 0; i < groupSize; i++) {
+			proto.orders.nextElement();
+			proto.orders.side.set(i % 2 == 0);
+			proto.orders.levelId.set(i);
+			proto.orders.priceLevel.set(200.15 + i);
+			proto.orders.qty.set(1000 + i);
+			proto.orders.legs.clear();
+			proto.orders.legs.nextElement();
+			proto.orders.legs.legId.set(i);
+			proto.orders.legs.legDesc.set("myLeg   ");
+			proto.orders.orderId.set(1234L + i);
+		}
+		proto.lastTradeQty.set(100);
+		proto.lastTradePrice.set(200.55);
+	}
+	
+	private static void fill(MarketDataMessage proto, int groupSize) {
+		proto.symbolId.set(2222L);
+		proto.symbolDesc.set("AAPL");
+		proto.mqReqId.set(3L);
+		proto.bids.clear();
+		proto.asks.clear();
+		for(int i = 0; i < groupSize; i++) {
+			proto.bids.nextElement();
+			proto.bids.levelId.set(i);
+			proto.bids.priceLevel.set(100_000 - i);
+			proto.bids.qty.set(10 + i);
+			proto.bids.legs.clear();
+			proto.bids.legs.nextElement();
+			proto.bids.legs.legId.set(i);
+			proto.bids.legs.legDesc.set("bidLeg");
+			proto.bids.orders.set(i + 1);
+			proto.asks.nextElement();
+			proto.asks.levelId.set(i);
+			proto.asks.priceLevel.set(100_001 + i);
+			proto.asks.qty.set(20 + i);
+			proto.asks.legs.clear();
+			proto.asks.legs.nextElement();
+			proto.asks.legs.legId.set(i);
+			proto.asks.legs.legDesc.markAsNotPresent();
+			proto.asks.orders.set(i + 2);
+		}
+		proto.lastTradeQty.set(300L);
+		proto.lastTradePrice.set(100_000L);
+	}
+	
+	private static void fill(CompactMarketDataMessage proto, int groupSize) {
+		proto.symbolId.set(2222L);
+		proto.symbolDesc.set("AAPL");
+		proto.mqReqId.set(3L);
+		proto.bids.clear();
+		proto.asks.clear();
+		for(int i = 0; i < groupSize; i++) {
+			proto.bids.nextElement();
+			proto.bids.levelId.set(i);
+			proto.bids.priceLevel.set(100_000 - i);
+			proto.bids.qty.set(10 + i);
+			proto.bids.legs.clear();
+			proto.bids.legs.nextElement();
+			proto.bids.legs.legId.set(i);
+			proto.bids.legs.legDesc.set("bidLeg");
+			proto.bids.orders.set(i + 1);
+			proto.asks.nextElement();
+			proto.asks.levelId.set(i);
+			proto.asks.priceLevel.set(100_001 + i);
+			proto.asks.qty.set(20 + i);
+			proto.asks.legs.clear();
+			proto.asks.legs.nextElement();
+			proto.asks.legs.legId.set(i);
+			proto.asks.legs.legDesc.markAsNotPresent();
+			proto.asks.orders.set(i + 2);
+		}
+		proto.lastTradeQty.set(300L);
+		proto.lastTradePrice.set(100_000L);
+	}
+	
+	private static void fill(SampleProtoMessage proto) {
+		proto.aByte = -23;
+		proto.aShort = 3333;
+		proto.aInt = -1111111;
+		proto.aLong = 2222222222L;
+		proto.aChar = 'c';
+		proto.aBoolean = true;
+		proto.chars.set("ABCDEFGH");
+		proto.bytes.set("abcdefgh".getBytes());
+		proto.varChars.set("XXXX");
+		proto.varBytes.set("YYYY".getBytes());
+	}
+	
+	private static void fill(ProtoMessage1 proto) {
+		proto.symbolId.set(2L);
+		proto.symbolDesc.set("IBM");
+	}
+	
+	private static void fill(ProtoMessage2 proto) {
+		proto.orderId.set(33L);
+		proto.symbolDesc.set("AAPL");
+		proto.isMine.set(true);
+	}
+}
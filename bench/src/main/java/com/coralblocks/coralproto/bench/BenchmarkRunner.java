@@ -0,0 +1,81 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, saves the results as a JSON report under <code>reports/</code> and fails
+ * if any benchmark allocated memory in the measured code.
+ * 
+ * <pre>
+ * $ java -cp target/benchmarks.jar com.coralblocks.coralproto.bench.BenchmarkRunner &lt;VERSION&gt; &lt;REGEX&gt;
+ * </pre>
+ */
+public class BenchmarkRunner {
+	
+	// JMH reports a tiny amount of allocation per operation even for garbage-free code (profiler noise), so anything below one byte is zero.
+	private static final double MAX_ALLOCATION_PER_OP = 1.0;
+	
+	public static void main(String[] args) throws RunnerException {
+		
+		String version = args.length > 0 ? args[0] : "SNAPSHOT";
+		String include = args.length > 1 ? args[1] : ".*Benchmark.*";
+		
+		new File("reports").mkdirs();
+		String report = "reports/coralproto-" + version + ".json";
+		
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(report)
+				.build();
+		
+		Collection<RunResult> results = new Runner(options).run();
+		
+		int garbageCreators = 0;
+		
+		for(RunResult result : results) {
+			for(Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+				if (!entry.getKey().endsWith("gc.alloc.rate.norm")) continue;
+				double bytesPerOp = entry.getValue().getScore();
+				if (bytesPerOp >= MAX_ALLOCATION_PER_OP) {
+					System.out.println("GARBAGE: " + result.getParams().getBenchmark() + " " + result.getParams() + " => " + bytesPerOp + " bytes/op");
+					garbageCreators++;
+				}
+			}
+		}
+		
+		System.out.println("Report saved to: " + report);
+		
+		if (garbageCreators > 0) {
+			System.out.println("Found " + garbageCreators + " benchmark(s) producing garbage!");
+			System.exit(1);
+		}
+	}
+}
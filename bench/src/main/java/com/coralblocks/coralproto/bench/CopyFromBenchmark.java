@@ -0,0 +1,79 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.AbstractProto;
+
+/**
+ * Compares copying a message into another instance with <code>AbstractProto.copyFrom</code>, field by field, against copying it through
+ * the wire (writing it to a buffer and reading it back).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyFromBenchmark {
+	
+	@Param({ "SampleProtoMessage", "PriceChangeMessage", "MarketDataMessage" })
+	public String message;
+	
+	@Param({ "1", "10", "100" })
+	public int groupSize;
+	
+	@Param({ "copyFrom", "wire" })
+	public String copy;
+	
+	private AbstractProto from;
+	private AbstractProto to;
+	private ByteBuffer bb;
+	private boolean copyFrom;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		from = (AbstractProto) BenchMessages.create(message, groupSize);
+		to = (AbstractProto) BenchMessages.newInstance(message);
+		bb = ByteBuffer.allocateDirect(1024 * 1024);
+		copyFrom = copy.equals("copyFrom");
+	}
+	
+	@Benchmark
+	public AbstractProto copy() {
+		if (copyFrom) {
+			to.copyFrom(from);
+		} else {
+			BenchMessages.copy(from, to, bb);
+		}
+		return to;
+	}
+}
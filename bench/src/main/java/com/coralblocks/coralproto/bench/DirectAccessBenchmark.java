@@ -0,0 +1,88 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.Proto;
+
+/**
+ * Compares the auto-generated direct-access code (<code>DIRECT_ACCESS = true</code>) of the example messages with the regular
+ * <code>ProtoField</code> loop of the same schema (<code>LoopPriceChangeMessage</code> and <code>LoopMarketDataMessage</code> from the test sources).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectAccessBenchmark {
+	
+	@Param({ "PriceChangeMessage", "MarketDataMessage" })
+	public String message;
+	
+	@Param({ "direct", "loop" })
+	public String style;
+	
+	@Param({ "1", "10" })
+	public int groupSize;
+	
+	private Proto proto;
+	private ByteBuffer bb;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		bb = ByteBuffer.allocateDirect(64 * 1024);
+		Proto direct = BenchMessages.create(message, groupSize);
+		if (style.equals("direct")) {
+			proto = direct;
+		} else if (message.equals("PriceChangeMessage")) {
+			proto = new LoopPriceChangeMessage();
+		} else {
+			proto = new LoopMarketDataMessage();
+		}
+		if (proto != direct) BenchMessages.copy(direct, proto, bb);
+	}
+	
+	@Benchmark
+	public Proto writeAndRead() {
+		bb.clear();
+		proto.write(bb);
+		bb.flip();
+		bb.position(4); // type, subtype and version
+		proto.read(bb);
+		return proto;
+	}
+	
+	@Benchmark
+	public int getLength() {
+		return proto.getLength();
+	}
+}
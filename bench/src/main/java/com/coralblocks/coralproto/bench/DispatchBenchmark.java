@@ -0,0 +1,158 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+
+/**
+ * Compares finding the message of each parse through the <code>IntMap</code> of a <code>ProtoParser</code> against the dense dispatch table
+ * (see <code>ProtoParser.useDenseDispatch()</code>) with 5, 50 and 500 registered message types. The messages only carry a long, so the
+ * lookup is most of the work, and the buffer has 1024 of them in random order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+	
+	private static final int MESSAGES = 1024;
+	
+	@Param({ "5", "50", "500" })
+	public int types;
+	
+	@Param({ "intMap", "dense" })
+	public String dispatch;
+	
+	private ProtoParser parser;
+	private ByteBuffer bb;
+	
+	/**
+	 * The smallest message possible: a type, a subtype and a long.
+	 */
+	static final class TinyMessage implements Proto {
+		
+		private final char type;
+		private final char subtype;
+		long value;
+		
+		TinyMessage(int index) {
+			this.type = (char) ('A' + index / 64);
+			this.subtype = (char) ('0' + index % 64);
+		}
+		
+		@Override
+		public char getType() {
+			return type;
+		}
+		
+		@Override
+		public char getSubtype() {
+			return subtype;
+		}
+		
+		@Override
+		public short getVersion() {
+			return 0;
+		}
+		
+		@Override
+		public void read(ByteBuffer buf) {
+			value = buf.getLong();
+		}
+		
+		@Override
+		public void wrap(ByteBuffer buf) {
+			read(buf);
+		}
+		
+		@Override
+		public void write(ByteBuffer buf) {
+			buf.put((byte) type);
+			buf.put((byte) subtype);
+			buf.putShort(getVersion());
+			buf.putLong(value);
+		}
+		
+		@Override
+		public void writeAscii(boolean shortVersion, ByteBuffer buf) {
+			buf.put((byte) type);
+			buf.put((byte) subtype);
+		}
+		
+		@Override
+		public int getLength() {
+			return 4 + 8;
+		}
+	}
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		Proto[] protos = new Proto[types];
+		for(int i = 0; i < types; i++) protos[i] = new TinyMessage(i);
+		boolean dense = dispatch.equals("dense");
+		parser = new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return protos;
+			}
+			@Override
+			protected boolean useDenseDispatch() {
+				return dense;
+			}
+		};
+		if (parser.hasDenseDispatch() != dense) throw new IllegalStateException("Wrong dispatch: " + dispatch);
+		Random random = new Random(42);
+		bb = ByteBuffer.allocateDirect(MESSAGES * 12);
+		for(int i = 0; i < MESSAGES; i++) {
+			TinyMessage m = new TinyMessage(random.nextInt(types));
+			m.value = i;
+			m.write(bb);
+		}
+		bb.flip();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public long parse() {
+		bb.position(0);
+		long sum = 0;
+		for(int i = 0; i < MESSAGES; i++) {
+			sum += ((TinyMessage) parser.parse(bb)).value;
+		}
+		return sum;
+	}
+}
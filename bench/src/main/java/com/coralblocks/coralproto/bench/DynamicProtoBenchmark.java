@@ -0,0 +1,218 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.DynamicProto;
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+
+/**
+ * Compares a <code>DynamicProto</code> (defined at runtime from the IDL text, with the fields accessed by handle) against the generated class
+ * of the same schema (<code>LoopMarketDataMessage</code> from the test sources, which also goes through the <code>ProtoField</code> loop):
+ * parsing a message and reading its fields, and filling a message and writing it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicProtoBenchmark {
+	
+	// the same IDL as LoopMarketDataMessage
+	private static final String IDL = """
+			
+			TYPE = P
+			SUBTYPE = M
+			
+			symbolId: long
+			symbolDesc: varchars(128)
+			mqReqId: long!
+			
+			bids:
+			    levelId: long!
+			    priceLevel: long
+			    qty: int
+			    legs:
+			      legId: int
+			      legDesc: varchars(128)!
+			    orders: int
+			
+			asks:
+			    levelId: long!
+			    priceLevel: long
+			    qty: int
+			    legs:
+			      legId: int
+			      legDesc: varchars(128)!
+			    orders: int
+			
+			lastTradeQty: long!
+			lastTradePrice: long!
+			
+	""";
+	
+	@Param({ "generated", "dynamic" })
+	public String impl;
+	
+	@Param({ "1", "10" })
+	public int groupSize;
+	
+	private ProtoParser parser;
+	private ByteBuffer bb;
+	private ByteBuffer out;
+	
+	private LoopMarketDataMessage generated;
+	
+	private DynamicProto dynamic;
+	private DynamicProto.Group bids;
+	private DynamicProto.Group asks;
+	private int symbolId, symbolDesc, mqReqId, bidsHandle, asksHandle, lastTradeQty, lastTradePrice;
+	private int levelId, priceLevel, qty, legs, orders;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		
+		bb = ByteBuffer.allocateDirect(64 * 1024);
+		out = ByteBuffer.allocateDirect(64 * 1024);
+		
+		Proto proto = BenchMessages.create("MarketDataMessage", groupSize);
+		proto.write(bb);
+		bb.flip();
+		
+		generated = new LoopMarketDataMessage();
+		dynamic = new DynamicProto(IDL);
+		parser = BenchMessages.newParser(impl.equals("dynamic") ? dynamic : generated);
+		
+		symbolId = dynamic.getHandle("symbolId");
+		symbolDesc = dynamic.getHandle("symbolDesc");
+		mqReqId = dynamic.getHandle("mqReqId");
+		bidsHandle = dynamic.getHandle("bids");
+		asksHandle = dynamic.getHandle("asks");
+		lastTradeQty = dynamic.getHandle("lastTradeQty");
+		lastTradePrice = dynamic.getHandle("lastTradePrice");
+		bids = dynamic.getGroup(bidsHandle);
+		asks = dynamic.getGroup(asksHandle);
+		levelId = bids.getHandle("levelId");
+		priceLevel = bids.getHandle("priceLevel");
+		qty = bids.getHandle("qty");
+		legs = bids.getHandle("legs");
+		orders = bids.getHandle("orders");
+	}
+	
+	@Benchmark
+	public long parseAndRead() {
+		bb.position(0);
+		Proto proto = parser.parse(bb);
+		long sum = 0;
+		if (proto == generated) {
+			sum += generated.symbolId.get();
+			generated.bids.beginIteration();
+			while(generated.bids.iterHasNext()) {
+				generated.bids.iterNext();
+				sum += generated.bids.priceLevel.get() * generated.bids.qty.get();
+			}
+			sum += generated.lastTradeQty.get();
+		} else {
+			sum += dynamic.getLong(symbolId);
+			bids.beginIteration();
+			while(bids.iterHasNext()) {
+				bids.iterNext();
+				sum += bids.getLong(priceLevel) * bids.getInt(qty);
+			}
+			sum += dynamic.getLong(lastTradeQty);
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public ByteBuffer fillAndWrite() {
+		if (impl.equals("generated")) {
+			fill(generated);
+			out.clear();
+			generated.write(out);
+		} else {
+			fill();
+			out.clear();
+			dynamic.write(out);
+		}
+		return out;
+	}
+	
+	private void fill(LoopMarketDataMessage proto) {
+		proto.symbolId.set(2222L);
+		proto.symbolDesc.set("AAPL");
+		proto.mqReqId.set(3L);
+		proto.bids.clear();
+		proto.asks.clear();
+		for(int i = 0; i < groupSize; i++) {
+			proto.bids.nextElement();
+			proto.bids.levelId.set(i);
+			proto.bids.priceLevel.set(100_000 - i);
+			proto.bids.qty.set(10 + i);
+			proto.bids.legs.clear();
+			proto.bids.orders.set(i + 1);
+			proto.asks.nextElement();
+			proto.asks.levelId.set(i);
+			proto.asks.priceLevel.set(100_001 + i);
+			proto.asks.qty.set(20 + i);
+			proto.asks.legs.clear();
+			proto.asks.orders.set(i + 2);
+		}
+		proto.lastTradeQty.set(300L);
+		proto.lastTradePrice.set(100_000L);
+	}
+	
+	private void fill() {
+		dynamic.setLong(symbolId, 2222L);
+		dynamic.setChars(symbolDesc, "AAPL");
+		dynamic.setLong(mqReqId, 3L);
+		bids.clear();
+		asks.clear();
+		for(int i = 0; i < groupSize; i++) {
+			bids.nextElement();
+			bids.setLong(levelId, i);
+			bids.setLong(priceLevel, 100_000 - i);
+			bids.setInt(qty, 10 + i);
+			bids.getGroup(legs).clear();
+			bids.setInt(orders, i + 1);
+			asks.nextElement();
+			asks.setLong(levelId, i);
+			asks.setLong(priceLevel, 100_001 + i);
+			asks.setInt(qty, 20 + i);
+			asks.getGroup(legs).clear();
+			asks.setInt(orders, i + 2);
+		}
+		dynamic.setLong(lastTradeQty, 300L);
+		dynamic.setLong(lastTradePrice, 100_000L);
+	}
+}
@@ -0,0 +1,84 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+
+/**
+ * Compares sending a <code>PriceChangeMessage</code> by filling its fields, computing its length (for the framing) and writing it
+ * with sending it through the generated encoder flyweight (<code>ENCODER = true</code>), which writes each value straight into the buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncoderBenchmark {
+	
+	@Param({ "1", "10" })
+	public int groupSize;
+	
+	private PriceChangeMessage proto;
+	private PriceChangeMessage.Encoder encoder;
+	private ByteBuffer bb;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		bb = ByteBuffer.allocateDirect(64 * 1024);
+		proto = new PriceChangeMessage();
+		encoder = new PriceChangeMessage.Encoder();
+	}
+	
+	@Benchmark
+	public int fieldsThenWrite() {
+		bb.clear();
+		BenchMessages.fill(proto, groupSize);
+		int len = proto.getLength();
+		proto.write(bb);
+		return len;
+	}
+	
+	@Benchmark
+	public int encoder() {
+		bb.clear();
+		encoder.wrap(bb).symbolId(1111L).symbolDesc("IBM").mqReqId(2L);
+		PriceChangeMessage.Encoder.OrdersEncoder orders = encoder.orders(groupSize);
+		for(int i = 0; i < groupSize; i++) {
+			orders.side(i % 2 == 0).levelId(i).priceLevel(200.15 + i).qty(1000 + i);
+			orders.legs(1).legId(i).legDesc("myLeg   ");
+			orders.orderId(1234L + i);
+		}
+		encoder.lastTradeQty(100).lastTradePrice(200.55);
+		return encoder.finish();
+	}
+}
@@ -0,0 +1,39 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import org.openjdk.jmh.annotations.Param;
+
+import com.coralblocks.coralproto.Proto;
+
+/**
+ * The example messages without repeating groups, so there is no group size to vary.
+ */
+public class FlatMessageBenchmark extends AbstractProtoBenchmark {
+	
+	@Param({ "SampleProtoMessage", "ProtoMessage1", "ProtoMessage2" })
+	public String message;
+	
+	@Override
+	protected Proto createMessage() {
+		return BenchMessages.create(message, 0);
+	}
+	
+	@Override
+	protected Proto newInstance() {
+		return BenchMessages.newInstance(message);
+	}
+}
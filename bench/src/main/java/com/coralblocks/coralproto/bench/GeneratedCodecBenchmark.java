@@ -0,0 +1,148 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+import com.coralblocks.coralproto.field.BooleanField;
+import com.coralblocks.coralproto.field.ByteField;
+import com.coralblocks.coralproto.field.CharField;
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ShortField;
+import com.coralblocks.coralproto.field.VarCharsField;
+
+/**
+ * Compares the loop over the fields of a hand-built <code>AbstractProto</code> against the codec generated at runtime for it
+ * (see <code>ProtoParser.useGeneratedCodecs()</code>): <code>parse</code>, <code>write</code> and <code>getLength</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedCodecBenchmark {
+	
+	@Param({ "loop", "generated" })
+	public String codec;
+	
+	private ProtoParser parser;
+	private HandBuiltMessage proto;
+	private ByteBuffer bb;
+	
+	/**
+	 * A message with 16 fields added by hand (without the IDL), a few of them optional.
+	 */
+	public static final class HandBuiltMessage extends AbstractProto {
+		
+		public final LongField orderId = new LongField(this);
+		public final LongField timestamp = new LongField(this);
+		public final CharsField symbol = new CharsField(this, 8);
+		public final CharField side = new CharField(this);
+		public final DoubleField price = new DoubleField(this);
+		public final IntField qty = new IntField(this);
+		public final IntField filledQty = new IntField(this);
+		public final ByteField venue = new ByteField(this);
+		public final ShortField flags = new ShortField(this);
+		public final BooleanField isAggressive = new BooleanField(this);
+		public final LongField parentId = new LongField(this, true);
+		public final DoubleField stopPrice = new DoubleField(this, true);
+		public final IntField minQty = new IntField(this, true);
+		public final VarCharsField account = new VarCharsField(this, 16);
+		public final VarCharsField text = new VarCharsField(this, 64, true);
+		public final LongField sequence = new LongField(this);
+		
+		public HandBuiltMessage() {
+			setType('H');
+			setSubtype('B');
+		}
+	}
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		boolean generated = codec.equals("generated");
+		parser = new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { new HandBuiltMessage() };
+			}
+			@Override
+			protected boolean useGeneratedCodecs() {
+				return generated;
+			}
+		};
+		if (parser.hasGeneratedCodecs() != generated) throw new IllegalStateException("Wrong codec: " + codec);
+		proto = new HandBuiltMessage();
+		proto.orderId.set(123456789L);
+		proto.timestamp.set(System.nanoTime());
+		proto.symbol.set("AAPL");
+		proto.side.set('B');
+		proto.price.set(189.25);
+		proto.qty.set(1000);
+		proto.filledQty.set(300);
+		proto.venue.set((byte) 3);
+		proto.flags.set((short) 5);
+		proto.isAggressive.set(true);
+		proto.parentId.set(987654321L);
+		proto.stopPrice.markAsNotPresent();
+		proto.minQty.set(100);
+		proto.account.set("ACCT-42");
+		proto.text.markAsNotPresent();
+		proto.sequence.set(77L);
+		bb = ByteBuffer.allocateDirect(1024);
+		proto.write(bb);
+		bb.flip();
+		proto = (HandBuiltMessage) parser.parse(bb.duplicate()); // the instance of the parser (with the codec, if generated)
+	}
+	
+	@Benchmark
+	public Proto parse() {
+		bb.position(0);
+		return parser.parse(bb);
+	}
+	
+	@Benchmark
+	public ByteBuffer write() {
+		bb.clear();
+		proto.write(bb);
+		return bb;
+	}
+	
+	@Benchmark
+	public int getLength() {
+		return proto.getLength();
+	}
+}
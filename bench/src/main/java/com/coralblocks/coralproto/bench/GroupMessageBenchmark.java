@@ -0,0 +1,42 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import org.openjdk.jmh.annotations.Param;
+
+import com.coralblocks.coralproto.Proto;
+
+/**
+ * The example messages with repeating groups, with an increasing number of elements in each group.
+ */
+public class GroupMessageBenchmark extends AbstractProtoBenchmark {
+	
+	@Param({ "PriceChangeMessage", "MarketDataMessage" })
+	public String message;
+	
+	@Param({ "0", "1", "10", "1000" })
+	public int groupSize;
+	
+	@Override
+	protected Proto createMessage() {
+		return BenchMessages.create(message, groupSize);
+	}
+	
+	@Override
+	protected Proto newInstance() {
+		return BenchMessages.newInstance(message);
+	}
+}
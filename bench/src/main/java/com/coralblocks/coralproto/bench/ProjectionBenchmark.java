@@ -0,0 +1,78 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+
+/**
+ * Compares parsing all the fields of a <code>MarketDataMessage</code> with parsing only three of them (<code>symbolId</code>,
+ * <code>mqReqId</code> and <code>lastTradePrice</code>), which skips the bids and asks repeating groups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+	
+	@Param({ "10", "100", "1000" })
+	public int groupSize;
+	
+	@Param({ "all", "projected" })
+	public String fields;
+	
+	private ProtoParser parser;
+	private ByteBuffer bb;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		bb = ByteBuffer.allocateDirect(1024 * 1024);
+		BenchMessages.create("MarketDataMessage", groupSize).write(bb);
+		bb.flip();
+		parser = BenchMessages.newParser(new MarketDataMessage());
+		if (fields.equals("projected")) {
+			parser.setProjection(MarketDataMessage.TYPE, MarketDataMessage.SUBTYPE, (short) 0, "symbolId", "mqReqId", "lastTradePrice");
+		} else {
+			parser.setProjection(MarketDataMessage.TYPE, MarketDataMessage.SUBTYPE, (short) 0, AbstractProto.ALL_FIELDS);
+		}
+	}
+	
+	@Benchmark
+	public Proto parse() {
+		bb.position(0);
+		return parser.parse(bb);
+	}
+}
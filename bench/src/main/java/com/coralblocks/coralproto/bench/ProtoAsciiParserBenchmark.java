@@ -0,0 +1,85 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoAsciiParser;
+import com.coralblocks.coralproto.ProtoParser;
+
+/**
+ * Compares parsing a message back from the ascii of <code>writeAscii</code> (a line of a log) with a <code>ProtoAsciiParser</code> against
+ * parsing the same message from its binary with a <code>ProtoParser</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtoAsciiParserBenchmark {
+	
+	@Param({ "PriceChangeMessage", "MarketDataMessage" })
+	public String message;
+	
+	@Param({ "1", "10", "100" })
+	public int groupSize;
+	
+	private ByteBuffer asciiBuffer;
+	private ByteBuffer binaryBuffer;
+	private ProtoAsciiParser asciiParser;
+	private ProtoParser parser;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		Proto proto = BenchMessages.create(message, groupSize);
+		asciiBuffer = ByteBuffer.allocateDirect(1024 * 1024);
+		proto.writeAscii(true, asciiBuffer);
+		asciiBuffer.flip();
+		binaryBuffer = ByteBuffer.allocateDirect(1024 * 1024);
+		proto.write(binaryBuffer);
+		binaryBuffer.flip();
+		asciiParser = new ProtoAsciiParser(BenchMessages.newParser(BenchMessages.newInstance(message)));
+		parser = BenchMessages.newParser(BenchMessages.newInstance(message));
+	}
+	
+	@Benchmark
+	public Proto parseAscii() {
+		asciiBuffer.position(0);
+		return asciiParser.parse(asciiBuffer);
+	}
+	
+	@Benchmark
+	public Proto parse() {
+		binaryBuffer.position(0);
+		return parser.parse(binaryBuffer);
+	}
+}
@@ -0,0 +1,103 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoLogger;
+import com.coralblocks.coralproto.ProtoParser;
+import com.coralblocks.coralproto.ProtoParserFactory;
+import com.coralblocks.coralproto.ProtoQueue;
+
+/**
+ * Compares the cost on the calling thread of logging a message with a <code>ProtoLogger</code> (binary copy into its queue) against
+ * calling <code>writeAscii</code> on the calling thread. When the background thread cannot keep up the messages are dropped, so the number of
+ * messages dropped is printed at the end of each trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtoLoggerBenchmark {
+	
+	@Param({ "MarketDataMessage" })
+	public String message;
+	
+	@Param({ "1", "10", "100" })
+	public int groupSize;
+	
+	private Proto proto;
+	private ByteBuffer asciiBuffer;
+	private File dir;
+	private ProtoLogger logger;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		proto = BenchMessages.create(message, groupSize);
+		asciiBuffer = ByteBuffer.allocateDirect(1024 * 1024);
+		dir = Files.createTempDirectory("logger").toFile();
+		final String message = this.message;
+		ProtoParserFactory factory = new ProtoParserFactory(new ProtoParser() { // new instances for the background thread
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { BenchMessages.newInstance(message) };
+			}
+		});
+		logger = new ProtoLogger(dir, message, 256 * 1024 * 1024, factory, 64 * 1024 * 1024, 1024 * 1024, true, ProtoQueue.BACKOFF);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		logger.close();
+		System.out.println("\nLogged: " + logger.getLogged() + " Dropped: " + logger.getDropped());
+		File[] files = dir.listFiles();
+		if (files != null) for(File f : files) f.delete();
+		dir.delete();
+	}
+	
+	@Benchmark
+	public boolean log() {
+		return logger.log(proto);
+	}
+	
+	@Benchmark
+	public ByteBuffer writeAscii() {
+		asciiBuffer.clear();
+		proto.writeAscii(true, asciiBuffer);
+		return asciiBuffer;
+	}
+}
@@ -0,0 +1,150 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.io.File;
+import java.util.Arrays;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+import com.coralblocks.coralproto.ProtoQueue;
+
+/**
+ * Measures the round-trip latency of a <code>PriceChangeMessage</code> going through two {@link ProtoQueue}s between two JVMs: this one (ping)
+ * sends the message and the other one (pong), started by this one, parses it and sends it back. It prints the percentiles and a histogram
+ * of the round-trip times. This is not a JMH benchmark, since JMH does not measure two processes.
+ * 
+ * <pre>
+ * $ java -cp target/benchmarks.jar com.coralblocks.coralproto.bench.QueuePingPong &lt;MESSAGES&gt; &lt;GROUP_SIZE&gt; &lt;busySpin|backoff&gt; &lt;DIR&gt;
+ * </pre>
+ */
+public class QueuePingPong {
+	
+	private static final int CAPACITY = 1024 * 1024;
+	
+	public static void main(String[] args) throws Exception {
+		
+		if (args.length > 0 && args[0].equals("pong")) {
+			pong(new File(args[1]), args[2]);
+			return;
+		}
+		
+		int messages = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int groupSize = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		String wait = args.length > 2 ? args[2] : "busySpin";
+		File dir = new File(args.length > 3 ? args[3] : "/dev/shm");
+		
+		File ping = new File(dir, "coralproto-ping.queue");
+		File pong = new File(dir, "coralproto-pong.queue");
+		ping.delete();
+		pong.delete();
+		
+		Proto proto = BenchMessages.create("PriceChangeMessage", groupSize);
+		ProtoParser parser = BenchMessages.newParser(BenchMessages.newInstance("PriceChangeMessage"));
+		
+		try (ProtoQueue out = new ProtoQueue(ping, CAPACITY, getWaitStrategy(wait));
+			 ProtoQueue in = new ProtoQueue(pong, CAPACITY, getWaitStrategy(wait))) {
+			
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), QueuePingPong.class.getName(), "pong", dir.getPath(), wait)
+					.inheritIO().start();
+			
+			int warmup = Math.min(messages, 100_000);
+			long[] rtts = new long[messages];
+			
+			for(int i = -warmup; i < messages; i++) {
+				long start = System.nanoTime();
+				out.put(proto);
+				in.take(parser);
+				long rtt = System.nanoTime() - start;
+				if (i >= 0) rtts[i] = rtt;
+			}
+			
+			out.put(BenchMessages.create("ProtoMessage1", 0)); // tells the pong side to stop
+			process.waitFor();
+			
+			System.out.println("Round trips: " + messages + " (after " + warmup + " for warmup), message length: " + proto.getLength() + " bytes, wait: " + wait);
+			print(rtts);
+			
+		} finally {
+			ping.delete();
+			pong.delete();
+		}
+	}
+	
+	private static ProtoQueue.WaitStrategy getWaitStrategy(String wait) {
+		switch(wait) {
+			case "busySpin": return ProtoQueue.BUSY_SPIN;
+			case "backoff": return ProtoQueue.BACKOFF;
+			default: throw new IllegalArgumentException("Unknown wait strategy: " + wait);
+		}
+	}
+	
+	private static void pong(File dir, String wait) throws Exception {
+		
+		ProtoParser parser = BenchMessages.newParser(BenchMessages.newInstance("PriceChangeMessage"));
+		ProtoQueue.WaitStrategy waitStrategy = getWaitStrategy(wait);
+		
+		try (ProtoQueue in = new ProtoQueue(new File(dir, "coralproto-ping.queue"), CAPACITY, waitStrategy);
+			 ProtoQueue out = new ProtoQueue(new File(dir, "coralproto-pong.queue"), CAPACITY, waitStrategy)) {
+			
+			int attempt = 0;
+			
+			while(in.getUnknownMessages() == 0) { // until the stop message
+				Proto proto = in.poll(parser);
+				if (proto != null) {
+					out.put(proto);
+					attempt = 0;
+				} else {
+					waitStrategy.idle(attempt++);
+				}
+			}
+		}
+	}
+	
+	private static void print(long[] rtts) {
+		
+		Arrays.sort(rtts);
+		
+		double[] percentiles = { 50, 75, 90, 99, 99.9, 99.99, 99.999 };
+		
+		long sum = 0;
+		for(long rtt : rtts) sum += rtt;
+		System.out.println("Avg: " + (sum / rtts.length) + " ns");
+		System.out.println("Min: " + rtts[0] + " ns");
+		for(double p : percentiles) {
+			int index = (int) Math.min(rtts.length - 1, Math.ceil(p / 100 * rtts.length) - 1);
+			System.out.println(p + "%: " + rtts[Math.max(0, index)] + " ns");
+		}
+		System.out.println("Max: " + rtts[rtts.length - 1] + " ns");
+		
+		// histogram with a bucket for each power of two
+		System.out.println();
+		int i = 0;
+		long lower = 0;
+		for(long upper = 64; i < rtts.length; lower = upper, upper *= 2) {
+			int count = 0;
+			while(i < rtts.length && rtts[i] < upper) {
+				count++;
+				i++;
+			}
+			if (count == 0) continue;
+			StringBuilder bar = new StringBuilder();
+			for(int j = 0; j < Math.max(1, 50L * count / rtts.length); j++) bar.append('#');
+			System.out.printf("%12d - %12d ns: %10d (%7.3f%%) %s%n", lower, upper, count, 100.0 * count / rtts.length, bar);
+		}
+	}
+}
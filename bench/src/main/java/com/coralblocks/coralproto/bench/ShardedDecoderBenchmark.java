@@ -0,0 +1,103 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.ProtoParserFactory;
+import com.coralblocks.coralproto.ProtoQueue;
+import com.coralblocks.coralproto.ShardedProtoDecoder;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+
+/**
+ * Measures the throughput of a {@link ShardedProtoDecoder} parsing <code>MarketDataMessage</code>s (with groups of 10 elements) of 1024 different
+ * symbols with 1, 2, 4 and 8 worker threads. Each operation is one message routed, parsed and handed to the listener. It scales with the number of
+ * workers as long as there are free cores for them (plus one for the thread routing the messages).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedDecoderBenchmark {
+	
+	private static final int BATCH = 10_000;
+	private static final int SYMBOLS = 1024;
+	private static final int STRIDE = 16; // each counter in its own cache line
+	
+	@Param({ "1", "2", "4", "8" })
+	public int workers;
+	
+	private ByteBuffer[] messages;
+	private AtomicLongArray received;
+	private ShardedProtoDecoder decoder;
+	private long expected;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		MarketDataMessage proto = (MarketDataMessage) BenchMessages.create("MarketDataMessage", 10);
+		messages = new ByteBuffer[SYMBOLS];
+		for(int i = 0; i < SYMBOLS; i++) {
+			proto.symbolId.set(i);
+			messages[i] = ByteBuffer.allocateDirect(proto.getLength());
+			proto.write(messages[i]);
+			messages[i].flip();
+		}
+		received = new AtomicLongArray(workers * STRIDE);
+		decoder = new ShardedProtoDecoder(new ProtoParserFactory(BenchMessages.newParser(new MarketDataMessage())), workers, 1024 * 1024,
+				buf -> buf.getLong(buf.position() + MarketDataMessage.SYMBOL_ID_OFFSET),
+				(worker, p) -> received.lazySet(worker * STRIDE, received.get(worker * STRIDE) + 1), ProtoQueue.BUSY_SPIN);
+		expected = 0;
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		decoder.close();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long decode() {
+		for(int i = 0; i < BATCH; i++) {
+			decoder.decode(messages[i & (SYMBOLS - 1)]);
+		}
+		expected += BATCH;
+		long total;
+		do { // waits for the workers to parse the whole batch
+			total = 0;
+			for(int i = 0; i < workers; i++) total += received.get(i * STRIDE);
+		} while(total < expected);
+		return total;
+	}
+}
@@ -0,0 +1,96 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.UnalignedAccessTest;
+
+/**
+ * Measures the unaligned loads and stores of the leading fixed-size fields of <code>SampleProtoMessage</code> and of a <code>DIRECT_ACCESS</code>
+ * message (<code>BlockMessage</code> from the test sources) in both byte orders, with heap and direct buffers, and compares them with
+ * <code>LoopBlockMessage</code>, the same schema going field by field through the <code>ProtoField</code> loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnalignedAccessBenchmark {
+	
+	@Param({ "SampleProtoMessage", "BlockMessage", "LoopBlockMessage" })
+	public String message;
+	
+	@Param({ "BIG_ENDIAN", "LITTLE_ENDIAN" })
+	public String order;
+	
+	@Param({ "heap", "direct" })
+	public String buffer;
+	
+	private Proto proto;
+	private ByteBuffer bb;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		bb = buffer.equals("heap") ? ByteBuffer.allocate(1024) : ByteBuffer.allocateDirect(1024);
+		bb.order(order.equals("BIG_ENDIAN") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+		if (message.equals("SampleProtoMessage")) {
+			proto = BenchMessages.create(message, 0);
+		} else {
+			UnalignedAccessTest.BlockMessage block = new UnalignedAccessTest.BlockMessage();
+			block.symbolId.set(1111L);
+			block.priceLevel.set(200.55);
+			block.qty.set(800);
+			block.side.set((short) 1);
+			block.rate.set(1.125f);
+			block.symbolDesc.set("IBM");
+			block.lastQty.set(300L);
+			if (message.equals("BlockMessage")) {
+				proto = block;
+			} else {
+				proto = new UnalignedAccessTest.LoopBlockMessage();
+				BenchMessages.copy(block, proto, bb);
+			}
+		}
+	}
+	
+	@Benchmark
+	public Proto writeAndRead() {
+		bb.clear();
+		proto.write(bb);
+		bb.flip();
+		bb.position(4); // type, subtype and version
+		proto.read(bb);
+		return proto;
+	}
+}
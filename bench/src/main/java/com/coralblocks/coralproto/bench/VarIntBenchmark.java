@@ -0,0 +1,88 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coralblocks.coralproto.Proto;
+import com.coralblocks.coralproto.ProtoParser;
+
+/**
+ * Size versus CPU: <code>MarketDataMessage</code> (fixed-size integers and short group counts) against <code>CompactMarketDataMessage</code>
+ * (the same schema with varints). The size of each message on the wire is printed when the trial starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VarIntBenchmark {
+	
+	@Param({ "MarketDataMessage", "CompactMarketDataMessage" })
+	public String message;
+	
+	@Param({ "1", "10", "100" })
+	public int groupSize;
+	
+	private Proto proto;
+	private ProtoParser parser;
+	private ByteBuffer writeBuffer;
+	private ByteBuffer readBuffer;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		proto = BenchMessages.create(message, groupSize);
+		parser = BenchMessages.newParser(BenchMessages.newInstance(message));
+		writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+		readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+		proto.write(readBuffer);
+		readBuffer.flip();
+		System.out.println("\n" + message + " with groupSize=" + groupSize + ": " + proto.getLength() + " bytes on the wire");
+	}
+	
+	@Benchmark
+	public int write() {
+		writeBuffer.clear();
+		proto.write(writeBuffer);
+		return writeBuffer.position();
+	}
+	
+	@Benchmark
+	public Proto parse() {
+		readBuffer.position(0);
+		return parser.parse(readBuffer);
+	}
+	
+	@Benchmark
+	public int getLength() {
+		return proto.getLength();
+	}
+}
@@ -27,12 +27,28 @@ import com.coralblocks.coralproto.field.VarChars;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
 import com.coralblocks.coralproto.util.ByteBufferUtils;
 import com.coralblocks.coralproto.util.CharUtils;
+import com.coralblocks.coralproto.util.PresenceBitmapUtils;
 
 public abstract class AbstractProto implements Proto {
 	
 	public static final byte SEPARATOR = '|';
 	
+	/**
+	 * The projection that reads all the fields of the message (the default).
+	 */
+	public static final long ALL_FIELDS = -1L;
+	
+	private static final int NOT_COMPUTED = -2;
+	
 	private final List<ProtoField> protoFields = new ArrayList<ProtoField>(16);
+	// The leading fields with a fixed size have fixed offsets. This is computed once, on first use, because the fields add themselves
+	// to the proto before they are fully constructed.
+	private int fixedFields = NOT_COMPUTED;
+	private int fixedLength; // type + subtype + version + the fixed-size leading fields
+	private int[] fixedOffsets;
+	private int bitmapSize; // the size of the presence bitmap (zero when the optional fields have a presence byte)
+	private long projection = ALL_FIELDS;
+	private ProtoCodec codec; // the generated straight-line code for the fields (see ProtoParser.useGeneratedCodecs()) or null to use the loops
 	private char typeField = 0;
 	private char subtypeField = 0;
 	private short versionField = 0;
@@ -53,6 +69,74 @@ public abstract class AbstractProto implements Proto {
 	
 	public final void add(ProtoField protoField) {
 		protoFields.add(protoField);
+		fixedFields = NOT_COMPUTED;
+		codec = null;
+	}
+	
+	final void setCodec(ProtoCodec codec) {
+		this.codec = codec;
+	}
+	
+	final boolean hasCodec() {
+		return codec != null;
+	}
+	
+	/**
+	 * Returns true if the presence of the optional fields goes on the wire as a bitmap right after the type, subtype and version, instead of
+	 * a <code>'Y'</code>/<code>'N'</code> byte before each optional field. The generated code overrides it when the schema has
+	 * <code>PRESENCE_BITMAP = true</code>.
+	 * 
+	 * @return true if this message has a presence bitmap
+	 */
+	protected boolean hasPresenceBitmap() {
+		return false;
+	}
+	
+	private final void computeLayout() {
+		int size = protoFields.size();
+		int[] offsets = new int[size];
+		int optionals = 0;
+		for(int i = 0; i < size; i++) {
+			if (protoFields.get(i).isOptional()) optionals++;
+		}
+		this.bitmapSize = hasPresenceBitmap() ? PresenceBitmapUtils.size(optionals) : 0;
+		int len = 4 + bitmapSize; // type + subtype + version + presence bitmap
+		int i = 0;
+		for(; i < size; i++) {
+			int fixedSize = protoFields.get(i).fixedSize();
+			if (fixedSize < 0) break;
+			offsets[i] = len;
+			len += fixedSize;
+		}
+		this.fixedOffsets = offsets;
+		this.fixedLength = len;
+		this.fixedFields = i;
+	}
+	
+	/**
+	 * Returns true if all the fields of this message have a fixed size, in other words, if its length never changes.
+	 * 
+	 * @return true if this message has a fixed length
+	 */
+	public final boolean isFixedLength() {
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		return fixedFields == protoFields.size();
+	}
+	
+	/**
+	 * Returns the position of the given field inside the message (starting from the type) if all the fields before it have a fixed size.
+	 * A field at a fixed offset can be read straight from the buffer without parsing the fields that come before it.
+	 * 
+	 * @param protoField a field of this message
+	 * @return the offset of the field or -1 if it depends on the contents of the message
+	 */
+	public final int getOffset(ProtoField protoField) {
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		for(int i = 0; i < fixedFields; i++) {
+			if (protoFields.get(i) == protoField) return fixedOffsets[i];
+		}
+		if (fixedFields < protoFields.size() && protoFields.get(fixedFields) == protoField) return fixedLength;
+		return -1;
 	}
 	
 	@Override
@@ -104,19 +188,174 @@ public abstract class AbstractProto implements Proto {
 	
 	@Override
 	public int getLength() {
-		int len = 4; // type + subtype + version
+		if (codec != null) return codec.getLength();
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		int len = fixedLength;
 		int size = protoFields.size();
-		for(int i = 0; i < size; i++) {
+		if (bitmapSize > 0) {
+			for(int i = fixedFields; i < size; i++) {
+				ProtoField protoField = protoFields.get(i);
+				len += protoField.isOptional() ? protoField.size() - 1 : protoField.size(); // no presence byte
+			}
+			return len;
+		}
+		for(int i = fixedFields; i < size; i++) {
 			len += protoFields.get(i).size();
 		}
 		return len;
 	}
 	
+	/**
+	 * Returns the number of fields of this message (a repeating group counts as one field).
+	 * 
+	 * @return the number of fields
+	 */
+	public final int getNumberOfFields() {
+		return protoFields.size();
+	}
+	
+	/**
+	 * Returns the field at the given position, in the order they go on the wire.
+	 * 
+	 * @param index the position of the field
+	 * @return the field at the given position
+	 */
+	public final ProtoField getField(int index) {
+		return protoFields.get(index);
+	}
+
+	/**
+	 * Copies the contents of another message of the same kind into this message, field by field, without encoding and parsing it through
+	 * a buffer. The chars and bytes fields are copied, so this message stays valid after the buffer wrapped by the other message is overwritten.
+	 * The projection is not taken into account: all the fields are copied.
+	 *
+	 * @param proto the message to copy from
+	 * @throws IllegalArgumentException if the other message does not have the same type, subtype, version and fields
+	 */
+	public void copyFrom(Proto proto) {
+		if (proto == this) return;
+		if (!(proto instanceof AbstractProto)) {
+			throw new IllegalArgumentException("Cannot copy " + proto.getClass().getSimpleName() + " into " + simpleClassName);
+		}
+		AbstractProto other = (AbstractProto) proto;
+		if (other.getClass() != getClass()) {
+			if (other.typeField != typeField || other.subtypeField != subtypeField || other.versionField != versionField) {
+				throw new IllegalArgumentException("Cannot copy " + other.simpleClassName + " into " + simpleClassName);
+			}
+		}
+		int size = protoFields.size();
+		if (other.protoFields.size() != size) {
+			throw new IllegalArgumentException("Cannot copy " + other.simpleClassName + " into " + simpleClassName + ": different number of fields");
+		}
+		for(int i = 0; i < size; i++) {
+			protoFields.get(i).copyFrom(other.protoFields.get(i));
+		}
+	}
+	
+	/**
+	 * Returns the position of a field, found by the name of its (public) java field, so this should be done once at startup.
+	 * 
+	 * @param fieldName the name of the field
+	 * @return the position of the field
+	 */
+	public final int getFieldIndex(String fieldName) {
+		Object value;
+		try {
+			value = getClass().getField(fieldName).get(this);
+		} catch(Exception e) {
+			throw new IllegalArgumentException("Cannot find field " + fieldName + " in " + simpleClassName, e);
+		}
+		for(int i = 0; i < protoFields.size(); i++) {
+			if (protoFields.get(i) == value) return i; // not indexOf, because two fields with the same value are equal
+		}
+		throw new IllegalArgumentException("Not a field of " + simpleClassName + ": " + fieldName);
+	}
+	
+	/**
+	 * Returns the projection for the given fields, in other words, a bitmask where the bit <i>i</i> is set when the field number <i>i</i> of this
+	 * message should be read. The fields are found by the name of their (public) java field, so this should be done once at startup.
+	 * 
+	 * @param fieldNames the names of the fields to read
+	 * @return the projection with the given fields
+	 */
+	public final long toProjection(String ... fieldNames) {
+		long mask = 0;
+		for(String fieldName : fieldNames) {
+			int index = getFieldIndex(fieldName);
+			if (index >= Long.SIZE) throw new IllegalArgumentException("Only the first " + Long.SIZE + " fields can be projected: " + fieldName);
+			mask |= 1L << index;
+		}
+		return mask;
+	}
+	
+	/**
+	 * Sets the fields that should be read by {@link #read(ByteBuffer)} and {@link #wrap(ByteBuffer)}. The other fields are skipped by length
+	 * arithmetic and keep their previous contents, so you must not use them. The fields after the 64th are always read.
+	 * 
+	 * @param projection the bitmask with the fields to read or ALL_FIELDS
+	 * @see #toProjection(String...)
+	 */
+	public final void setProjection(long projection) {
+		this.projection = projection;
+	}
+	
+	public final long getProjection() {
+		return projection;
+	}
+	
+	private final boolean isProjected(int index) {
+		return index >= Long.SIZE || (projection & (1L << index)) != 0;
+	}
+	
 	@Override
     public void read(ByteBuffer buf) {
+		if (codec != null && projection == ALL_FIELDS) {
+			codec.read(buf);
+			return;
+		}
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		if (bitmapSize > 0) {
+			readWithBitmap(buf, false);
+			return;
+		}
+		int size = protoFields.size();
+		if (projection == ALL_FIELDS) {
+			for(int i = 0; i < size; i++) {
+				read(buf, protoFields.get(i));
+			}
+		} else {
+			for(int i = 0; i < size; i++) {
+				if (isProjected(i)) {
+					read(buf, protoFields.get(i));
+				} else {
+					skip(buf, protoFields.get(i));
+				}
+			}
+		}
+	}
+
+	@Override
+	public void wrap(ByteBuffer buf) {
+		if (protoFields.isEmpty()) { // a hand-written message (no fields) reads itself in its own read
+			read(buf);
+			return;
+		}
+		if (codec != null && projection == ALL_FIELDS) {
+			codec.wrap(buf);
+			return;
+		}
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		if (bitmapSize > 0) {
+			readWithBitmap(buf, true);
+			return;
+		}
 		int size = protoFields.size();
 		for(int i = 0; i < size; i++) {
-			read(buf, protoFields.get(i));
+			if (isProjected(i)) {
+				wrap(buf, protoFields.get(i));
+			} else {
+				skip(buf, protoFields.get(i));
+			}
 		}
 	}
 
@@ -127,7 +366,31 @@ public abstract class AbstractProto implements Proto {
 		buf.put((byte) getSubtype());
 		buf.putShort(getVersion());
 		
+		if (codec != null) {
+			codec.write(buf);
+			return;
+		}
+		
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		
 		int size = protoFields.size();
+		
+		if (bitmapSize > 0) {
+			long bitmap = 0;
+			int bit = 0;
+			for(int i = 0; i < size; i++) {
+				ProtoField protoField = protoFields.get(i);
+				if (protoField.isOptional() && protoField.isPresent()) bitmap |= 1L << bit;
+				if (protoField.isOptional()) bit++;
+			}
+			PresenceBitmapUtils.write(buf, bitmap, bitmapSize);
+			for(int i = 0; i < size; i++) {
+				ProtoField protoField = protoFields.get(i);
+				if (protoField.isPresent()) protoField.writeTo(buf);
+			}
+			return;
+		}
+		
 		for(int i = 0; i < size; i++) {
 			write(buf, protoFields.get(i));
 		}
@@ -166,6 +429,52 @@ public abstract class AbstractProto implements Proto {
 		}
 	}
 	
+	/**
+	 * Reads the presence bitmap of this message. This is used by the auto-generated direct-access code.
+	 * 
+	 * @param buf the buffer to read from
+	 * @return the presence bitmap
+	 */
+	protected final long readPresenceBitmap(ByteBuffer buf) {
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		return PresenceBitmapUtils.read(buf, bitmapSize);
+	}
+	
+	/**
+	 * Writes the presence bitmap of this message. This is used by the auto-generated direct-access code.
+	 * 
+	 * @param buf the buffer to write to
+	 * @param bitmap the presence bitmap
+	 */
+	protected final void writePresenceBitmap(ByteBuffer buf, long bitmap) {
+		if (fixedFields == NOT_COMPUTED) computeLayout();
+		PresenceBitmapUtils.write(buf, bitmap, bitmapSize);
+	}
+	
+	private final void readWithBitmap(ByteBuffer buf, boolean wrap) {
+		long bitmap = PresenceBitmapUtils.read(buf, bitmapSize);
+		int bit = 0;
+		int size = protoFields.size();
+		for(int i = 0; i < size; i++) {
+			ProtoField protoField = protoFields.get(i);
+			boolean isPresent;
+			if (protoField.isOptional()) {
+				isPresent = (bitmap & (1L << bit++)) != 0;
+			} else {
+				isPresent = buf.hasRemaining();
+			}
+			if (!isProjected(i)) {
+				if (isPresent) protoField.skip(buf);
+			} else if (isPresent) {
+				if (wrap) protoField.wrapFrom(buf); else protoField.readFrom(buf);
+			} else if (protoField.isOptional()) {
+				protoField.markAsNotPresent();
+			} else {
+				protoField.reset();
+			}
+		}
+	}
+	
 	private final void read(ByteBuffer buf, ProtoField protoField) {
 		if (protoField.isOptional()) {
 			boolean isPresent = buf.hasRemaining() && buf.get() == 'Y';
@@ -183,6 +492,31 @@ public abstract class AbstractProto implements Proto {
 		}
 	}
 	
+	private final void wrap(ByteBuffer buf, ProtoField protoField) {
+		if (protoField.isOptional()) {
+			boolean isPresent = buf.hasRemaining() && buf.get() == 'Y';
+			if (isPresent) {
+				protoField.wrapFrom(buf);
+			} else {
+				protoField.markAsNotPresent();
+			}
+		} else {
+			if (buf.hasRemaining()) {
+				protoField.wrapFrom(buf);
+			} else {
+				protoField.reset();
+			}
+		}
+	}
+	
+	private final void skip(ByteBuffer buf, ProtoField protoField) {
+		if (protoField.isOptional()) {
+			if (buf.hasRemaining() && buf.get() == 'Y') protoField.skip(buf);
+		} else {
+			if (buf.hasRemaining()) protoField.skip(buf);
+		}
+	}
+	
 	private final void write(ByteBuffer buf, ProtoField protoField) {
 		if (protoField.isOptional()) {
 			if (protoField.isPresent()) {
@@ -234,8 +568,7 @@ public abstract class AbstractProto implements Proto {
 			sb.append(" | ");
 			for(int i = 0; i < protoFields.size(); i++) {
 				if (i > 0) sb.append(" ");
-				ProtoField f = protoFields.get(i);
-				sb.append(f.toString());
+				protoFields.get(i).appendTo(sb);
 			}
 			sb.append("}");
 		}
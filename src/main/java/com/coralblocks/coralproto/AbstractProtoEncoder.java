@@ -0,0 +1,302 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.enums.CharEnum;
+import com.coralblocks.coralproto.enums.IntEnum;
+import com.coralblocks.coralproto.enums.ShortEnum;
+import com.coralblocks.coralproto.enums.TwoCharEnum;
+import com.coralblocks.coralproto.util.DoubleUtils;
+import com.coralblocks.coralproto.util.FloatUtils;
+import com.coralblocks.coralproto.util.PresenceBitmapUtils;
+import com.coralblocks.coralproto.util.VarIntUtils;
+
+/**
+ * The base class of the encoder flyweights generated by the <code>IDL</code> (<code>ENCODER = true</code>). An encoder writes each value
+ * straight into the destination <code>ByteBuffer</code>, in the same wire format as {@link AbstractProto#write(ByteBuffer)}, so there are no
+ * field objects to fill and no <code>getLength()</code> to compute before sending.
+ * 
+ * The fields must be set in the same order they appear in the schema. Each field lands right after the previous one, so its offset is
+ * implied by the schema and the sizes of the previous fields. Out of order or missing fields are caught with an <code>IllegalStateException</code>.
+ * A repeating group is started by passing its number of elements and is then written element by element through its own encoder.
+ */
+public abstract class AbstractProtoEncoder {
+	
+	private final boolean isGroup;
+	private final char type;
+	private final char subtype;
+	private final short version;
+	private final int numberOfFields;
+	private ByteBuffer buf;
+	private int start;
+	private int next; // the index of the next field to be written
+	private int remaining; // the number of elements still to be written (groups only)
+	private AbstractProtoEncoder openGroup;
+	private int bitmapSize = 0; // the size of the presence bitmap (zero when the optional fields have a presence byte)
+	private int bitmapPosition;
+	
+	/**
+	 * Creates an encoder for a message.
+	 * 
+	 * @param type the type of the message
+	 * @param subtype the subtype of the message
+	 * @param version the version of the message
+	 * @param numberOfFields the number of fields of the message
+	 */
+	protected AbstractProtoEncoder(char type, char subtype, short version, int numberOfFields) {
+		this.isGroup = false;
+		this.type = type;
+		this.subtype = subtype;
+		this.version = version;
+		this.numberOfFields = numberOfFields;
+	}
+	
+	/**
+	 * Creates an encoder for the elements of a repeating group.
+	 * 
+	 * @param numberOfFields the number of fields of each element
+	 */
+	protected AbstractProtoEncoder(int numberOfFields) {
+		this.isGroup = true;
+		this.type = 0;
+		this.subtype = 0;
+		this.version = 0;
+		this.numberOfFields = numberOfFields;
+	}
+	
+	/**
+	 * Makes the optional fields go on the wire with a presence bitmap (<code>PRESENCE_BITMAP = true</code>) instead of a presence byte each.
+	 * The bitmap is reserved at the start of the message (or of each group element) and its bits are set by {@link #putPresent(int)}.
+	 * 
+	 * @param numberOfOptionalFields the number of optional fields of the message (or of each group element)
+	 */
+	protected final void usePresenceBitmap(int numberOfOptionalFields) {
+		this.bitmapSize = PresenceBitmapUtils.size(numberOfOptionalFields);
+	}
+	
+	private final void reservePresenceBitmap() {
+		bitmapPosition = buf.position();
+		for(int i = 0; i < bitmapSize; i++) buf.put((byte) 0);
+	}
+	
+	/**
+	 * Starts a new message at the current position of the given buffer, writing its type, subtype and version.
+	 * 
+	 * @param buf the destination buffer
+	 */
+	protected final void begin(ByteBuffer buf) {
+		if (isGroup) throw new IllegalStateException("A repeating group is started from its message!");
+		this.buf = buf;
+		this.start = buf.position();
+		this.next = 0;
+		this.openGroup = null;
+		buf.put((byte) type);
+		buf.put((byte) subtype);
+		buf.putShort(version);
+		if (bitmapSize > 0) reservePresenceBitmap();
+	}
+	
+	/**
+	 * Checks that all the fields were written and returns the length of the message, which is also the number of bytes written to the buffer.
+	 * 
+	 * @return the length of the message
+	 */
+	public final int finish() {
+		if (isGroup) throw new IllegalStateException("A repeating group is finished with its message!");
+		ensureComplete();
+		return buf.position() - start;
+	}
+	
+	protected final void next(int index) {
+		
+		if (openGroup != null) {
+			openGroup.ensureComplete();
+			openGroup = null;
+		}
+		
+		if (isGroup && index == 0) {
+			if (next != numberOfFields) {
+				throw new IllegalStateException(getClass().getSimpleName() + ": previous element is incomplete (next field is #" + next + ")");
+			}
+			if (remaining == 0) {
+				throw new IllegalStateException(getClass().getSimpleName() + ": all elements were already written");
+			}
+			remaining--;
+			next = 1;
+			if (bitmapSize > 0) reservePresenceBitmap();
+			return;
+		}
+		
+		if (index != next) {
+			throw new IllegalStateException(getClass().getSimpleName() + ": fields must be written in order (expected field #" + next + " but got #" + index + ")");
+		}
+		
+		next++;
+	}
+	
+	private final void ensureComplete() {
+		if (buf == null) throw new IllegalStateException(getClass().getSimpleName() + ": nothing was written");
+		if (openGroup != null) {
+			openGroup.ensureComplete();
+			openGroup = null;
+		}
+		if (remaining != 0) {
+			throw new IllegalStateException(getClass().getSimpleName() + ": " + remaining + " element(s) still to be written");
+		}
+		if (next != numberOfFields) {
+			throw new IllegalStateException(getClass().getSimpleName() + ": field #" + next + " was not written");
+		}
+	}
+	
+	protected final <E extends AbstractProtoEncoder> E beginGroup(E group, int numberOfElements) {
+		return beginGroup(group, numberOfElements, false);
+	}
+	
+	protected final <E extends AbstractProtoEncoder> E beginGroup(E group, int numberOfElements, boolean varintCount) {
+		if (numberOfElements < 0 || numberOfElements > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid number of elements for repeating group: " + numberOfElements);
+		}
+		if (varintCount) {
+			VarIntUtils.putUnsignedVarInt(buf, numberOfElements);
+		} else {
+			buf.putShort((short) numberOfElements);
+		}
+		AbstractProtoEncoder encoder = group;
+		encoder.beginElements(buf, numberOfElements);
+		this.openGroup = encoder;
+		return group;
+	}
+	
+	private final void beginElements(ByteBuffer buf, int numberOfElements) {
+		this.buf = buf;
+		this.remaining = numberOfElements;
+		this.next = numberOfFields; // as if the previous element was complete
+		this.openGroup = null;
+	}
+	
+	protected final void putPresent(boolean isPresent) {
+		buf.put(isPresent ? (byte) 'Y' : (byte) 'N');
+	}
+	
+	/**
+	 * Marks an optional field as present in the presence bitmap.
+	 * 
+	 * @param bit the number of the optional field, counting only the optional fields
+	 */
+	protected final void putPresent(int bit) {
+		PresenceBitmapUtils.set(buf, bitmapPosition, bit);
+	}
+	
+	protected final void putBoolean(boolean value) {
+		buf.put(value ? (byte) 'Y' : (byte) 'N');
+	}
+	
+	protected final void putByte(byte value) {
+		buf.put(value);
+	}
+	
+	protected final void putChar(char value) {
+		buf.put((byte) value);
+	}
+	
+	protected final void putShort(short value) {
+		buf.putShort(value);
+	}
+	
+	protected final void putInt(int value) {
+		buf.putInt(value);
+	}
+	
+	protected final void putLong(long value) {
+		buf.putLong(value);
+	}
+	
+	protected final void putVarInt(int value) {
+		VarIntUtils.putVarInt(buf, value);
+	}
+	
+	protected final void putVarLong(long value) {
+		VarIntUtils.putVarLong(buf, value);
+	}
+	
+	protected final void putDouble(double value) {
+		buf.putLong(DoubleUtils.toLong(value, DoubleUtils.DEFAULT_PRECISION));
+	}
+	
+	protected final void putDouble(double value, int precision) {
+		buf.putLong(DoubleUtils.toLong(value, precision));
+	}
+	
+	protected final void putFloat(float value) {
+		buf.putInt(FloatUtils.toInt(value, FloatUtils.DEFAULT_PRECISION));
+	}
+	
+	protected final void putFloat(float value, int precision) {
+		buf.putInt(FloatUtils.toInt(value, precision));
+	}
+	
+	protected final void putChars(CharSequence cs, int size) {
+		int len = cs.length();
+		if (len > size) {
+			throw new IllegalArgumentException("CharSequence is larger than field length: " + cs.toString() + " (" + size + ")");
+		}
+		for(int i = 0; i < len; i++) buf.put((byte) cs.charAt(i));
+		for(int i = len; i < size; i++) buf.put((byte) ' ');
+	}
+	
+	protected final void putVarChars(CharSequence cs, int maxLength) {
+		int len = cs.length();
+		if (len > maxLength) throw new RuntimeException("Size larger than maxLength: " + len + " (maxLength=" + maxLength + ")");
+		buf.putInt(len);
+		for(int i = 0; i < len; i++) buf.put((byte) cs.charAt(i));
+	}
+	
+	protected final void putBytes(byte[] array, int size) {
+		if (array.length != size) throw new IllegalArgumentException("Invalid array length: " + array.length);
+		buf.put(array);
+	}
+	
+	protected final void putVarBytes(byte[] array, int maxLength) {
+		if (array.length > maxLength) throw new IllegalArgumentException("Field length " + array.length + " exceeds maximum " + maxLength);
+		buf.putInt(array.length);
+		buf.put(array);
+	}
+	
+	protected final void putCharEnum(CharEnum value) {
+		if (value == null) throw new IllegalStateException("Cannot write a null value!");
+		buf.put((byte) value.getChar());
+	}
+	
+	protected final void putShortEnum(ShortEnum value) {
+		if (value == null) throw new IllegalStateException("Cannot write a null value!");
+		buf.putShort(value.getShort());
+	}
+	
+	protected final void putIntEnum(IntEnum value) {
+		if (value == null) throw new IllegalStateException("Cannot write a null value!");
+		buf.putInt(value.getInt());
+	}
+	
+	protected final void putTwoCharEnum(TwoCharEnum value) {
+		if (value == null) throw new IllegalStateException("Cannot write a null value!");
+		String s = value.getString();
+		if (s.length() != 2) throw new IllegalStateException("TwoChar value can only have two chars: size=" + s.length() + " [" + s + "]");
+		buf.put((byte) s.charAt(0));
+		buf.put((byte) s.charAt(1));
+	}
+}
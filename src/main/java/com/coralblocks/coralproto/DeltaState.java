@@ -0,0 +1,123 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.FloatField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ProtoField;
+
+/**
+ * The last message seen for a key by a {@link ProtoDeltaEncoder} or a {@link ProtoDeltaDecoder}, kept in its wire format together with the
+ * position and the length of each field (including the presence byte of the optional fields). It also has the helpers shared by the encoder
+ * and the decoder.
+ */
+final class DeltaState {
+	
+	final int[] offsets;
+	final int[] lengths;
+	ByteBuffer data;
+	
+	DeltaState(int numberOfFields, int capacity) {
+		this.offsets = new int[numberOfFields];
+		this.lengths = new int[numberOfFields];
+		this.data = ByteBuffer.allocate(capacity);
+	}
+	
+	/*
+	 * Copies the message (and the layout of its fields) that was built in the given buffer, starting at its position zero.
+	 */
+	void copyFrom(ByteBuffer src, int length, int[] srcOffsets, int[] srcLengths) {
+		if (data.capacity() < length) data = ByteBuffer.allocate(Math.max(length, data.capacity() * 2));
+		data.put(0, src, 0, length);
+		System.arraycopy(srcOffsets, 0, offsets, 0, offsets.length);
+		System.arraycopy(srcLengths, 0, lengths, 0, lengths.length);
+	}
+	
+	/*
+	 * Returns the size of the value of a field that can be sent as an arithmetic delta (8 or 4) or 0 if the field cannot.
+	 */
+	static int getDeltaSize(ProtoField protoField) {
+		if (protoField instanceof LongField || protoField instanceof DoubleField) return 8; // a double goes on the wire as a long
+		if (protoField instanceof IntField || protoField instanceof FloatField) return 4; // a float goes on the wire as an int
+		return 0;
+	}
+	
+	/*
+	 * Moves the position of the given buffer past a field written by AbstractProto (including its presence byte).
+	 */
+	static void skip(ByteBuffer buf, ProtoField protoField) {
+		if (protoField.isOptional()) {
+			if (buf.get() == 'Y') protoField.skip(buf);
+		} else {
+			protoField.skip(buf);
+		}
+	}
+	
+	/*
+	 * Finds the position and the length of every field of a message written (with its type, subtype and version) at the position zero of the given buffer.
+	 */
+	static void layout(AbstractProto proto, ByteBuffer buf, int[] offsets, int[] lengths) {
+		buf.position(4); // type + subtype + version
+		for(int i = 0; i < offsets.length; i++) {
+			int start = buf.position();
+			skip(buf, proto.getField(i));
+			offsets[i] = start;
+			lengths[i] = buf.position() - start;
+		}
+	}
+	
+	/*
+	 * Reads the value of a field that can be sent as a delta (the value is at the end, after the presence byte of an optional field).
+	 */
+	static long getValue(ByteBuffer buf, int offset, int length, int deltaSize) {
+		int pos = offset + length - deltaSize;
+		return deltaSize == 8 ? buf.getLong(pos) : buf.getInt(pos);
+	}
+	
+	static void putValue(ByteBuffer buf, int offset, int length, int deltaSize, long value) {
+		int pos = offset + length - deltaSize;
+		if (deltaSize == 8) {
+			buf.putLong(pos, value);
+		} else {
+			buf.putInt(pos, (int) value);
+		}
+	}
+	
+	static boolean equals(ByteBuffer buf1, int offset1, int length1, ByteBuffer buf2, int offset2, int length2) {
+		if (length1 != length2) return false;
+		int i = 0;
+		for(; i + 8 <= length1; i += 8) {
+			if (buf1.getLong(offset1 + i) != buf2.getLong(offset2 + i)) return false;
+		}
+		for(; i < length1; i++) {
+			if (buf1.get(offset1 + i) != buf2.get(offset2 + i)) return false;
+		}
+		return true;
+	}
+	
+	/*
+	 * Appends length bytes of src, starting at offset, to dst.
+	 */
+	static void append(ByteBuffer dst, ByteBuffer src, int offset, int length) {
+		int pos = dst.position();
+		dst.put(pos, src, offset, length);
+		dst.position(pos + length);
+	}
+}
@@ -0,0 +1,533 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.field.BooleanField;
+import com.coralblocks.coralproto.field.ByteField;
+import com.coralblocks.coralproto.field.BytesField;
+import com.coralblocks.coralproto.field.CharField;
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.FloatField;
+import com.coralblocks.coralproto.field.GroupField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.RepeatingGroupField;
+import com.coralblocks.coralproto.field.ShortField;
+import com.coralblocks.coralproto.field.VarBytesField;
+import com.coralblocks.coralproto.field.VarCharsField;
+import com.coralblocks.coralproto.field.VarIntField;
+import com.coralblocks.coralproto.field.VarLongField;
+
+/**
+ * <p>A message defined at runtime, from the text of its IDL or from its {@link ProtoSchema}, without generating and compiling a class. It has the
+ * same fields and the same wire format as the generated class, so both can talk to each other, and it can be used in a {@link ProtoParser}
+ * along with the generated messages (each parser needs its own instance, but the schema can be shared).</p>
+ * 
+ * <p>The fields are accessed by their handle, which is their position in the message (see {@link #getHandle(String)}), through accessors for
+ * each primitive type, like <code>getLong(handle)</code> and <code>setInt(handle, value)</code>, with no boxing and no allocation. The handles
+ * should be found once, at startup. A repeating group is a {@link Group}, with the same accessors for the fields of its current element.</p>
+ * 
+ * <p>The enum fields have no enum class behind them, so they are accessed through their code on the wire: a <code>char</code> for a
+ * <code>charEnum</code>, a <code>short</code> for a <code>shortEnum</code>, an <code>int</code> for an <code>intEnum</code> and chars for a
+ * <code>twoCharEnum</code>.</p>
+ */
+public final class DynamicProto extends AbstractProto {
+	
+	private final ProtoSchema schema;
+	private final ProtoField[] fields;
+	
+	/**
+	 * Creates a message from the text of its IDL.
+	 * 
+	 * @param idl the IDL of the message
+	 */
+	public DynamicProto(String idl) {
+		this(new IDL(idl).getSchema());
+	}
+	
+	/**
+	 * Creates a message from its schema.
+	 * 
+	 * @param schema the schema of the message (it must have a type and a subtype)
+	 */
+	public DynamicProto(ProtoSchema schema) {
+		if (schema.getType() == 0 || schema.getSubtype() == 0) throw new IllegalArgumentException("The schema has no type and subtype: " + schema);
+		this.schema = schema;
+		setType(schema.getType());
+		setSubtype(schema.getSubtype());
+		setVersion(schema.getVersion());
+		this.fields = newFields(schema, this);
+	}
+	
+	@Override
+	protected boolean hasPresenceBitmap() {
+		return schema.getPresenceBitmapSize() > 0;
+	}
+	
+	public final ProtoSchema getSchema() {
+		return schema;
+	}
+	
+	/**
+	 * Returns the handle of a field, found by its name, so this should be done once at startup.
+	 * 
+	 * @param name the name of the field
+	 * @return the handle of the field
+	 */
+	public final int getHandle(String name) {
+		return schema.getFieldIndex(name);
+	}
+	
+	public final boolean isPresent(int handle) {
+		return fields[handle].isPresent();
+	}
+	
+	public final void markAsNotPresent(int handle) {
+		fields[handle].markAsNotPresent();
+	}
+	
+	public final boolean getBoolean(int handle) {
+		return getBoolean(fields, handle);
+	}
+	
+	public final void setBoolean(int handle, boolean value) {
+		setBoolean(fields, handle, value);
+	}
+	
+	public final byte getByte(int handle) {
+		return getByte(fields, handle);
+	}
+	
+	public final void setByte(int handle, byte value) {
+		setByte(fields, handle, value);
+	}
+	
+	public final char getChar(int handle) {
+		return getChar(fields, handle);
+	}
+	
+	public final void setChar(int handle, char value) {
+		setChar(fields, handle, value);
+	}
+	
+	public final short getShort(int handle) {
+		return getShort(fields, handle);
+	}
+	
+	public final void setShort(int handle, short value) {
+		setShort(fields, handle, value);
+	}
+	
+	public final int getInt(int handle) {
+		return getInt(fields, handle);
+	}
+	
+	public final void setInt(int handle, int value) {
+		setInt(fields, handle, value);
+	}
+	
+	public final long getLong(int handle) {
+		return getLong(fields, handle);
+	}
+	
+	public final void setLong(int handle, long value) {
+		setLong(fields, handle, value);
+	}
+	
+	public final float getFloat(int handle) {
+		return getFloat(fields, handle);
+	}
+	
+	public final void setFloat(int handle, float value) {
+		setFloat(fields, handle, value);
+	}
+	
+	public final double getDouble(int handle) {
+		return getDouble(fields, handle);
+	}
+	
+	public final void setDouble(int handle, double value) {
+		setDouble(fields, handle, value);
+	}
+	
+	public final CharSequence getChars(int handle) {
+		return getChars(fields, handle);
+	}
+	
+	public final void setChars(int handle, CharSequence value) {
+		setChars(fields, handle, value);
+	}
+	
+	public final ByteBuffer getBytes(int handle) {
+		return getBytes(fields, handle);
+	}
+	
+	public final void setBytes(int handle, ByteBuffer value) {
+		setBytes(fields, handle, value);
+	}
+	
+	public final void setBytes(int handle, byte[] value) {
+		setBytes(fields, handle, ByteBuffer.wrap(value));
+	}
+	
+	public final Group getGroup(int handle) {
+		return getGroup(fields, handle);
+	}
+	
+	/**
+	 * <p>A repeating group of a {@link DynamicProto}. The accessors work on its current element, in other words, the last one returned by
+	 * {@link #nextElement()}, {@link #iterNext()} or {@link #selectElement(int)}.</p>
+	 * 
+	 * <p>After a message is parsed, the current element is the last one, as with the generated classes.</p>
+	 */
+	public static final class Group extends RepeatingGroupField {
+		
+		private final ProtoSchema schema;
+		private ProtoField[] current;
+		
+		Group(AbstractProto proto, ProtoSchema schema) {
+			this(proto, schema, newFields(schema, null));
+		}
+		
+		private Group(AbstractProto proto, ProtoSchema schema, ProtoField[] protoFields) {
+			super(proto, schema.hasVarintCounts(), schema.getPresenceBitmapSize() > 0, protoFields);
+			this.schema = schema;
+			this.current = protoFields;
+		}
+		
+		@Override
+		protected RepeatingGroupField newInstance(ProtoField[] protoFields) {
+			return new Group(null, schema, protoFields);
+		}
+		
+		@Override
+		public GroupField nextElement() {
+			GroupField groupField = super.nextElement();
+			current = groupField.internalArray();
+			return groupField;
+		}
+		
+		@Override
+		public GroupField iterNext() {
+			GroupField groupField = super.iterNext();
+			if (groupField != null) current = groupField.internalArray();
+			return groupField;
+		}
+		
+		/**
+		 * Makes the element at the given position the current one, without moving the iteration.
+		 * 
+		 * @param index the position of the element
+		 * @return this group
+		 */
+		public final Group selectElement(int index) {
+			current = getElement(index).internalArray();
+			return this;
+		}
+		
+		/**
+		 * Returns the schema of the elements of this group.
+		 * 
+		 * @return the schema of the elements
+		 */
+		public final ProtoSchema getSchema() {
+			return schema;
+		}
+		
+		/**
+		 * Returns the handle of a field of the elements, found by its name, so this should be done once at startup.
+		 * 
+		 * @param name the name of the field
+		 * @return the handle of the field
+		 */
+		public final int getHandle(String name) {
+			return schema.getFieldIndex(name);
+		}
+		
+		public final boolean isPresent(int handle) {
+			return current[handle].isPresent();
+		}
+		
+		public final void markAsNotPresent(int handle) {
+			current[handle].markAsNotPresent();
+		}
+		
+		public final boolean getBoolean(int handle) {
+			return DynamicProto.getBoolean(current, handle);
+		}
+		
+		public final void setBoolean(int handle, boolean value) {
+			DynamicProto.setBoolean(current, handle, value);
+		}
+		
+		public final byte getByte(int handle) {
+			return DynamicProto.getByte(current, handle);
+		}
+		
+		public final void setByte(int handle, byte value) {
+			DynamicProto.setByte(current, handle, value);
+		}
+		
+		public final char getChar(int handle) {
+			return DynamicProto.getChar(current, handle);
+		}
+		
+		public final void setChar(int handle, char value) {
+			DynamicProto.setChar(current, handle, value);
+		}
+		
+		public final short getShort(int handle) {
+			return DynamicProto.getShort(current, handle);
+		}
+		
+		public final void setShort(int handle, short value) {
+			DynamicProto.setShort(current, handle, value);
+		}
+		
+		public final int getInt(int handle) {
+			return DynamicProto.getInt(current, handle);
+		}
+		
+		public final void setInt(int handle, int value) {
+			DynamicProto.setInt(current, handle, value);
+		}
+		
+		public final long getLong(int handle) {
+			return DynamicProto.getLong(current, handle);
+		}
+		
+		public final void setLong(int handle, long value) {
+			DynamicProto.setLong(current, handle, value);
+		}
+		
+		public final float getFloat(int handle) {
+			return DynamicProto.getFloat(current, handle);
+		}
+		
+		public final void setFloat(int handle, float value) {
+			DynamicProto.setFloat(current, handle, value);
+		}
+		
+		public final double getDouble(int handle) {
+			return DynamicProto.getDouble(current, handle);
+		}
+		
+		public final void setDouble(int handle, double value) {
+			DynamicProto.setDouble(current, handle, value);
+		}
+		
+		public final CharSequence getChars(int handle) {
+			return DynamicProto.getChars(current, handle);
+		}
+		
+		public final void setChars(int handle, CharSequence value) {
+			DynamicProto.setChars(current, handle, value);
+		}
+		
+		public final ByteBuffer getBytes(int handle) {
+			return DynamicProto.getBytes(current, handle);
+		}
+		
+		public final void setBytes(int handle, ByteBuffer value) {
+			DynamicProto.setBytes(current, handle, value);
+		}
+		
+		public final void setBytes(int handle, byte[] value) {
+			DynamicProto.setBytes(current, handle, ByteBuffer.wrap(value));
+		}
+		
+		public final Group getGroup(int handle) {
+			return DynamicProto.getGroup(current, handle);
+		}
+	}
+	
+	private static ProtoField[] newFields(ProtoSchema schema, AbstractProto proto) {
+		ProtoField[] fields = new ProtoField[schema.getNumberOfFields()];
+		for(int i = 0; i < fields.length; i++) {
+			fields[i] = newField(schema.getField(i), proto);
+		}
+		return fields;
+	}
+	
+	private static ProtoField newField(ProtoSchema.Field field, AbstractProto proto) {
+		boolean isOptional = field.isOptional();
+		int size = field.getSize();
+		switch(field.getType()) {
+			case BOOLEAN: return new BooleanField(proto, isOptional);
+			case BYTE: return new ByteField(proto, isOptional);
+			case CHAR:
+			case CHAR_ENUM: return new CharField(proto, isOptional);
+			case SHORT:
+			case SHORT_ENUM: return new ShortField(proto, isOptional);
+			case INT:
+			case INT_ENUM: return new IntField(proto, isOptional);
+			case LONG: return new LongField(proto, isOptional);
+			case FLOAT: return new FloatField(proto, size, isOptional);
+			case DOUBLE: return new DoubleField(proto, size, isOptional);
+			case VARINT: return new VarIntField(proto, isOptional);
+			case VARLONG: return new VarLongField(proto, isOptional);
+			case CHARS: return new CharsField(proto, size, isOptional);
+			case TWO_CHAR_ENUM: return new CharsField(proto, 2, isOptional);
+			case VARCHARS: return new VarCharsField(proto, size, isOptional);
+			case BYTES: return new BytesField(proto, size, isOptional);
+			case VARBYTES: return new VarBytesField(proto, size, isOptional);
+			case GROUP: return new Group(proto, field.getGroup());
+			default: throw new IllegalArgumentException("Unsupported field: " + field);
+		}
+	}
+	
+	private static IllegalArgumentException wrongType(ProtoField[] fields, int handle, String type) {
+		return new IllegalArgumentException("Field " + handle + " is not " + type + ": " + fields[handle].getClass().getSimpleName());
+	}
+	
+	private static boolean getBoolean(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof BooleanField) return ((BooleanField) field).get();
+		throw wrongType(fields, handle, "a boolean");
+	}
+	
+	private static void setBoolean(ProtoField[] fields, int handle, boolean value) {
+		ProtoField field = fields[handle];
+		if (field instanceof BooleanField) ((BooleanField) field).set(value);
+		else throw wrongType(fields, handle, "a boolean");
+	}
+	
+	private static byte getByte(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof ByteField) return ((ByteField) field).get();
+		throw wrongType(fields, handle, "a byte");
+	}
+	
+	private static void setByte(ProtoField[] fields, int handle, byte value) {
+		ProtoField field = fields[handle];
+		if (field instanceof ByteField) ((ByteField) field).set(value);
+		else throw wrongType(fields, handle, "a byte");
+	}
+	
+	private static char getChar(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof CharField) return ((CharField) field).get();
+		throw wrongType(fields, handle, "a char");
+	}
+	
+	private static void setChar(ProtoField[] fields, int handle, char value) {
+		ProtoField field = fields[handle];
+		if (field instanceof CharField) ((CharField) field).set(value);
+		else throw wrongType(fields, handle, "a char");
+	}
+	
+	private static short getShort(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof ShortField) return ((ShortField) field).get();
+		throw wrongType(fields, handle, "a short");
+	}
+	
+	private static void setShort(ProtoField[] fields, int handle, short value) {
+		ProtoField field = fields[handle];
+		if (field instanceof ShortField) ((ShortField) field).set(value);
+		else throw wrongType(fields, handle, "a short");
+	}
+	
+	private static int getInt(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof IntField) return ((IntField) field).get();
+		if (field instanceof VarIntField) return ((VarIntField) field).get();
+		throw wrongType(fields, handle, "an int");
+	}
+	
+	private static void setInt(ProtoField[] fields, int handle, int value) {
+		ProtoField field = fields[handle];
+		if (field instanceof IntField) ((IntField) field).set(value);
+		else if (field instanceof VarIntField) ((VarIntField) field).set(value);
+		else throw wrongType(fields, handle, "an int");
+	}
+	
+	private static long getLong(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof LongField) return ((LongField) field).get();
+		if (field instanceof VarLongField) return ((VarLongField) field).get();
+		throw wrongType(fields, handle, "a long");
+	}
+	
+	private static void setLong(ProtoField[] fields, int handle, long value) {
+		ProtoField field = fields[handle];
+		if (field instanceof LongField) ((LongField) field).set(value);
+		else if (field instanceof VarLongField) ((VarLongField) field).set(value);
+		else throw wrongType(fields, handle, "a long");
+	}
+	
+	private static float getFloat(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof FloatField) return ((FloatField) field).get();
+		throw wrongType(fields, handle, "a float");
+	}
+	
+	private static void setFloat(ProtoField[] fields, int handle, float value) {
+		ProtoField field = fields[handle];
+		if (field instanceof FloatField) ((FloatField) field).set(value);
+		else throw wrongType(fields, handle, "a float");
+	}
+	
+	private static double getDouble(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof DoubleField) return ((DoubleField) field).get();
+		throw wrongType(fields, handle, "a double");
+	}
+	
+	private static void setDouble(ProtoField[] fields, int handle, double value) {
+		ProtoField field = fields[handle];
+		if (field instanceof DoubleField) ((DoubleField) field).set(value);
+		else throw wrongType(fields, handle, "a double");
+	}
+	
+	private static CharSequence getChars(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof CharsField) return ((CharsField) field).get();
+		if (field instanceof VarCharsField) return ((VarCharsField) field).get();
+		throw wrongType(fields, handle, "chars");
+	}
+	
+	private static void setChars(ProtoField[] fields, int handle, CharSequence value) {
+		ProtoField field = fields[handle];
+		if (field instanceof CharsField) ((CharsField) field).set(value);
+		else if (field instanceof VarCharsField) ((VarCharsField) field).set(value);
+		else throw wrongType(fields, handle, "chars");
+	}
+	
+	private static ByteBuffer getBytes(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof BytesField) return ((BytesField) field).get();
+		if (field instanceof VarBytesField) return ((VarBytesField) field).get();
+		throw wrongType(fields, handle, "bytes");
+	}
+	
+	private static void setBytes(ProtoField[] fields, int handle, ByteBuffer value) {
+		ProtoField field = fields[handle];
+		if (field instanceof BytesField) ((BytesField) field).set(value);
+		else if (field instanceof VarBytesField) ((VarBytesField) field).set(value);
+		else throw wrongType(fields, handle, "bytes");
+	}
+	
+	private static Group getGroup(ProtoField[] fields, int handle) {
+		ProtoField field = fields[handle];
+		if (field instanceof Group) return (Group) field;
+		throw wrongType(fields, handle, "a repeating group");
+	}
+}
@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.stream.Collectors;
 
+import com.coralblocks.coralproto.util.DoubleUtils;
+import com.coralblocks.coralproto.util.FloatUtils;
 import com.coralblocks.coralproto.util.IOUtils;
 import com.coralblocks.coralproto.util.RegexUtils;
 
@@ -225,8 +227,18 @@ public class IDL {
 	
 	public static final String INDENT = "    ";
 	
+	private static final String BYTE_BUFFER_IMPORT = "import java.nio.ByteBuffer;";
+	private static final String ENCODER_IMPORT = "import com.coralblocks.coralproto.AbstractProtoEncoder;";
+	
 	private final String idl;
 	private final StringBuilder code = new StringBuilder(2048);
+	private final boolean directAccess;
+	private final boolean encoder;
+	private final boolean varintCounts;
+	private final boolean presenceBitmap;
+	private short version;
+	private final Map<String, Object> map;
+	private ProtoSchema schema = null;
 	
 	public IDL(String idl) {
 		this(idl, INDENT);
@@ -234,16 +246,134 @@ public class IDL {
 	
 	public IDL(String idl, String indent) {
 		this.idl = idl;
-		parseTypeSubtypeAndVersion(idl, indent);
+		this.directAccess = Boolean.parseBoolean(find("DIRECT_ACCESS", false));
+		this.encoder = Boolean.parseBoolean(find("ENCODER", false));
+		this.varintCounts = Boolean.parseBoolean(find("VARINT_COUNTS", false));
+		this.presenceBitmap = Boolean.parseBoolean(find("PRESENCE_BITMAP", false));
+		if ((directAccess || encoder) && !imports.contains(BYTE_BUFFER_IMPORT)) imports.add(BYTE_BUFFER_IMPORT);
+		if (encoder && !imports.contains(ENCODER_IMPORT)) imports.add(ENCODER_IMPORT);
 		Queue<String> lines = parseLines(idl);
-		Map<String, Object> map = parseMap(lines, "");
+		this.map = parseMap(lines, "");
+		parseTypeSubtypeAndVersion(idl, indent, map);
 		configure(map, true, indent, null, "");
+		if (presenceBitmap) {
+			code.append(indent).append("@Override\n");
+			code.append(indent).append("protected boolean hasPresenceBitmap() {\n");
+			code.append(indent + INDENT).append("return true;\n");
+			code.append(indent).append("}\n\n");
+		}
+		if (directAccess) generateDirectAccess(map, indent);
+		if (encoder) generateEncoder(map, indent, "Encoder", false);
 	}
 	
 	public String getCode() {
 		return code.toString();
 	}
 	
+	/**
+	 * Returns the layout of the message on the wire described by this IDL, which can be used to handle the message without its generated class.
+	 * 
+	 * @return the schema of the message
+	 */
+	public ProtoSchema getSchema() {
+		if (schema == null) {
+			char type = find("TYPE", true).charAt(0);
+			char subtype = find("SUBTYPE", true).charAt(0);
+			schema = toSchema(map, type, subtype, version);
+		}
+		return schema;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ProtoSchema toSchema(Map<String, Object> map, char type, char subtype, short version) {
+		ProtoSchema.Field[] fields = new ProtoSchema.Field[map.size()];
+		int index = 0;
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			String name = entry.getKey();
+			Object value = entry.getValue();
+			if (value instanceof String) {
+				fields[index] = toSchemaField(index, name, (String) value);
+			} else {
+				ProtoSchema group = toSchema((Map<String, Object>) value, (char) 0, (char) 0, (short) 0);
+				fields[index] = new ProtoSchema.Field(index, name, ProtoSchema.FieldType.GROUP, false, 0, group);
+			}
+			index++;
+		}
+		return new ProtoSchema(type, subtype, version, fields, presenceBitmap, varintCounts);
+	}
+	
+	private static ProtoSchema.Field toSchemaField(int index, String name, String type) {
+		boolean isOptional = type.endsWith("!");
+		ProtoSchema.FieldType fieldType;
+		int size = 0;
+		if (type.startsWith("charEnum")) {
+			fieldType = ProtoSchema.FieldType.CHAR_ENUM;
+		} else if (type.startsWith("intEnum")) {
+			fieldType = ProtoSchema.FieldType.INT_ENUM;
+		} else if (type.startsWith("shortEnum")) {
+			fieldType = ProtoSchema.FieldType.SHORT_ENUM;
+		} else if (type.startsWith("twoChar")) {
+			fieldType = ProtoSchema.FieldType.TWO_CHAR_ENUM;
+		} else if (type.startsWith("double")) {
+			fieldType = ProtoSchema.FieldType.DOUBLE;
+			size = resolveSize(type, DoubleUtils.DEFAULT_PRECISION);
+		} else if (type.startsWith("float")) {
+			fieldType = ProtoSchema.FieldType.FLOAT;
+			size = resolveSize(type, FloatUtils.DEFAULT_PRECISION);
+		} else if (type.startsWith("long")) {
+			fieldType = ProtoSchema.FieldType.LONG;
+		} else if (type.startsWith("int")) {
+			fieldType = ProtoSchema.FieldType.INT;
+		} else if (type.startsWith("varlong")) {
+			fieldType = ProtoSchema.FieldType.VARLONG;
+		} else if (type.startsWith("varint")) {
+			fieldType = ProtoSchema.FieldType.VARINT;
+		} else if (type.startsWith("short")) {
+			fieldType = ProtoSchema.FieldType.SHORT;
+		} else if (type.startsWith("boolean")) {
+			fieldType = ProtoSchema.FieldType.BOOLEAN;
+		} else if (type.startsWith("byte") && !type.startsWith("bytes")) {
+			fieldType = ProtoSchema.FieldType.BYTE;
+		} else if (type.startsWith("char") && !type.startsWith("chars")) {
+			fieldType = ProtoSchema.FieldType.CHAR;
+		} else if (type.startsWith("bytes")) {
+			fieldType = ProtoSchema.FieldType.BYTES;
+			size = resolveSize(type, -1);
+		} else if (type.startsWith("varbytes")) {
+			fieldType = ProtoSchema.FieldType.VARBYTES;
+			size = resolveSize(type, -1);
+		} else if (type.startsWith("chars")) {
+			fieldType = ProtoSchema.FieldType.CHARS;
+			size = resolveSize(type, -1);
+		} else if (type.startsWith("varchars")) {
+			fieldType = ProtoSchema.FieldType.VARCHARS;
+			size = resolveSize(type, -1);
+		} else {
+			throw new IllegalStateException("Bad type: " + type);
+		}
+		return new ProtoSchema.Field(index, name, fieldType, isOptional, size, null);
+	}
+	
+	/*
+	 * Returns the number between the parenthesis of the given type, which can also be a (public static) constant of a class, or the default
+	 * size if there is none (-1 when the size is required).
+	 */
+	private static int resolveSize(String type, int defaultSize) {
+		String[] matches = RegexUtils.match(type, "/\\(([^\\)]+)\\)/");
+		if (matches == null || matches.length != 1) {
+			if (defaultSize >= 0) return defaultSize;
+			throw new IllegalStateException("Cannot parse type: " + type);
+		}
+		if (isNumber(matches[0])) return Integer.parseInt(matches[0]);
+		int index = matches[0].lastIndexOf('.');
+		if (index <= 0) throw new IllegalStateException("Cannot parse size: " + type);
+		try {
+			return Class.forName(matches[0].substring(0, index)).getField(matches[0].substring(index + 1)).getInt(null);
+		} catch(Exception e) {
+			throw new IllegalStateException("Cannot resolve size: " + type, e);
+		}
+	}
+	
 	@SuppressWarnings("unchecked")
 	private void configure(Map<String, Object> map, boolean addInstance, String indent, List<String> groupFields, String saveClassName) {
 		Iterator<String> iter = map.keySet().iterator();
@@ -287,7 +417,11 @@ public class IDL {
 				
 				code.append(newIndent).append("public " + className + "(AbstractProto proto, ProtoField ... protoFields) {\n");
 				code.append(newIndent + INDENT);
-				code.append("super(proto, protoFields);\n");
+				if (presenceBitmap) {
+					code.append("super(proto, ").append(varintCounts).append(", true, protoFields);\n");
+				} else {
+					code.append(varintCounts ? "super(proto, true, protoFields);\n" : "super(proto, protoFields);\n");
+				}
 				code.append(newIndent).append("}\n");
 				
 				code.append("\n");
@@ -332,6 +466,8 @@ public class IDL {
 				
 				code.append(newIndent).append("} \n\n");
 				
+				if (directAccess) generateDirectAccess(subMap, list, newIndent);
+				
 				code.append(newIndent).append("@Override\n");
 				code.append(newIndent).append("protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {\n");
 				
@@ -356,6 +492,484 @@ public class IDL {
 		}
 	}
 	
+	private static boolean isOptional(Object type) {
+		return type instanceof String && ((String) type).endsWith("!");
+	}
+	
+	private static int countOptionals(Map<String, Object> map) {
+		int optionals = 0;
+		for(Object type : map.values()) {
+			if (isOptional(type)) optionals++;
+		}
+		return optionals;
+	}
+	
+	/*
+	 * Returns the size of the presence bitmap of a message or group element with the given fields (zero when there is no bitmap).
+	 */
+	private int getBitmapSize(Map<String, Object> map) {
+		return presenceBitmap ? (countOptionals(map) + 7) / 8 : 0;
+	}
+	
+	private static String getFieldClass(String groupField) {
+		String[] ss = groupField.split("\\s*=\\s*");
+		String second = ss[1];
+		second = RegexUtils.sub(second, "s/^new //");
+		second = RegexUtils.sub(second, "s/\\(.*\\)//");
+		return second;
+	}
+	
+	/*
+	 * Emits straight-line getLength(), read(ByteBuffer) and write(ByteBuffer) for the message so that every field
+	 * is accessed through its concrete type instead of through the ProtoField list kept by AbstractProto.
+	 * The wire format and the schema evolution rules are exactly the same as the ones from AbstractProto.
+	 */
+	private void generateDirectAccess(Map<String, Object> map, String indent) {
+		
+		String ind2 = indent + INDENT;
+		String ind3 = ind2 + INDENT;
+		
+		code.append(indent).append("@Override\n");
+		code.append(indent).append("public int getLength() {\n");
+		String firstVariable = null;
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			if (getFixedSize(entry.getValue()) == null) {
+				firstVariable = entry.getKey();
+				break;
+			}
+		}
+		if (firstVariable == null) {
+			code.append(ind2).append("return FIXED_LENGTH;\n");
+		} else {
+			code.append(ind2).append("int len = ").append(toConstantName(firstVariable)).append(presenceBitmap ? "_OFFSET; // type + subtype + version + presence bitmap + fixed-size fields\n" : "_OFFSET; // type + subtype + version + fixed-size fields\n");
+			boolean variable = false;
+			for(Map.Entry<String, Object> entry : map.entrySet()) {
+				String key = entry.getKey();
+				if (key.equals(firstVariable)) variable = true;
+				if (!variable) continue;
+				if (presenceBitmap && isOptional(entry.getValue())) {
+					code.append(ind2).append("len += ").append(key).append(".size() - 1; // no presence byte\n");
+				} else {
+					code.append(ind2).append("len += ").append(key).append(".size();\n");
+				}
+			}
+			code.append(ind2).append("return len;\n");
+		}
+		code.append(indent).append("}\n\n");
+		
+		code.append(indent).append("@Override\n");
+		code.append(indent).append("public void read(ByteBuffer buf) {\n");
+		code.append(ind2).append("if (getProjection() != ALL_FIELDS) {\n");
+		code.append(ind3).append("super.read(buf); // skips the fields outside the projection\n");
+		code.append(ind3).append("return;\n");
+		code.append(ind2).append("}\n");
+		if (presenceBitmap && countOptionals(map) > 0) code.append(ind2).append("long bitmap = readPresenceBitmap(buf);\n");
+		List<String> block = getUnalignedBlock(map);
+		int bit = 0;
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			String key = entry.getKey();
+			if (block != null && key.equals(block.get(0))) {
+				String first = toConstantName(key) + "_OFFSET";
+				String end = getUnalignedBlockEnd(map, block);
+				code.append(ind2).append("int start = buf.position() - ").append(first).append(";\n");
+				code.append(ind2).append("if (buf.remaining() >= ").append(end).append(" - ").append(first).append(") { // all the fields of the block at once\n");
+				for(String k : block) {
+					code.append(ind3).append(k).append(".readFrom(buf, start + ").append(toConstantName(k)).append("_OFFSET);\n");
+				}
+				code.append(ind3).append("buf.position(start + ").append(end).append(");\n");
+				code.append(ind2).append("} else {\n");
+				for(String k : block) appendRead(k, ind3);
+				code.append(ind2).append("}\n");
+			}
+			if (block != null && block.contains(key)) continue;
+			if (isOptional(entry.getValue())) {
+				code.append(ind2).append(presenceBitmap ? "if ((bitmap & " + getBitMask(bit++) + ") != 0) {\n" : "if (buf.hasRemaining() && buf.get() == 'Y') {\n");
+				code.append(ind3).append(key).append(".readFrom(buf);\n");
+				code.append(ind2).append("} else {\n");
+				code.append(ind3).append(key).append(".markAsNotPresent();\n");
+				code.append(ind2).append("}\n");
+			} else {
+				appendRead(key, ind2);
+			}
+		}
+		code.append(indent).append("}\n\n");
+		
+		code.append(indent).append("@Override\n");
+		code.append(indent).append("public void write(ByteBuffer buf) {\n");
+		code.append(ind2).append("buf.put((byte) TYPE);\n");
+		code.append(ind2).append("buf.put((byte) SUBTYPE);\n");
+		code.append(ind2).append(version > 0 ? "buf.putShort(VERSION);\n" : "buf.putShort((short) 0);\n");
+		appendWritePresenceBitmap(map, ind2);
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			String key = entry.getKey();
+			if (block != null && key.equals(block.get(0))) {
+				String first = toConstantName(key) + "_OFFSET";
+				String end = getUnalignedBlockEnd(map, block);
+				code.append(ind2).append("int start = buf.position() - ").append(first).append(";\n");
+				code.append(ind2).append("if (buf.remaining() >= ").append(end).append(" - ").append(first).append(") { // all the fields of the block at once\n");
+				for(String k : block) {
+					code.append(ind3).append(k).append(".writeTo(buf, start + ").append(toConstantName(k)).append("_OFFSET);\n");
+				}
+				code.append(ind3).append("buf.position(start + ").append(end).append(");\n");
+				code.append(ind2).append("} else {\n");
+				for(String k : block) appendWrite(k, false, ind3);
+				code.append(ind2).append("}\n");
+			}
+			if (block != null && block.contains(key)) continue;
+			appendWrite(key, isOptional(entry.getValue()), ind2);
+		}
+		code.append(indent).append("}\n\n");
+	}
+	
+	private void appendRead(String key, String indent) {
+		code.append(indent).append("if (buf.hasRemaining()) {\n");
+		code.append(indent).append(INDENT).append(key).append(".readFrom(buf);\n");
+		code.append(indent).append("} else {\n");
+		code.append(indent).append(INDENT).append(key).append(".reset();\n");
+		code.append(indent).append("}\n");
+	}
+	
+	/*
+	 * Returns the leading required short, int, long, float and double fields of the message, which are read and written with one absolute
+	 * (unaligned) load or store each when the buffer has room for all of them, or null if there are less than two.
+	 */
+	private static List<String> getUnalignedBlock(Map<String, Object> map) {
+		List<String> block = new ArrayList<String>();
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			if (!(entry.getValue() instanceof String) || isOptional(entry.getValue())) break;
+			String type = (String) entry.getValue();
+			int index = type.indexOf('(');
+			if (index > 0) type = type.substring(0, index);
+			if (!type.equals("short") && !type.equals("int") && !type.equals("long") && !type.equals("float") && !type.equals("double")) break;
+			block.add(entry.getKey());
+		}
+		return block.size() < 2 ? null : block;
+	}
+	
+	private static String getUnalignedBlockEnd(Map<String, Object> map, List<String> block) {
+		if (block.size() == map.size()) return "FIXED_LENGTH";
+		int i = 0;
+		for(String key : map.keySet()) {
+			if (i++ == block.size()) return toConstantName(key) + "_OFFSET";
+		}
+		throw new IllegalStateException("Cannot find the end of the block!");
+	}
+	
+	/*
+	 * Emits straight-line readFrom(ByteBuffer), writeTo(ByteBuffer) and size() for a repeating group class.
+	 */
+	private void generateDirectAccess(Map<String, Object> map, List<String> groupFields, String indent) {
+		
+		String ind2 = indent + INDENT;
+		String ind3 = ind2 + INDENT;
+		String ind4 = ind3 + INDENT;
+		
+		List<String> keys = new ArrayList<String>(map.keySet());
+		
+		code.append(indent).append("@Override\n");
+		code.append(indent).append("public void readFrom(ByteBuffer buf) {\n");
+		code.append(ind2).append("clear();\n");
+		if (varintCounts) {
+			code.append(ind2).append("int n = readCount(buf);\n");
+		} else {
+			code.append(ind2).append("short n = buf.getShort();\n");
+			code.append(ind2).append("if (n < 0) {\n");
+			code.append(ind3).append("throw new IllegalArgumentException(\"Negative repeating group element count: \" + n);\n");
+			code.append(ind2).append("}\n");
+		}
+		code.append(ind2).append("for(int i = 0; i < n; i++) {\n");
+		code.append(ind3).append("nextElement();\n");
+		if (presenceBitmap && countOptionals(map) > 0) code.append(ind3).append("long bitmap = readPresenceBitmap(buf);\n");
+		int bit = 0;
+		for(String key : keys) {
+			if (isOptional(map.get(key))) {
+				code.append(ind3).append(presenceBitmap ? "if ((bitmap & " + getBitMask(bit++) + ") != 0) {\n" : "if (buf.get() == 'Y') {\n");
+				code.append(ind4).append(key).append(".readFrom(buf);\n");
+				code.append(ind3).append("} else {\n");
+				code.append(ind4).append(key).append(".markAsNotPresent();\n");
+				code.append(ind3).append("}\n");
+			} else {
+				code.append(ind3).append(key).append(".readFrom(buf);\n");
+			}
+		}
+		code.append(ind2).append("}\n");
+		code.append(indent).append("}\n\n");
+		
+		code.append(indent).append("@Override\n");
+		code.append(indent).append("public void writeTo(ByteBuffer buf) {\n");
+		code.append(ind2).append("int n = getNumberOfElements();\n");
+		code.append(ind2).append(varintCounts ? "writeCount(buf);\n" : "buf.putShort((short) n);\n");
+		code.append(ind2).append("for(int i = 0; i < n; i++) {\n");
+		appendElementFields(keys, groupFields, ind3);
+		appendWritePresenceBitmap(map, ind3);
+		for(String key : keys) {
+			appendWrite(key, isOptional(map.get(key)), ind3);
+		}
+		code.append(ind2).append("}\n");
+		code.append(indent).append("}\n\n");
+		
+		code.append(indent).append("@Override\n");
+		code.append(indent).append("public int size() {\n");
+		String elementSize = "0";
+		for(Object type : map.values()) {
+			String fixedSize = getFixedSize(type);
+			if (fixedSize == null) {
+				elementSize = null;
+				break;
+			}
+			elementSize = addSize(elementSize, fixedSize);
+		}
+		if (elementSize != null) {
+			if (!isNumber(elementSize)) elementSize = "(" + elementSize + ")";
+			code.append(ind2).append(varintCounts ? "return countSize() + " : "return 2 + ").append("getNumberOfElements() * ").append(elementSize).append(";\n");
+			code.append(indent).append("}\n\n");
+			return;
+		}
+		code.append(ind2).append(varintCounts ? "int size = countSize();\n" : "int size = 2;\n");
+		code.append(ind2).append("int n = getNumberOfElements();\n");
+		code.append(ind2).append("for(int i = 0; i < n; i++) {\n");
+		appendElementFields(keys, groupFields, ind3);
+		int bitmapSize = getBitmapSize(map);
+		if (bitmapSize > 0) code.append(ind3).append("size += ").append(bitmapSize).append("; // presence bitmap\n");
+		for(String key : keys) {
+			if (presenceBitmap && isOptional(map.get(key))) {
+				code.append(ind3).append("size += ").append(key).append(".size() - 1; // no presence byte\n");
+			} else {
+				code.append(ind3).append("size += ").append(key).append(".size();\n");
+			}
+		}
+		code.append(ind2).append("}\n");
+		code.append(ind2).append("return size;\n");
+		code.append(indent).append("}\n\n");
+	}
+	
+	/*
+	 * Emits the offset of every field that starts at a fixed position (all the fields before it have a fixed size) and, if all the
+	 * fields have a fixed size, the fixed length of the message.
+	 */
+	private void appendLayout(Map<String, Object> map, String indent) {
+		String offset = String.valueOf(4 + getBitmapSize(map)); // type + subtype + version + presence bitmap
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			code.append(indent).append("public static final int ").append(toConstantName(entry.getKey())).append("_OFFSET = ").append(offset).append(";\n");
+			String fixedSize = getFixedSize(entry.getValue());
+			if (fixedSize == null) return;
+			offset = addSize(offset, fixedSize);
+		}
+		code.append(indent).append("public static final int FIXED_LENGTH = ").append(offset).append(";\n");
+	}
+	
+	/*
+	 * Returns the size on the wire of a field with the given IDL type, as a Java expression, if it never changes or null otherwise.
+	 */
+	private String getFixedSize(Object type) {
+		if (!(type instanceof String) || isOptional(type)) return null;
+		String t = (String) type;
+		if (t.startsWith("charEnum")) {
+			return "1";
+		} else if (t.startsWith("shortEnum") || t.startsWith("twoChar")) {
+			return "2";
+		} else if (t.startsWith("intEnum")) {
+			return "4";
+		} else if (t.startsWith("double") || t.startsWith("long")) {
+			return "8";
+		} else if (t.startsWith("float") || t.startsWith("int")) {
+			return "4";
+		} else if (t.startsWith("short")) {
+			return "2";
+		} else if (t.startsWith("boolean")) {
+			return "1";
+		} else if (t.startsWith("byte") && !t.startsWith("bytes")) {
+			return "1";
+		} else if (t.startsWith("char") && !t.startsWith("chars")) {
+			return "1";
+		} else if (t.startsWith("bytes") || t.startsWith("chars")) {
+			return getSize(t, false);
+		} else {
+			return null;
+		}
+	}
+	
+	private static String addSize(String size1, String size2) {
+		if (isNumber(size1) && isNumber(size2)) return String.valueOf(Long.parseLong(size1) + Long.parseLong(size2));
+		return size1 + " + " + size2;
+	}
+	
+	private static String toConstantName(String name) {
+		StringBuilder sb = new StringBuilder(name.length() + 8);
+		for(int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))) sb.append('_');
+			sb.append(Character.toUpperCase(c));
+		}
+		return sb.toString();
+	}
+	
+	private void appendElementFields(List<String> keys, List<String> groupFields, String indent) {
+		code.append(indent).append("ProtoField[] fields = getElement(i).internalArray();\n");
+		for(int i = 0; i < keys.size(); i++) {
+			String fieldClass = getFieldClass(groupFields.get(i));
+			code.append(indent).append(fieldClass).append(" ").append(keys.get(i));
+			code.append(" = (").append(fieldClass).append(") fields[").append(i).append("];\n");
+		}
+	}
+	
+	private static String getBitMask(int bit) {
+		return bit == 0 ? "1L" : "(1L << " + bit + ")";
+	}
+	
+	private void appendWritePresenceBitmap(Map<String, Object> map, String indent) {
+		if (!presenceBitmap || countOptionals(map) == 0) return;
+		code.append(indent).append("long bitmap = 0;\n");
+		int bit = 0;
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			if (isOptional(entry.getValue())) {
+				code.append(indent).append("if (").append(entry.getKey()).append(".isPresent()) bitmap |= ").append(getBitMask(bit++)).append(";\n");
+			}
+		}
+		code.append(indent).append("writePresenceBitmap(buf, bitmap);\n");
+	}
+	
+	private void appendWrite(String key, boolean isOptional, String indent) {
+		if (isOptional && presenceBitmap) {
+			code.append(indent).append("if (").append(key).append(".isPresent()) ").append(key).append(".writeTo(buf);\n");
+		} else if (isOptional) {
+			code.append(indent).append("if (").append(key).append(".isPresent()) {\n");
+			code.append(indent + INDENT).append("buf.put((byte) 'Y');\n");
+			code.append(indent + INDENT).append(key).append(".writeTo(buf);\n");
+			code.append(indent).append("} else {\n");
+			code.append(indent + INDENT).append("buf.put((byte) 'N');\n");
+			code.append(indent).append("}\n");
+		} else {
+			code.append(indent).append(key).append(".writeTo(buf);\n");
+		}
+	}
+	
+	/*
+	 * Emits an encoder flyweight (a subclass of AbstractProtoEncoder) with one method per field that writes the value straight into
+	 * the destination buffer. Repeating groups get their own nested encoder, returned by the method that starts the group.
+	 */
+	@SuppressWarnings("unchecked")
+	private void generateEncoder(Map<String, Object> map, String indent, String className, boolean isGroup) {
+		
+		String ind2 = indent + INDENT;
+		String ind3 = ind2 + INDENT;
+		
+		code.append(indent).append("public static final class ").append(className).append(" extends AbstractProtoEncoder {\n\n");
+		
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			if (entry.getValue() instanceof Map) {
+				String groupClassName = getEncoderClassName(entry.getKey());
+				code.append(ind2).append("private final ").append(groupClassName).append(" ").append(entry.getKey()).append("Encoder");
+				code.append(" = new ").append(groupClassName).append("();\n\n");
+			}
+		}
+		
+		if (isGroup) {
+			code.append(ind2).append("private ").append(className).append("() {\n");
+			code.append(ind3).append("super(").append(map.size()).append(");\n");
+			if (presenceBitmap && countOptionals(map) > 0) code.append(ind3).append("usePresenceBitmap(").append(countOptionals(map)).append(");\n");
+			code.append(ind2).append("}\n\n");
+		} else {
+			code.append(ind2).append("public ").append(className).append("() {\n");
+			code.append(ind3).append("super(TYPE, SUBTYPE, ").append(version > 0 ? "VERSION" : "(short) 0").append(", ").append(map.size()).append(");\n");
+			if (presenceBitmap && countOptionals(map) > 0) code.append(ind3).append("usePresenceBitmap(").append(countOptionals(map)).append(");\n");
+			code.append(ind2).append("}\n\n");
+			code.append(ind2).append("public ").append(className).append(" wrap(ByteBuffer buf) {\n");
+			code.append(ind3).append("begin(buf);\n");
+			code.append(ind3).append("return this;\n");
+			code.append(ind2).append("}\n\n");
+		}
+		
+		int index = 0;
+		int bit = 0;
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			String key = entry.getKey();
+			Object type = entry.getValue();
+			if (type instanceof Map) {
+				String groupClassName = getEncoderClassName(key);
+				code.append(ind2).append("public ").append(groupClassName).append(" ").append(key).append("(int numberOfElements) {\n");
+				code.append(ind3).append("next(").append(index).append(");\n");
+				code.append(ind3).append("return beginGroup(").append(key).append(varintCounts ? "Encoder, numberOfElements, true);\n" : "Encoder, numberOfElements);\n");
+				code.append(ind2).append("}\n\n");
+			} else {
+				String sType = (String) type;
+				boolean isOptional = sType.endsWith("!");
+				String[] paramAndPut = getEncoderParamAndPut(sType);
+				code.append(ind2).append("public ").append(className).append(" ").append(key).append("(").append(paramAndPut[0]).append(" value) {\n");
+				code.append(ind3).append("next(").append(index).append(");\n");
+				if (isOptional) code.append(ind3).append(presenceBitmap ? "putPresent(" + bit + ");\n" : "putPresent(true);\n");
+				code.append(ind3).append(paramAndPut[1]).append(";\n");
+				code.append(ind3).append("return this;\n");
+				code.append(ind2).append("}\n\n");
+				if (isOptional) {
+					code.append(ind2).append("public ").append(className).append(" ").append(key).append("NotPresent() {\n");
+					code.append(ind3).append("next(").append(index).append(");\n");
+					if (!presenceBitmap) code.append(ind3).append("putPresent(false);\n");
+					code.append(ind3).append("return this;\n");
+					code.append(ind2).append("}\n\n");
+					bit++;
+				}
+			}
+			index++;
+		}
+		
+		for(Map.Entry<String, Object> entry : map.entrySet()) {
+			if (entry.getValue() instanceof Map) {
+				generateEncoder((Map<String, Object>) entry.getValue(), ind2, getEncoderClassName(entry.getKey()), true);
+			}
+		}
+		
+		code.append(indent).append("}\n\n");
+	}
+	
+	private static String getEncoderClassName(String groupKey) {
+		return groupKey.substring(0, 1).toUpperCase() + groupKey.substring(1) + "Encoder";
+	}
+	
+	/*
+	 * Returns the parameter type and the AbstractProtoEncoder call that writes a value of the given IDL type.
+	 */
+	private String[] getEncoderParamAndPut(String type) {
+		if (type.startsWith("charEnum") || type.startsWith("intEnum") || type.startsWith("shortEnum") || type.startsWith("twoChar")) {
+			String t = getEnumType(type);
+			String enumClass = t.substring(t.indexOf('<') + 1, t.length() - 1);
+			String prefix = t.substring(0, t.indexOf("Field<"));
+			return new String[] { enumClass, "put" + prefix + "(value)" };
+		} else if (type.startsWith("double")) {
+			String size = getSize(type, true);
+			return new String[] { "double", size != null ? "putDouble(value, " + size + ")" : "putDouble(value)" };
+		} else if (type.startsWith("float")) {
+			String size = getSize(type, true);
+			return new String[] { "float", size != null ? "putFloat(value, " + size + ")" : "putFloat(value)" };
+		} else if (type.startsWith("long")) {
+			return new String[] { "long", "putLong(value)" };
+		} else if (type.startsWith("int")) {
+			return new String[] { "int", "putInt(value)" };
+		} else if (type.startsWith("varlong")) {
+			return new String[] { "long", "putVarLong(value)" };
+		} else if (type.startsWith("varint")) {
+			return new String[] { "int", "putVarInt(value)" };
+		} else if (type.startsWith("short")) {
+			return new String[] { "short", "putShort(value)" };
+		} else if (type.startsWith("boolean")) {
+			return new String[] { "boolean", "putBoolean(value)" };
+		} else if (type.startsWith("byte") && !type.startsWith("bytes")) {
+			return new String[] { "byte", "putByte(value)" };
+		} else if (type.startsWith("char") && !type.startsWith("chars")) {
+			return new String[] { "char", "putChar(value)" };
+		} else if (type.startsWith("bytes")) {
+			return new String[] { "byte[]", "putBytes(value, " + getSize(type, false) + ")" };
+		} else if (type.startsWith("varbytes")) {
+			return new String[] { "byte[]", "putVarBytes(value, " + getSize(type, false) + ")" };
+		} else if (type.startsWith("chars")) {
+			return new String[] { "CharSequence", "putChars(value, " + getSize(type, false) + ")" };
+		} else if (type.startsWith("varchars")) {
+			return new String[] { "CharSequence", "putVarChars(value, " + getSize(type, false) + ")" };
+		} else {
+			throw new IllegalStateException("Bad type: " + type);
+		}
+	}
+	
 	private void addField(String name, boolean addThis, boolean isOptional, List<String> groupFields, String fieldType) {
 		code.append(fieldType + " " + name);
 		if (addThis) {
@@ -437,6 +1051,10 @@ public class IDL {
 			addField(name, addThis, isOptional, groupFields, "LongField");
 		} else if (type.startsWith("int")) {
 			addField(name, addThis, isOptional, groupFields, "IntField");
+		} else if (type.startsWith("varlong")) {
+			addField(name, addThis, isOptional, groupFields, "VarLongField");
+		} else if (type.startsWith("varint")) {
+			addField(name, addThis, isOptional, groupFields, "VarIntField");
 		} else if (type.startsWith("short")) {
 			addField(name, addThis, isOptional, groupFields, "ShortField");
 		}  else if (type.startsWith("boolean")) {
@@ -591,7 +1209,7 @@ public class IDL {
 		return sb.toString();
 	}
 	
-	private void parseTypeSubtypeAndVersion(String idl, String indent) {
+	private void parseTypeSubtypeAndVersion(String idl, String indent, Map<String, Object> map) {
 		String type = find("TYPE", true);
 		if (type.length() != 1) throw new RuntimeException("Type is not a character: " + type);
 		code.append(indent + "public static final char TYPE = '").append(type).append("';\n");
@@ -601,7 +1219,6 @@ public class IDL {
 		code.append(indent + "public static final char SUBTYPE = '").append(subtype).append("';\n");
 		
 		String versionString = find("VERSION", false);
-		short version = 0;
 		if (versionString != null) {
 			try {
 				version = Short.parseShort(versionString);
@@ -615,6 +1232,10 @@ public class IDL {
 		
 		code.append("\n");
 		
+		appendLayout(map, indent);
+		
+		code.append("\n");
+		
 		code.append(indent + "public final TypeField typeField = new TypeField(this, TYPE);\n");
 		code.append(indent + "public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);\n");
 		if (version > 0) {
@@ -0,0 +1,137 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>A parser that returns a different message instance each time it parses a message, taken from a pool of instances for each message, so
+ * the message can be handed to other threads (a pipeline of decoding, business logic and persistence, for example) without copying it. Whoever
+ * is done with the message gives it back to the pool with {@link #release(Proto)}, from any thread.</p>
+ * 
+ * <p>When the pool of a message is empty, the given parser is asked for new instances of all its messages (through its
+ * <code>defineProtoMessages()</code>, which must return new instances each time it is called), so the pools grow until they reach their capacity.
+ * From then on parsing does not produce garbage as long as every message is released. The projections set in the given parser are used.</p>
+ * 
+ * <p>{@link #parse(ByteBuffer)} and {@link #wrap(ByteBuffer)} must be called by a single thread. {@link #release(Proto)} can be called by any thread.</p>
+ */
+public class PooledProtoParser extends ProtoParser {
+	
+	private final ProtoParser parser;
+	private final ProtoPool[] pools;
+	private long misses;
+	
+	/**
+	 * Creates a pooled parser for the messages of the given parser, with the given number of instances of each message ready in the pools.
+	 * 
+	 * @param parser the parser with the messages and the dispatch table (not used to parse messages afterwards)
+	 * @param poolCapacity the maximum number of instances of each message in the pools (a power of two)
+	 * @param initialInstances the number of instances of each message to create now
+	 */
+	public PooledProtoParser(ProtoParser parser, int poolCapacity, int initialInstances) {
+		super(parser, parser.getProtoMessages(), true);
+		this.parser = parser;
+		this.pools = new ProtoPool[parser.getProtoMessages().length];
+		for(int i = 0; i < pools.length; i++) pools[i] = new ProtoPool(poolCapacity);
+		for(int i = 0; i < initialInstances; i++) {
+			Proto[] protos = parser.defineNewProtoMessages();
+			for(int j = 0; j < pools.length; j++) pools[j].offer(protos[j]);
+		}
+	}
+	
+	@Override
+	protected Proto[] defineProtoMessages() {
+		return parser.defineNewProtoMessages();
+	}
+	
+	private Proto acquire(int index) {
+		Proto proto = pools[index].poll();
+		if (proto == null) {
+			misses++;
+			Proto[] protos = parser.defineNewProtoMessages();
+			for(int i = 0; i < pools.length; i++) {
+				if (i != index) pools[i].offer(protos[i]);
+			}
+			proto = protos[index];
+		}
+		Proto template = getProtoMessages()[index];
+		if (template instanceof AbstractProto) {
+			((AbstractProto) proto).setProjection(((AbstractProto) template).getProjection());
+		}
+		return proto;
+	}
+	
+	/**
+	 * Parses the message into an instance taken from the pool of the message. Give it back with {@link #release(Proto)} when you are done with it.
+	 * 
+	 * @param data the buffer with the message
+	 * @return the parsed message or null if the message is not known
+	 */
+	@Override
+	public Proto parse(ByteBuffer data) {
+		
+		int index = lookupIndex(data);
+		
+		if (index < 0) return null;
+		
+		Proto p = acquire(index);
+		
+		p.read(data);
+		
+		return p;
+	}
+	
+	/**
+	 * Same as {@link #parse(ByteBuffer)} but in flyweight (zero-copy) mode, so the message can only be used until the given buffer is overwritten.
+	 * 
+	 * @param data the buffer with the message
+	 * @return the wrapped message or null if the message is not known
+	 */
+	@Override
+	public Proto wrap(ByteBuffer data) {
+		
+		int index = lookupIndex(data);
+		
+		if (index < 0) return null;
+		
+		Proto p = acquire(index);
+		
+		p.wrap(data);
+		
+		return p;
+	}
+	
+	/**
+	 * Gives a message returned by this parser back to its pool. It can be called from any thread, but only once for each message parsed.
+	 * If the pool is full, the message is left to the garbage collector.
+	 * 
+	 * @param proto the message to give back
+	 */
+	public void release(Proto proto) {
+		int index = getIndex(proto);
+		if (index < 0) throw new IllegalArgumentException("Unknown proto message: " + proto.getClass().getSimpleName());
+		pools[index].offer(proto);
+	}
+	
+	/**
+	 * Returns how many times a pool was empty and new instances of the messages had to be created.
+	 * 
+	 * @return the number of times the pools were empty
+	 */
+	public long getMisses() {
+		return misses;
+	}
+}
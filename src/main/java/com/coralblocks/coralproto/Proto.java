@@ -47,6 +47,17 @@ public interface Proto {
 	 */
 	public void read(ByteBuffer buf);
 	
+	/**
+	 * Reads the contents of this proto message NOT including the type and subtype in flyweight (zero-copy) mode. The chars and bytes fields
+	 * become views over the given buffer instead of copies, so the message is only valid until the buffer is overwritten.
+	 * By default the message is just read.
+	 * 
+	 * @param buf where to wrap this message from
+	 */
+	public default void wrap(ByteBuffer buf) {
+		read(buf);
+	}
+	
 	/**
 	 * Writes the contents of this proto message INCLUDING the type and subtype.
 	 * 
@@ -0,0 +1,145 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.RepeatingGroupField;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
+
+/**
+ * <p>Parses back the ascii written by {@link Proto#writeAscii(boolean, ByteBuffer)} (short or long version), for example a line of the files of a
+ * {@link ProtoLogger}, into the message of a {@link ProtoParser} with the type, subtype and version at the beginning of the line. Like the parser,
+ * it always returns the same message instance for the same type, subtype and version, so write it with {@link Proto#write(ByteBuffer)} to get the
+ * binary message back. Use a {@link ProtoAsciiReader} to go through a whole file.</p>
+ * 
+ * <p>Only messages made of fields ({@link AbstractProto} with {@link ProtoField}s) can be parsed back. Floats and doubles come back exactly as
+ * they go on the wire (scaled by their precision), but the non-printable bytes of bytes fields were written as <code>?</code>. A value cannot
+ * contain the separator that follows it: <code>|</code> for the fields of the message and <code>,</code>, <code>;</code> or <code>]</code> for
+ * the fields inside repeating groups. A line with fewer fields than the message (written before new fields were appended to it) leaves the
+ * missing fields empty, like {@link Proto#read(ByteBuffer)} does.</p>
+ * 
+ * <p>Parsing does not produce garbage (the enum fields find their values by name the first time). This class is not thread-safe.</p>
+ */
+public class ProtoAsciiParser {
+	
+	private final ProtoParser parser;
+	
+	/**
+	 * Creates an ascii parser for the messages of the given parser.
+	 * 
+	 * @param parser the parser with the messages
+	 */
+	public ProtoAsciiParser(ProtoParser parser) {
+		this.parser = parser;
+	}
+	
+	/**
+	 * Parses the message from the position to the limit of the given buffer (a line, without the line terminator). The position is moved to the limit.
+	 * 
+	 * @param line the buffer with the ascii of the message
+	 * @return the parsed message or null if the message is not known
+	 * @throws IllegalArgumentException if the ascii is not valid for the message
+	 */
+	public Proto parse(ByteBuffer line) {
+		
+		int pos = line.position();
+		int originalLimit = line.limit();
+		int limit = originalLimit;
+		
+		if (limit > pos && line.get(limit - 1) == '\r') limit--; // a line ending with \r\n
+		
+		if (limit - pos < 2) throw new IllegalArgumentException("Missing type and subtype at " + pos);
+		
+		byte type = line.get(pos++);
+		byte subtype = line.get(pos++);
+		short version = 0;
+		
+		if (pos < limit && line.get(pos) == '-') {
+			int end = pos + 1;
+			while(end < limit && line.get(end) != ' ' && line.get(end) != '|') end++;
+			line.limit(end).position(pos + 1);
+			version = (short) ByteBufferDecoder.parseLong(line, 1, Short.MAX_VALUE);
+			line.limit(originalLimit);
+			pos = end;
+		}
+		
+		if (pos < limit && line.get(pos) == ' ') { // long version: " (ClassName)"
+			pos = ByteBufferDecoder.indexOf(line, pos, limit, (byte) ')') + 1;
+			if (pos > limit) throw new IllegalArgumentException("Missing ) after the message name");
+		}
+		
+		Proto proto = parser.getProtoMessage(type, subtype, version);
+		
+		if (proto == null) {
+			line.position(originalLimit);
+			return null;
+		}
+		
+		if (!(proto instanceof AbstractProto)) {
+			throw new IllegalArgumentException("Only AbstractProto can be parsed from ascii: " + proto.getClass().getSimpleName());
+		}
+		
+		AbstractProto abstractProto = (AbstractProto) proto;
+		int numberOfFields = abstractProto.getNumberOfFields();
+		
+		for(int i = 0; i < numberOfFields; i++) {
+			
+			ProtoField protoField = abstractProto.getField(i);
+			
+			if (pos == limit) { // an older message, without the fields appended afterwards
+				if (protoField.isOptional()) {
+					protoField.markAsNotPresent();
+				} else {
+					protoField.reset();
+				}
+				continue;
+			}
+			
+			if (line.get(pos) != '|') throw new IllegalArgumentException("Expected | at " + pos);
+			
+			pos++;
+			
+			int end;
+			if (protoField instanceof RepeatingGroupField) {
+				end = ByteBufferDecoder.findSeparator(line, pos, limit, (byte) '|');
+			} else {
+				end = ByteBufferDecoder.indexOf(line, pos, limit, (byte) '|');
+			}
+			
+			line.limit(end).position(pos);
+			
+			try {
+				if (protoField.isOptional() && ByteBufferDecoder.isBlank(line)) {
+					protoField.markAsNotPresent();
+				} else {
+					protoField.readAsciiFrom(line);
+				}
+			} finally {
+				line.limit(originalLimit);
+			}
+			
+			pos = end;
+		}
+		
+		if (pos != limit) throw new IllegalArgumentException("More fields than " + numberOfFields + " at " + pos);
+		
+		line.position(originalLimit);
+		
+		return proto;
+	}
+}
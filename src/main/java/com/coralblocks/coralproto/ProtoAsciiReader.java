@@ -0,0 +1,173 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
+
+/**
+ * <p>Replays a file with one message in ascii per line (written by <code>Proto.writeAscii</code>, for example by a {@link ProtoLogger}), parsing
+ * each line straight from the memory-mapped file with a {@link ProtoAsciiParser}:</p>
+ * 
+ * <pre>
+ * try (ProtoAsciiReader reader = new ProtoAsciiReader(file, protoParser)) {
+ *     Proto proto;
+ *     while((proto = reader.next()) != null) {
+ *         proto.write(bb); // back to binary
+ *         // (...)
+ *     }
+ * }
+ * </pre>
+ * 
+ * <p>The file is mapped one window at a time, so it can be larger than 2 GB. A line cannot be larger than a window. Empty lines and messages that
+ * the parser does not know are skipped (see {@link #getUnknownMessages()}). Reading does not produce garbage, except when the next window is mapped.</p>
+ */
+public class ProtoAsciiReader implements Closeable {
+	
+	/**
+	 * The default size of the window of the file that is mapped at a time
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+	
+	private final RandomAccessFile file;
+	private final ProtoAsciiParser asciiParser;
+	private final int windowSize;
+	private final long fileLength;
+	private MappedByteBuffer window;
+	private long windowOffset; // the offset in the file of the window
+	private long lineNumber;
+	private long unknownMessages;
+	
+	/**
+	 * Opens the given file for replay, from its first line, with the default window size.
+	 * 
+	 * @param file the file with the messages in ascii
+	 * @param parser the parser of the messages
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public ProtoAsciiReader(File file, ProtoParser parser) throws IOException {
+		this(file, parser, DEFAULT_WINDOW_SIZE);
+	}
+	
+	/**
+	 * Opens the given file for replay, from its first line.
+	 * 
+	 * @param file the file with the messages in ascii
+	 * @param parser the parser of the messages
+	 * @param windowSize the size of the window of the file that is mapped at a time (larger than the longest line)
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public ProtoAsciiReader(File file, ProtoParser parser, int windowSize) throws IOException {
+		
+		if (windowSize <= 0) throw new IllegalArgumentException("Invalid window size: " + windowSize);
+		
+		this.file = new RandomAccessFile(file, "r");
+		this.asciiParser = new ProtoAsciiParser(parser);
+		this.windowSize = windowSize;
+		
+		try {
+			this.fileLength = this.file.length();
+			map(0);
+		} catch(IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+	
+	private void map(long offset) throws IOException {
+		long size = Math.min(windowSize, fileLength - offset);
+		window = file.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, size);
+		windowOffset = offset;
+	}
+	
+	/**
+	 * Parses the message of the next line of the file.
+	 * 
+	 * @return the next message or null if the end of the file was reached
+	 * @throws IOException if the next window of the file cannot be mapped
+	 * @throws IllegalArgumentException if the line is not valid ascii for its message (see {@link #getLineNumber()})
+	 */
+	public Proto next() throws IOException {
+		
+		while(true) {
+			
+			int pos = window.position();
+			int limit = window.limit();
+			int end = ByteBufferDecoder.indexOf(window, pos, limit, (byte) '\n');
+			
+			if (end == limit && windowOffset + limit < fileLength) { // the line continues in the next window
+				if (pos == 0) throw new IOException("Line " + (lineNumber + 1) + " is larger than the window: " + windowSize);
+				map(windowOffset + pos);
+				continue;
+			}
+			
+			if (pos == limit) return null; // end of the file
+			
+			lineNumber++;
+			
+			if (end == pos || (end == pos + 1 && window.get(pos) == '\r')) { // empty line
+				window.position(Math.min(end + 1, limit));
+				continue;
+			}
+			
+			window.limit(end);
+			
+			Proto proto;
+			
+			try {
+				proto = asciiParser.parse(window);
+			} finally {
+				window.limit(limit).position(Math.min(end + 1, limit));
+			}
+			
+			if (proto != null) return proto;
+			
+			unknownMessages++;
+		}
+	}
+	
+	/**
+	 * Returns the number of the line (from 1) of the last message returned by {@link #next()}.
+	 * 
+	 * @return the line number
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * Returns the number of lines skipped because their messages were not known by the parser.
+	 * 
+	 * @return the number of unknown messages
+	 */
+	public long getUnknownMessages() {
+		return unknownMessages;
+	}
+	
+	/**
+	 * Closes the file. The mapping itself is released by the garbage collector.
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+}
@@ -0,0 +1,164 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Iterates over the messages of a batch written by a {@link ProtoBatchWriter}, parsing them straight from the received buffer:</p>
+ * 
+ * <pre>
+ * int count = batchReader.begin(datagram);
+ * Proto proto;
+ * while((proto = batchReader.next()) != null) {
+ *     long seq = batchReader.getSequence();
+ *     // (...)
+ * }
+ * </pre>
+ * 
+ * <p>Messages that the parser does not know are skipped, but they still take their sequence numbers.</p>
+ */
+public class ProtoBatchReader {
+	
+	private final ProtoParser parser;
+	private ByteBuffer batch;
+	private int index;
+	private int end;
+	private int count;
+	private int read;
+	private long firstSequence;
+	private long sequence;
+	
+	/**
+	 * Creates a new batch reader that parses the messages with the given parser.
+	 * 
+	 * @param parser the parser of the messages
+	 */
+	public ProtoBatchReader(ProtoParser parser) {
+		this.parser = parser;
+	}
+	
+	/**
+	 * Starts reading the batch between the position and the limit of the given buffer. The position and the limit of the buffer are left
+	 * untouched.
+	 * 
+	 * @param batch the buffer with the batch
+	 * @return the number of messages in the batch
+	 */
+	public int begin(ByteBuffer batch) {
+		
+		int start = batch.position();
+		
+		if (batch.limit() - start < ProtoBatchWriter.HEADER_LENGTH) {
+			throw new IllegalStateException("Batch is too short: " + (batch.limit() - start));
+		}
+		
+		this.batch = batch;
+		this.count = batch.getInt(start);
+		this.firstSequence = batch.getLong(start + 4);
+		this.sequence = firstSequence - 1;
+		this.index = start + ProtoBatchWriter.HEADER_LENGTH;
+		this.end = batch.limit();
+		this.read = 0;
+		
+		return count;
+	}
+	
+	/**
+	 * Parses the next message of the batch.
+	 * 
+	 * @return the next message or null if there are no more messages
+	 */
+	public Proto next() {
+		return next(false);
+	}
+	
+	/**
+	 * Same as {@link #next()} but in flyweight (zero-copy) mode. The chars and bytes fields of the returned message are views over the batch
+	 * buffer, so the message is only valid until the buffer is overwritten.
+	 * 
+	 * @return the next message or null if there are no more messages
+	 */
+	public Proto wrapNext() {
+		return next(true);
+	}
+	
+	private final Proto next(boolean wrap) {
+		
+		while(read < count) {
+			
+			if (end - index < ProtoFramer.HEADER_LENGTH) throw new IllegalStateException("Batch is truncated: read=" + read + " count=" + count);
+			
+			int length = batch.getInt(index);
+			
+			// checked before adding it to the index, so a huge length cannot overflow
+			if (length < 0 || length > end - index - ProtoFramer.HEADER_LENGTH) {
+				throw new IllegalStateException("Bad frame length: " + length + " (read=" + read + " count=" + count + ")");
+			}
+			
+			int frameEnd = index + ProtoFramer.HEADER_LENGTH + length;
+			
+			int position = batch.position();
+			int limit = batch.limit();
+			
+			batch.limit(frameEnd).position(index + ProtoFramer.HEADER_LENGTH);
+			
+			// the message is consumed before it is parsed, so a message that fails to parse is not parsed again
+			index = frameEnd;
+			read++;
+			sequence++;
+			
+			Proto proto;
+			
+			try {
+				proto = wrap ? parser.wrap(batch) : parser.parse(batch);
+			} finally {
+				batch.limit(limit).position(position);
+			}
+			
+			if (proto != null) return proto;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns the sequence number of the last message returned by {@link #next()}.
+	 * 
+	 * @return the sequence number of the last message
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Returns the sequence number of the first message of the batch.
+	 * 
+	 * @return the first sequence number
+	 */
+	public long getFirstSequence() {
+		return firstSequence;
+	}
+	
+	/**
+	 * Returns the number of messages in the batch.
+	 * 
+	 * @return the number of messages
+	 */
+	public int getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,161 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Packs many proto messages into a single buffer (for example a datagram of the size of the MTU), so they can be sent with one system call.</p>
+ * 
+ * <p>A batch starts with a header made of the number of messages (int) and the sequence number of the first message (long). Then each message
+ * comes as a frame: its length (int) followed by the message (see {@link ProtoFramer}). Every message written gets the next sequence number.</p>
+ * 
+ * <p>The batch is handed to the {@link Sender} when the next message does not fit in it or when its oldest message has waited more than the
+ * maximum delay. Because nothing runs in the background, the deadline is only checked when you call {@link #write(Proto)} or
+ * {@link #flushIfDue()}, so you should call the latter from your event loop. Use a {@link ProtoBatchReader} to read the batches.</p>
+ */
+public class ProtoBatchWriter {
+	
+	/**
+	 * The length of the batch header (count + first sequence number)
+	 */
+	public static final int HEADER_LENGTH = 4 + 8;
+	
+	/**
+	 * Receives the batches ready to be sent.
+	 */
+	public static interface Sender {
+		
+		/**
+		 * Sends the given batch. The batch must be sent (or copied) before this method returns, because the buffer will be reused.
+		 * 
+		 * @param batch the batch (flipped, ready to be read)
+		 */
+		public void send(ByteBuffer batch);
+	}
+	
+	private final ByteBuffer buffer;
+	private final long maxDelayNanos;
+	private final Sender sender;
+	private long nextSequence;
+	private int count = 0;
+	private long firstSequence;
+	private long firstTimestamp;
+	
+	/**
+	 * Creates a new batch writer with sequence numbers starting at 1.
+	 * 
+	 * @param buffer the buffer of the batches, with the maximum batch size as its capacity
+	 * @param maxDelayNanos the maximum time in nanoseconds a message can wait in the batch
+	 * @param sender where to send the batches
+	 */
+	public ProtoBatchWriter(ByteBuffer buffer, long maxDelayNanos, Sender sender) {
+		this(buffer, maxDelayNanos, sender, 1);
+	}
+	
+	/**
+	 * Creates a new batch writer.
+	 * 
+	 * @param buffer the buffer of the batches, with the maximum batch size as its capacity
+	 * @param maxDelayNanos the maximum time in nanoseconds a message can wait in the batch
+	 * @param sender where to send the batches
+	 * @param firstSequence the sequence number of the first message
+	 */
+	public ProtoBatchWriter(ByteBuffer buffer, long maxDelayNanos, Sender sender, long firstSequence) {
+		if (buffer.capacity() <= HEADER_LENGTH + ProtoFramer.HEADER_LENGTH) throw new IllegalArgumentException("Buffer is too small: " + buffer.capacity());
+		this.buffer = buffer;
+		this.maxDelayNanos = maxDelayNanos;
+		this.sender = sender;
+		this.nextSequence = firstSequence;
+		buffer.clear().position(HEADER_LENGTH);
+	}
+	
+	/**
+	 * Appends the given message to the current batch, sending the batch first if the message does not fit in it.
+	 * 
+	 * @param proto the message to write
+	 * @return the sequence number of the message
+	 */
+	public long write(Proto proto) {
+		
+		if (count == 0 || ProtoFramer.write(proto, buffer) == -1) {
+			
+			flush();
+			
+			if (ProtoFramer.write(proto, buffer) == -1) {
+				throw new IllegalArgumentException("Message does not fit in an empty batch: length=" + proto.getLength() + " capacity=" + buffer.capacity());
+			}
+			
+			firstSequence = nextSequence;
+			firstTimestamp = System.nanoTime();
+		}
+		
+		count++;
+		
+		long sequence = nextSequence++;
+		
+		flushIfDue();
+		
+		return sequence;
+	}
+	
+	/**
+	 * Sends the current batch if its oldest message has waited more than the maximum delay.
+	 * 
+	 * @return true if the batch was sent
+	 */
+	public boolean flushIfDue() {
+		if (count > 0 && System.nanoTime() - firstTimestamp >= maxDelayNanos) {
+			flush();
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Sends the current batch, if it has any message.
+	 */
+	public void flush() {
+		
+		if (count == 0) return;
+		
+		buffer.putInt(0, count).putLong(4, firstSequence);
+		buffer.flip();
+		
+		sender.send(buffer);
+		
+		buffer.clear().position(HEADER_LENGTH);
+		count = 0;
+	}
+	
+	/**
+	 * Returns the number of messages in the current batch.
+	 * 
+	 * @return the number of messages waiting to be sent
+	 */
+	public int getCount() {
+		return count;
+	}
+	
+	/**
+	 * Returns the sequence number that the next message written will get.
+	 * 
+	 * @return the next sequence number
+	 */
+	public long getNextSequence() {
+		return nextSequence;
+	}
+}
@@ -0,0 +1,54 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The fields of a message, read and written in straight-line code. The subclasses are generated at runtime by {@link ProtoCodecGenerator},
+ * one for each kind of message, and hold the fields of one message instance with their concrete types, so each call goes straight to the field,
+ * without the loop and the interface calls of {@link AbstractProto}.
+ */
+abstract class ProtoCodec {
+	
+	/**
+	 * Reads the fields of the message, as {@link AbstractProto#read(ByteBuffer)} does with all the fields projected.
+	 * 
+	 * @param buf the buffer positioned after the type, subtype and version
+	 */
+	abstract void read(ByteBuffer buf);
+	
+	/**
+	 * Wraps the fields of the message, as {@link AbstractProto#wrap(ByteBuffer)} does with all the fields projected.
+	 * 
+	 * @param buf the buffer positioned after the type, subtype and version
+	 */
+	abstract void wrap(ByteBuffer buf);
+	
+	/**
+	 * Writes the fields of the message, after the type, subtype and version.
+	 * 
+	 * @param buf the buffer to write to
+	 */
+	abstract void write(ByteBuffer buf);
+	
+	/**
+	 * Returns the length of the message, including the type, subtype and version.
+	 * 
+	 * @return the length of the message
+	 */
+	abstract int getLength();
+}
@@ -0,0 +1,508 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.coralblocks.coralproto.field.ProtoField;
+
+/**
+ * <p>Generates a {@link ProtoCodec} for a kind of {@link AbstractProto} at runtime. It looks at the fields of a message once and writes the bytecode
+ * of a hidden class with one final field for each proto field, typed with its concrete class, and with the loops of <code>read</code>, <code>wrap</code>,
+ * <code>write</code> and <code>getLength</code> unrolled, so there is one direct (and inlinable) call per field instead of an interface call.
+ * The fixed sizes are added up at generation time.</p>
+ * 
+ * <p>Messages with a presence bitmap or that write their own <code>read</code>/<code>write</code> (direct access) are not supported and keep
+ * using their code. A field whose class cannot be seen from this package is called through its closest visible superclass.</p>
+ */
+final class ProtoCodecGenerator {
+	
+	private static final String CODEC = "com/coralblocks/coralproto/ProtoCodec";
+	private static final String BUFFER = "java/nio/ByteBuffer";
+	private static final String READ_DESC = "(Ljava/nio/ByteBuffer;)V";
+	
+	private static final int JAVA_17 = 61;
+	
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+	
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int AALOAD = 0x32;
+	private static final int BIPUSH = 0x10;
+	private static final int LDC_W = 0x13;
+	private static final int POP = 0x57;
+	private static final int IADD = 0x60;
+	private static final int IFEQ = 0x99;
+	private static final int IF_ICMPNE = 0xa0;
+	private static final int GOTO = 0xa7;
+	private static final int IRETURN = 0xac;
+	private static final int RETURN = 0xb1;
+	private static final int GETFIELD = 0xb4;
+	private static final int PUTFIELD = 0xb5;
+	private static final int INVOKEVIRTUAL = 0xb6;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int CHECKCAST = 0xc0;
+	
+	private final Class<?>[] fieldClasses;
+	private final boolean[] optionals;
+	private final int[] fixedSizes;
+	private final MethodHandle constructor;
+	
+	private ProtoCodecGenerator(Class<?>[] fieldClasses, boolean[] optionals, int[] fixedSizes, MethodHandle constructor) {
+		this.fieldClasses = fieldClasses;
+		this.optionals = optionals;
+		this.fixedSizes = fixedSizes;
+		this.constructor = constructor;
+	}
+	
+	/**
+	 * Generates the codec class for the given message.
+	 * 
+	 * @param proto the message
+	 * @return the generator of codecs for this kind of message or null if the message is not supported (it keeps using the loop)
+	 */
+	static ProtoCodecGenerator generate(AbstractProto proto) {
+		
+		if (!isSupported(proto)) return null;
+		
+		Lookup lookup = MethodHandles.lookup();
+		
+		int size = proto.getNumberOfFields();
+		Class<?>[] fieldClasses = new Class<?>[size];
+		boolean[] optionals = new boolean[size];
+		int[] fixedSizes = new int[size];
+		int fixedLength = 4; // type + subtype + version
+		
+		for(int i = 0; i < size; i++) {
+			ProtoField protoField = proto.getField(i);
+			fieldClasses[i] = getVisibleClass(lookup, protoField.getClass());
+			if (fieldClasses[i] == null) return null;
+			optionals[i] = protoField.isOptional();
+			fixedSizes[i] = protoField.fixedSize();
+			if (fixedSizes[i] >= 0) fixedLength += fixedSizes[i];
+		}
+		
+		try {
+			String className = "com/coralblocks/coralproto/ProtoCodec$" + proto.getClass().getName().replace('.', '_');
+			byte[] bytes = new ClassWriter(className, fieldClasses, optionals, fixedSizes, fixedLength).toByteArray();
+			Lookup codecLookup = lookup.defineHiddenClass(bytes, true);
+			MethodHandle constructor = codecLookup.findConstructor(codecLookup.lookupClass(), MethodType.methodType(void.class, ProtoField[].class));
+			ProtoCodecGenerator generator = new ProtoCodecGenerator(fieldClasses, optionals, fixedSizes, constructor);
+			if (generator.newCodec(proto) == null) return null;
+			return generator;
+		} catch(IOException | ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+	
+	private static boolean isSupported(AbstractProto proto) {
+		if (proto.getNumberOfFields() == 0 || proto.hasPresenceBitmap()) return false;
+		try {
+			Class<?> c = proto.getClass();
+			return c.getMethod("read", ByteBuffer.class).getDeclaringClass() == AbstractProto.class
+				&& c.getMethod("wrap", ByteBuffer.class).getDeclaringClass() == AbstractProto.class
+				&& c.getMethod("write", ByteBuffer.class).getDeclaringClass() == AbstractProto.class
+				&& c.getMethod("getLength").getDeclaringClass() == AbstractProto.class;
+		} catch(NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	private static Class<?> getVisibleClass(Lookup lookup, Class<?> c) {
+		for(; c != null && ProtoField.class.isAssignableFrom(c); c = c.getSuperclass()) {
+			if (c.isHidden()) continue;
+			try {
+				if (Class.forName(c.getName(), false, ProtoCodecGenerator.class.getClassLoader()) != c) continue;
+				lookup.accessClass(c);
+				return c;
+			} catch(ClassNotFoundException | IllegalAccessException e) {
+				// try the superclass
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Creates the codec for the given message, which must have the same fields (same classes, optionality and fixed sizes) as the one used to generate it.
+	 * 
+	 * @param proto the message
+	 * @return the new codec or null if this message has different fields
+	 */
+	ProtoCodec newCodec(AbstractProto proto) {
+		int size = proto.getNumberOfFields();
+		if (size != fieldClasses.length) return null;
+		ProtoField[] protoFields = new ProtoField[size];
+		for(int i = 0; i < size; i++) {
+			ProtoField protoField = proto.getField(i);
+			if (!fieldClasses[i].isInstance(protoField) || protoField.isOptional() != optionals[i] || protoField.fixedSize() != fixedSizes[i]) return null;
+			protoFields[i] = protoField;
+		}
+		try {
+			return (ProtoCodec) constructor.invoke(protoFields);
+		} catch(Throwable t) {
+			return null;
+		}
+	}
+	
+	/**
+	 * A minimal class file writer, with just what the codec needs: a constant pool, the fields and the methods (with their stack map frames).
+	 */
+	private static final class ClassWriter {
+		
+		private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream(1024);
+		private final DataOutputStream pool = new DataOutputStream(poolBytes);
+		private final Map<String, Integer> constants = new HashMap<String, Integer>();
+		private int poolCount = 1;
+		
+		private final String className;
+		private final Class<?>[] fieldClasses;
+		private final boolean[] optionals;
+		private final int[] fixedSizes;
+		private final int fixedLength;
+		
+		ClassWriter(String className, Class<?>[] fieldClasses, boolean[] optionals, int[] fixedSizes, int fixedLength) {
+			this.className = className;
+			this.fieldClasses = fieldClasses;
+			this.optionals = optionals;
+			this.fixedSizes = fixedSizes;
+			this.fixedLength = fixedLength;
+		}
+		
+		byte[] toByteArray() throws IOException {
+			
+			ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(4096);
+			DataOutputStream body = new DataOutputStream(bodyBytes);
+			
+			body.writeShort(ACC_FINAL | ACC_SUPER);
+			body.writeShort(classRef(className));
+			body.writeShort(classRef(CODEC));
+			body.writeShort(0); // interfaces
+			
+			body.writeShort(fieldClasses.length);
+			for(int i = 0; i < fieldClasses.length; i++) {
+				body.writeShort(ACC_PRIVATE | ACC_FINAL);
+				body.writeShort(utf8(fieldName(i)));
+				body.writeShort(utf8(descriptor(fieldClasses[i])));
+				body.writeShort(0); // attributes
+			}
+			
+			body.writeShort(5);
+			writeMethod(body, ACC_PUBLIC, "<init>", "([Lcom/coralblocks/coralproto/field/ProtoField;)V", constructor());
+			writeMethod(body, ACC_FINAL, "read", READ_DESC, read("readFrom"));
+			writeMethod(body, ACC_FINAL, "wrap", READ_DESC, read("wrapFrom"));
+			writeMethod(body, ACC_FINAL, "write", READ_DESC, write());
+			writeMethod(body, ACC_FINAL, "getLength", "()I", getLength());
+			
+			body.writeShort(0); // attributes
+			
+			ByteArrayOutputStream classBytes = new ByteArrayOutputStream(poolBytes.size() + bodyBytes.size() + 16);
+			DataOutputStream out = new DataOutputStream(classBytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(JAVA_17);
+			out.writeShort(poolCount);
+			poolBytes.writeTo(out);
+			bodyBytes.writeTo(out);
+			out.flush();
+			return classBytes.toByteArray();
+		}
+		
+		private Code constructor() throws IOException {
+			Code code = new Code();
+			code.op(ALOAD_0);
+			code.op(INVOKESPECIAL, methodRef(CODEC, "<init>", "()V"));
+			for(int i = 0; i < fieldClasses.length; i++) {
+				code.op(ALOAD_0);
+				code.op(ALOAD_1);
+				code.op(LDC_W, integer(i));
+				code.op(AALOAD);
+				code.op(CHECKCAST, classRef(internalName(fieldClasses[i])));
+				code.op(PUTFIELD, fieldRef(i));
+			}
+			code.op(RETURN);
+			return code;
+		}
+		
+		private Code read(String readMethod) throws IOException {
+			Code code = new Code();
+			int hasRemaining = methodRef(BUFFER, "hasRemaining", "()Z");
+			int get = methodRef(BUFFER, "get", "()B");
+			for(int i = 0; i < fieldClasses.length; i++) {
+				String owner = internalName(fieldClasses[i]);
+				Label notPresent = new Label();
+				Label end = new Label();
+				code.op(ALOAD_1);
+				code.op(INVOKEVIRTUAL, hasRemaining);
+				code.branch(IFEQ, notPresent);
+				if (optionals[i]) {
+					code.op(ALOAD_1);
+					code.op(INVOKEVIRTUAL, get);
+					code.op(BIPUSH, 'Y');
+					code.branch(IF_ICMPNE, notPresent);
+				}
+				code.op(ALOAD_0);
+				code.op(GETFIELD, fieldRef(i));
+				code.op(ALOAD_1);
+				code.op(INVOKEVIRTUAL, methodRef(owner, readMethod, READ_DESC));
+				code.branch(GOTO, end);
+				code.bind(notPresent);
+				code.op(ALOAD_0);
+				code.op(GETFIELD, fieldRef(i));
+				code.op(INVOKEVIRTUAL, methodRef(owner, optionals[i] ? "markAsNotPresent" : "reset", "()V"));
+				code.bind(end);
+			}
+			code.op(RETURN);
+			return code;
+		}
+		
+		private Code write() throws IOException {
+			Code code = new Code();
+			int put = methodRef(BUFFER, "put", "(B)Ljava/nio/ByteBuffer;");
+			for(int i = 0; i < fieldClasses.length; i++) {
+				String owner = internalName(fieldClasses[i]);
+				Label notPresent = new Label();
+				Label end = new Label();
+				if (optionals[i]) {
+					code.op(ALOAD_0);
+					code.op(GETFIELD, fieldRef(i));
+					code.op(INVOKEVIRTUAL, methodRef(owner, "isPresent", "()Z"));
+					code.branch(IFEQ, notPresent);
+					code.op(ALOAD_1);
+					code.op(BIPUSH, 'Y');
+					code.op(INVOKEVIRTUAL, put);
+					code.op(POP);
+				}
+				code.op(ALOAD_0);
+				code.op(GETFIELD, fieldRef(i));
+				code.op(ALOAD_1);
+				code.op(INVOKEVIRTUAL, methodRef(owner, "writeTo", READ_DESC));
+				if (optionals[i]) {
+					code.branch(GOTO, end);
+					code.bind(notPresent);
+					code.op(ALOAD_1);
+					code.op(BIPUSH, 'N');
+					code.op(INVOKEVIRTUAL, put);
+					code.op(POP);
+					code.bind(end);
+				}
+			}
+			code.op(RETURN);
+			return code;
+		}
+		
+		private Code getLength() throws IOException {
+			Code code = new Code();
+			code.op(LDC_W, integer(fixedLength));
+			for(int i = 0; i < fieldClasses.length; i++) {
+				if (fixedSizes[i] >= 0) continue; // already in the fixed length
+				code.op(ALOAD_0);
+				code.op(GETFIELD, fieldRef(i));
+				code.op(INVOKEVIRTUAL, methodRef(internalName(fieldClasses[i]), "size", "()I"));
+				code.op(IADD);
+			}
+			code.op(IRETURN);
+			return code;
+		}
+		
+		private void writeMethod(DataOutputStream out, int access, String name, String descriptor, Code code) throws IOException {
+			
+			out.writeShort(access);
+			out.writeShort(utf8(name));
+			out.writeShort(utf8(descriptor));
+			out.writeShort(1); // attributes
+			
+			byte[] stackMap = code.stackMapTable();
+			
+			out.writeShort(utf8("Code"));
+			out.writeInt(12 + code.length + (stackMap != null ? 6 + stackMap.length : 0));
+			out.writeShort(3); // max stack
+			out.writeShort(2); // max locals
+			out.writeInt(code.length);
+			out.write(code.bytes, 0, code.length);
+			out.writeShort(0); // exception table
+			if (stackMap != null) {
+				out.writeShort(1);
+				out.writeShort(utf8("StackMapTable"));
+				out.writeInt(stackMap.length);
+				out.write(stackMap);
+			} else {
+				out.writeShort(0);
+			}
+		}
+		
+		private static String fieldName(int index) {
+			return "f" + index;
+		}
+		
+		private static String internalName(Class<?> c) {
+			return c.getName().replace('.', '/');
+		}
+		
+		private static String descriptor(Class<?> c) {
+			return "L" + internalName(c) + ";";
+		}
+		
+		private int utf8(String s) throws IOException {
+			String key = "U" + s;
+			Integer index = constants.get(key);
+			if (index != null) return index;
+			pool.writeByte(1);
+			pool.writeUTF(s);
+			return add(key);
+		}
+		
+		private int integer(int value) throws IOException {
+			String key = "I" + value;
+			Integer index = constants.get(key);
+			if (index != null) return index;
+			pool.writeByte(3);
+			pool.writeInt(value);
+			return add(key);
+		}
+		
+		private int classRef(String internalName) throws IOException {
+			String key = "C" + internalName;
+			Integer index = constants.get(key);
+			if (index != null) return index;
+			int name = utf8(internalName);
+			pool.writeByte(7);
+			pool.writeShort(name);
+			return add(key);
+		}
+		
+		private int nameAndType(String name, String descriptor) throws IOException {
+			String key = "N" + name + ":" + descriptor;
+			Integer index = constants.get(key);
+			if (index != null) return index;
+			int n = utf8(name);
+			int d = utf8(descriptor);
+			pool.writeByte(12);
+			pool.writeShort(n);
+			pool.writeShort(d);
+			return add(key);
+		}
+		
+		private int fieldRef(int fieldIndex) throws IOException {
+			return memberRef(9, className, fieldName(fieldIndex), descriptor(fieldClasses[fieldIndex]));
+		}
+		
+		private int methodRef(String owner, String name, String descriptor) throws IOException {
+			return memberRef(10, owner, name, descriptor);
+		}
+		
+		private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+			String key = tag + owner + "." + name + ":" + descriptor;
+			Integer index = constants.get(key);
+			if (index != null) return index;
+			int c = classRef(owner);
+			int nt = nameAndType(name, descriptor);
+			pool.writeByte(tag);
+			pool.writeShort(c);
+			pool.writeShort(nt);
+			return add(key);
+		}
+		
+		private int add(String key) {
+			int index = poolCount++;
+			constants.put(key, index);
+			return index;
+		}
+	}
+	
+	private static final class Label {
+		final List<Integer> branches = new ArrayList<Integer>(2);
+	}
+	
+	/**
+	 * The bytecode of a method. The branches only go forward and the targets all have the same frame (this and the buffer, with an empty stack).
+	 */
+	private static final class Code {
+		
+		byte[] bytes = new byte[256];
+		int length;
+		private final TreeSet<Integer> targets = new TreeSet<Integer>();
+		
+		void op(int opcode) {
+			u1(opcode);
+		}
+		
+		void op(int opcode, int operand) {
+			u1(opcode);
+			if (opcode == BIPUSH) u1(operand); else u2(operand);
+		}
+		
+		void branch(int opcode, Label label) {
+			label.branches.add(length);
+			u1(opcode);
+			u2(0); // patched by bind
+		}
+		
+		void bind(Label label) {
+			for(int branch : label.branches) {
+				int offset = length - branch;
+				bytes[branch + 1] = (byte) (offset >>> 8);
+				bytes[branch + 2] = (byte) offset;
+			}
+			targets.add(length);
+		}
+		
+		byte[] stackMapTable() {
+			if (targets.isEmpty()) return null;
+			ByteArrayOutputStream out = new ByteArrayOutputStream(targets.size() * 3 + 2);
+			out.write(targets.size() >>> 8);
+			out.write(targets.size());
+			int previous = -1;
+			for(int target : targets) {
+				int delta = target - previous - 1;
+				if (delta < 64) {
+					out.write(delta); // same_frame
+				} else {
+					out.write(251); // same_frame_extended
+					out.write(delta >>> 8);
+					out.write(delta);
+				}
+				previous = target;
+			}
+			return out.toByteArray();
+		}
+		
+		private void u1(int b) {
+			if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+			bytes[length++] = (byte) b;
+		}
+		
+		private void u2(int s) {
+			u1(s >>> 8);
+			u1(s);
+		}
+	}
+}
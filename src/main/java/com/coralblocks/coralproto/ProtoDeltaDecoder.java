@@ -0,0 +1,132 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.util.LongObjectMap;
+import com.coralblocks.coralproto.util.VarIntUtils;
+
+/**
+ * Reads the deltas written by a {@link ProtoDeltaEncoder}, keeping the last message of each key, and returns the whole message. Nothing is
+ * allocated, except when a new key is seen.
+ */
+public class ProtoDeltaDecoder {
+	
+	private final AbstractProto proto;
+	private final int numberOfFields;
+	private final int keyIndex;
+	private final int[] deltaSizes;
+	private final int maxMessageLength;
+	private final long allFields;
+	private final ByteBuffer scratch;
+	private final int[] offsets;
+	private final int[] lengths;
+	private final LongObjectMap<DeltaState> states = new LongObjectMap<DeltaState>();
+	
+	/**
+	 * Creates a new delta decoder that reads the deltas into the given message.
+	 * 
+	 * @param proto the message returned by {@link #read(ByteBuffer)}
+	 * @param keyField the name of the (required long or int) field with the key
+	 * @param maxMessageLength the maximum length of a message (as written by {@link Proto#write(ByteBuffer)})
+	 */
+	public ProtoDeltaDecoder(AbstractProto proto, String keyField, int maxMessageLength) {
+		this.proto = proto;
+		this.numberOfFields = proto.getNumberOfFields();
+		if (numberOfFields > Long.SIZE) throw new IllegalArgumentException("Delta encoding supports at most " + Long.SIZE + " fields: " + numberOfFields);
+		this.keyIndex = ProtoDeltaEncoder.getKeyIndex(proto, keyField);
+		this.deltaSizes = new int[numberOfFields];
+		for(int i = 0; i < numberOfFields; i++) deltaSizes[i] = DeltaState.getDeltaSize(proto.getField(i));
+		this.maxMessageLength = maxMessageLength;
+		this.allFields = (numberOfFields == Long.SIZE ? -1L : (1L << numberOfFields) - 1) & ~(1L << keyIndex);
+		this.scratch = ByteBuffer.allocate(maxMessageLength);
+		this.offsets = new int[numberOfFields];
+		this.lengths = new int[numberOfFields];
+	}
+	
+	/**
+	 * Reads the delta at the position of the given buffer and applies it to the last message of its key.
+	 * 
+	 * @param buf the buffer with the delta
+	 * @return the whole message
+	 */
+	public AbstractProto read(ByteBuffer buf) {
+		
+		byte type = buf.get();
+		byte subtype = buf.get();
+		short version = buf.getShort();
+		
+		if (type != (byte) proto.getType() || subtype != (byte) proto.getSubtype() || version != proto.getVersion()) {
+			throw new IllegalStateException("Not a delta of " + proto.getClass().getSimpleName() + ": type=" + (char) type + " subtype=" + (char) subtype + " version=" + version);
+		}
+		
+		long key = VarIntUtils.getVarLong(buf);
+		long changed = VarIntUtils.getUnsignedVarLong(buf);
+		long deltas = VarIntUtils.getUnsignedVarLong(buf);
+		
+		DeltaState state = states.get(key);
+		
+		if (state == null && (changed != allFields || deltas != 0)) throw new IllegalStateException("No previous message for key: " + key);
+		
+		scratch.clear();
+		scratch.put(type).put(subtype).putShort(version);
+		
+		for(int i = 0; i < numberOfFields; i++) {
+			
+			int start = scratch.position();
+			long bit = 1L << i;
+			
+			if (i == keyIndex) {
+				if (deltaSizes[i] == 8) scratch.putLong(key); else scratch.putInt((int) key);
+			} else if ((changed & bit) == 0) {
+				DeltaState.append(scratch, state.data, state.offsets[i], state.lengths[i]);
+			} else if ((deltas & bit) != 0) {
+				DeltaState.append(scratch, state.data, state.offsets[i], state.lengths[i]);
+				long last = DeltaState.getValue(state.data, state.offsets[i], state.lengths[i], deltaSizes[i]);
+				DeltaState.putValue(scratch, start, state.lengths[i], deltaSizes[i], last + VarIntUtils.getVarLong(buf));
+			} else {
+				int pos = buf.position();
+				DeltaState.skip(buf, proto.getField(i));
+				DeltaState.append(scratch, buf, pos, buf.position() - pos);
+			}
+			
+			offsets[i] = start;
+			lengths[i] = scratch.position() - start;
+		}
+		
+		int length = scratch.position();
+		
+		if (state == null) {
+			state = new DeltaState(numberOfFields, maxMessageLength);
+			states.put(key, state);
+		}
+		
+		state.copyFrom(scratch, length, offsets, lengths);
+		
+		scratch.flip().position(4);
+		proto.read(scratch);
+		
+		return proto;
+	}
+	
+	/**
+	 * Forgets the last message of every key.
+	 */
+	public void reset() {
+		states.clear();
+	}
+}
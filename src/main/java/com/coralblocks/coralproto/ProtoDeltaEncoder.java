@@ -0,0 +1,152 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.util.LongObjectMap;
+import com.coralblocks.coralproto.util.VarIntUtils;
+
+/**
+ * <p>Writes a message as a delta against the last message written with the same key (for example the <code>symbolId</code> of a market data
+ * stream). A delta is:</p>
+ * 
+ * <ul>
+ *   <li>the type, subtype and version of the message (4 bytes)</li>
+ *   <li>the key (varint)</li>
+ *   <li>a bitmap (varint) with the fields that changed</li>
+ *   <li>a bitmap (varint) with the changed fields that are sent as an arithmetic delta</li>
+ *   <li>for each changed field, in order, the difference from the last value (varint) for the <code>long</code>, <code>int</code>,
+ *   <code>double</code> and <code>float</code> fields present in both messages, or the field as it goes on the wire otherwise</li>
+ * </ul>
+ * 
+ * <p>The first message of a key goes with all its fields. Use a {@link ProtoDeltaDecoder} to read the deltas. The encoder and the decoder must
+ * see the same messages in the same order, so a lost delta requires both of them to be reset. The messages must have at most 64 fields.
+ * Nothing is allocated, except when a new key is seen.</p>
+ */
+public class ProtoDeltaEncoder {
+	
+	private final AbstractProto template;
+	private final int numberOfFields;
+	private final int keyIndex;
+	private final int[] deltaSizes;
+	private final int maxMessageLength;
+	private final ByteBuffer scratch;
+	private final int[] offsets;
+	private final int[] lengths;
+	private final LongObjectMap<DeltaState> states = new LongObjectMap<DeltaState>();
+	
+	/**
+	 * Creates a new delta encoder for messages of the same class as the given one.
+	 * 
+	 * @param proto a message of the class that will be encoded
+	 * @param keyField the name of the (required long or int) field with the key
+	 * @param maxMessageLength the maximum length of a message (as written by {@link Proto#write(ByteBuffer)})
+	 */
+	public ProtoDeltaEncoder(AbstractProto proto, String keyField, int maxMessageLength) {
+		this.template = proto;
+		this.numberOfFields = proto.getNumberOfFields();
+		if (numberOfFields > Long.SIZE) throw new IllegalArgumentException("Delta encoding supports at most " + Long.SIZE + " fields: " + numberOfFields);
+		this.keyIndex = getKeyIndex(proto, keyField);
+		this.deltaSizes = new int[numberOfFields];
+		for(int i = 0; i < numberOfFields; i++) deltaSizes[i] = DeltaState.getDeltaSize(proto.getField(i));
+		this.maxMessageLength = maxMessageLength;
+		this.scratch = ByteBuffer.allocate(maxMessageLength);
+		this.offsets = new int[numberOfFields];
+		this.lengths = new int[numberOfFields];
+	}
+	
+	static int getKeyIndex(AbstractProto proto, String keyField) {
+		if (proto.hasPresenceBitmap()) throw new IllegalArgumentException("Delta encoding does not support messages with a presence bitmap");
+		int index = proto.getFieldIndex(keyField);
+		ProtoField protoField = proto.getField(index);
+		if (!(protoField instanceof LongField || protoField instanceof IntField) || protoField.isOptional()) {
+			throw new IllegalArgumentException("The key must be a required long or int field: " + keyField);
+		}
+		return index;
+	}
+	
+	/**
+	 * Writes the given message as a delta against the last message written with the same key.
+	 * 
+	 * @param proto the message to write (of the same class given in the constructor)
+	 * @param buf the buffer to write the delta to
+	 * @return the number of bytes written
+	 */
+	public int write(AbstractProto proto, ByteBuffer buf) {
+		
+		if (proto.getClass() != template.getClass()) throw new IllegalArgumentException("Cannot encode " + proto.getClass().getSimpleName());
+		
+		scratch.clear();
+		proto.write(scratch);
+		int length = scratch.position();
+		DeltaState.layout(proto, scratch, offsets, lengths);
+		
+		long key = DeltaState.getValue(scratch, offsets[keyIndex], lengths[keyIndex], deltaSizes[keyIndex]);
+		
+		DeltaState state = states.get(key);
+		
+		long changed = 0;
+		long deltas = 0;
+		
+		for(int i = 0; i < numberOfFields; i++) {
+			if (i == keyIndex) continue;
+			if (state != null) {
+				if (DeltaState.equals(scratch, offsets[i], lengths[i], state.data, state.offsets[i], state.lengths[i])) continue;
+				if (deltaSizes[i] > 0 && lengths[i] == state.lengths[i] && lengths[i] > 1) deltas |= 1L << i; // both present
+			}
+			changed |= 1L << i;
+		}
+		
+		int start = buf.position();
+		
+		buf.put(scratch.get(0)).put(scratch.get(1)).putShort(scratch.getShort(2)); // type, subtype and version
+		VarIntUtils.putVarLong(buf, key);
+		VarIntUtils.putUnsignedVarLong(buf, changed);
+		VarIntUtils.putUnsignedVarLong(buf, deltas);
+		
+		for(int i = 0; i < numberOfFields; i++) {
+			long bit = 1L << i;
+			if ((changed & bit) == 0) continue;
+			if ((deltas & bit) != 0) {
+				long value = DeltaState.getValue(scratch, offsets[i], lengths[i], deltaSizes[i]);
+				long last = DeltaState.getValue(state.data, state.offsets[i], state.lengths[i], deltaSizes[i]);
+				VarIntUtils.putVarLong(buf, value - last);
+			} else {
+				DeltaState.append(buf, scratch, offsets[i], lengths[i]);
+			}
+		}
+		
+		if (state == null) {
+			state = new DeltaState(numberOfFields, maxMessageLength);
+			states.put(key, state);
+		}
+		
+		state.copyFrom(scratch, length, offsets, lengths);
+		
+		return buf.position() - start;
+	}
+	
+	/**
+	 * Forgets the last message of every key, so the next message of each key goes with all its fields.
+	 */
+	public void reset() {
+		states.clear();
+	}
+}
@@ -0,0 +1,184 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Frames proto messages for stream transports (TCP sockets, files, pipes) where the receiver gets bytes and not messages. Each frame is a
+ * 4-byte int with the length of the message followed by the message itself (as written by {@link Proto#write(ByteBuffer)}).</p>
+ * 
+ * <p>The stream buffer is used the way a channel fills it: data is appended at its position and it is never flipped. This framer keeps its own
+ * read index, so a buffer with many messages, and a partial message at the end, can be decoded one frame at a time:</p>
+ * 
+ * <pre>
+ * while(channel.read(streamBuffer) &gt; 0) {
+ *     Proto proto;
+ *     while((proto = framer.next(streamBuffer)) != null) {
+ *         // (...)
+ *     }
+ *     framer.compact(streamBuffer);
+ * }
+ * </pre>
+ * 
+ * <p>Nothing is allocated. {@link #compact(ByteBuffer)} moves only the bytes of the last partial frame (if any) to the beginning of the buffer,
+ * never the messages that were already decoded.</p>
+ */
+public class ProtoFramer {
+	
+	/**
+	 * The length of the frame header (the int with the length of the message)
+	 */
+	public static final int HEADER_LENGTH = 4;
+	
+	private final ProtoParser parser;
+	private int readIndex = 0;
+	private long unknownFrames = 0;
+	
+	/**
+	 * Creates a new framer that decodes its frames with the given parser.
+	 * 
+	 * @param parser the parser of the messages
+	 */
+	public ProtoFramer(ProtoParser parser) {
+		this.parser = parser;
+	}
+	
+	/**
+	 * Writes the given message as a frame (length header + message) at the position of the given buffer.
+	 * 
+	 * @param proto the message to write
+	 * @param buf the buffer to write to
+	 * @return the length of the frame written or -1 if the buffer does not have enough room for it (nothing is written in that case)
+	 */
+	public static int write(Proto proto, ByteBuffer buf) {
+		int frameLength = HEADER_LENGTH + proto.getLength();
+		if (buf.remaining() < frameLength) return -1;
+		buf.putInt(frameLength - HEADER_LENGTH);
+		proto.write(buf);
+		return frameLength;
+	}
+	
+	/**
+	 * Parses the next complete frame of the given stream buffer. The bytes between the read index of this framer and the position of the buffer
+	 * are the bytes received and not yet decoded. The position and the limit of the buffer are left untouched. If the parser throws, the frame
+	 * is consumed anyway, so the next call goes on with the next frame.
+	 * 
+	 * @param stream the stream buffer, where the bytes received are appended
+	 * @return the next message or null if there is no complete frame in the buffer
+	 */
+	public Proto next(ByteBuffer stream) {
+		return next(stream, false);
+	}
+	
+	/**
+	 * Same as {@link #next(ByteBuffer)} but in flyweight (zero-copy) mode. The chars and bytes fields of the returned message are views over
+	 * the stream buffer, so the message is only valid until the buffer is compacted or overwritten.
+	 * 
+	 * @param stream the stream buffer, where the bytes received are appended
+	 * @return the next message or null if there is no complete frame in the buffer
+	 */
+	public Proto wrapNext(ByteBuffer stream) {
+		return next(stream, true);
+	}
+	
+	private final Proto next(ByteBuffer stream, boolean wrap) {
+		
+		final int end = stream.position();
+		
+		while(end - readIndex >= HEADER_LENGTH) {
+			
+			int length = stream.getInt(readIndex);
+			
+			if (length < 0 || length > stream.capacity() - HEADER_LENGTH) {
+				throw new IllegalStateException("Bad frame length: " + length + " (capacity=" + stream.capacity() + ")");
+			}
+			
+			int frameEnd = readIndex + HEADER_LENGTH + length;
+			
+			if (frameEnd > end) return null; // partial frame
+			
+			int limit = stream.limit();
+			
+			stream.limit(frameEnd).position(readIndex + HEADER_LENGTH);
+			
+			// the whole frame is consumed, even if the parser read less (newer version) or failed (so the bad frame is not parsed again)
+			readIndex = frameEnd;
+			
+			Proto proto;
+			
+			try {
+				proto = wrap ? parser.wrap(stream) : parser.parse(stream);
+			} finally {
+				stream.limit(limit).position(end);
+			}
+			
+			if (proto != null) return proto;
+			
+			unknownFrames++;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Moves the bytes of the partial frame at the end of the stream buffer (if any) to its beginning, so more bytes can be appended to it.
+	 * When all the frames were decoded nothing is copied.
+	 * 
+	 * @param stream the stream buffer
+	 */
+	public void compact(ByteBuffer stream) {
+		
+		if (readIndex == 0) return;
+		
+		int pending = stream.position() - readIndex;
+		
+		// forward copy to a lower index, so overlapping regions are fine
+		int i = 0;
+		for(; i + 8 <= pending; i += 8) stream.putLong(i, stream.getLong(readIndex + i));
+		for(; i < pending; i++) stream.put(i, stream.get(readIndex + i));
+		
+		stream.position(pending);
+		
+		readIndex = 0;
+	}
+	
+	/**
+	 * Returns the number of bytes received and not yet decoded.
+	 * 
+	 * @param stream the stream buffer
+	 * @return the number of pending bytes
+	 */
+	public int pending(ByteBuffer stream) {
+		return stream.position() - readIndex;
+	}
+	
+	/**
+	 * Returns the number of complete frames that were skipped because the parser did not know their messages.
+	 * 
+	 * @return the number of unknown frames
+	 */
+	public long getUnknownFrames() {
+		return unknownFrames;
+	}
+	
+	/**
+	 * Forgets the bytes not yet decoded, so the stream buffer can be cleared and reused.
+	 */
+	public void reset() {
+		readIndex = 0;
+	}
+}
@@ -0,0 +1,240 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>An append-only journal of proto messages over memory-mapped files. Each record is the length of the message (int), its sequence number (long),
+ * its timestamp (long) and the message itself, written straight into the mapped file by {@link Proto#write(java.nio.ByteBuffer)}. The records start
+ * at 4-byte boundaries, so the length can be published to a reader in another thread (or process) with a release store.</p>
+ * 
+ * <p>The journal is made of segment files of a fixed size (<code>name-00000.journal</code>, <code>name-00001.journal</code>, etc.) inside a directory.
+ * When a record does not fit in the current segment, the next segment is created. Appending does not produce garbage, except when a new segment
+ * is mapped. Opening an existing journal continues it after its last record. Use a {@link ProtoJournalReader} to replay it.</p>
+ * 
+ * <p>This class is not thread-safe.</p>
+ */
+public class ProtoJournal implements Closeable {
+	
+	/**
+	 * The length of the record header (length + sequence + timestamp)
+	 */
+	public static final int HEADER_LENGTH = 4 + 8 + 8;
+	
+	/**
+	 * The length written when the rest of the segment is unused and the journal continues in the next segment
+	 */
+	static final int END_OF_SEGMENT = -1;
+	
+	// the length of a record is published last (release) and read first (acquire), so a reader never sees a partial record
+	static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	
+	private final File dir;
+	private final String name;
+	private final int segmentSize;
+	private int segmentIndex;
+	private RandomAccessFile file;
+	private MappedByteBuffer segment;
+	private long nextSequence = 1;
+	
+	/**
+	 * Opens the given journal, creating it if it does not exist.
+	 * 
+	 * @param dir the directory of the segment files
+	 * @param name the name of the journal
+	 * @param segmentSize the size in bytes of each segment file
+	 * @throws IOException if the segment files cannot be created or mapped or a record is corrupted
+	 */
+	public ProtoJournal(File dir, String name, int segmentSize) throws IOException {
+		
+		if (segmentSize <= HEADER_LENGTH) throw new IllegalArgumentException("Segment size is too small: " + segmentSize);
+		
+		if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create directory: " + dir);
+		
+		this.dir = dir;
+		this.name = name;
+		this.segmentSize = segmentSize;
+		
+		int last = 0;
+		while(getSegmentFile(dir, name, last + 1).exists()) last++;
+		
+		map(last);
+		
+		try {
+			
+			// find the end of the last segment (and the last sequence)
+			while(segment.remaining() >= HEADER_LENGTH) {
+				int pos = segment.position();
+				int length = segment.getInt(pos);
+				if (length == 0) break;
+				if (length == END_OF_SEGMENT) {
+					segment.position(segment.limit());
+					break;
+				}
+				checkRecord(dir, name, last, pos, length, segment.limit());
+				nextSequence = segment.getLong(pos + 4) + 1;
+				segment.position(nextRecord(pos, length, segment.limit()));
+			}
+			
+			if (nextSequence == 1 && last > 0) nextSequence = findLastSequence(last - 1) + 1;
+			
+		} catch(IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+	
+	static File getSegmentFile(File dir, String name, int index) {
+		StringBuilder sb = new StringBuilder(name.length() + 16);
+		sb.append(name).append('-');
+		String s = String.valueOf(index);
+		for(int i = s.length(); i < 5; i++) sb.append('0');
+		sb.append(s).append(".journal");
+		return new File(dir, sb.toString());
+	}
+	
+	/**
+	 * Returns the position of the record after the given one, at the next 4-byte boundary (or the end of the segment).
+	 * 
+	 * @param pos the position of the record
+	 * @param length the length of its message
+	 * @param limit the end of the segment
+	 * @return the position of the next record
+	 */
+	static int nextRecord(int pos, int length, int limit) {
+		return Math.min((pos + HEADER_LENGTH + length + 3) & ~3, limit);
+	}
+	
+	/**
+	 * Checks that the record at the given position of the given segment (with a length that is not 0 or END_OF_SEGMENT) fits in the segment.
+	 * 
+	 * @param dir the directory of the segment files
+	 * @param name the name of the journal
+	 * @param index the index of the segment
+	 * @param pos the position of the record
+	 * @param length the length of the message of the record
+	 * @param limit the end of the segment
+	 * @throws IOException if the length is corrupted
+	 */
+	static void checkRecord(File dir, String name, int index, int pos, int length, int limit) throws IOException {
+		if (length < 0 || length > limit - pos - HEADER_LENGTH) { // not pos + HEADER_LENGTH + length, which can overflow
+			throw new IOException("Corrupted journal record: length=" + length + " position=" + pos + " segment=" + getSegmentFile(dir, name, index));
+		}
+	}
+	
+	private long findLastSequence(int index) throws IOException {
+		long lastSequence = 0;
+		try (RandomAccessFile raf = new RandomAccessFile(getSegmentFile(dir, name, index), "r")) {
+			MappedByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+			int pos = 0;
+			while(buf.limit() - pos >= HEADER_LENGTH) {
+				int length = buf.getInt(pos);
+				if (length == 0 || length == END_OF_SEGMENT) break;
+				checkRecord(dir, name, index, pos, length, buf.limit());
+				lastSequence = buf.getLong(pos + 4);
+				pos = nextRecord(pos, length, buf.limit());
+			}
+		}
+		return lastSequence;
+	}
+	
+	private void map(int index) throws IOException {
+		if (file != null) file.close();
+		File f = getSegmentFile(dir, name, index);
+		file = new RandomAccessFile(f, "rw");
+		if (file.length() < segmentSize) file.setLength(segmentSize);
+		segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+		segmentIndex = index;
+	}
+	
+	/**
+	 * Appends the given message to this journal with the current time (epoch milliseconds) as its timestamp.
+	 * 
+	 * @param proto the message to append
+	 * @return the sequence number of the message
+	 * @throws IOException if a new segment cannot be created
+	 */
+	public long append(Proto proto) throws IOException {
+		return append(proto, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Appends the given message to this journal.
+	 * 
+	 * @param proto the message to append
+	 * @param timestamp the timestamp of the message (in any unit you want)
+	 * @return the sequence number of the message
+	 * @throws IOException if a new segment cannot be created
+	 */
+	public long append(Proto proto, long timestamp) throws IOException {
+		
+		int length = proto.getLength();
+		
+		if (HEADER_LENGTH + length > segmentSize) {
+			throw new IllegalArgumentException("Message does not fit in a segment: length=" + length + " segmentSize=" + segmentSize);
+		}
+		
+		if (segment.remaining() < HEADER_LENGTH + length) {
+			if (segment.remaining() >= 4) LENGTH.setRelease(segment, segment.position(), END_OF_SEGMENT);
+			map(segmentIndex + 1);
+		}
+		
+		int pos = segment.position();
+		long sequence = nextSequence++;
+		
+		segment.position(pos + HEADER_LENGTH);
+		proto.write(segment);
+		segment.putLong(pos + 4, sequence).putLong(pos + 12, timestamp);
+		LENGTH.setRelease(segment, pos, length); // last, so a reader never sees a partial record
+		segment.position(nextRecord(pos, length, segment.limit()));
+		
+		return sequence;
+	}
+	
+	/**
+	 * Forces the records appended so far to be written to disk.
+	 */
+	public void flush() {
+		segment.force();
+	}
+	
+	/**
+	 * Returns the sequence number that the next message appended will get.
+	 * 
+	 * @return the next sequence number
+	 */
+	public long getNextSequence() {
+		return nextSequence;
+	}
+	
+	/**
+	 * Closes the current segment file. The mapping itself is released by the garbage collector.
+	 */
+	@Override
+	public void close() throws IOException {
+		segment.force();
+		file.close();
+	}
+}
@@ -0,0 +1,167 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>Replays a journal written by a {@link ProtoJournal}, parsing the messages straight from the mapped segment files (no copies):</p>
+ * 
+ * <pre>
+ * try (ProtoJournalReader reader = new ProtoJournalReader(dir, "orders", protoParser)) {
+ *     Proto proto;
+ *     while((proto = reader.next()) != null) {
+ *         long seq = reader.getSequence();
+ *         long timestamp = reader.getTimestamp();
+ *         // (...)
+ *     }
+ * }
+ * </pre>
+ * 
+ * <p>When it reaches the end of the journal, {@link #next()} returns null, but you can keep calling it to get the records appended afterwards.
+ * Messages that the parser does not know are skipped.</p>
+ */
+public class ProtoJournalReader implements Closeable {
+	
+	private final File dir;
+	private final String name;
+	private final ProtoParser parser;
+	private int segmentIndex = -1;
+	private RandomAccessFile file;
+	private MappedByteBuffer segment;
+	private long sequence;
+	private long timestamp;
+	
+	/**
+	 * Opens the given journal for replay, from its first record.
+	 * 
+	 * @param dir the directory of the segment files
+	 * @param name the name of the journal
+	 * @param parser the parser of the messages
+	 * @throws IOException if the first segment cannot be mapped
+	 */
+	public ProtoJournalReader(File dir, String name, ProtoParser parser) throws IOException {
+		this.dir = dir;
+		this.name = name;
+		this.parser = parser;
+		if (!map(0)) throw new IOException("Journal not found: " + ProtoJournal.getSegmentFile(dir, name, 0));
+	}
+	
+	private boolean map(int index) throws IOException {
+		File f = ProtoJournal.getSegmentFile(dir, name, index);
+		if (!f.exists()) return false;
+		RandomAccessFile raf = new RandomAccessFile(f, "r");
+		long length = raf.length();
+		if (length < ProtoJournal.HEADER_LENGTH) { // just created by the journal, which has not sized it yet: try again later
+			raf.close();
+			return false;
+		}
+		if (file != null) file.close();
+		file = raf;
+		segment = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+		segmentIndex = index;
+		return true;
+	}
+	
+	/**
+	 * Parses the next message of the journal.
+	 * 
+	 * @return the next message or null if the end of the journal was reached
+	 * @throws IOException if the next segment cannot be mapped or the next record is corrupted
+	 */
+	public Proto next() throws IOException {
+		return next(false);
+	}
+	
+	/**
+	 * Same as {@link #next()} but in flyweight (zero-copy) mode. The chars and bytes fields of the returned message are views over the
+	 * mapped segment.
+	 * 
+	 * @return the next message or null if the end of the journal was reached
+	 * @throws IOException if the next segment cannot be mapped or the next record is corrupted
+	 */
+	public Proto wrapNext() throws IOException {
+		return next(true);
+	}
+	
+	private final Proto next(boolean wrap) throws IOException {
+		
+		while(true) {
+			
+			int pos = segment.position();
+			int length = segment.limit() - pos >= ProtoJournal.HEADER_LENGTH ? (int) ProtoJournal.LENGTH.getAcquire(segment, pos) : ProtoJournal.END_OF_SEGMENT;
+			
+			if (length == 0) return null; // end of the journal (for now)
+			
+			if (length == ProtoJournal.END_OF_SEGMENT) {
+				if (!map(segmentIndex + 1)) return null;
+				continue;
+			}
+			
+			int limit = segment.limit();
+			
+			ProtoJournal.checkRecord(dir, name, segmentIndex, pos, length, limit);
+			
+			int end = pos + ProtoJournal.HEADER_LENGTH + length;
+			
+			sequence = segment.getLong(pos + 4);
+			timestamp = segment.getLong(pos + 12);
+			
+			segment.limit(end).position(pos + ProtoJournal.HEADER_LENGTH);
+			
+			Proto proto;
+			
+			try {
+				proto = wrap ? parser.wrap(segment) : parser.parse(segment);
+			} finally {
+				segment.limit(limit).position(ProtoJournal.nextRecord(pos, length, limit));
+			}
+			
+			if (proto != null) return proto;
+		}
+	}
+	
+	/**
+	 * Returns the sequence number of the last message returned by {@link #next()}.
+	 * 
+	 * @return the sequence number of the last message
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Returns the timestamp of the last message returned by {@link #next()}.
+	 * 
+	 * @return the timestamp of the last message
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
+	/**
+	 * Closes the current segment file. The mapping itself is released by the garbage collector.
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+}
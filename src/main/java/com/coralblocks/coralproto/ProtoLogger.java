@@ -0,0 +1,356 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Logs proto messages in ascii without paying for the ascii on the calling thread. {@link #log(Proto)} only writes the binary message
+ * (<code>Proto.write</code>) into a {@link ProtoQueue} in direct memory, which is much cheaper than <code>writeAscii</code> for large messages.
+ * A background thread parses the messages from the queue with its own parser (from a {@link ProtoParserFactory}) and writes them with
+ * <code>writeAscii</code>, one per line, to rolling log files.</p>
+ * 
+ * <p>The log files (<code>name-00000.log</code>, <code>name-00001.log</code>, etc.) are inside a directory. When a line does not fit in the current
+ * file, the next file is created. Opening an existing log continues its last file.</p>
+ * 
+ * <p>The calling thread never waits: when the queue is full, or the message is larger than the queue can take, the message is dropped and counted
+ * (see {@link #getDropped()}). The lines are buffered and written to the file when the buffer is full or when the queue is empty.</p>
+ * 
+ * <p>{@link #log(Proto)} must be called by a single thread. Neither side produces garbage, except when a new log file is opened and when a line is
+ * truncated (<code>writeAscii</code> throws a <code>BufferOverflowException</code> when it reaches the maximum line length), so make the maximum
+ * line length large enough for your largest message.</p>
+ * 
+ * <p>A message that fails to parse, or whose <code>writeAscii</code> throws a <code>RuntimeException</code>, is logged as a marker line with the
+ * exception (<code>FAILED: ...</code>) and counted (see {@link #getFailed()}), and the background thread goes on with the next message.</p>
+ */
+public class ProtoLogger implements Closeable {
+	
+	private static final VarHandle LOGGED;
+	private static final VarHandle DROPPED;
+	private static final VarHandle WRITTEN;
+	private static final VarHandle CONSUMED;
+	
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			LOGGED = lookup.findVarHandle(ProtoLogger.class, "logged", long.class);
+			DROPPED = lookup.findVarHandle(ProtoLogger.class, "dropped", long.class);
+			WRITTEN = lookup.findVarHandle(ProtoLogger.class, "written", long.class);
+			CONSUMED = lookup.findVarHandle(ProtoLogger.class, "consumed", long.class);
+		} catch(ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private final File dir;
+	private final String name;
+	private final long maxFileSize;
+	private final boolean shortVersion;
+	private final ProtoQueue queue;
+	private final int maxMessageLength;
+	private final Thread thread;
+	private volatile boolean running = true;
+	
+	// written by the logging thread, read by any thread (release/acquire)
+	private long logged;
+	private long dropped;
+	
+	// background thread
+	private final ByteBuffer line;
+	private final ByteBuffer out;
+	private FileChannel channel;
+	private int fileIndex;
+	private long fileSize;
+	private long written;
+	private long consumed; // written plus the unknown messages skipped
+	private long truncated;
+	private long failed;
+	private volatile IOException error;
+	
+	/**
+	 * Opens the given log, creating it if it does not exist, and starts its background thread.
+	 * 
+	 * @param dir the directory of the log files
+	 * @param name the name of the log
+	 * @param maxFileSize the size in bytes after which the next log file is created
+	 * @param parserFactory the factory of the parser of the background thread
+	 * @param queueCapacity the capacity in bytes of the queue (a power of two)
+	 * @param maxLineLength the maximum length of a line (longer lines are truncated)
+	 * @param shortVersion true to log the short version of <code>writeAscii</code> (without the message name)
+	 * @param waitStrategy what the background thread does while the queue is empty
+	 * @throws IOException if the log file cannot be created
+	 */
+	public ProtoLogger(File dir, String name, long maxFileSize, ProtoParserFactory parserFactory, int queueCapacity, int maxLineLength, boolean shortVersion, ProtoQueue.WaitStrategy waitStrategy) throws IOException {
+		
+		if (maxLineLength <= 1) throw new IllegalArgumentException("Invalid maximum line length: " + maxLineLength);
+		if (maxFileSize < maxLineLength) throw new IllegalArgumentException("Maximum file size is smaller than a line: " + maxFileSize);
+		
+		if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create directory: " + dir);
+		
+		this.dir = dir;
+		this.name = name;
+		this.maxFileSize = maxFileSize;
+		this.shortVersion = shortVersion;
+		this.queue = new ProtoQueue(queueCapacity, waitStrategy);
+		this.maxMessageLength = queue.getMaxMessageLength();
+		this.line = ByteBuffer.allocateDirect(maxLineLength);
+		this.out = ByteBuffer.allocateDirect(Math.max(64 * 1024, maxLineLength));
+		
+		int last = 0;
+		while(getLogFile(dir, name, last + 1).exists()) last++;
+		open(last);
+		
+		this.thread = new Thread(() -> {
+			ProtoParser parser = parserFactory.newParser();
+			int attempt = 0;
+			while(true) {
+				if (poll(parser)) {
+					attempt = 0;
+				} else if (running) {
+					if (attempt == 0) {
+						CONSUMED.setRelease(this, written + queue.getUnknownMessages());
+						flush();
+					}
+					waitStrategy.idle(attempt++);
+				} else {
+					// drains what is left, as everything logged before close() is visible after seeing running false
+					while(poll(parser));
+					CONSUMED.setRelease(this, written + queue.getUnknownMessages());
+					flush();
+					break;
+				}
+			}
+		}, "ProtoLogger-" + name);
+		
+		thread.start();
+	}
+	
+	static File getLogFile(File dir, String name, int index) {
+		StringBuilder sb = new StringBuilder(name.length() + 16);
+		sb.append(name).append('-');
+		String s = String.valueOf(index);
+		for(int i = s.length(); i < 5; i++) sb.append('0');
+		sb.append(s).append(".log");
+		return new File(dir, sb.toString());
+	}
+	
+	private void open(int index) throws IOException {
+		if (channel != null) channel.close();
+		channel = FileChannel.open(getLogFile(dir, name, index).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		fileSize = channel.size();
+		fileIndex = index;
+	}
+	
+	/**
+	 * Logs the given message, if there is room for it in the queue. Otherwise (or if it is larger than {@link ProtoQueue#getMaxMessageLength()})
+	 * the message is dropped.
+	 * 
+	 * @param proto the message to log
+	 * @return true if the message was queued or false if it was dropped
+	 */
+	public boolean log(Proto proto) {
+		int length = proto.getLength();
+		if (length <= maxMessageLength && queue.offer(proto, length)) {
+			LOGGED.setRelease(this, logged + 1);
+			return true;
+		}
+		DROPPED.setRelease(this, dropped + 1);
+		return false;
+	}
+	
+	/**
+	 * Logs the given message (type, subtype, version and fields, from the position to the limit of the given buffer), if there is room for it
+	 * in the queue. Otherwise (or if it is larger than {@link ProtoQueue#getMaxMessageLength()}) the message is dropped. The position of the given
+	 * buffer is not changed.
+	 * 
+	 * @param message the buffer with the message
+	 * @return true if the message was queued or false if it was dropped
+	 */
+	public boolean log(ByteBuffer message) {
+		if (message.remaining() <= maxMessageLength && queue.offer(message)) {
+			LOGGED.setRelease(this, logged + 1);
+			return true;
+		}
+		DROPPED.setRelease(this, dropped + 1);
+		return false;
+	}
+	
+	private boolean poll(ProtoParser parser) {
+		Proto proto;
+		try {
+			proto = queue.poll(parser); // a message that fails to parse is consumed anyway
+		} catch(RuntimeException e) {
+			line.clear();
+			fail(e);
+			append();
+			return true;
+		}
+		if (proto == null) return false;
+		line.clear();
+		try {
+			proto.writeAscii(shortVersion, line);
+		} catch(BufferOverflowException e) {
+			truncated++;
+			line.position(line.limit() - 1);
+		} catch(RuntimeException e) {
+			line.clear();
+			fail(e);
+		}
+		append();
+		return true;
+	}
+	
+	private void fail(RuntimeException e) {
+		failed++;
+		String marker = "FAILED: " + e; // garbage, but only for a message that cannot be logged
+		int length = Math.min(marker.length(), line.limit() - 1);
+		for(int i = 0; i < length; i++) line.put((byte) marker.charAt(i));
+	}
+	
+	private void append() {
+		
+		line.put((byte) '\n').flip();
+		
+		try {
+			if (fileSize + out.position() + line.remaining() > maxFileSize) {
+				write();
+				open(fileIndex + 1);
+			} else if (out.remaining() < line.remaining()) {
+				write();
+			}
+		} catch(IOException e) {
+			out.clear();
+			error = e;
+		}
+		
+		out.put(line);
+		WRITTEN.setRelease(this, written + 1);
+		CONSUMED.setRelease(this, written + queue.getUnknownMessages());
+	}
+	
+	private void write() throws IOException {
+		out.flip();
+		while(out.hasRemaining()) fileSize += channel.write(out);
+		out.clear();
+	}
+	
+	private void flush() {
+		if (out.position() == 0) return;
+		try {
+			write();
+		} catch(IOException e) {
+			out.clear();
+			error = e;
+		}
+	}
+	
+	/**
+	 * Returns the number of messages logged (queued) so far.
+	 * 
+	 * @return the number of messages logged
+	 */
+	public long getLogged() {
+		return (long) LOGGED.getAcquire(this);
+	}
+	
+	/**
+	 * Returns the number of messages dropped so far because the queue was full or they were too large for it.
+	 * 
+	 * @return the number of messages dropped
+	 */
+	public long getDropped() {
+		return (long) DROPPED.getAcquire(this);
+	}
+	
+	/**
+	 * Returns the number of messages written in ascii so far by the background thread (they might still be in its buffer, not in the file).
+	 * 
+	 * @return the number of messages written
+	 */
+	public long getWritten() {
+		return (long) WRITTEN.getAcquire(this);
+	}
+	
+	/**
+	 * Returns the number of messages in the queue, logged but not written yet.
+	 * 
+	 * @return the depth of the queue
+	 */
+	public long getQueueDepth() {
+		long consumed = (long) CONSUMED.getAcquire(this); // first, as it never passes logged
+		return getLogged() - consumed;
+	}
+	
+	/**
+	 * Returns the number of lines cut at the maximum line length (each one creates a <code>BufferOverflowException</code>). Only accurate after {@link #close()}.
+	 * 
+	 * @return the number of truncated lines
+	 */
+	public long getTruncated() {
+		return truncated;
+	}
+	
+	/**
+	 * Returns the number of messages that failed to parse or to be written in ascii, each one logged as a <code>FAILED</code> marker line. Only
+	 * accurate after {@link #close()}.
+	 * 
+	 * @return the number of failed messages
+	 */
+	public long getFailed() {
+		return failed;
+	}
+	
+	/**
+	 * Returns the number of messages skipped by the background thread because they were not known by its parser. Only accurate after {@link #close()}.
+	 * 
+	 * @return the number of unknown messages
+	 */
+	public long getUnknownMessages() {
+		return queue.getUnknownMessages();
+	}
+	
+	/**
+	 * Returns the last error of the background thread when writing to the log files, if any.
+	 * 
+	 * @return the last error or null
+	 */
+	public IOException getError() {
+		return error;
+	}
+	
+	/**
+	 * Stops the background thread after it writes all the messages already logged, and closes the log file.
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		try {
+			thread.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		channel.close();
+		if (error != null) throw error;
+	}
+}
@@ -0,0 +1,234 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A region of memory, usually off-heap, where messages are written and read at a <code>long</code> offset, without the position and limit
+ * bookkeeping of a <code>ByteBuffer</code> and without its 2 GB limit. Map a file under <code>/dev/shm</code> to share the region with other
+ * processes, or give it any <code>ByteBuffer</code>, for example a <code>MemorySegment.asByteBuffer()</code>.</p>
+ * 
+ * <p>A mapped region is made of chunks of 1 GB. Each chunk is mapped with <code>maxMessageLength</code> extra bytes, overlapping the start of the
+ * next chunk, so a message that starts anywhere in a chunk is always contiguous. Reading and writing do not produce garbage.</p>
+ * 
+ * <p>This class is not thread-safe.</p>
+ */
+public class ProtoMemory implements Closeable {
+	
+	private static final int DEFAULT_CHUNK_SHIFT = 30; // 1 GB
+	
+	private final long size;
+	private final int maxMessageLength;
+	private final int chunkShift;
+	private final long chunkMask;
+	private final ByteBuffer[] chunks;
+	private final RandomAccessFile file;
+	
+	/**
+	 * Uses the given buffer as the memory region, from 0 to its capacity. The position and limit of the given buffer are not used or changed.
+	 * 
+	 * @param buf the buffer with the memory region
+	 */
+	public ProtoMemory(ByteBuffer buf) {
+		this.size = buf.capacity();
+		this.maxMessageLength = buf.capacity();
+		this.chunkShift = 31;
+		this.chunkMask = (1L << chunkShift) - 1;
+		this.chunks = new ByteBuffer[] { buf.duplicate().order(buf.order()) };
+		this.file = null;
+	}
+	
+	/**
+	 * Maps the given file as the memory region, creating the file or growing it to the given size if necessary.
+	 * 
+	 * @param file the file to map (under <code>/dev/shm</code> for shared memory)
+	 * @param size the size of the region in bytes
+	 * @param maxMessageLength the maximum length of a message (including type, subtype and version)
+	 * @throws IOException if the file cannot be created or mapped
+	 */
+	public ProtoMemory(File file, long size, int maxMessageLength) throws IOException {
+		this(file, size, maxMessageLength, DEFAULT_CHUNK_SHIFT);
+	}
+	
+	ProtoMemory(File file, long size, int maxMessageLength, int chunkShift) throws IOException {
+		
+		if (size <= 0) throw new IllegalArgumentException("Invalid size: " + size);
+		if (maxMessageLength <= 0 || maxMessageLength > (1 << chunkShift)) throw new IllegalArgumentException("Invalid max message length: " + maxMessageLength);
+		// each chunk is mapped with room for a message that starts at its end, and a mapping cannot be larger than Integer.MAX_VALUE
+		if (maxMessageLength > Integer.MAX_VALUE - (1 << chunkShift)) throw new IllegalArgumentException("Max message length is too large for the chunks: " + maxMessageLength);
+		
+		this.size = size;
+		this.maxMessageLength = maxMessageLength;
+		this.chunkShift = chunkShift;
+		this.chunkMask = (1L << chunkShift) - 1;
+		this.file = new RandomAccessFile(file, "rw");
+		
+		try {
+			if (this.file.length() < size) this.file.setLength(size);
+			FileChannel channel = this.file.getChannel();
+			int n = (int) ((size + chunkMask) >>> chunkShift);
+			this.chunks = new ByteBuffer[n];
+			for(int i = 0; i < n; i++) {
+				long start = (long) i << chunkShift;
+				long length = Math.min((1L << chunkShift) + maxMessageLength, size - start);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+			}
+		} catch(IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns the size of this memory region in bytes.
+	 * 
+	 * @return the size of the region
+	 */
+	public long size() {
+		return size;
+	}
+	
+	public int getMaxMessageLength() {
+		return maxMessageLength;
+	}
+	
+	/**
+	 * Sets the byte order of the messages and values in this memory region. The default is big-endian.
+	 * 
+	 * @param order the byte order
+	 * @return this memory region
+	 */
+	public ProtoMemory order(ByteOrder order) {
+		for(ByteBuffer chunk : chunks) chunk.order(order);
+		return this;
+	}
+	
+	/**
+	 * Returns the chunk of the given region with its position at the start of the region and its limit at the end of the region.
+	 * 
+	 * @param offset the offset of the region
+	 * @param length the length of the region
+	 * @return the buffer ready to read or write the region
+	 */
+	private ByteBuffer chunk(long offset, int length) {
+		if (offset < 0 || length < 0 || length > maxMessageLength || offset + length > size) {
+			throw new IllegalArgumentException("Invalid region: offset=" + offset + " length=" + length + " (size=" + size + " maxMessageLength=" + maxMessageLength + ")");
+		}
+		ByteBuffer buf = chunks[(int) (offset >>> chunkShift)];
+		int pos = (int) (offset & chunkMask);
+		buf.limit(pos + length).position(pos);
+		return buf;
+	}
+	
+	/**
+	 * Writes the given message (with its type, subtype and version) at the given offset.
+	 * 
+	 * @param proto the message to write
+	 * @param offset the offset where to write the message
+	 * @return the number of bytes written (the length of the message)
+	 */
+	public int write(Proto proto, long offset) {
+		int length = proto.getLength();
+		proto.write(chunk(offset, length));
+		return length;
+	}
+	
+	/**
+	 * Reads the fields of the given message from the message written at the given offset, skipping its type, subtype and version.
+	 * 
+	 * @param proto the message to read into
+	 * @param offset the offset of the message
+	 * @param length the length of the message (including type, subtype and version)
+	 */
+	public void read(Proto proto, long offset, int length) {
+		ByteBuffer buf = chunk(offset, length);
+		buf.position(buf.position() + 4); // type, subtype and version
+		proto.read(buf);
+	}
+	
+	/**
+	 * Same as {@link #read(Proto, long, int)} but in flyweight (zero-copy) mode: the chars and bytes fields of the message are views over
+	 * this memory region, so the message can only be used until the region is overwritten.
+	 * 
+	 * @param proto the message to wrap
+	 * @param offset the offset of the message
+	 * @param length the length of the message (including type, subtype and version)
+	 */
+	public void wrap(Proto proto, long offset, int length) {
+		ByteBuffer buf = chunk(offset, length);
+		buf.position(buf.position() + 4); // type, subtype and version
+		proto.wrap(buf);
+	}
+	
+	/**
+	 * Parses the message written at the given offset with the given parser.
+	 * 
+	 * @param parser the parser with the messages
+	 * @param offset the offset of the message
+	 * @param length the length of the message (including type, subtype and version)
+	 * @return the parsed message or null if the message is not known
+	 */
+	public Proto parse(ProtoParser parser, long offset, int length) {
+		return parser.parse(chunk(offset, length));
+	}
+	
+	/**
+	 * Same as {@link #parse(ProtoParser, long, int)} but in flyweight (zero-copy) mode (see {@link ProtoParser#wrap(ByteBuffer)}).
+	 * 
+	 * @param parser the parser with the messages
+	 * @param offset the offset of the message
+	 * @param length the length of the message (including type, subtype and version)
+	 * @return the wrapped message or null if the message is not known
+	 */
+	public Proto wrap(ProtoParser parser, long offset, int length) {
+		return parser.wrap(chunk(offset, length));
+	}
+	
+	public int getInt(long offset) {
+		ByteBuffer buf = chunk(offset, 4);
+		return buf.getInt(buf.position());
+	}
+	
+	public void putInt(long offset, int value) {
+		ByteBuffer buf = chunk(offset, 4);
+		buf.putInt(buf.position(), value);
+	}
+	
+	public long getLong(long offset) {
+		ByteBuffer buf = chunk(offset, 8);
+		return buf.getLong(buf.position());
+	}
+	
+	public void putLong(long offset, long value) {
+		ByteBuffer buf = chunk(offset, 8);
+		buf.putLong(buf.position(), value);
+	}
+	
+	/**
+	 * Closes the mapped file, if any. The mapping itself is released by the garbage collector.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (file != null) file.close();
+	}
+}
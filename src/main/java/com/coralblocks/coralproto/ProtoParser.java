@@ -16,48 +16,322 @@
 package com.coralblocks.coralproto;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import com.coralblocks.coralds.map.IntMap;
 import com.coralblocks.coralproto.util.ByteUtils;
 
 public abstract class ProtoParser {
 	
-	private final IntMap<Proto> protoMap = new IntMap<Proto>(256);
+	private static final int DENSE_SIZE = 1 << 16; // one entry for each type + subtype
+	
+	private final IntMap<Proto> protoMap;
+	private final Proto[] protos;
+	// type + subtype + version => index of the message in protos, only for the parsers that need it (see PooledProtoParser)
+	private final IntMap<Integer> indexes;
+	// The optional dense dispatch table (see useDenseDispatch()). It is null when the IntMap is used.
+	private final int[] dense; // type + subtype => index of the first message with them or -1
+	private final short[] versions; // index => version of the message
+	private final int[] nextVersion; // index => index of the next message with the same type + subtype (but another version) or -1
+	private final ProtoCodecGenerator[] codecGenerators; // index => the generator of the codecs of the message or null (see useGeneratedCodecs())
 	
 	public ProtoParser() {
-		Proto[] protos = defineProtoMessages();
+		this.protos = defineProtoMessages();
+		this.protoMap = createProtoMap(protos);
+		this.indexes = null;
+		if (useDenseDispatch()) {
+			this.dense = new int[DENSE_SIZE];
+			this.versions = new short[protos.length];
+			this.nextVersion = new int[protos.length];
+			Arrays.fill(dense, -1);
+			for(int i = protos.length - 1; i >= 0; i--) { // backwards, so each chain starts with the first message defined
+				Proto p = protos[i];
+				int denseKey = getDenseKey((byte) p.getType(), (byte) p.getSubtype());
+				versions[i] = p.getVersion();
+				nextVersion[i] = dense[denseKey];
+				dense[denseKey] = i;
+			}
+		} else {
+			this.dense = null;
+			this.versions = null;
+			this.nextVersion = null;
+		}
+		if (useGeneratedCodecs()) {
+			this.codecGenerators = new ProtoCodecGenerator[protos.length];
+			for(int i = 0; i < protos.length; i++) {
+				if (protos[i] instanceof AbstractProto) codecGenerators[i] = ProtoCodecGenerator.generate((AbstractProto) protos[i]);
+			}
+			setCodecs(protos);
+		} else {
+			this.codecGenerators = null;
+		}
+	}
+	
+	/**
+	 * Creates a parser with its own instances of the messages that shares the dense dispatch table and the codecs of another parser (see
+	 * {@link ProtoParserFactory}).
+	 * 
+	 * @param other the parser with the dense dispatch table and the codecs
+	 * @param protos the new instances of the messages, in the same order as the ones of the other parser
+	 * @param withIndexes true to also keep the index of each message, for {@link #lookupIndex(ByteBuffer)} and {@link #getIndex(Proto)}
+	 */
+	ProtoParser(ProtoParser other, Proto[] protos, boolean withIndexes) {
+		this.protoMap = createProtoMap(protos);
+		this.protos = protos;
+		this.indexes = withIndexes && other.dense == null ? createIndexes(protos) : null; // the dense table already has the indexes
+		this.dense = other.dense;
+		this.versions = other.versions;
+		this.nextVersion = other.nextVersion;
+		this.codecGenerators = other.codecGenerators;
+	}
+	
+	static int getKey(Proto p) {
+		return ByteUtils.toInt((byte) p.getType(), (byte) p.getSubtype(), p.getVersion());
+	}
+	
+	private static IntMap<Proto> createProtoMap(Proto[] protos) {
+		IntMap<Proto> protoMap = new IntMap<Proto>(256);
 		for(Proto p : protos) {
-			byte type = (byte) p.getType();
-			byte subtype = (byte) p.getSubtype();
-			short version = p.getVersion();
-			int pKey = ByteUtils.toInt(type, subtype, version);
+			int pKey = getKey(p);
 			if (protoMap.containsKey(pKey)) {
 				Proto pOther = protoMap.get(pKey);
 				throw new RuntimeException("Duplicate proto message (same type, subtype and version): " + p.getClass().getSimpleName() + " " + pOther.getClass().getSimpleName());
 			}
 			protoMap.put(pKey, p);
 		}
+		return protoMap;
+	}
+	
+	private static IntMap<Integer> createIndexes(Proto[] protos) {
+		IntMap<Integer> indexes = new IntMap<Integer>(256);
+		for(int i = 0; i < protos.length; i++) indexes.put(getKey(protos[i]), i);
+		return indexes;
+	}
+	
+	/**
+	 * Returns the messages of this parser, in the order they were defined.
+	 * 
+	 * @return the messages (do not modify the array)
+	 */
+	final Proto[] getProtoMessages() {
+		return protos;
 	}
 	
 	protected abstract Proto[] defineProtoMessages();
 	
+	/**
+	 * Override this method to return true and find the message of each parse with a single load from a 64K array indexed by type and subtype
+	 * (followed by a short walk through the versions of that type and subtype), instead of a lookup in a hash map. The array takes 256 KB per
+	 * parser class (shared by the parsers of a {@link ProtoParserFactory}), so it pays off with many message types or a very hot parsing loop.
+	 * 
+	 * @return true to use the dense dispatch table
+	 */
+	protected boolean useDenseDispatch() {
+		return false;
+	}
+	
+	/**
+	 * Returns true if this parser finds the messages through the dense dispatch table (see {@link #useDenseDispatch()}).
+	 * 
+	 * @return true if the dense dispatch table is used
+	 */
+	public final boolean hasDenseDispatch() {
+		return dense != null;
+	}
+	
+	/**
+	 * Override this method to return true and read and write each {@link AbstractProto} with straight-line code generated at runtime for its fields
+	 * (a hidden class with one direct call per field), instead of the loop over the fields. This is done once, when the parser is created, and is
+	 * transparent: the messages that are not supported (with a presence bitmap, with their own <code>read</code> and <code>write</code> or with a
+	 * projection) keep using the loop.
+	 * 
+	 * @return true to use the generated codecs
+	 */
+	protected boolean useGeneratedCodecs() {
+		return false;
+	}
+	
+	/**
+	 * Returns true if this parser generates codecs for its messages (see {@link #useGeneratedCodecs()}).
+	 * 
+	 * @return true if the generated codecs are used
+	 */
+	public final boolean hasGeneratedCodecs() {
+		return codecGenerators != null;
+	}
+	
+	private final void setCodecs(Proto[] protos) {
+		for(int i = 0; i < protos.length; i++) {
+			ProtoCodecGenerator generator = codecGenerators[i];
+			if (generator != null && protos[i] instanceof AbstractProto) {
+				AbstractProto proto = (AbstractProto) protos[i];
+				proto.setCodec(generator.newCodec(proto));
+			}
+		}
+	}
+	
+	private static int getDenseKey(byte type, byte subtype) {
+		return ByteUtils.toShort(type, subtype) & 0xFFFF;
+	}
+	
+	private final int indexOf(byte type, byte subtype, short version) {
+		if (dense != null) {
+			int index = dense[getDenseKey(type, subtype)];
+			while(index >= 0 && versions[index] != version) index = nextVersion[index];
+			return index;
+		}
+		if (indexes == null) throw new IllegalStateException("This parser does not keep the indexes of its messages");
+		Integer index = indexes.get(ByteUtils.toInt(type, subtype, version));
+		return index != null ? index : -1;
+	}
+	
+	/**
+	 * Parses only the given fields of a message (see {@link AbstractProto#setProjection(long)}). The other fields, including whole repeating groups,
+	 * are skipped without being read.
+	 * 
+	 * @param type the type of the message
+	 * @param subtype the subtype of the message
+	 * @param version the version of the message
+	 * @param fieldNames the names of the fields to parse
+	 */
+	public void setProjection(char type, char subtype, short version, String ... fieldNames) {
+		AbstractProto proto = getAbstractProto(type, subtype, version);
+		proto.setProjection(proto.toProjection(fieldNames));
+	}
+	
+	/**
+	 * Parses only the fields of a message set in the given bitmask (see {@link AbstractProto#setProjection(long)}). The other fields, including whole
+	 * repeating groups, are skipped without being read.
+	 * 
+	 * @param type the type of the message
+	 * @param subtype the subtype of the message
+	 * @param version the version of the message
+	 * @param projection the bitmask with the fields to parse or AbstractProto.ALL_FIELDS
+	 */
+	public void setProjection(char type, char subtype, short version, long projection) {
+		getAbstractProto(type, subtype, version).setProjection(projection);
+	}
+	
+	private AbstractProto getAbstractProto(char type, char subtype, short version) {
+		Proto p = getProtoMessage((byte) type, (byte) subtype, version);
+		if (p == null) throw new IllegalArgumentException("Unknown proto message: type=" + type + " subtype=" + subtype + " version=" + version);
+		if (!(p instanceof AbstractProto)) throw new IllegalArgumentException("Projection is only supported by AbstractProto: " + p.getClass().getSimpleName());
+		return (AbstractProto) p;
+	}
+	
 	public Proto parse(ByteBuffer data) {
 		
+		Proto p = lookup(data);
+		
+		if (p == null) return null;
+		
+		p.read(data);
+		
+		return p;
+	}
+	
+	/**
+	 * Same as {@link #parse(ByteBuffer)} but in flyweight (zero-copy) mode: the chars and bytes fields of the returned message are views over
+	 * the given buffer, so the message can only be used until the buffer is overwritten.
+	 * 
+	 * @param data the buffer with the message
+	 * @return the wrapped message or null if the message is not known
+	 */
+	public Proto wrap(ByteBuffer data) {
+		
+		Proto p = lookup(data);
+		
+		if (p == null) return null;
+		
+		p.wrap(data);
+		
+		return p;
+	}
+	
+	private final Proto lookup(ByteBuffer data) {
+		
 		if (data.remaining() < 4) return null;
 		
 		byte type = data.get();
 		byte subtype = data.get();
 		short version = data.getShort();
 		
-		int pKey = ByteUtils.toInt(type, subtype, version);
-		
-		Proto p = protoMap.get(pKey);
+		return getProtoMessage(type, subtype, version);
+	}
+	
+	/**
+	 * Reads the type, subtype and version of the message and returns the index of its message in this parser.
+	 * 
+	 * @param data the buffer with the message
+	 * @return the index of the message or -1 if it is not known
+	 * @throws IllegalStateException if this parser does not keep the indexes of its messages
+	 */
+	final int lookupIndex(ByteBuffer data) {
 		
-		if (p == null) return null;
+		if (data.remaining() < 4) return -1;
 		
-		p.read(data);
+		byte type = data.get();
+		byte subtype = data.get();
+		short version = data.getShort();
 		
-		return p;
+		return indexOf(type, subtype, version);
+	}
+	
+	/**
+	 * Returns the message of this parser with the given type, subtype and version.
+	 * 
+	 * @param type the type of the message
+	 * @param subtype the subtype of the message
+	 * @param version the version of the message
+	 * @return the message or null if it is not known
+	 */
+	final Proto getProtoMessage(byte type, byte subtype, short version) {
+		if (dense != null) {
+			int index = indexOf(type, subtype, version);
+			return index >= 0 ? protos[index] : null;
+		}
+		return protoMap.get(ByteUtils.toInt(type, subtype, version));
+	}
+	
+	/**
+	 * Returns the index of the given message (or of any other message with the same type, subtype and version) in this parser.
+	 * 
+	 * @param p the message
+	 * @return the index of the message or -1 if it is not known
+	 * @throws IllegalStateException if this parser does not keep the indexes of its messages
+	 */
+	final int getIndex(Proto p) {
+		return indexOf((byte) p.getType(), (byte) p.getSubtype(), p.getVersion());
 	}
+	
+	/**
+	 * Calls {@link #defineProtoMessages()} again (from any thread) and checks that it returned new instances of the same messages, in the same order.
+	 * 
+	 * @return the new instances of the messages
+	 */
+	final Proto[] defineNewProtoMessages() {
+		
+		Proto[] protos;
 		
-}
\ No newline at end of file
+		synchronized(this) {
+			protos = defineProtoMessages();
+		}
+		
+		if (protos.length != this.protos.length) {
+			throw new IllegalStateException("The parser defined a different number of messages: " + protos.length + " (not " + this.protos.length + ")");
+		}
+		
+		for(int i = 0; i < protos.length; i++) {
+			if (protos[i] == this.protos[i]) {
+				throw new IllegalStateException("The parser must define new message instances each time: " + protos[i].getClass().getSimpleName());
+			}
+			if (getKey(protos[i]) != getKey(this.protos[i])) {
+				throw new IllegalStateException("The parser defined the messages in a different order: " + protos[i].getClass().getSimpleName() + " " + this.protos[i].getClass().getSimpleName());
+			}
+		}
+		
+		if (codecGenerators != null) setCodecs(protos);
+		
+		return protos;
+	}
+}
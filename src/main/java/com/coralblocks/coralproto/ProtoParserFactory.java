@@ -0,0 +1,75 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+/**
+ * <p>Creates parsers for other threads from a parser. A {@link ProtoParser} returns the same (mutable) message instance every time it parses
+ * a message of a given type, so it can only be used by one thread. The parsers created here have their own message instances, obtained by
+ * calling <code>defineProtoMessages()</code> of the original parser again, but all of them share its dense dispatch table (see
+ * {@link ProtoParser#useDenseDispatch()}) and its generated codecs, which never change after the parser is created.</p>
+ * 
+ * <p>The original parser must return new message instances each time its <code>defineProtoMessages()</code> is called, in the same order. The
+ * projections set in the original parser (see {@link ProtoParser#setProjection(char, char, short, long)}) are copied to the new parsers.</p>
+ * 
+ * <p>This class is thread-safe.</p>
+ */
+public class ProtoParserFactory {
+	
+	private final ProtoParser parser;
+	private final ThreadLocal<ProtoParser> parsers = ThreadLocal.withInitial(this::newParser);
+	
+	/**
+	 * Creates a factory of parsers from the given parser.
+	 * 
+	 * @param parser the parser with the messages and the dispatch table (not used to parse messages afterwards)
+	 */
+	public ProtoParserFactory(ProtoParser parser) {
+		this.parser = parser;
+	}
+	
+	/**
+	 * Creates a new parser with its own instances of the messages.
+	 * 
+	 * @return a new parser
+	 */
+	public ProtoParser newParser() {
+		
+		Proto[] original = parser.getProtoMessages();
+		Proto[] protos = parser.defineNewProtoMessages();
+		
+		for(int i = 0; i < protos.length; i++) {
+			if (protos[i] instanceof AbstractProto && original[i] instanceof AbstractProto) {
+				((AbstractProto) protos[i]).setProjection(((AbstractProto) original[i]).getProjection());
+			}
+		}
+		
+		return new ProtoParser(parser, protos, false) {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return parser.defineNewProtoMessages();
+			}
+		};
+	}
+	
+	/**
+	 * Returns the parser of the calling thread, creating it the first time.
+	 * 
+	 * @return the parser of the calling thread
+	 */
+	public ProtoParser getParser() {
+		return parsers.get();
+	}
+}
@@ -0,0 +1,92 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded pool of messages that any thread can take from and give back to, without locks and without producing garbage. It is a ring of
+ * slots where each slot has a sequence number telling whether it is free or taken (the bounded multi-producer multi-consumer queue by Dmitry Vyukov).
+ */
+class ProtoPool {
+	
+	private final Proto[] slots;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	
+	ProtoPool(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		this.slots = new Proto[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		this.mask = capacity - 1;
+		for(int i = 0; i < capacity; i++) sequences.set(i, i);
+	}
+	
+	/**
+	 * Gives the given message back to the pool.
+	 * 
+	 * @param proto the message
+	 * @return true if the message went back to the pool or false if the pool is full
+	 */
+	boolean offer(Proto proto) {
+		long pos = tail.get();
+		while(true) {
+			int index = (int) (pos & mask);
+			long diff = sequences.get(index) - pos;
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					slots[index] = proto;
+					sequences.set(index, pos + 1); // publishes the slot
+					return true;
+				}
+				pos = tail.get();
+			} else if (diff < 0) {
+				return false; // full
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+	
+	/**
+	 * Takes a message from the pool.
+	 * 
+	 * @return the message or null if the pool is empty
+	 */
+	Proto poll() {
+		long pos = head.get();
+		while(true) {
+			int index = (int) (pos & mask);
+			long diff = sequences.get(index) - (pos + 1);
+			if (diff == 0) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					Proto proto = slots[index];
+					slots[index] = null;
+					sequences.set(index, pos + mask + 1); // frees the slot for the next round
+					return proto;
+				}
+				pos = head.get();
+			} else if (diff < 0) {
+				return null; // empty
+			} else {
+				pos = head.get();
+			}
+		}
+	}
+}
@@ -0,0 +1,351 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A single-producer single-consumer queue of proto messages over a memory-mapped file, to pass messages between two processes of the same
+ * machine, or over direct memory, to pass them between two threads. Map a file under <code>/dev/shm</code> so it never touches the disk. The producer writes each message with
+ * {@link Proto#write(ByteBuffer)} straight into the ring and the consumer parses it from there with a {@link ProtoParser}.</p>
+ * 
+ * <p>The file has a header with the capacity of the ring and the two sequence counters (the total number of bytes written by the producer and
+ * read by the consumer), each one alone in its own pair of cache lines, followed by the ring. Each record in the ring is the length of the
+ * message (int) followed by the message, aligned to 8 bytes. A record never wraps around the end of the ring: the rest of the ring is skipped
+ * instead.</p>
+ * 
+ * <p>Each side must be used by a single thread. Neither side produces garbage.</p>
+ */
+public class ProtoQueue implements Closeable {
+	
+	/**
+	 * Waits for the other side of the queue, when the queue is full (producer) or empty (consumer).
+	 */
+	public static interface WaitStrategy {
+		
+		/**
+		 * Called each time the queue is still full or empty.
+		 * 
+		 * @param attempt how many times in a row this method was called for the same wait, starting from zero
+		 */
+		public void idle(int attempt);
+	}
+	
+	/**
+	 * Spins without ever giving up the CPU, for the lowest latency (with a dedicated core for each side)
+	 */
+	public static final WaitStrategy BUSY_SPIN = attempt -> Thread.onSpinWait();
+	
+	/**
+	 * Spins for a while, then yields for a while and then parks for 1 microsecond at a time
+	 */
+	public static final WaitStrategy BACKOFF = backoff(1000, 100, 1000);
+	
+	/**
+	 * Returns a wait strategy that spins, then yields and then parks.
+	 * 
+	 * @param spins the number of attempts spinning
+	 * @param yields the number of attempts yielding after spinning
+	 * @param parkNanos the nanoseconds to park each time after yielding
+	 * @return the wait strategy
+	 */
+	public static WaitStrategy backoff(int spins, int yields, long parkNanos) {
+		return attempt -> {
+			if (attempt < spins) {
+				Thread.onSpinWait();
+			} else if (attempt < spins + yields) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(parkNanos);
+			}
+		};
+	}
+	
+	static final int CACHE_LINE = 64;
+	
+	// two cache lines for each counter, so that the adjacent line prefetcher does not bring them together
+	static final int CAPACITY_OFFSET = 0;
+	static final int TAIL_OFFSET = 2 * CACHE_LINE;
+	static final int HEAD_OFFSET = 4 * CACHE_LINE;
+	static final int HEADER_LENGTH = 6 * CACHE_LINE;
+	
+	static final int PADDING = -1;
+	
+	private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	
+	private final RandomAccessFile file;
+	private final ByteBuffer memory;
+	private final ByteBuffer producerBuf;
+	private final ByteBuffer consumerBuf;
+	private final int capacity;
+	private final int mask;
+	private final WaitStrategy waitStrategy;
+	
+	// producer side
+	private long tail;
+	private long headCache;
+	private int reserved;
+	
+	// consumer side
+	private long head;
+	private long tailCache;
+	private long unknownMessages;
+	
+	/**
+	 * Opens the given queue, creating it if it does not exist. Both sides must open it with the same capacity.
+	 * 
+	 * @param file the file of the queue (under <code>/dev/shm</code> for shared memory)
+	 * @param capacity the size of the ring in bytes (a power of two)
+	 * @param waitStrategy what to do while the queue is full or empty
+	 * @throws IOException if the file cannot be created or mapped
+	 */
+	public ProtoQueue(File file, int capacity, WaitStrategy waitStrategy) throws IOException {
+		
+		if (capacity < CACHE_LINE || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.waitStrategy = waitStrategy;
+		this.file = new RandomAccessFile(file, "rw");
+		
+		try {
+			if (this.file.length() < HEADER_LENGTH + capacity) this.file.setLength(HEADER_LENGTH + capacity);
+			this.memory = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + capacity);
+		} catch(IOException e) {
+			this.file.close();
+			throw e;
+		}
+		
+		int existing = memory.getInt(CAPACITY_OFFSET);
+		if (existing == 0) {
+			memory.putInt(CAPACITY_OFFSET, capacity);
+		} else if (existing != capacity) {
+			this.file.close();
+			throw new IllegalStateException("Queue was created with a different capacity: " + existing + " (not " + capacity + ")");
+		}
+		
+		this.producerBuf = memory.duplicate();
+		this.consumerBuf = memory.duplicate();
+		this.tail = (long) LONG.getAcquire(memory, TAIL_OFFSET);
+		this.head = (long) LONG.getAcquire(memory, HEAD_OFFSET);
+		this.headCache = head;
+		this.tailCache = tail;
+	}
+	
+	/**
+	 * Creates a queue in direct memory, to pass messages between two threads of the same process.
+	 * 
+	 * @param capacity the size of the ring in bytes (a power of two)
+	 * @param waitStrategy what to do while the queue is full or empty
+	 */
+	public ProtoQueue(int capacity, WaitStrategy waitStrategy) {
+		
+		if (capacity < CACHE_LINE || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.waitStrategy = waitStrategy;
+		this.file = null;
+		this.memory = ByteBuffer.allocateDirect(HEADER_LENGTH + capacity);
+		this.producerBuf = memory.duplicate();
+		this.consumerBuf = memory.duplicate();
+	}
+	
+	/**
+	 * Returns the largest message that fits in this queue.
+	 * 
+	 * @return the maximum length of a message
+	 */
+	public int getMaxMessageLength() {
+		return capacity / 2 - 4;
+	}
+	
+	private static int align(int length) {
+		return (length + 7) & ~7;
+	}
+	
+	/*
+	 * Reserves the room for a message of the given length, returning the position of the message in the memory or -1 if the queue is full.
+	 */
+	private int reserve(int length) {
+		
+		if (length > getMaxMessageLength()) throw new IllegalArgumentException("Message is too large for this queue: " + length);
+		
+		int recordLength = align(4 + length);
+		int index = (int) (tail & mask);
+		int toEnd = capacity - index;
+		int needed = recordLength > toEnd ? toEnd + recordLength : recordLength;
+		
+		if (tail + needed - headCache > capacity) {
+			headCache = (long) LONG.getAcquire(memory, HEAD_OFFSET);
+			if (tail + needed - headCache > capacity) return -1;
+		}
+		
+		producerBuf.clear();
+		
+		if (recordLength > toEnd) {
+			producerBuf.putInt(HEADER_LENGTH + index, PADDING);
+			index = 0;
+		}
+		
+		reserved = needed;
+		return HEADER_LENGTH + index + 4;
+	}
+	
+	private void publish(int position, int length) {
+		producerBuf.putInt(position - 4, length);
+		tail += reserved;
+		LONG.setRelease(memory, TAIL_OFFSET, tail); // publishes the message to the consumer
+	}
+	
+	/**
+	 * Writes the given message to the queue, if there is room for it.
+	 * 
+	 * @param proto the message to write
+	 * @return true if the message was written or false if the queue is full
+	 */
+	public boolean offer(Proto proto) {
+		return offer(proto, proto.getLength());
+	}
+	
+	final boolean offer(Proto proto, int length) { // for when the length is already known
+		int position = reserve(length);
+		if (position < 0) return false;
+		producerBuf.limit(position + length).position(position);
+		proto.write(producerBuf);
+		publish(position, length);
+		return true;
+	}
+	
+	/**
+	 * Copies the given message (type, subtype, version and fields), from the position to the limit of the given buffer, to the queue, if
+	 * there is room for it. The position of the given buffer is not changed.
+	 * 
+	 * @param message the buffer with the message
+	 * @return true if the message was written or false if the queue is full
+	 */
+	public boolean offer(ByteBuffer message) {
+		int length = message.remaining();
+		int position = reserve(length);
+		if (position < 0) return false;
+		producerBuf.put(position, message, message.position(), length);
+		publish(position, length);
+		return true;
+	}
+	
+	/**
+	 * Writes the given message to the queue, waiting with the wait strategy while the queue is full.
+	 * 
+	 * @param proto the message to write
+	 */
+	public void put(Proto proto) {
+		int attempt = 0;
+		while(!offer(proto)) waitStrategy.idle(attempt++);
+	}
+	
+	/**
+	 * Copies the given message to the queue, waiting with the wait strategy while the queue is full (see {@link #offer(ByteBuffer)}).
+	 * 
+	 * @param message the buffer with the message
+	 */
+	public void put(ByteBuffer message) {
+		int attempt = 0;
+		while(!offer(message)) waitStrategy.idle(attempt++);
+	}
+	
+	/**
+	 * Parses the next message of the queue, if any. Messages not known by the parser are skipped (see {@link #getUnknownMessages()}).
+	 * A message that the parser fails to parse is still consumed, so the exception is thrown once and the next call goes to the next message.
+	 * 
+	 * @param parser the parser with the messages
+	 * @return the parsed message or null if the queue is empty
+	 */
+	public Proto poll(ProtoParser parser) {
+		
+		while(true) {
+			
+			if (head == tailCache) {
+				tailCache = (long) LONG.getAcquire(memory, TAIL_OFFSET);
+				if (head == tailCache) return null;
+			}
+			
+			consumerBuf.clear();
+			
+			int index = (int) (head & mask);
+			int length = consumerBuf.getInt(HEADER_LENGTH + index);
+			int consumed = 0;
+			
+			if (length == PADDING) {
+				consumed = capacity - index;
+				index = 0;
+				length = consumerBuf.getInt(HEADER_LENGTH);
+			}
+			
+			consumerBuf.limit(HEADER_LENGTH + index + 4 + length).position(HEADER_LENGTH + index + 4);
+			Proto proto;
+			try {
+				proto = parser.parse(consumerBuf);
+			} finally {
+				// a message that cannot be parsed is consumed anyway, so it is not parsed again
+				head += consumed + align(4 + length);
+				LONG.setRelease(memory, HEAD_OFFSET, head); // gives the room back to the producer
+			}
+			
+			if (proto != null) return proto;
+			
+			unknownMessages++;
+		}
+	}
+	
+	/**
+	 * Parses the next message of the queue, waiting with the wait strategy while the queue is empty.
+	 * 
+	 * @param parser the parser with the messages
+	 * @return the parsed message
+	 */
+	public Proto take(ProtoParser parser) {
+		int attempt = 0;
+		Proto proto;
+		while((proto = poll(parser)) == null) waitStrategy.idle(attempt++);
+		return proto;
+	}
+	
+	/**
+	 * Returns the number of messages skipped by the consumer because they were not known by its parser.
+	 * 
+	 * @return the number of unknown messages
+	 */
+	public long getUnknownMessages() {
+		return unknownMessages;
+	}
+	
+	/**
+	 * Closes the file of the queue, if any. The mapping itself is released by the garbage collector.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (file != null) file.close();
+	}
+}
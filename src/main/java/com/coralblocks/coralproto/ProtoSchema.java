@@ -0,0 +1,248 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import com.coralblocks.coralproto.util.PresenceBitmapUtils;
+
+/**
+ * <p>The layout of a message on the wire, in other words, its fields in order with their types, sizes and presence, without any <code>ProtoField</code>
+ * instance behind them. It is built from the IDL of the message (see {@link IDL#getSchema()}) and it describes exactly what the generated class reads
+ * and writes.</p>
+ * 
+ * <p>The elements of a repeating group are described by a schema of their own (see {@link Field#getGroup()}), which has no type, subtype and version.</p>
+ * 
+ * <p>A schema never changes after it is built, so it can be shared by many threads.</p>
+ */
+public final class ProtoSchema {
+	
+	/**
+	 * The type of a field, as declared in the IDL.
+	 */
+	public static enum FieldType {
+		
+		BOOLEAN(1),
+		BYTE(1),
+		CHAR(1),
+		SHORT(2),
+		INT(4),
+		LONG(8),
+		FLOAT(4),
+		DOUBLE(8),
+		VARINT(-1),
+		VARLONG(-1),
+		CHARS(-1), // fixed size, given by the field
+		VARCHARS(-1),
+		BYTES(-1), // fixed size, given by the field
+		VARBYTES(-1),
+		CHAR_ENUM(1),
+		SHORT_ENUM(2),
+		INT_ENUM(4),
+		TWO_CHAR_ENUM(2),
+		GROUP(-1);
+		
+		private final int wireSize;
+		
+		private FieldType(int wireSize) {
+			this.wireSize = wireSize;
+		}
+		
+		/**
+		 * Returns the size of a value of this type on the wire if it is always the same or -1 otherwise.
+		 * 
+		 * @return the size on the wire or -1
+		 */
+		public int getWireSize() {
+			return wireSize;
+		}
+	}
+	
+	/**
+	 * A field of a message or of the element of a repeating group.
+	 */
+	public static final class Field {
+		
+		private final int index;
+		private final String name;
+		private final FieldType type;
+		private final boolean isOptional;
+		private final int size;
+		private final ProtoSchema group;
+		
+		Field(int index, String name, FieldType type, boolean isOptional, int size, ProtoSchema group) {
+			this.index = index;
+			this.name = name;
+			this.type = type;
+			this.isOptional = isOptional;
+			this.size = size;
+			this.group = group;
+		}
+		
+		/**
+		 * Returns the position of this field in its message (or group element), in the order they go on the wire.
+		 * 
+		 * @return the position of this field
+		 */
+		public int getIndex() {
+			return index;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public FieldType getType() {
+			return type;
+		}
+		
+		public boolean isOptional() {
+			return isOptional;
+		}
+		
+		/**
+		 * Returns the size of a chars or bytes field, the maximum length of a varchars or varbytes field and the precision (the number of decimals
+		 * kept on the wire) of a float or double field. It is zero for the other fields.
+		 * 
+		 * @return the size, the maximum length or the precision of this field
+		 */
+		public int getSize() {
+			return size;
+		}
+		
+		/**
+		 * Returns the schema of the elements of a repeating group or null if this field is not a repeating group.
+		 * 
+		 * @return the schema of the elements or null
+		 */
+		public ProtoSchema getGroup() {
+			return group;
+		}
+		
+		/**
+		 * Returns the size of this field on the wire if it is always the same or -1 otherwise (see {@link com.coralblocks.coralproto.field.ProtoField#fixedSize()}).
+		 * 
+		 * @return the fixed size of this field or -1
+		 */
+		public int getFixedSize() {
+			if (isOptional) return -1;
+			if (type == FieldType.CHARS || type == FieldType.BYTES) return size;
+			return type.getWireSize();
+		}
+		
+		@Override
+		public String toString() {
+			return name + ": " + type + (size > 0 ? "(" + size + ")" : "") + (isOptional ? "!" : "");
+		}
+	}
+	
+	private final char type;
+	private final char subtype;
+	private final short version;
+	private final Field[] fields;
+	private final int presenceBitmapSize;
+	private final boolean varintCounts;
+	
+	ProtoSchema(char type, char subtype, short version, Field[] fields, boolean presenceBitmap, boolean varintCounts) {
+		this.type = type;
+		this.subtype = subtype;
+		this.version = version;
+		this.fields = fields;
+		this.varintCounts = varintCounts;
+		if (presenceBitmap) {
+			int optionals = 0;
+			for(Field field : fields) {
+				if (field.isOptional()) optionals++;
+			}
+			this.presenceBitmapSize = PresenceBitmapUtils.size(optionals);
+		} else {
+			this.presenceBitmapSize = 0;
+		}
+	}
+	
+	/**
+	 * Returns the type of the message (zero for the elements of a repeating group).
+	 * 
+	 * @return the type of the message
+	 */
+	public char getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the subtype of the message (zero for the elements of a repeating group).
+	 * 
+	 * @return the subtype of the message
+	 */
+	public char getSubtype() {
+		return subtype;
+	}
+	
+	public short getVersion() {
+		return version;
+	}
+	
+	public int getNumberOfFields() {
+		return fields.length;
+	}
+	
+	public Field getField(int index) {
+		return fields[index];
+	}
+	
+	/**
+	 * Returns the position of a field, found by its name, so this should be done once at startup.
+	 * 
+	 * @param name the name of the field
+	 * @return the position of the field
+	 */
+	public int getFieldIndex(String name) {
+		for(int i = 0; i < fields.length; i++) {
+			if (fields[i].getName().equals(name)) return i;
+		}
+		throw new IllegalArgumentException("Not a field of the schema: " + name);
+	}
+	
+	/**
+	 * Returns the size of the presence bitmap that goes on the wire before the fields (zero when the optional fields have a presence byte each).
+	 * 
+	 * @return the size of the presence bitmap
+	 */
+	public int getPresenceBitmapSize() {
+		return presenceBitmapSize;
+	}
+	
+	/**
+	 * Returns true if the element count of the repeating groups goes on the wire as a varint instead of a short.
+	 * 
+	 * @return true if the element counts are varints
+	 */
+	public boolean hasVarintCounts() {
+		return varintCounts;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(fields.length * 32);
+		if (type != 0) sb.append(type).append(subtype).append(version > 0 ? "_" + version : "");
+		sb.append('[');
+		for(int i = 0; i < fields.length; i++) {
+			if (i > 0) sb.append(", ");
+			sb.append(fields[i]);
+			if (fields[i].getGroup() != null) sb.append(fields[i].getGroup());
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,258 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralds.map.IntMap;
+import com.coralblocks.coralproto.ProtoSchema.Field;
+import com.coralblocks.coralproto.util.ByteUtils;
+import com.coralblocks.coralproto.util.DoubleUtils;
+import com.coralblocks.coralproto.util.FloatUtils;
+import com.coralblocks.coralproto.util.PresenceBitmapUtils;
+import com.coralblocks.coralproto.util.VarIntUtils;
+
+/**
+ * <p>Walks the fields of a message on the wire, in order, according to its {@link ProtoSchema} and hands each value to a {@link Listener}
+ * as it is decoded (like a SAX parser does for XML), without filling a message. There are no <code>ProtoField</code> instances involved and
+ * nothing is allocated, so it is a good fit for analytics that look at a few fields of many messages.</p>
+ * 
+ * <p>The wire format and the schema evolution rules are the same as the ones of the generated classes: the required fields missing at the
+ * end of a message sent by an older version are reported as not present.</p>
+ * 
+ * <p>This class has no state besides the schemas, so a parser can be shared by many threads.</p>
+ */
+public class ProtoStreamParser {
+	
+	/**
+	 * Receives the fields of a message as they are decoded. The field index is the position of the field in its message (or in its group
+	 * element) as given by the schema. The chars and bytes are not copied: the listener gets the region of the source buffer with them,
+	 * and the position of the buffer must not be changed. All the methods do nothing by default.
+	 */
+	public static interface Listener {
+		
+		default public void onMessageStart(ProtoSchema schema) { }
+		
+		default public void onMessageEnd(ProtoSchema schema) { }
+		
+		default public void onNotPresent(int fieldIndex) { }
+		
+		default public void onBoolean(int fieldIndex, boolean value) { }
+		
+		default public void onByte(int fieldIndex, byte value) { }
+		
+		/**
+		 * Called for the char fields and for the char enum fields.
+		 */
+		default public void onChar(int fieldIndex, char value) { }
+		
+		/**
+		 * Called for the short fields and for the short enum fields.
+		 */
+		default public void onShort(int fieldIndex, short value) { }
+		
+		/**
+		 * Called for the int and varint fields and for the int enum fields.
+		 */
+		default public void onInt(int fieldIndex, int value) { }
+		
+		/**
+		 * Called for the long and varlong fields.
+		 */
+		default public void onLong(int fieldIndex, long value) { }
+		
+		default public void onFloat(int fieldIndex, float value) { }
+		
+		default public void onDouble(int fieldIndex, double value) { }
+		
+		/**
+		 * Called for the chars and varchars fields and for the two-char enum fields.
+		 */
+		default public void onChars(int fieldIndex, ByteBuffer buf, int offset, int length) { }
+		
+		/**
+		 * Called for the bytes and varbytes fields.
+		 */
+		default public void onBytes(int fieldIndex, ByteBuffer buf, int offset, int length) { }
+		
+		/**
+		 * Called before the elements of a repeating group. The fields of each element come next, each element starting with a call to
+		 * {@link #onElement(int)}, and then {@link #onGroupEnd(int)}.
+		 */
+		default public void onGroupStart(int fieldIndex, int count) { }
+		
+		default public void onElement(int elementIndex) { }
+		
+		default public void onGroupEnd(int fieldIndex) { }
+	}
+	
+	private final IntMap<ProtoSchema> schemas;
+	
+	public ProtoStreamParser(ProtoSchema ... schemas) {
+		this.schemas = new IntMap<ProtoSchema>(256);
+		for(ProtoSchema schema : schemas) {
+			if (schema.getType() == 0) throw new IllegalArgumentException("Not the schema of a message: " + schema);
+			int key = ByteUtils.toInt((byte) schema.getType(), (byte) schema.getSubtype(), schema.getVersion());
+			if (this.schemas.containsKey(key)) {
+				throw new IllegalArgumentException("Duplicate schema (same type, subtype and version): " + schema);
+			}
+			this.schemas.put(key, schema);
+		}
+	}
+	
+	/**
+	 * Decodes the message at the position of the buffer (starting with its type, subtype and version) and moves the position to the end of it.
+	 * 
+	 * @param buf the buffer with the message
+	 * @param listener the listener to receive the fields
+	 * @return the schema of the message or null if the message is not known
+	 */
+	public final ProtoSchema parse(ByteBuffer buf, Listener listener) {
+		
+		if (buf.remaining() < 4) return null;
+		
+		byte type = buf.get();
+		byte subtype = buf.get();
+		short version = buf.getShort();
+		
+		ProtoSchema schema = schemas.get(ByteUtils.toInt(type, subtype, version));
+		
+		if (schema == null) return null;
+		
+		listener.onMessageStart(schema);
+		parseFields(buf, schema, true, listener);
+		listener.onMessageEnd(schema);
+		
+		return schema;
+	}
+	
+	private final void parseFields(ByteBuffer buf, ProtoSchema schema, boolean isMessage, Listener listener) {
+		int bitmapSize = schema.getPresenceBitmapSize();
+		long bitmap = bitmapSize > 0 ? PresenceBitmapUtils.read(buf, bitmapSize) : 0;
+		int bit = 0;
+		int n = schema.getNumberOfFields();
+		for(int i = 0; i < n; i++) {
+			Field field = schema.getField(i);
+			boolean isPresent;
+			if (field.isOptional()) {
+				if (bitmapSize > 0) {
+					isPresent = (bitmap & (1L << bit++)) != 0;
+				} else {
+					isPresent = (!isMessage || buf.hasRemaining()) && buf.get() == 'Y';
+				}
+			} else {
+				isPresent = !isMessage || buf.hasRemaining(); // an older version of the message can be missing the last fields
+			}
+			if (isPresent) {
+				parseField(buf, field, schema, listener);
+			} else {
+				listener.onNotPresent(i);
+			}
+		}
+	}
+	
+	private final void parseField(ByteBuffer buf, Field field, ProtoSchema schema, Listener listener) {
+		int i = field.getIndex();
+		switch(field.getType()) {
+			case BOOLEAN:
+				listener.onBoolean(i, buf.get() == 'Y');
+				break;
+			case BYTE:
+				listener.onByte(i, buf.get());
+				break;
+			case CHAR:
+			case CHAR_ENUM:
+				listener.onChar(i, (char) buf.get());
+				break;
+			case SHORT:
+			case SHORT_ENUM:
+				listener.onShort(i, buf.getShort());
+				break;
+			case INT:
+			case INT_ENUM:
+				listener.onInt(i, buf.getInt());
+				break;
+			case LONG:
+				listener.onLong(i, buf.getLong());
+				break;
+			case FLOAT:
+				listener.onFloat(i, FloatUtils.toFloat(buf.getInt(), field.getSize()));
+				break;
+			case DOUBLE:
+				listener.onDouble(i, DoubleUtils.toDouble(buf.getLong(), field.getSize()));
+				break;
+			case VARINT:
+				listener.onInt(i, VarIntUtils.getVarInt(buf));
+				break;
+			case VARLONG:
+				listener.onLong(i, VarIntUtils.getVarLong(buf));
+				break;
+			case TWO_CHAR_ENUM:
+				listener.onChars(i, buf, advance(buf, 2), 2);
+				break;
+			case CHARS:
+				listener.onChars(i, buf, advance(buf, field.getSize()), field.getSize());
+				break;
+			case BYTES:
+				listener.onBytes(i, buf, advance(buf, field.getSize()), field.getSize());
+				break;
+			case VARCHARS: {
+				int len = readLength(buf, field);
+				listener.onChars(i, buf, advance(buf, len), len);
+				break;
+			}
+			case VARBYTES: {
+				int len = readLength(buf, field);
+				listener.onBytes(i, buf, advance(buf, len), len);
+				break;
+			}
+			case GROUP: {
+				int count = schema.hasVarintCounts() ? VarIntUtils.getUnsignedVarInt(buf) : buf.getShort();
+				if (count < 0 || count > Short.MAX_VALUE) throw new IllegalArgumentException("Invalid repeating group element count: " + count);
+				listener.onGroupStart(i, count);
+				ProtoSchema group = field.getGroup();
+				for(int e = 0; e < count; e++) {
+					listener.onElement(e);
+					parseFields(buf, group, false, listener);
+				}
+				listener.onGroupEnd(i);
+				break;
+			}
+			default:
+				throw new IllegalStateException("Unknown field type: " + field.getType());
+		}
+	}
+	
+	private static int readLength(ByteBuffer buf, Field field) {
+		int len = buf.getInt();
+		if (len < 0 || len > field.getSize()) {
+			throw new IllegalArgumentException("Invalid length for field " + field.getName() + ": " + len + " (maxLength=" + field.getSize() + ")");
+		}
+		return len;
+	}
+	
+	/*
+	 * Moves the position of the buffer past the given number of bytes and returns where they start.
+	 */
+	private static int advance(ByteBuffer buf, int length) {
+		int pos = buf.position();
+		if (buf.remaining() < length) {
+			throw new IllegalArgumentException("ByteBuffer is too small: remaining=" + buf.remaining() + ", required=" + length);
+		}
+		buf.position(pos + length);
+		return pos;
+	}
+}
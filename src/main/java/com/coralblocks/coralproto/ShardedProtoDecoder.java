@@ -0,0 +1,177 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>Spreads the parsing of messages across worker threads. Each message is routed by a key extracted from its bytes (a <code>symbolId</code> at a
+ * fixed offset, for example) to one of the workers, so all the messages with the same key are parsed by the same worker, in order. Each worker has
+ * its own {@link ProtoQueue} (in direct memory) and its own parser from a {@link ProtoParserFactory}, and hands each parsed message to the
+ * {@link Listener} from its own thread.</p>
+ * 
+ * <p>{@link #decode(ByteBuffer)} must be called by a single thread. Neither side produces garbage.</p>
+ * 
+ * <p>A message that fails to parse or that makes the listener throw a <code>RuntimeException</code> is counted and skipped, and the worker goes on
+ * with the next message (see {@link #getErrors()} and {@link #getLastError()}).</p>
+ */
+public class ShardedProtoDecoder {
+	
+	/**
+	 * Receives the parsed messages, from the thread of each worker.
+	 */
+	public static interface Listener {
+		
+		/**
+		 * Called by the worker thread with the parsed message. The message is only valid until this method returns.
+		 * 
+		 * @param worker the index of the worker (from zero)
+		 * @param proto the parsed message
+		 */
+		public void onMessage(int worker, Proto proto);
+	}
+	
+	private final ProtoQueue[] queues;
+	private final Thread[] threads;
+	private final ToLongFunction<ByteBuffer> keyExtractor;
+	private final ProtoQueue.WaitStrategy waitStrategy;
+	private final AtomicLong errors = new AtomicLong();
+	private volatile RuntimeException lastError;
+	private volatile boolean running = true;
+	private volatile int deadWorker = -1;
+	
+	/**
+	 * Creates the decoder and starts its worker threads.
+	 * 
+	 * @param parserFactory the factory of the parser of each worker
+	 * @param workers the number of worker threads
+	 * @param queueCapacity the capacity in bytes of the queue of each worker (a power of two)
+	 * @param keyExtractor returns the key of a message (from the position to the limit of the given buffer) without changing its position
+	 * @param listener receives the parsed messages
+	 * @param waitStrategy what the workers do while their queues are empty and what {@link #decode(ByteBuffer)} does while a queue is full
+	 */
+	public ShardedProtoDecoder(ProtoParserFactory parserFactory, int workers, int queueCapacity, ToLongFunction<ByteBuffer> keyExtractor, Listener listener, ProtoQueue.WaitStrategy waitStrategy) {
+		
+		if (workers <= 0) throw new IllegalArgumentException("Invalid number of workers: " + workers);
+		
+		this.queues = new ProtoQueue[workers];
+		this.threads = new Thread[workers];
+		this.keyExtractor = keyExtractor;
+		this.waitStrategy = waitStrategy;
+		
+		for(int i = 0; i < workers; i++) {
+			final int worker = i;
+			final ProtoQueue queue = queues[i] = new ProtoQueue(queueCapacity, waitStrategy);
+			threads[i] = new Thread(() -> {
+				try {
+					ProtoParser parser = parserFactory.newParser();
+					int attempt = 0;
+					while(true) {
+						if (poll(worker, queue, parser, listener)) {
+							attempt = 0;
+						} else if (running) {
+							waitStrategy.idle(attempt++);
+						} else {
+							// drains what is left, as everything routed before close() is visible after seeing running false
+							while(poll(worker, queue, parser, listener));
+							break;
+						}
+					}
+				} finally {
+					if (running) deadWorker = worker; // by an Error, as exceptions are caught for each message
+				}
+			}, "ShardedProtoDecoder-" + i);
+			threads[i].start();
+		}
+	}
+	
+	private boolean poll(int worker, ProtoQueue queue, ProtoParser parser, Listener listener) {
+		try {
+			Proto proto = queue.poll(parser); // a message that fails to parse is consumed anyway
+			if (proto == null) return false;
+			listener.onMessage(worker, proto);
+		} catch(RuntimeException e) {
+			lastError = e;
+			errors.incrementAndGet();
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the worker that parses the messages with the given key.
+	 * 
+	 * @param key the key of a message
+	 * @return the index of the worker
+	 */
+	public int getWorker(long key) {
+		long h = key * 0x9E3779B97F4A7C15L; // mixes the bits, for keys that are multiples of the number of workers
+		return (int) ((h >>> 32) * queues.length >>> 32);
+	}
+	
+	public int getNumberOfWorkers() {
+		return queues.length;
+	}
+	
+	/**
+	 * Returns the number of messages that failed to parse or made the listener throw, across all the workers.
+	 * 
+	 * @return the number of errors
+	 */
+	public long getErrors() {
+		return errors.get();
+	}
+	
+	/**
+	 * Returns the last exception thrown by the parse of a message or by the listener, if any.
+	 * 
+	 * @return the last error or null
+	 */
+	public RuntimeException getLastError() {
+		return lastError;
+	}
+	
+	/**
+	 * Routes the given message (type, subtype, version and fields, from the position to the limit of the buffer) to its worker, waiting while
+	 * the queue of the worker is full. The message is copied, so the buffer can be reused as soon as this method returns. The position of the
+	 * buffer is not changed.
+	 * 
+	 * @param message the buffer with the message
+	 * @return the index of the worker
+	 * @throws IllegalStateException if a worker thread died, as its messages would never be parsed
+	 */
+	public int decode(ByteBuffer message) {
+		int worker = getWorker(keyExtractor.applyAsLong(message));
+		ProtoQueue queue = queues[worker];
+		int attempt = 0;
+		while(true) {
+			if (deadWorker >= 0) throw new IllegalStateException("Worker " + deadWorker + " died, so its messages would never be parsed");
+			if (queue.offer(message)) return worker;
+			waitStrategy.idle(attempt++);
+		}
+	}
+	
+	/**
+	 * Stops the workers after they parse all the messages already routed to them, and waits for them to finish.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public void close() throws InterruptedException {
+		running = false;
+		for(Thread thread : threads) thread.join();
+	}
+}
@@ -0,0 +1,590 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.IDL;
+import com.coralblocks.coralproto.field.GroupField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.RepeatingGroupField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TypeField;
+import com.coralblocks.coralproto.field.VarCharsField;
+import com.coralblocks.coralproto.field.VarIntField;
+import com.coralblocks.coralproto.field.VarLongField;
+
+/**
+ * The same message as {@link MarketDataMessage} but with its integers written as varints and its repeating group counts written as varints.
+ */
+public class CompactMarketDataMessage extends AbstractProto {
+	
+	private static final String TEXT = """
+			
+			TYPE = P
+			SUBTYPE = K
+			DIRECT_ACCESS = true
+			VARINT_COUNTS = true
+			
+			symbolId: varlong
+			symbolDesc: varchars(128)
+			mqReqId: varlong!
+			
+			bids:
+			    levelId: varlong!
+			    priceLevel: varlong
+			    qty: varint
+			    legs:
+			      legId: varint
+			      legDesc: varchars(128)!
+			    orders: varint
+			
+			asks:
+			    levelId: varlong!
+			    priceLevel: varlong
+			    qty: varint
+			    legs:
+			      legId: varint
+			      legDesc: varchars(128)!
+			    orders: varint
+			
+			lastTradeQty: varlong!
+			lastTradePrice: varlong!
+			
+	""";
+	
+	public static void main(String[] args) throws IOException {
+		IDL idl = new IDL(TEXT);
+		String filePath = "src/main/java/com/coralblocks/coralproto/example/" + CompactMarketDataMessage.class.getSimpleName() + ".java";
+		String sourceCode = idl.getCode();
+		IDL.replaceAutoGeneratedCode(filePath, sourceCode);
+	}
+
+	// Auto-generated code. Do not edit or change anything below here
+	
+	// BEGIN_AUTO_GENERATED_CODE
+
+    public static final char TYPE = 'P';
+    public static final char SUBTYPE = 'K';
+
+    public static final int SYMBOL_ID_OFFSET = 4;
+
+    public final TypeField typeField = new TypeField(this, TYPE);
+    public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+    public final VarLongField symbolId = new VarLongField(this);
+
+    public final VarCharsField symbolDesc = new VarCharsField(this, 128);
+
+    public final VarLongField mqReqId = new VarLongField(this, true);
+
+    public static class BidsRepeatingGroup extends RepeatingGroupField {
+
+        public VarLongField levelId;
+
+        public VarLongField priceLevel;
+
+        public VarIntField qty;
+
+        public static class LegsRepeatingGroup extends RepeatingGroupField {
+
+            public VarIntField legId;
+
+            public VarCharsField legDesc;
+
+            public LegsRepeatingGroup(AbstractProto proto) {
+                this(proto, new VarIntField(), new VarCharsField(128, true));
+            }
+
+            public LegsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, true, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.legId = (VarIntField) groupField.internalArray()[0];
+                this.legDesc = (VarCharsField) groupField.internalArray()[1];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.legId = (VarIntField) groupField.internalArray()[0];
+                    this.legDesc = (VarCharsField) groupField.internalArray()[1];
+                }
+                return groupField;
+            } 
+
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                int n = readCount(buf);
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    legId.readFrom(buf);
+                    if (buf.get() == 'Y') {
+                        legDesc.readFrom(buf);
+                    } else {
+                        legDesc.markAsNotPresent();
+                    }
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                writeCount(buf);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    VarIntField legId = (VarIntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    legId.writeTo(buf);
+                    if (legDesc.isPresent()) {
+                        buf.put((byte) 'Y');
+                        legDesc.writeTo(buf);
+                    } else {
+                        buf.put((byte) 'N');
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                int size = countSize();
+                int n = getNumberOfElements();
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    VarIntField legId = (VarIntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    size += legId.size();
+                    size += legDesc.size();
+                }
+                return size;
+            }
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new BidsRepeatingGroup.LegsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public BidsRepeatingGroup.LegsRepeatingGroup legs;
+
+        public VarIntField orders;
+
+        public BidsRepeatingGroup(AbstractProto proto) {
+            this(proto, new VarLongField(true), new VarLongField(), new VarIntField(), new BidsRepeatingGroup.LegsRepeatingGroup(null), new VarIntField());
+        }
+
+        public BidsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+            super(proto, true, protoFields);
+        }
+
+        @Override
+        public GroupField nextElement() {
+            GroupField groupField = super.nextElement();
+            this.levelId = (VarLongField) groupField.internalArray()[0];
+            this.priceLevel = (VarLongField) groupField.internalArray()[1];
+            this.qty = (VarIntField) groupField.internalArray()[2];
+            this.legs = (BidsRepeatingGroup.LegsRepeatingGroup) groupField.internalArray()[3];
+            this.orders = (VarIntField) groupField.internalArray()[4];
+            return groupField;
+        } 
+
+        @Override
+        public GroupField iterNext() {
+            GroupField groupField = super.iterNext();
+            if (groupField != null) {
+                this.levelId = (VarLongField) groupField.internalArray()[0];
+                this.priceLevel = (VarLongField) groupField.internalArray()[1];
+                this.qty = (VarIntField) groupField.internalArray()[2];
+                this.legs = (BidsRepeatingGroup.LegsRepeatingGroup) groupField.internalArray()[3];
+                this.orders = (VarIntField) groupField.internalArray()[4];
+            }
+            return groupField;
+        } 
+
+        @Override
+        public void readFrom(ByteBuffer buf) {
+            clear();
+            int n = readCount(buf);
+            for(int i = 0; i < n; i++) {
+                nextElement();
+                if (buf.get() == 'Y') {
+                    levelId.readFrom(buf);
+                } else {
+                    levelId.markAsNotPresent();
+                }
+                priceLevel.readFrom(buf);
+                qty.readFrom(buf);
+                legs.readFrom(buf);
+                orders.readFrom(buf);
+            }
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buf) {
+            int n = getNumberOfElements();
+            writeCount(buf);
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                VarLongField levelId = (VarLongField) fields[0];
+                VarLongField priceLevel = (VarLongField) fields[1];
+                VarIntField qty = (VarIntField) fields[2];
+                BidsRepeatingGroup.LegsRepeatingGroup legs = (BidsRepeatingGroup.LegsRepeatingGroup) fields[3];
+                VarIntField orders = (VarIntField) fields[4];
+                if (levelId.isPresent()) {
+                    buf.put((byte) 'Y');
+                    levelId.writeTo(buf);
+                } else {
+                    buf.put((byte) 'N');
+                }
+                priceLevel.writeTo(buf);
+                qty.writeTo(buf);
+                legs.writeTo(buf);
+                orders.writeTo(buf);
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = countSize();
+            int n = getNumberOfElements();
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                VarLongField levelId = (VarLongField) fields[0];
+                VarLongField priceLevel = (VarLongField) fields[1];
+                VarIntField qty = (VarIntField) fields[2];
+                BidsRepeatingGroup.LegsRepeatingGroup legs = (BidsRepeatingGroup.LegsRepeatingGroup) fields[3];
+                VarIntField orders = (VarIntField) fields[4];
+                size += levelId.size();
+                size += priceLevel.size();
+                size += qty.size();
+                size += legs.size();
+                size += orders.size();
+            }
+            return size;
+        }
+
+        @Override
+        protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+            return new BidsRepeatingGroup(null, protoFields);
+        } 
+
+    }
+
+    public final BidsRepeatingGroup bids = new BidsRepeatingGroup(this);
+
+    public static class AsksRepeatingGroup extends RepeatingGroupField {
+
+        public VarLongField levelId;
+
+        public VarLongField priceLevel;
+
+        public VarIntField qty;
+
+        public static class LegsRepeatingGroup extends RepeatingGroupField {
+
+            public VarIntField legId;
+
+            public VarCharsField legDesc;
+
+            public LegsRepeatingGroup(AbstractProto proto) {
+                this(proto, new VarIntField(), new VarCharsField(128, true));
+            }
+
+            public LegsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, true, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.legId = (VarIntField) groupField.internalArray()[0];
+                this.legDesc = (VarCharsField) groupField.internalArray()[1];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.legId = (VarIntField) groupField.internalArray()[0];
+                    this.legDesc = (VarCharsField) groupField.internalArray()[1];
+                }
+                return groupField;
+            } 
+
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                int n = readCount(buf);
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    legId.readFrom(buf);
+                    if (buf.get() == 'Y') {
+                        legDesc.readFrom(buf);
+                    } else {
+                        legDesc.markAsNotPresent();
+                    }
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                writeCount(buf);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    VarIntField legId = (VarIntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    legId.writeTo(buf);
+                    if (legDesc.isPresent()) {
+                        buf.put((byte) 'Y');
+                        legDesc.writeTo(buf);
+                    } else {
+                        buf.put((byte) 'N');
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                int size = countSize();
+                int n = getNumberOfElements();
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    VarIntField legId = (VarIntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    size += legId.size();
+                    size += legDesc.size();
+                }
+                return size;
+            }
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new AsksRepeatingGroup.LegsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public AsksRepeatingGroup.LegsRepeatingGroup legs;
+
+        public VarIntField orders;
+
+        public AsksRepeatingGroup(AbstractProto proto) {
+            this(proto, new VarLongField(true), new VarLongField(), new VarIntField(), new AsksRepeatingGroup.LegsRepeatingGroup(null), new VarIntField());
+        }
+
+        public AsksRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+            super(proto, true, protoFields);
+        }
+
+        @Override
+        public GroupField nextElement() {
+            GroupField groupField = super.nextElement();
+            this.levelId = (VarLongField) groupField.internalArray()[0];
+            this.priceLevel = (VarLongField) groupField.internalArray()[1];
+            this.qty = (VarIntField) groupField.internalArray()[2];
+            this.legs = (AsksRepeatingGroup.LegsRepeatingGroup) groupField.internalArray()[3];
+            this.orders = (VarIntField) groupField.internalArray()[4];
+            return groupField;
+        } 
+
+        @Override
+        public GroupField iterNext() {
+            GroupField groupField = super.iterNext();
+            if (groupField != null) {
+                this.levelId = (VarLongField) groupField.internalArray()[0];
+                this.priceLevel = (VarLongField) groupField.internalArray()[1];
+                this.qty = (VarIntField) groupField.internalArray()[2];
+                this.legs = (AsksRepeatingGroup.LegsRepeatingGroup) groupField.internalArray()[3];
+                this.orders = (VarIntField) groupField.internalArray()[4];
+            }
+            return groupField;
+        } 
+
+        @Override
+        public void readFrom(ByteBuffer buf) {
+            clear();
+            int n = readCount(buf);
+            for(int i = 0; i < n; i++) {
+                nextElement();
+                if (buf.get() == 'Y') {
+                    levelId.readFrom(buf);
+                } else {
+                    levelId.markAsNotPresent();
+                }
+                priceLevel.readFrom(buf);
+                qty.readFrom(buf);
+                legs.readFrom(buf);
+                orders.readFrom(buf);
+            }
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buf) {
+            int n = getNumberOfElements();
+            writeCount(buf);
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                VarLongField levelId = (VarLongField) fields[0];
+                VarLongField priceLevel = (VarLongField) fields[1];
+                VarIntField qty = (VarIntField) fields[2];
+                AsksRepeatingGroup.LegsRepeatingGroup legs = (AsksRepeatingGroup.LegsRepeatingGroup) fields[3];
+                VarIntField orders = (VarIntField) fields[4];
+                if (levelId.isPresent()) {
+                    buf.put((byte) 'Y');
+                    levelId.writeTo(buf);
+                } else {
+                    buf.put((byte) 'N');
+                }
+                priceLevel.writeTo(buf);
+                qty.writeTo(buf);
+                legs.writeTo(buf);
+                orders.writeTo(buf);
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = countSize();
+            int n = getNumberOfElements();
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                VarLongField levelId = (VarLongField) fields[0];
+                VarLongField priceLevel = (VarLongField) fields[1];
+                VarIntField qty = (VarIntField) fields[2];
+                AsksRepeatingGroup.LegsRepeatingGroup legs = (AsksRepeatingGroup.LegsRepeatingGroup) fields[3];
+                VarIntField orders = (VarIntField) fields[4];
+                size += levelId.size();
+                size += priceLevel.size();
+                size += qty.size();
+                size += legs.size();
+                size += orders.size();
+            }
+            return size;
+        }
+
+        @Override
+        protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+            return new AsksRepeatingGroup(null, protoFields);
+        } 
+
+    }
+
+    public final AsksRepeatingGroup asks = new AsksRepeatingGroup(this);
+
+    public final VarLongField lastTradeQty = new VarLongField(this, true);
+
+    public final VarLongField lastTradePrice = new VarLongField(this, true);
+
+    @Override
+    public int getLength() {
+        int len = SYMBOL_ID_OFFSET; // type + subtype + version + fixed-size fields
+        len += symbolId.size();
+        len += symbolDesc.size();
+        len += mqReqId.size();
+        len += bids.size();
+        len += asks.size();
+        len += lastTradeQty.size();
+        len += lastTradePrice.size();
+        return len;
+    }
+
+    @Override
+    public void read(ByteBuffer buf) {
+        if (getProjection() != ALL_FIELDS) {
+            super.read(buf); // skips the fields outside the projection
+            return;
+        }
+        if (buf.hasRemaining()) {
+            symbolId.readFrom(buf);
+        } else {
+            symbolId.reset();
+        }
+        if (buf.hasRemaining()) {
+            symbolDesc.readFrom(buf);
+        } else {
+            symbolDesc.reset();
+        }
+        if (buf.hasRemaining() && buf.get() == 'Y') {
+            mqReqId.readFrom(buf);
+        } else {
+            mqReqId.markAsNotPresent();
+        }
+        if (buf.hasRemaining()) {
+            bids.readFrom(buf);
+        } else {
+            bids.reset();
+        }
+        if (buf.hasRemaining()) {
+            asks.readFrom(buf);
+        } else {
+            asks.reset();
+        }
+        if (buf.hasRemaining() && buf.get() == 'Y') {
+            lastTradeQty.readFrom(buf);
+        } else {
+            lastTradeQty.markAsNotPresent();
+        }
+        if (buf.hasRemaining() && buf.get() == 'Y') {
+            lastTradePrice.readFrom(buf);
+        } else {
+            lastTradePrice.markAsNotPresent();
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer buf) {
+        buf.put((byte) TYPE);
+        buf.put((byte) SUBTYPE);
+        buf.putShort((short) 0);
+        symbolId.writeTo(buf);
+        symbolDesc.writeTo(buf);
+        if (mqReqId.isPresent()) {
+            buf.put((byte) 'Y');
+            mqReqId.writeTo(buf);
+        } else {
+            buf.put((byte) 'N');
+        }
+        bids.writeTo(buf);
+        asks.writeTo(buf);
+        if (lastTradeQty.isPresent()) {
+            buf.put((byte) 'Y');
+            lastTradeQty.writeTo(buf);
+        } else {
+            buf.put((byte) 'N');
+        }
+        if (lastTradePrice.isPresent()) {
+            buf.put((byte) 'Y');
+            lastTradePrice.writeTo(buf);
+        } else {
+            buf.put((byte) 'N');
+        }
+    }
+
+
+	// END_AUTO_GENERATED_CODE
+
+}
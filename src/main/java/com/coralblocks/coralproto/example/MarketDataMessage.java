@@ -16,6 +16,7 @@
 package com.coralblocks.coralproto.example;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
 import com.coralblocks.coralproto.IDL;
@@ -34,6 +35,7 @@ public class MarketDataMessage extends AbstractProto {
 			
 			TYPE = P
 			SUBTYPE = M
+			DIRECT_ACCESS = true
 			
 			symbolId: long
 			symbolDesc: varchars(128)
@@ -76,6 +78,9 @@ public class MarketDataMessage extends AbstractProto {
     public static final char TYPE = 'P';
     public static final char SUBTYPE = 'M';
 
+    public static final int SYMBOL_ID_OFFSET = 4;
+    public static final int SYMBOL_DESC_OFFSET = 12;
+
     public final TypeField typeField = new TypeField(this, TYPE);
     public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -125,6 +130,56 @@ public class MarketDataMessage extends AbstractProto {
                 return groupField;
             } 
 
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                short n = buf.getShort();
+                if (n < 0) {
+                    throw new IllegalArgumentException("Negative repeating group element count: " + n);
+                }
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    legId.readFrom(buf);
+                    if (buf.get() == 'Y') {
+                        legDesc.readFrom(buf);
+                    } else {
+                        legDesc.markAsNotPresent();
+                    }
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                buf.putShort((short) n);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    IntField legId = (IntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    legId.writeTo(buf);
+                    if (legDesc.isPresent()) {
+                        buf.put((byte) 'Y');
+                        legDesc.writeTo(buf);
+                    } else {
+                        buf.put((byte) 'N');
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                int size = 2;
+                int n = getNumberOfElements();
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    IntField legId = (IntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    size += legId.size();
+                    size += legDesc.size();
+                }
+                return size;
+            }
+
             @Override
             protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
                 return new BidsRepeatingGroup.LegsRepeatingGroup(null, protoFields);
@@ -168,6 +223,71 @@ public class MarketDataMessage extends AbstractProto {
             return groupField;
         } 
 
+        @Override
+        public void readFrom(ByteBuffer buf) {
+            clear();
+            short n = buf.getShort();
+            if (n < 0) {
+                throw new IllegalArgumentException("Negative repeating group element count: " + n);
+            }
+            for(int i = 0; i < n; i++) {
+                nextElement();
+                if (buf.get() == 'Y') {
+                    levelId.readFrom(buf);
+                } else {
+                    levelId.markAsNotPresent();
+                }
+                priceLevel.readFrom(buf);
+                qty.readFrom(buf);
+                legs.readFrom(buf);
+                orders.readFrom(buf);
+            }
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buf) {
+            int n = getNumberOfElements();
+            buf.putShort((short) n);
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                LongField levelId = (LongField) fields[0];
+                LongField priceLevel = (LongField) fields[1];
+                IntField qty = (IntField) fields[2];
+                BidsRepeatingGroup.LegsRepeatingGroup legs = (BidsRepeatingGroup.LegsRepeatingGroup) fields[3];
+                IntField orders = (IntField) fields[4];
+                if (levelId.isPresent()) {
+                    buf.put((byte) 'Y');
+                    levelId.writeTo(buf);
+                } else {
+                    buf.put((byte) 'N');
+                }
+                priceLevel.writeTo(buf);
+                qty.writeTo(buf);
+                legs.writeTo(buf);
+                orders.writeTo(buf);
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = 2;
+            int n = getNumberOfElements();
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                LongField levelId = (LongField) fields[0];
+                LongField priceLevel = (LongField) fields[1];
+                IntField qty = (IntField) fields[2];
+                BidsRepeatingGroup.LegsRepeatingGroup legs = (BidsRepeatingGroup.LegsRepeatingGroup) fields[3];
+                IntField orders = (IntField) fields[4];
+                size += levelId.size();
+                size += priceLevel.size();
+                size += qty.size();
+                size += legs.size();
+                size += orders.size();
+            }
+            return size;
+        }
+
         @Override
         protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
             return new BidsRepeatingGroup(null, protoFields);
@@ -217,6 +337,56 @@ public class MarketDataMessage extends AbstractProto {
                 return groupField;
             } 
 
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                short n = buf.getShort();
+                if (n < 0) {
+                    throw new IllegalArgumentException("Negative repeating group element count: " + n);
+                }
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    legId.readFrom(buf);
+                    if (buf.get() == 'Y') {
+                        legDesc.readFrom(buf);
+                    } else {
+                        legDesc.markAsNotPresent();
+                    }
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                buf.putShort((short) n);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    IntField legId = (IntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    legId.writeTo(buf);
+                    if (legDesc.isPresent()) {
+                        buf.put((byte) 'Y');
+                        legDesc.writeTo(buf);
+                    } else {
+                        buf.put((byte) 'N');
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                int size = 2;
+                int n = getNumberOfElements();
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    IntField legId = (IntField) fields[0];
+                    VarCharsField legDesc = (VarCharsField) fields[1];
+                    size += legId.size();
+                    size += legDesc.size();
+                }
+                return size;
+            }
+
             @Override
             protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
                 return new AsksRepeatingGroup.LegsRepeatingGroup(null, protoFields);
@@ -260,6 +430,71 @@ public class MarketDataMessage extends AbstractProto {
             return groupField;
         } 
 
+        @Override
+        public void readFrom(ByteBuffer buf) {
+            clear();
+            short n = buf.getShort();
+            if (n < 0) {
+                throw new IllegalArgumentException("Negative repeating group element count: " + n);
+            }
+            for(int i = 0; i < n; i++) {
+                nextElement();
+                if (buf.get() == 'Y') {
+                    levelId.readFrom(buf);
+                } else {
+                    levelId.markAsNotPresent();
+                }
+                priceLevel.readFrom(buf);
+                qty.readFrom(buf);
+                legs.readFrom(buf);
+                orders.readFrom(buf);
+            }
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buf) {
+            int n = getNumberOfElements();
+            buf.putShort((short) n);
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                LongField levelId = (LongField) fields[0];
+                LongField priceLevel = (LongField) fields[1];
+                IntField qty = (IntField) fields[2];
+                AsksRepeatingGroup.LegsRepeatingGroup legs = (AsksRepeatingGroup.LegsRepeatingGroup) fields[3];
+                IntField orders = (IntField) fields[4];
+                if (levelId.isPresent()) {
+                    buf.put((byte) 'Y');
+                    levelId.writeTo(buf);
+                } else {
+                    buf.put((byte) 'N');
+                }
+                priceLevel.writeTo(buf);
+                qty.writeTo(buf);
+                legs.writeTo(buf);
+                orders.writeTo(buf);
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = 2;
+            int n = getNumberOfElements();
+            for(int i = 0; i < n; i++) {
+                ProtoField[] fields = getElement(i).internalArray();
+                LongField levelId = (LongField) fields[0];
+                LongField priceLevel = (LongField) fields[1];
+                IntField qty = (IntField) fields[2];
+                AsksRepeatingGroup.LegsRepeatingGroup legs = (AsksRepeatingGroup.LegsRepeatingGroup) fields[3];
+                IntField orders = (IntField) fields[4];
+                size += levelId.size();
+                size += priceLevel.size();
+                size += qty.size();
+                size += legs.size();
+                size += orders.size();
+            }
+            return size;
+        }
+
         @Override
         protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
             return new AsksRepeatingGroup(null, protoFields);
@@ -273,6 +508,90 @@ public class MarketDataMessage extends AbstractProto {
 
     public final LongField lastTradePrice = new LongField(this, true);
 
+    @Override
+    public int getLength() {
+        int len = SYMBOL_DESC_OFFSET; // type + subtype + version + fixed-size fields
+        len += symbolDesc.size();
+        len += mqReqId.size();
+        len += bids.size();
+        len += asks.size();
+        len += lastTradeQty.size();
+        len += lastTradePrice.size();
+        return len;
+    }
+
+    @Override
+    public void read(ByteBuffer buf) {
+        if (getProjection() != ALL_FIELDS) {
+            super.read(buf); // skips the fields outside the projection
+            return;
+        }
+        if (buf.hasRemaining()) {
+            symbolId.readFrom(buf);
+        } else {
+            symbolId.reset();
+        }
+        if (buf.hasRemaining()) {
+            symbolDesc.readFrom(buf);
+        } else {
+            symbolDesc.reset();
+        }
+        if (buf.hasRemaining() && buf.get() == 'Y') {
+            mqReqId.readFrom(buf);
+        } else {
+            mqReqId.markAsNotPresent();
+        }
+        if (buf.hasRemaining()) {
+            bids.readFrom(buf);
+        } else {
+            bids.reset();
+        }
+        if (buf.hasRemaining()) {
+            asks.readFrom(buf);
+        } else {
+            asks.reset();
+        }
+        if (buf.hasRemaining() && buf.get() == 'Y') {
+            lastTradeQty.readFrom(buf);
+        } else {
+            lastTradeQty.markAsNotPresent();
+        }
+        if (buf.hasRemaining() && buf.get() == 'Y') {
+            lastTradePrice.readFrom(buf);
+        } else {
+            lastTradePrice.markAsNotPresent();
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer buf) {
+        buf.put((byte) TYPE);
+        buf.put((byte) SUBTYPE);
+        buf.putShort((short) 0);
+        symbolId.writeTo(buf);
+        symbolDesc.writeTo(buf);
+        if (mqReqId.isPresent()) {
+            buf.put((byte) 'Y');
+            mqReqId.writeTo(buf);
+        } else {
+            buf.put((byte) 'N');
+        }
+        bids.writeTo(buf);
+        asks.writeTo(buf);
+        if (lastTradeQty.isPresent()) {
+            buf.put((byte) 'Y');
+            lastTradeQty.writeTo(buf);
+        } else {
+            buf.put((byte) 'N');
+        }
+        if (lastTradePrice.isPresent()) {
+            buf.put((byte) 'Y');
+            lastTradePrice.writeTo(buf);
+        } else {
+            buf.put((byte) 'N');
+        }
+    }
+
 
 	// END_AUTO_GENERATED_CODE
 
@@ -16,8 +16,10 @@
 package com.coralblocks.coralproto.example;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.AbstractProtoEncoder;
 import com.coralblocks.coralproto.IDL;
 import com.coralblocks.coralproto.field.BooleanField;
 import com.coralblocks.coralproto.field.CharsField;
@@ -37,6 +39,8 @@ public class PriceChangeMessage extends AbstractProto {
 			
 		  TYPE = P
 		  SUBTYPE = C
+		  DIRECT_ACCESS = true
+		  ENCODER = true
 		  
 		  symbolId: long
 		  symbolDesc: varchars(128)
@@ -71,6 +75,9 @@ public class PriceChangeMessage extends AbstractProto {
         public static final char TYPE = 'P';
         public static final char SUBTYPE = 'C';
 
+        public static final int SYMBOL_ID_OFFSET = 4;
+        public static final int SYMBOL_DESC_OFFSET = 12;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -122,6 +129,56 @@ public class PriceChangeMessage extends AbstractProto {
                     return groupField;
                 } 
 
+                @Override
+                public void readFrom(ByteBuffer buf) {
+                    clear();
+                    short n = buf.getShort();
+                    if (n < 0) {
+                        throw new IllegalArgumentException("Negative repeating group element count: " + n);
+                    }
+                    for(int i = 0; i < n; i++) {
+                        nextElement();
+                        legId.readFrom(buf);
+                        if (buf.get() == 'Y') {
+                            legDesc.readFrom(buf);
+                        } else {
+                            legDesc.markAsNotPresent();
+                        }
+                    }
+                }
+
+                @Override
+                public void writeTo(ByteBuffer buf) {
+                    int n = getNumberOfElements();
+                    buf.putShort((short) n);
+                    for(int i = 0; i < n; i++) {
+                        ProtoField[] fields = getElement(i).internalArray();
+                        IntField legId = (IntField) fields[0];
+                        CharsField legDesc = (CharsField) fields[1];
+                        legId.writeTo(buf);
+                        if (legDesc.isPresent()) {
+                            buf.put((byte) 'Y');
+                            legDesc.writeTo(buf);
+                        } else {
+                            buf.put((byte) 'N');
+                        }
+                    }
+                }
+
+                @Override
+                public int size() {
+                    int size = 2;
+                    int n = getNumberOfElements();
+                    for(int i = 0; i < n; i++) {
+                        ProtoField[] fields = getElement(i).internalArray();
+                        IntField legId = (IntField) fields[0];
+                        CharsField legDesc = (CharsField) fields[1];
+                        size += legId.size();
+                        size += legDesc.size();
+                    }
+                    return size;
+                }
+
                 @Override
                 protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
                     return new OrdersRepeatingGroup.LegsRepeatingGroup(null, protoFields);
@@ -167,6 +224,76 @@ public class PriceChangeMessage extends AbstractProto {
                 return groupField;
             } 
 
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                short n = buf.getShort();
+                if (n < 0) {
+                    throw new IllegalArgumentException("Negative repeating group element count: " + n);
+                }
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    side.readFrom(buf);
+                    if (buf.get() == 'Y') {
+                        levelId.readFrom(buf);
+                    } else {
+                        levelId.markAsNotPresent();
+                    }
+                    priceLevel.readFrom(buf);
+                    qty.readFrom(buf);
+                    legs.readFrom(buf);
+                    orderId.readFrom(buf);
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                buf.putShort((short) n);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    BooleanField side = (BooleanField) fields[0];
+                    LongField levelId = (LongField) fields[1];
+                    DoubleField priceLevel = (DoubleField) fields[2];
+                    IntField qty = (IntField) fields[3];
+                    OrdersRepeatingGroup.LegsRepeatingGroup legs = (OrdersRepeatingGroup.LegsRepeatingGroup) fields[4];
+                    LongField orderId = (LongField) fields[5];
+                    side.writeTo(buf);
+                    if (levelId.isPresent()) {
+                        buf.put((byte) 'Y');
+                        levelId.writeTo(buf);
+                    } else {
+                        buf.put((byte) 'N');
+                    }
+                    priceLevel.writeTo(buf);
+                    qty.writeTo(buf);
+                    legs.writeTo(buf);
+                    orderId.writeTo(buf);
+                }
+            }
+
+            @Override
+            public int size() {
+                int size = 2;
+                int n = getNumberOfElements();
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    BooleanField side = (BooleanField) fields[0];
+                    LongField levelId = (LongField) fields[1];
+                    DoubleField priceLevel = (DoubleField) fields[2];
+                    IntField qty = (IntField) fields[3];
+                    OrdersRepeatingGroup.LegsRepeatingGroup legs = (OrdersRepeatingGroup.LegsRepeatingGroup) fields[4];
+                    LongField orderId = (LongField) fields[5];
+                    size += side.size();
+                    size += levelId.size();
+                    size += priceLevel.size();
+                    size += qty.size();
+                    size += legs.size();
+                    size += orderId.size();
+                }
+                return size;
+            }
+
             @Override
             protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
                 return new OrdersRepeatingGroup(null, protoFields);
@@ -180,6 +307,233 @@ public class PriceChangeMessage extends AbstractProto {
 
         public final DoubleField lastTradePrice = new DoubleField(this, true);
 
+        @Override
+        public int getLength() {
+            int len = SYMBOL_DESC_OFFSET; // type + subtype + version + fixed-size fields
+            len += symbolDesc.size();
+            len += mqReqId.size();
+            len += orders.size();
+            len += lastTradeQty.size();
+            len += lastTradePrice.size();
+            return len;
+        }
+
+        @Override
+        public void read(ByteBuffer buf) {
+            if (getProjection() != ALL_FIELDS) {
+                super.read(buf); // skips the fields outside the projection
+                return;
+            }
+            if (buf.hasRemaining()) {
+                symbolId.readFrom(buf);
+            } else {
+                symbolId.reset();
+            }
+            if (buf.hasRemaining()) {
+                symbolDesc.readFrom(buf);
+            } else {
+                symbolDesc.reset();
+            }
+            if (buf.hasRemaining() && buf.get() == 'Y') {
+                mqReqId.readFrom(buf);
+            } else {
+                mqReqId.markAsNotPresent();
+            }
+            if (buf.hasRemaining()) {
+                orders.readFrom(buf);
+            } else {
+                orders.reset();
+            }
+            if (buf.hasRemaining() && buf.get() == 'Y') {
+                lastTradeQty.readFrom(buf);
+            } else {
+                lastTradeQty.markAsNotPresent();
+            }
+            if (buf.hasRemaining() && buf.get() == 'Y') {
+                lastTradePrice.readFrom(buf);
+            } else {
+                lastTradePrice.markAsNotPresent();
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buf) {
+            buf.put((byte) TYPE);
+            buf.put((byte) SUBTYPE);
+            buf.putShort((short) 0);
+            symbolId.writeTo(buf);
+            symbolDesc.writeTo(buf);
+            if (mqReqId.isPresent()) {
+                buf.put((byte) 'Y');
+                mqReqId.writeTo(buf);
+            } else {
+                buf.put((byte) 'N');
+            }
+            orders.writeTo(buf);
+            if (lastTradeQty.isPresent()) {
+                buf.put((byte) 'Y');
+                lastTradeQty.writeTo(buf);
+            } else {
+                buf.put((byte) 'N');
+            }
+            if (lastTradePrice.isPresent()) {
+                buf.put((byte) 'Y');
+                lastTradePrice.writeTo(buf);
+            } else {
+                buf.put((byte) 'N');
+            }
+        }
+
+        public static final class Encoder extends AbstractProtoEncoder {
+
+            private final OrdersEncoder ordersEncoder = new OrdersEncoder();
+
+            public Encoder() {
+                super(TYPE, SUBTYPE, (short) 0, 6);
+            }
+
+            public Encoder wrap(ByteBuffer buf) {
+                begin(buf);
+                return this;
+            }
+
+            public Encoder symbolId(long value) {
+                next(0);
+                putLong(value);
+                return this;
+            }
+
+            public Encoder symbolDesc(CharSequence value) {
+                next(1);
+                putVarChars(value, 128);
+                return this;
+            }
+
+            public Encoder mqReqId(long value) {
+                next(2);
+                putPresent(true);
+                putLong(value);
+                return this;
+            }
+
+            public Encoder mqReqIdNotPresent() {
+                next(2);
+                putPresent(false);
+                return this;
+            }
+
+            public OrdersEncoder orders(int numberOfElements) {
+                next(3);
+                return beginGroup(ordersEncoder, numberOfElements);
+            }
+
+            public Encoder lastTradeQty(long value) {
+                next(4);
+                putPresent(true);
+                putLong(value);
+                return this;
+            }
+
+            public Encoder lastTradeQtyNotPresent() {
+                next(4);
+                putPresent(false);
+                return this;
+            }
+
+            public Encoder lastTradePrice(double value) {
+                next(5);
+                putPresent(true);
+                putDouble(value);
+                return this;
+            }
+
+            public Encoder lastTradePriceNotPresent() {
+                next(5);
+                putPresent(false);
+                return this;
+            }
+
+            public static final class OrdersEncoder extends AbstractProtoEncoder {
+
+                private final LegsEncoder legsEncoder = new LegsEncoder();
+
+                private OrdersEncoder() {
+                    super(6);
+                }
+
+                public OrdersEncoder side(boolean value) {
+                    next(0);
+                    putBoolean(value);
+                    return this;
+                }
+
+                public OrdersEncoder levelId(long value) {
+                    next(1);
+                    putPresent(true);
+                    putLong(value);
+                    return this;
+                }
+
+                public OrdersEncoder levelIdNotPresent() {
+                    next(1);
+                    putPresent(false);
+                    return this;
+                }
+
+                public OrdersEncoder priceLevel(double value) {
+                    next(2);
+                    putDouble(value);
+                    return this;
+                }
+
+                public OrdersEncoder qty(int value) {
+                    next(3);
+                    putInt(value);
+                    return this;
+                }
+
+                public LegsEncoder legs(int numberOfElements) {
+                    next(4);
+                    return beginGroup(legsEncoder, numberOfElements);
+                }
+
+                public OrdersEncoder orderId(long value) {
+                    next(5);
+                    putLong(value);
+                    return this;
+                }
+
+                public static final class LegsEncoder extends AbstractProtoEncoder {
+
+                    private LegsEncoder() {
+                        super(2);
+                    }
+
+                    public LegsEncoder legId(int value) {
+                        next(0);
+                        putInt(value);
+                        return this;
+                    }
+
+                    public LegsEncoder legDesc(CharSequence value) {
+                        next(1);
+                        putPresent(true);
+                        putChars(value, 8);
+                        return this;
+                    }
+
+                    public LegsEncoder legDescNotPresent() {
+                        next(1);
+                        putPresent(false);
+                        return this;
+                    }
+
+                }
+
+            }
+
+        }
+
 
 	// END_AUTO_GENERATED_CODE
 
@@ -51,6 +51,9 @@ public class ProtoMessage2 extends AbstractProto {
     public static final char TYPE = 'P';
     public static final char SUBTYPE = 'B';
 
+    public static final int ORDER_ID_OFFSET = 4;
+    public static final int SYMBOL_DESC_OFFSET = 12;
+
     public final TypeField typeField = new TypeField(this, TYPE);
     public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -18,11 +18,13 @@ package com.coralblocks.coralproto.example;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.Proto;
 import com.coralblocks.coralproto.field.Bytes;
 import com.coralblocks.coralproto.field.Chars;
 import com.coralblocks.coralproto.field.IntField;
 import com.coralblocks.coralproto.field.VarBytes;
 import com.coralblocks.coralproto.field.VarChars;
+import com.coralblocks.coralproto.util.UnalignedAccess;
 
 /**
  * <p>This is a Proto message where the fields are added directly and there is no parser because the fields are read explicitly.</p>
@@ -99,11 +101,22 @@ public final class SampleProtoMessage extends AbstractProto {
 	 */
 	@Override
     public final void read(ByteBuffer buf) {
-
-		aByte		=	read(buf, aByte);
-		aShort		=	read(buf, aShort);
-		aInt		=	read(buf, aInt);
-		aLong		=	read(buf, aLong);
+		
+		int pos = buf.position();
+		
+		if (buf.remaining() >= 15) { // byte, short, int and long with one (unaligned) load each
+			aByte		=	buf.get(pos);
+			aShort		=	UnalignedAccess.getShort(buf, pos + 1);
+			aInt		=	UnalignedAccess.getInt(buf, pos + 3);
+			aLong		=	UnalignedAccess.getLong(buf, pos + 7);
+			buf.position(pos + 15);
+		} else {
+			aByte		=	read(buf, aByte);
+			aShort		=	read(buf, aShort);
+			aInt		=	read(buf, aInt);
+			aLong		=	read(buf, aLong);
+		}
+		
 		bytes		=	read(buf, bytes);
 		varBytes	=	read(buf, varBytes);
 		chars		=	read(buf, chars);
@@ -112,6 +125,16 @@ public final class SampleProtoMessage extends AbstractProto {
 		aBoolean	=	read(buf, aBoolean);
     }
 
+	/**
+	 * There are no fields to wrap, so the fields are just read, one by one.
+	 * 
+	 * @param buf the <code>ByteBuffer</code> from where to read the fields
+	 */
+	@Override
+	public final void wrap(ByteBuffer buf) {
+		read(buf);
+	}
+
 	/**
 	 * Write all the fields, one by one.
 	 * 
@@ -123,10 +146,22 @@ public final class SampleProtoMessage extends AbstractProto {
 		write(buf, TYPE);
 		write(buf, SUBTYPE);
 		write(buf, VERSION);
-		write(buf, aByte);
-		write(buf, aShort);
-		write(buf, aInt);
-		write(buf, aLong);
+		
+		int pos = buf.position();
+		
+		if (buf.remaining() >= 15) { // byte, short, int and long with one (unaligned) store each
+			buf.put(pos, aByte);
+			UnalignedAccess.putShort(buf, pos + 1, aShort);
+			UnalignedAccess.putInt(buf, pos + 3, aInt);
+			UnalignedAccess.putLong(buf, pos + 7, aLong);
+			buf.position(pos + 15);
+		} else {
+			write(buf, aByte);
+			write(buf, aShort);
+			write(buf, aInt);
+			write(buf, aLong);
+		}
+		
 		write(buf, bytes);
 		write(buf, varBytes);
 		write(buf, chars);
@@ -134,6 +169,32 @@ public final class SampleProtoMessage extends AbstractProto {
 		write(buf, aChar);
 		write(buf, aBoolean);
     }
+
+	/**
+	 * Copy all the fields, one by one, from another message.
+	 *
+	 * @param other the message to copy from
+	 */
+	@Override
+	public final void copyFrom(Proto other) {
+
+		if (!(other instanceof SampleProtoMessage)) {
+			throw new IllegalArgumentException("Cannot copy " + other.getClass().getSimpleName() + " into " + SampleProtoMessage.class.getSimpleName());
+		}
+
+		SampleProtoMessage proto = (SampleProtoMessage) other;
+
+		aByte		=	proto.aByte;
+		aShort		=	proto.aShort;
+		aInt		=	proto.aInt;
+		aLong		=	proto.aLong;
+		bytes.copyFrom(proto.bytes);
+		varBytes.copyFrom(proto.varBytes);
+		chars.copyFrom(proto.chars);
+		varChars.copyFrom(proto.varChars);
+		aChar		=	proto.aChar;
+		aBoolean	=	proto.aBoolean;
+	}
 	
 	/**
 	 * Write all fields in ascii, one by one.
@@ -69,6 +69,13 @@ public class BooleanField implements ProtoField {
 	public ProtoField newInstance() {
 		return new BooleanField(null, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		BooleanField f = (BooleanField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -78,6 +85,11 @@ public class BooleanField implements ProtoField {
 			return 1;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 1;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -102,6 +114,16 @@ public class BooleanField implements ProtoField {
 		this.value = buf.get() == 'Y';
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 1);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -114,6 +136,14 @@ public class BooleanField implements ProtoField {
 		buf.put(value ? (byte) 'Y' : (byte) 'N');
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		byte b = buf.remaining() == 1 ? buf.get(buf.position()) : 0;
+		if (b != 'Y' && b != 'N') throw new IllegalArgumentException("Not a boolean at " + buf.position());
+		set(b == 'Y');
+		buf.position(buf.limit());
+	}
+	
 	public final boolean get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -124,6 +154,15 @@ public class BooleanField implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
@@ -18,6 +18,7 @@ package com.coralblocks.coralproto.field;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
 
 public class ByteField implements ProtoField {
@@ -71,6 +72,13 @@ public class ByteField implements ProtoField {
 	public ProtoField newInstance() {
 		return new ByteField(null, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		ByteField f = (ByteField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -80,6 +88,11 @@ public class ByteField implements ProtoField {
 			return 1;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 1;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -104,6 +117,16 @@ public class ByteField implements ProtoField {
 		this.value = buf.get();
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 1);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -116,6 +139,11 @@ public class ByteField implements ProtoField {
 		bbEncoder.append(buf, value);
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		set((byte) ByteBufferDecoder.parseLong(buf, Byte.MIN_VALUE, Byte.MAX_VALUE));
+	}
+	
 	public final byte get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -131,6 +159,15 @@ public class ByteField implements ProtoField {
 		set((byte) value);
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
@@ -79,6 +79,10 @@ public class Bytes {
 		bb.flip();
 	}
 	
+	public final void copyFrom(Bytes other) {
+		set(other.get());
+	}
+	
 	public final void readFrom(ByteBuffer src) {
 		if (src.remaining() < byteBuffer.capacity()) {
 			throw new IllegalArgumentException("ByteBuffer is too small: " + src.remaining());
@@ -19,6 +19,7 @@ import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
 import com.coralblocks.coralproto.util.ByteBufferUtils;
+import com.coralblocks.coralproto.util.ByteBufferView;
 import com.coralblocks.coralproto.util.CharUtils;
 
 public class BytesField implements ProtoField {
@@ -26,6 +27,8 @@ public class BytesField implements ProtoField {
 	private final boolean isOptional;
 	private boolean isPresent;
 	private final ByteBuffer byteBuffer;
+	private final ByteBufferView view = new ByteBufferView();
+	private boolean isWrapped = false;
 	
 	public BytesField(int size) {
 		this(null, size);
@@ -53,9 +56,7 @@ public class BytesField implements ProtoField {
 			boolean present = this.isPresent();
 			if (bf.isPresent() != present) return false;
 			if (!present) return true;
-			bf.byteBuffer.limit(bf.byteBuffer.capacity()).position(0);
-			this.byteBuffer.limit(this.byteBuffer.capacity()).position(0);
-			return this.byteBuffer.equals(bf.byteBuffer);
+			return this.buffer().equals(bf.buffer());
 		}
 		return false;
 	}
@@ -63,13 +64,13 @@ public class BytesField implements ProtoField {
 	@Override
 	public int hashCode() {
 		if (!isPresent()) return 0;
-		byteBuffer.limit(byteBuffer.capacity()).position(0);
-		return byteBuffer.hashCode();
+		return buffer().hashCode();
 	}
 	
 	@Override
 	public void reset() {
 		this.isPresent = false;
+		this.isWrapped = false;
 		this.byteBuffer.clear();
 		for(int i = 0; i < byteBuffer.capacity(); i++) this.byteBuffer.put((byte) 0);
 		this.byteBuffer.flip();
@@ -79,6 +80,16 @@ public class BytesField implements ProtoField {
 	public ProtoField newInstance() {
 		return new BytesField(null, byteBuffer.capacity(), isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		BytesField f = (BytesField) other;
+		if (f.isPresent()) {
+			set(f.buffer());
+		} else {
+			this.isPresent = false;
+		}
+	}
 
 	@Override
 	public final int size() {
@@ -88,6 +99,11 @@ public class BytesField implements ProtoField {
 			return byteBuffer.capacity();
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : byteBuffer.capacity();
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -108,11 +124,17 @@ public class BytesField implements ProtoField {
 	
 	private final ByteBuffer getAndMarkAsPresent() {
 		if (isOptional) isPresent = true;
+		isWrapped = false;
 		return get();
 	}
 	
 	public final ByteBuffer get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
+		return buffer();
+	}
+	
+	private final ByteBuffer buffer() {
+		if (isWrapped) return view.get();
 		byteBuffer.limit(byteBuffer.capacity()).position(0);
 		return byteBuffer;
 	}
@@ -141,6 +163,7 @@ public class BytesField implements ProtoField {
 			throw new IllegalArgumentException("ByteBuffer is too small: " + src.remaining());
 		}
 		if (isOptional) this.isPresent = true;
+		isWrapped = false;
 		byteBuffer.clear();
 		int savedLim = src.limit();
 		src.limit(src.position() + byteBuffer.capacity());
@@ -149,20 +172,38 @@ public class BytesField implements ProtoField {
 		src.limit(savedLim);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer src) {
+		int len = byteBuffer.capacity();
+		ReadUtils.ensureRemaining(src, len);
+		if (isOptional) this.isPresent = true;
+		int pos = src.position();
+		view.wrap(src, pos, len);
+		isWrapped = true;
+		src.position(pos + len);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer src) {
+		int len = byteBuffer.capacity();
+		ReadUtils.ensureRemaining(src, len);
+		src.position(src.position() + len);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		if (buf.remaining() < byteBuffer.capacity()) throw new IllegalArgumentException("Give ByteBuffer does not have space available: " + buf.remaining());
-		byteBuffer.limit(byteBuffer.capacity()).position(0);
-		buf.put(byteBuffer);
+		buf.put(buffer());
 	}
 	
 	@Override
 	public final void writeAsciiTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		if (buf.remaining() < byteBuffer.capacity()) throw new IllegalArgumentException("Give ByteBuffer does not have space available: " + buf.remaining());
-		byteBuffer.limit(byteBuffer.capacity()).position(0);
-		for(int i = 0; i < byteBuffer.capacity(); i++) {
+		ByteBuffer byteBuffer = buffer();
+		int len = byteBuffer.remaining();
+		for(int i = 0; i < len; i++) {
 			byte b = byteBuffer.get();
 			if (CharUtils.isPrintable((char) b)) {
 				buf.put((byte) b);
@@ -173,26 +214,28 @@ public class BytesField implements ProtoField {
 	}
 	
 	@Override
-	public String toString() {
-		if (isOptional) {
-			if (isPresent) {
-				ByteBuffer byteBuffer = get();
-				StringBuilder sb = new StringBuilder(byteBuffer.capacity() + 2);
-				sb.append('[');
-				sb.append(ByteBufferUtils.parseString(byteBuffer));
-				sb.append(']');
-				return sb.toString();
-			} else {
-				return "BLANK";
-			}
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (buf.remaining() != byteBuffer.capacity()) throw new IllegalArgumentException("Bytes must have " + byteBuffer.capacity() + " bytes at " + buf.position() + ": " + buf.remaining());
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
 		} else {
-			ByteBuffer byteBuffer = get();
-			StringBuilder sb = new StringBuilder(byteBuffer.capacity() + 2);
 			sb.append('[');
-			sb.append(ByteBufferUtils.parseString(byteBuffer));
+			ByteBufferUtils.parseString(get(), sb);
 			sb.append(']');
-			return sb.toString();
 		}
 	}
 	
+	@Override
+	public String toString() {
+		if (isOptional && !isPresent) return "BLANK";
+		StringBuilder sb = new StringBuilder(byteBuffer.capacity() + 2);
+		appendTo(sb);
+		return sb.toString();
+	}
+	
 }
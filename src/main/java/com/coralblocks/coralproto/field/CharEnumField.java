@@ -27,6 +27,7 @@ public class CharEnumField<E extends CharEnum> implements ProtoField {
 	private final boolean isOptional;
 	private boolean isPresent;
 	private E value;
+	private EnumValues enumValues; // to read ascii, found the first time (or when the map changes)
 	private CharMap<E> charMap;
 	
 	public CharEnumField(CharMap<E> charMap) {
@@ -74,6 +75,14 @@ public class CharEnumField<E extends CharEnum> implements ProtoField {
 	public ProtoField newInstance() {
 		return new CharEnumField<E>(null, charMap, this.isOptional);
 	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void copyFrom(ProtoField other) {
+		CharEnumField<E> f = (CharEnumField<E>) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -83,6 +92,11 @@ public class CharEnumField<E extends CharEnum> implements ProtoField {
 			return 1;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 1;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -108,6 +122,16 @@ public class CharEnumField<E extends CharEnum> implements ProtoField {
 		this.value = charMap.get(c);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 1);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -123,6 +147,14 @@ public class CharEnumField<E extends CharEnum> implements ProtoField {
 		ByteBufferUtils.appendCharSequence(buf, s);
 	}
 	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (enumValues == null || !enumValues.isFor(charMap.size())) enumValues = EnumValues.of(charMap, charMap.size(), code -> charMap.get((char) code), Character.MIN_VALUE, Character.MAX_VALUE);
+		set((E) enumValues.get(buf));
+		buf.position(buf.limit());
+	}
+	
 	public final E get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -134,6 +166,15 @@ public class CharEnumField<E extends CharEnum> implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
@@ -69,6 +69,13 @@ public class CharField implements ProtoField {
 	public ProtoField newInstance() {
 		return new CharField(null, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		CharField f = (CharField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -78,6 +85,11 @@ public class CharField implements ProtoField {
 			return 1;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 1;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -102,6 +114,16 @@ public class CharField implements ProtoField {
 		this.value = (char) buf.get();
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 1);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -114,6 +136,12 @@ public class CharField implements ProtoField {
 		buf.put((byte) value);
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (buf.remaining() != 1) throw new IllegalArgumentException("Not a char at " + buf.position());
+		set((char) (buf.get() & 0xFF));
+	}
+	
 	public final char get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -124,6 +152,15 @@ public class CharField implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
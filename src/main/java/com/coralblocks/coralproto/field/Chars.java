@@ -87,6 +87,13 @@ public class Chars {
 		return bbcs.getByteBuffer();
 	}
 	
+	public final void copyFrom(Chars other) {
+		if (other.size != size) {
+			throw new IllegalArgumentException("Cannot copy chars of a different length: " + other.size + " (" + size + ")");
+		}
+		bbcs.getByteBuffer().put(other.bbcs.getByteBuffer());
+	}
+	
 	public final void readFrom(ByteBuffer src) {
 		ByteBuffer byteBuffer = bbcs.getByteBuffer();
 		ReadUtils.ensureRemaining(src, byteBuffer.capacity());
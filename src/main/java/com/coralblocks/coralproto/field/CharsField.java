@@ -66,6 +66,7 @@ public class CharsField implements ProtoField {
 	@Override
 	public void reset() {
 		this.isPresent = false;
+		this.bbcs.setSize(size);
 		ByteBuffer byteBuffer = this.bbcs.getByteBuffer();
 		for(int i = 0; i < byteBuffer.capacity(); i++) byteBuffer.put((byte) ' ');
 	}
@@ -74,6 +75,16 @@ public class CharsField implements ProtoField {
 	public ProtoField newInstance() {
 		return new CharsField(null, size, isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		CharsField f = (CharsField) other;
+		if (f.isPresent()) {
+			getAndMarkAsPresent().getByteBuffer().put(f.bbcs.getByteBuffer());
+		} else {
+			this.isPresent = false;
+		}
+	}
 
 	@Override
 	public final int size() {
@@ -83,6 +94,11 @@ public class CharsField implements ProtoField {
 			return size;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : size;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -103,6 +119,7 @@ public class CharsField implements ProtoField {
 	
 	private final ByteBufferCharSequence getAndMarkAsPresent() {
 		if (isOptional) isPresent = true;
+		bbcs.setSize(size); // stop wrapping the source buffer (if it was) before writing
 		return (ByteBufferCharSequence) get();
 	}
 	
@@ -157,6 +174,7 @@ public class CharsField implements ProtoField {
 	
 	@Override
 	public final void readFrom(ByteBuffer src) {
+		bbcs.setSize(size);
 		ByteBuffer byteBuffer = bbcs.getByteBuffer();
 		ReadUtils.ensureRemaining(src, byteBuffer.capacity());
 		if (isOptional) this.isPresent = true;
@@ -166,6 +184,21 @@ public class CharsField implements ProtoField {
 		src.limit(savedLim);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer src) {
+		ReadUtils.ensureRemaining(src, size);
+		if (isOptional) this.isPresent = true;
+		int pos = src.position();
+		bbcs.wrap(src, pos, size);
+		src.position(pos + size);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer src) {
+		ReadUtils.ensureRemaining(src, size);
+		src.position(src.position() + size);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -181,23 +214,25 @@ public class CharsField implements ProtoField {
 	}
 	
 	@Override
-	public String toString() {
-		if (isOptional) {
-			if (isPresent) {
-				StringBuilder sb = new StringBuilder(size + 2);
-				sb.append('[');
-				sb.append(bbcs);
-				sb.append(']');
-				return sb.toString();
-			} else {
-				return "BLANK";
-			}
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (buf.remaining() != size) throw new IllegalArgumentException("Chars must have " + size + " chars at " + buf.position() + ": " + buf.remaining());
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
 		} else {
-			StringBuilder sb = new StringBuilder(size + 2);
-			sb.append('[');
-			sb.append(bbcs);
-			sb.append(']');
-			return sb.toString();
+			sb.append('[').append(bbcs).append(']');
 		}
 	}
+	
+	@Override
+	public String toString() {
+		if (isOptional && !isPresent) return "BLANK";
+		StringBuilder sb = new StringBuilder(size + 2);
+		appendTo(sb);
+		return sb.toString();
+	}
 }
@@ -18,8 +18,10 @@ package com.coralblocks.coralproto.field;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
 import com.coralblocks.coralproto.util.DoubleUtils;
+import com.coralblocks.coralproto.util.UnalignedAccess;
 
 public class DoubleField implements ProtoField {
 	
@@ -97,6 +99,13 @@ public class DoubleField implements ProtoField {
 	public ProtoField newInstance() {
 		return new DoubleField(null, this.precision, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		DoubleField f = (DoubleField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -106,6 +115,11 @@ public class DoubleField implements ProtoField {
 			return 8;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 8;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -131,6 +145,16 @@ public class DoubleField implements ProtoField {
 		this.value = DoubleUtils.toDouble(value, precision);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 8);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -138,12 +162,33 @@ public class DoubleField implements ProtoField {
 		buf.putLong(value);
 	}
 	
+	/**
+	 * Reads the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void readFrom(ByteBuffer buf, int index) {
+		if (isOptional) this.isPresent = true;
+		this.value = DoubleUtils.toDouble(UnalignedAccess.getLong(buf, index), precision);
+	}
+	
+	/**
+	 * Writes the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void writeTo(ByteBuffer buf, int index) {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
+		UnalignedAccess.putLong(buf, index, DoubleUtils.toLong(this.value, precision));
+	}
+	
 	@Override
 	public final void writeAsciiTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		bbEncoder.append(buf, value, precision);
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		set(DoubleUtils.toDouble(ByteBufferDecoder.parseScaled(buf, precision), precision));
+	}
+	
 	public final double get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -154,6 +199,15 @@ public class DoubleField implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
@@ -0,0 +1,114 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.field;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
+import com.coralblocks.coralproto.util.ByteBufferUtils;
+
+/**
+ * The values of an enum field by their ascii (their <code>toString()</code>, which is what <code>writeAsciiTo</code> writes), to read the enum
+ * fields back from ascii. The maps of the enum fields only go from code to value, so the values are found once per map by looking up the codes
+ * from zero outwards, within the range given by the field: as soon as a Java enum is found all its constants are taken, otherwise the lookup
+ * stops when as many codes as the map has were found. The values are shared by all the fields with the same map (the elements of a repeating
+ * group, for example), and found again if the size of the map changes.
+ */
+final class EnumValues {
+	
+	private static final Map<Object, EnumValues> CACHE = new IdentityHashMap<Object, EnumValues>();
+	
+	private final Object[] values;
+	private final String[] names;
+	private final int mapSize;
+	
+	private EnumValues(List<Object> values, int mapSize) {
+		this.values = values.toArray();
+		this.names = new String[this.values.length];
+		for(int i = 0; i < names.length; i++) names[i] = this.values[i].toString();
+		this.mapSize = mapSize;
+	}
+	
+	/**
+	 * Returns the values of the given map, finding them the first time (or when the size of the map changes).
+	 * 
+	 * @param map the map of the enum field (only used as the key of the cache)
+	 * @param size the number of codes in the map
+	 * @param lookup returns the value of a code or null
+	 * @param min the first code to look up
+	 * @param max the last code to look up
+	 * @return the values of the map
+	 * @throws IllegalArgumentException if the map has codes outside the range and none of its values is a Java enum
+	 */
+	static synchronized EnumValues of(Object map, int size, IntFunction<?> lookup, int min, int max) {
+		EnumValues enumValues = CACHE.get(map);
+		if (enumValues != null && enumValues.mapSize == size) return enumValues;
+		List<Object> values = new ArrayList<Object>();
+		int found = 0;
+		int distance = Math.max(max, -min);
+		for(int d = 0; d <= distance && found < size; d++) { // from zero outwards, where the codes usually are
+			for(int code = d; code >= -d; code -= Math.max(2 * d, 1)) {
+				if (code < min || code > max) continue;
+				Object value = lookup.apply(code);
+				if (value == null) continue;
+				if (value instanceof Enum) {
+					values.clear();
+					for(Object constant : ((Enum<?>) value).getDeclaringClass().getEnumConstants()) values.add(constant);
+					found = size;
+					break;
+				}
+				found++;
+				if (!values.contains(value)) values.add(value);
+			}
+		}
+		if (found < size) {
+			throw new IllegalArgumentException("Only " + found + " of the " + size + " codes of the enum map are between " + min + " and " + max + 
+					", so the field cannot be read from ascii (a Java enum only needs one code in that range)");
+		}
+		enumValues = new EnumValues(values, size);
+		CACHE.put(map, enumValues);
+		return enumValues;
+	}
+	
+	/**
+	 * Returns true if these values were found for a map of the given size.
+	 * 
+	 * @param size the number of codes in the map
+	 * @return true if the map did not change
+	 */
+	boolean isFor(int size) {
+		return mapSize == size;
+	}
+	
+	/**
+	 * Returns the value whose ascii goes from the position to the limit of the given buffer. The position is not changed.
+	 * 
+	 * @param buf the buffer with the ascii
+	 * @return the value
+	 * @throws IllegalArgumentException if there is no such value
+	 */
+	Object get(ByteBuffer buf) {
+		for(int i = 0; i < names.length; i++) {
+			if (ByteBufferDecoder.equals(buf, names[i])) return values[i];
+		}
+		throw new IllegalArgumentException("Unknown enum value at " + buf.position() + ": " + ByteBufferUtils.parseString(buf.duplicate()));
+	}
+}
@@ -18,8 +18,10 @@ package com.coralblocks.coralproto.field;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
 import com.coralblocks.coralproto.util.FloatUtils;
+import com.coralblocks.coralproto.util.UnalignedAccess;
 
 public class FloatField implements ProtoField {
 	
@@ -97,6 +99,13 @@ public class FloatField implements ProtoField {
 	public ProtoField newInstance() {
 		return new FloatField(null, this.precision, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		FloatField f = (FloatField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -106,6 +115,11 @@ public class FloatField implements ProtoField {
 			return 4;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 4;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -131,6 +145,16 @@ public class FloatField implements ProtoField {
 		this.value = FloatUtils.toFloat(value, precision);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 4);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -138,12 +162,36 @@ public class FloatField implements ProtoField {
 		buf.putInt(value);
 	}
 	
+	/**
+	 * Reads the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void readFrom(ByteBuffer buf, int index) {
+		if (isOptional) this.isPresent = true;
+		this.value = FloatUtils.toFloat(UnalignedAccess.getInt(buf, index), precision);
+	}
+	
+	/**
+	 * Writes the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void writeTo(ByteBuffer buf, int index) {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
+		UnalignedAccess.putInt(buf, index, FloatUtils.toInt(this.value, precision));
+	}
+	
 	@Override
 	public final void writeAsciiTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		bbEncoder.append(buf, value, precision);
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		int pos = buf.position();
+		long value = ByteBufferDecoder.parseScaled(buf, precision);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw new IllegalArgumentException("Float out of range at " + pos);
+		set(FloatUtils.toFloat((int) value, precision));
+	}
+	
 	public final float get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -154,6 +202,15 @@ public class FloatField implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
@@ -18,13 +18,16 @@ package com.coralblocks.coralproto.field;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferUtils;
+import com.coralblocks.coralproto.util.PresenceBitmapUtils;
 
 public class GroupField implements ProtoField {
 	
 	private final ProtoField[] protoFields;
 	private final boolean isOptional;
 	private boolean isPresent;
+	private int bitmapSize = 0; // the size of the presence bitmap (zero when the optional fields have a presence byte)
 	
 	public GroupField(ProtoField ... fields) {
 		this(null, fields);
@@ -85,15 +88,47 @@ public class GroupField implements ProtoField {
 		for(int i = 0; i < protoFields.length; i++) {
 			fieldsCopy[i] = protoFields[i].newInstance();
 		}
-		return new GroupField(null, isOptional, fieldsCopy);
+		GroupField groupField = new GroupField(null, isOptional, fieldsCopy);
+		groupField.bitmapSize = bitmapSize;
+		return groupField;
+	}
+	
+	@Override
+	public void copyFrom(ProtoField other) {
+		GroupField gf = (GroupField) other;
+		this.isPresent = gf.isPresent;
+		if (!gf.isPresent()) return;
+		for(int i = 0; i < protoFields.length; i++) protoFields[i].copyFrom(gf.protoFields[i]);
+	}
+	
+	/*
+	 * Makes the optional fields of this group go on the wire with a presence bitmap (see PresenceBitmapUtils) instead of a presence byte each.
+	 */
+	final int getPresenceBitmapSize() {
+		return bitmapSize;
+	}
+	
+	final void setPresenceBitmap(boolean presenceBitmap) {
+		int optionals = 0;
+		for(ProtoField f : protoFields) {
+			if (f.isOptional()) optionals++;
+		}
+		this.bitmapSize = presenceBitmap ? PresenceBitmapUtils.size(optionals) : 0;
 	}
 
 	@Override
 	public final int size() {
 		
 		int size = 0;
-		for(ProtoField f : protoFields) {
-			size += f.size();
+		if (bitmapSize > 0) {
+			size = bitmapSize;
+			for(ProtoField f : protoFields) {
+				size += f.isOptional() ? f.size() - 1 : f.size(); // no presence byte
+			}
+		} else {
+			for(ProtoField f : protoFields) {
+				size += f.size();
+			}
 		}
 		
 		if (isOptional) {
@@ -107,6 +142,18 @@ public class GroupField implements ProtoField {
 		}
 	}
 
+	@Override
+	public final int fixedSize() {
+		if (isOptional) return -1;
+		int size = 0;
+		for(ProtoField f : protoFields) {
+			int fixedSize = f.fixedSize();
+			if (fixedSize < 0) return -1;
+			size += fixedSize;
+		}
+		return size;
+	}
+
 	@Override
 	public boolean isPresent() {
 		if (!isOptional) return true;
@@ -149,6 +196,20 @@ public class GroupField implements ProtoField {
 	@Override
 	public void readFrom(ByteBuffer buf) {
 		if (isOptional) isPresent = true;
+		if (bitmapSize > 0) {
+			long bitmap = PresenceBitmapUtils.read(buf, bitmapSize);
+			int bit = 0;
+			for(ProtoField protoField : protoFields) {
+				if (!protoField.isOptional()) {
+					protoField.readFrom(buf);
+				} else if ((bitmap & (1L << bit++)) != 0) {
+					protoField.readFrom(buf);
+				} else {
+					protoField.markAsNotPresent();
+				}
+			}
+			return;
+		}
 		for(ProtoField protoField : protoFields) {
 			if (protoField.isOptional()) {
 				boolean isPresent = buf.get() == 'Y';
@@ -163,8 +224,72 @@ public class GroupField implements ProtoField {
 		}
 	}
 
+	@Override
+	public void wrapFrom(ByteBuffer buf) {
+		if (isOptional) isPresent = true;
+		if (bitmapSize > 0) {
+			long bitmap = PresenceBitmapUtils.read(buf, bitmapSize);
+			int bit = 0;
+			for(ProtoField protoField : protoFields) {
+				if (!protoField.isOptional()) {
+					protoField.wrapFrom(buf);
+				} else if ((bitmap & (1L << bit++)) != 0) {
+					protoField.wrapFrom(buf);
+				} else {
+					protoField.markAsNotPresent();
+				}
+			}
+			return;
+		}
+		for(ProtoField protoField : protoFields) {
+			if (protoField.isOptional()) {
+				boolean isPresent = buf.get() == 'Y';
+				if (isPresent) {
+					protoField.wrapFrom(buf);
+				} else {
+					protoField.markAsNotPresent();
+				}
+			} else {
+				protoField.wrapFrom(buf);
+			}
+		}
+	}
+
+	@Override
+	public void skip(ByteBuffer buf) {
+		if (bitmapSize > 0) {
+			long bitmap = PresenceBitmapUtils.read(buf, bitmapSize);
+			int bit = 0;
+			for(ProtoField protoField : protoFields) {
+				if (!protoField.isOptional() || (bitmap & (1L << bit++)) != 0) protoField.skip(buf);
+			}
+			return;
+		}
+		for(ProtoField protoField : protoFields) {
+			if (protoField.isOptional()) {
+				if (buf.get() == 'Y') protoField.skip(buf);
+			} else {
+				protoField.skip(buf);
+			}
+		}
+	}
+
 	@Override
 	public void writeTo(ByteBuffer buf) {
+		if (bitmapSize > 0) {
+			long bitmap = 0;
+			int bit = 0;
+			for(ProtoField protoField : protoFields) {
+				if (!protoField.isOptional()) continue;
+				if (protoField.isPresent()) bitmap |= 1L << bit;
+				bit++;
+			}
+			PresenceBitmapUtils.write(buf, bitmap, bitmapSize);
+			for(ProtoField protoField : protoFields) {
+				if (protoField.isPresent()) protoField.writeTo(buf);
+			}
+			return;
+		}
 		for(ProtoField protoField : protoFields) {
 			if (protoField.isOptional()) {
 				if (protoField.isPresent()) {
@@ -201,16 +326,50 @@ public class GroupField implements ProtoField {
 	}
 	
 	@Override
-	public String toString() {
-		if (isOptional && !isPresent) {
-			return "BLANK";
+	public void readAsciiFrom(ByteBuffer buf) {
+		if (isOptional && ByteBufferDecoder.isBlank(buf)) {
+			isPresent = false;
+			buf.position(buf.limit());
+			return;
 		}
-		StringBuilder sb = new StringBuilder(protoFields.length * 64);
+		if (isOptional) isPresent = true;
+		int limit = buf.limit();
 		for(int i = 0; i < protoFields.length; i++) {
+			int pos = buf.position();
+			if (i > 0) {
+				if (pos == limit || buf.get(pos) != ',') throw new IllegalArgumentException("Expected , at " + pos);
+				buf.position(++pos);
+			}
+			buf.limit(ByteBufferDecoder.findSeparator(buf, pos, limit, (byte) ','));
 			ProtoField protoField = protoFields[i];
+			if (protoField.isOptional() && ByteBufferDecoder.isBlank(buf)) {
+				protoField.markAsNotPresent();
+				buf.position(buf.limit());
+			} else {
+				protoField.readAsciiFrom(buf);
+			}
+			buf.limit(limit);
+		}
+		if (buf.hasRemaining()) throw new IllegalArgumentException("Too many fields in group at " + buf.position());
+	}
+	
+	@Override
+	public void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+			return;
+		}
+		for(int i = 0; i < protoFields.length; i++) {
 			if (i > 0) sb.append(',');
-			sb.append(protoField.toString());
+			protoFields[i].appendTo(sb);
 		}
+	}
+	
+	@Override
+	public String toString() {
+		if (isOptional && !isPresent) return "BLANK";
+		StringBuilder sb = new StringBuilder(protoFields.length * 64);
+		appendTo(sb);
 		return sb.toString();
 	}
 }
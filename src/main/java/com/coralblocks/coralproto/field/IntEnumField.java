@@ -24,9 +24,13 @@ import com.coralblocks.coralproto.util.ByteBufferUtils;
 
 public class IntEnumField<E extends IntEnum> implements ProtoField {
 	
+	// The codes looked up to find the values to read ascii: a Java enum needs one of its codes in this range, other values need all of them.
+	private static final int MAX_CODE = 1 << 20;
+	
 	private final boolean isOptional;
 	private boolean isPresent;
 	private E value;
+	private EnumValues enumValues; // to read ascii, found the first time (or when the map changes)
 	private IntMap<E> intMap;
 	
 	public IntEnumField(IntMap<E> intMap) {
@@ -41,10 +45,20 @@ public class IntEnumField<E extends IntEnum> implements ProtoField {
 		this(null, intMap, isOptional);
 	}
 	
+	/**
+	 * Creates an int enum field.
+	 * 
+	 * @param proto the message of the field or null
+	 * @param intMap the values of the field by their code
+	 * @param isOptional true if the field is optional
+	 * @throws IllegalArgumentException if the values cannot be read from ascii: none of them is a Java enum and some codes are beyond one million
+	 */
 	public IntEnumField(AbstractProto proto, IntMap<E> intMap, boolean isOptional) {
 		if (proto != null) proto.add(this);
 		this.isOptional = isOptional;
 		this.intMap = intMap;
+		// found now, so a map that cannot be read from ascii fails here and not when replaying a log (see EnumValues)
+		if (intMap.size() > 0) this.enumValues = EnumValues.of(intMap, intMap.size(), code -> intMap.get(code), -MAX_CODE, MAX_CODE);
 		reset();
 	}
 	
@@ -74,6 +88,14 @@ public class IntEnumField<E extends IntEnum> implements ProtoField {
 	public ProtoField newInstance() {
 		return new IntEnumField<E>(null, intMap, this.isOptional);
 	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void copyFrom(ProtoField other) {
+		IntEnumField<E> f = (IntEnumField<E>) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -83,6 +105,11 @@ public class IntEnumField<E extends IntEnum> implements ProtoField {
 			return 4;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 4;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -108,6 +135,16 @@ public class IntEnumField<E extends IntEnum> implements ProtoField {
 		this.value = intMap.get(i);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 4);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -123,6 +160,14 @@ public class IntEnumField<E extends IntEnum> implements ProtoField {
 		ByteBufferUtils.appendCharSequence(buf, s);
 	}
 	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (enumValues == null || !enumValues.isFor(intMap.size())) enumValues = EnumValues.of(intMap, intMap.size(), code -> intMap.get(code), -MAX_CODE, MAX_CODE);
+		set((E) enumValues.get(buf));
+		buf.position(buf.limit());
+	}
+	
 	public final E get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -134,6 +179,15 @@ public class IntEnumField<E extends IntEnum> implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
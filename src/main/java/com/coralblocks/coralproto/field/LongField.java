@@ -18,7 +18,9 @@ package com.coralblocks.coralproto.field;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
+import com.coralblocks.coralproto.util.UnalignedAccess;
 
 public class LongField implements ProtoField {
 	
@@ -71,6 +73,13 @@ public class LongField implements ProtoField {
 	public ProtoField newInstance() {
 		return new LongField(null, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		LongField f = (LongField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -80,6 +89,11 @@ public class LongField implements ProtoField {
 			return 8;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 8;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -104,18 +118,49 @@ public class LongField implements ProtoField {
 		this.value = buf.getLong();
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 8);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		buf.putLong(value);
 	}
 	
+	/**
+	 * Reads the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void readFrom(ByteBuffer buf, int index) {
+		if (isOptional) this.isPresent = true;
+		this.value = UnalignedAccess.getLong(buf, index);
+	}
+	
+	/**
+	 * Writes the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void writeTo(ByteBuffer buf, int index) {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
+		UnalignedAccess.putLong(buf, index, value);
+	}
+	
 	@Override
 	public final void writeAsciiTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		bbEncoder.append(buf, value);
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		set(ByteBufferDecoder.parseLong(buf));
+	}
+	
 	public final long get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -126,6 +171,15 @@ public class LongField implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
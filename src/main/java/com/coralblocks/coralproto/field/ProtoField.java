@@ -21,6 +21,16 @@ public interface ProtoField {
 	
 	public int size();
 	
+	/**
+	 * Returns the size of this field on the wire if it is always the same, no matter its value, or -1 otherwise. Only required
+	 * fields can have a fixed size, because an optional field takes one byte when it is not present.
+	 * 
+	 * @return the fixed size of this field or -1 if its size can change (the default)
+	 */
+	public default int fixedSize() {
+		return -1;
+	}
+	
 	public boolean isPresent();
 	
 	public boolean isOptional();
@@ -29,11 +39,67 @@ public interface ProtoField {
 	
 	public void readFrom(ByteBuffer buf);
 	
+	/**
+	 * Same as {@link #readFrom(ByteBuffer)} but, instead of copying the bytes of a variable-length field (chars and bytes) into the field,
+	 * keeps a view over the source buffer. Fixed-size primitive fields simply read their value, which is as cheap as remembering its offset.
+	 * The field is valid until the source buffer is overwritten. By default the field is just read.
+	 * 
+	 * @param buf the source buffer
+	 */
+	public default void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	/**
+	 * Moves the position of the buffer past this field without reading it. The contents of the field are not changed.
+	 * By default the field is read into a new instance, which creates garbage, so a field should override it.
+	 * 
+	 * @param buf the source buffer
+	 */
+	public default void skip(ByteBuffer buf) {
+		newInstance().readFrom(buf);
+	}
+	
 	public void writeTo(ByteBuffer buf);
 	
 	public void writeAsciiTo(ByteBuffer buf);
 	
+	/**
+	 * Reads this field back from its ascii, as written by {@link #writeAsciiTo(ByteBuffer)}, which goes from the position to the limit of the
+	 * buffer. The position is moved to the limit. An optional field becomes present: <code>BLANK</code> is handled by the caller, the same way
+	 * it writes <code>BLANK</code> instead of calling {@link #writeAsciiTo(ByteBuffer)}.
+	 * 
+	 * @param buf the buffer with the ascii of this field
+	 * @throws IllegalArgumentException if the ascii is not a valid value for this field
+	 * @throws UnsupportedOperationException if the field does not implement it
+	 */
+	public default void readAsciiFrom(ByteBuffer buf) {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be read from ascii");
+	}
+	
+	/**
+	 * Appends this field to the given <code>StringBuilder</code>, exactly as {@link #toString()} returns it (<code>BLANK</code> if it is
+	 * optional and not present), but without creating a <code>String</code>. By default the field appends its {@link #toString()}.
+	 * 
+	 * @param sb the StringBuilder to append to
+	 */
+	public default void appendTo(StringBuilder sb) {
+		sb.append(this);
+	}
+	
 	public ProtoField newInstance();
 	
+	/**
+	 * Copies the value (and the presence) of another field of the same kind into this field, without going through a buffer.
+	 * Variable-length fields (chars and bytes) copy their bytes, so this field does not depend on the buffer the other field
+	 * may be wrapping.
+	 * 
+	 * @param other the field to copy from
+	 * @throws UnsupportedOperationException if the field does not implement it
+	 */
+	public default void copyFrom(ProtoField other) {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be copied");
+	}
+	
 	public void reset();
 }
\ No newline at end of file
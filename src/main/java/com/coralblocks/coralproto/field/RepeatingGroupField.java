@@ -20,12 +20,16 @@ import java.util.NoSuchElementException;
 
 import com.coralblocks.coralds.list.ArrayList;
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
+import com.coralblocks.coralproto.util.PresenceBitmapUtils;
+import com.coralblocks.coralproto.util.VarIntUtils;
 
 public class RepeatingGroupField implements ProtoField {
 
 	// Number of reusable group elements created during construction.
 	private static final int INITIAL_CAPACITY = 3;
+	private static final int NOT_COMPUTED = -2;
 
 	private final ByteBufferEncoder bbEncoder = new ByteBufferEncoder();
 	// This list stores both the elements in the current message and extra elements ready for reuse.
@@ -35,17 +39,34 @@ public class RepeatingGroupField implements ProtoField {
 	// Entries before it belong to the current message; entries from it onward are available for reuse.
 	private int numberOfElements = 0;
 	private int cursor = -1;
+	// The wire size of each element when all its fields have a fixed size (-1 otherwise), computed on first use.
+	private int elementFixedSize = NOT_COMPUTED;
+	// The element count goes on the wire as a varint (1 byte up to 127 elements) instead of a short.
+	private final boolean varintCount;
+	// The optional fields of each element are flagged in a presence bitmap instead of a presence byte each.
+	private final boolean presenceBitmap;
 	
 	public RepeatingGroupField(ProtoField ... protoFields) {
 		this(null, protoFields);
 	}
 	
 	public RepeatingGroupField(AbstractProto proto, ProtoField ... protoFields) {
+		this(proto, false, protoFields);
+	}
+	
+	public RepeatingGroupField(AbstractProto proto, boolean varintCount, ProtoField ... protoFields) {
+		this(proto, varintCount, false, protoFields);
+	}
+	
+	public RepeatingGroupField(AbstractProto proto, boolean varintCount, boolean presenceBitmap, ProtoField ... protoFields) {
 		if (proto != null) proto.add(this);
 		this.protoFields = protoFields;
+		this.varintCount = varintCount;
+		this.presenceBitmap = presenceBitmap;
 
 		// Create the first three elements now so small groups do not allocate while being used.
 		GroupField firstGroupField = new GroupField(protoFields);
+		firstGroupField.setPresenceBitmap(presenceBitmap);
 		groupFields.addLast(firstGroupField);
 		for(int i = 1; i < INITIAL_CAPACITY; i++) {
 			groupFields.addLast((GroupField) firstGroupField.newInstance());
@@ -105,6 +126,18 @@ public class RepeatingGroupField implements ProtoField {
 		return groupField;
 	}
 	
+	/**
+	 * Returns the element at the given position without moving the iteration cursor.
+	 * This is used by the auto-generated direct-access code to walk the elements of the group.
+	 * 
+	 * @param index the position of the element
+	 * @return the element at the given position
+	 */
+	protected final GroupField getElement(int index) {
+		if (index < 0 || index >= numberOfElements) throw new IndexOutOfBoundsException("Invalid element index: " + index + " (numberOfElements=" + numberOfElements + ")");
+		return groupFields.get(index);
+	}
+	
 	public void beginIteration() {
 		cursor = numberOfElements == 0 ? -1 : 0;
 	}
@@ -127,7 +160,13 @@ public class RepeatingGroupField implements ProtoField {
 	@Override
 	public int size() {
 		
-		int size = 2;
+		if (elementFixedSize == NOT_COMPUTED) elementFixedSize = groupFields.get(0).fixedSize();
+		
+		int countSize = countSize();
+		
+		if (elementFixedSize >= 0) return countSize + numberOfElements * elementFixedSize;
+		
+		int size = countSize;
 		
 		for(int i = 0; i < numberOfElements; i++) {
 			size += groupFields.get(i).size();
@@ -136,6 +175,78 @@ public class RepeatingGroupField implements ProtoField {
 		return size;
 	}
 	
+	/**
+	 * Returns the number of bytes taken by the element count on the wire.
+	 * 
+	 * @return the size of the element count
+	 */
+	protected final int countSize() {
+		return varintCount ? VarIntUtils.sizeOfUnsignedVarInt(numberOfElements) : 2;
+	}
+	
+	/**
+	 * Returns true if the element count goes on the wire as a varint instead of a short.
+	 * 
+	 * @return true if the element count is a varint
+	 */
+	public final boolean hasVarintCount() {
+		return varintCount;
+	}
+	
+	/**
+	 * Reads the element count of a repeating group.
+	 * 
+	 * @param buf the buffer to read from
+	 * @return the number of elements
+	 */
+	protected final int readCount(ByteBuffer buf) {
+		int n = varintCount ? VarIntUtils.getUnsignedVarInt(buf) : buf.getShort();
+		if (n < 0) {
+			throw new IllegalArgumentException("Negative repeating group element count: " + n);
+		} else if (n > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Repeating group cannot contain more than " + Short.MAX_VALUE + " elements: " + n);
+		}
+		return n;
+	}
+	
+	/**
+	 * Writes the element count of this repeating group.
+	 * 
+	 * @param buf the buffer to write to
+	 */
+	protected final void writeCount(ByteBuffer buf) {
+		if (varintCount) {
+			VarIntUtils.putUnsignedVarInt(buf, numberOfElements);
+		} else {
+			buf.putShort((short) numberOfElements);
+		}
+	}
+	
+	/**
+	 * Reads the presence bitmap of an element. This is used by the auto-generated direct-access code.
+	 * 
+	 * @param buf the buffer to read from
+	 * @return the presence bitmap
+	 */
+	protected final long readPresenceBitmap(ByteBuffer buf) {
+		return PresenceBitmapUtils.read(buf, groupFields.get(0).getPresenceBitmapSize());
+	}
+	
+	/**
+	 * Writes the presence bitmap of an element. This is used by the auto-generated direct-access code.
+	 * 
+	 * @param buf the buffer to write to
+	 * @param bitmap the presence bitmap
+	 */
+	protected final void writePresenceBitmap(ByteBuffer buf, long bitmap) {
+		PresenceBitmapUtils.write(buf, bitmap, groupFields.get(0).getPresenceBitmapSize());
+	}
+	
+	@Override
+	public int fixedSize() {
+		return -1;
+	}
+	
 	@Override
 	public boolean isPresent() {
 		return true;
@@ -154,19 +265,40 @@ public class RepeatingGroupField implements ProtoField {
 	@Override
 	public void readFrom(ByteBuffer buf) {
 		clear();
-		short n = buf.getShort();
-		if (n < 0) {
-			throw new IllegalArgumentException("Negative repeating group element count: " + n);
-		}
+		int n = readCount(buf);
 		for(int i = 0; i < n; i++) {
 			GroupField groupField = nextElement();
 			groupField.readFrom(buf);
 		}
 	}
 
+	@Override
+	public void wrapFrom(ByteBuffer buf) {
+		clear();
+		int n = readCount(buf);
+		for(int i = 0; i < n; i++) {
+			GroupField groupField = nextElement();
+			groupField.wrapFrom(buf);
+		}
+	}
+
+	@Override
+	public void skip(ByteBuffer buf) {
+		int n = readCount(buf);
+		if (elementFixedSize == NOT_COMPUTED) elementFixedSize = groupFields.get(0).fixedSize();
+		if (elementFixedSize >= 0) {
+			ReadUtils.ensureRemaining(buf, n * elementFixedSize);
+			buf.position(buf.position() + n * elementFixedSize);
+		} else {
+			// skipping does not change the element, so the first one can be used to walk all of them
+			GroupField groupField = groupFields.get(0);
+			for(int i = 0; i < n; i++) groupField.skip(buf);
+		}
+	}
+
 	@Override
 	public void writeTo(ByteBuffer buf) {
-		buf.putShort((short) getNumberOfElements());
+		writeCount(buf);
 		for(int i = 0; i < numberOfElements; i++) {
 			groupFields.get(i).writeTo(buf);
 		}
@@ -188,22 +320,69 @@ public class RepeatingGroupField implements ProtoField {
 	}
 	
 	@Override
-	public String toString() {
+	public void readAsciiFrom(ByteBuffer buf) {
+		int limit = buf.limit();
+		int pos = buf.position();
+		int equals = ByteBufferDecoder.indexOf(buf, pos, limit, (byte) '=');
+		buf.limit(equals);
+		int n = (int) ByteBufferDecoder.parseLong(buf, 0, Short.MAX_VALUE);
+		buf.limit(limit);
+		clear();
+		if (n == 0) {
+			if (equals != limit) throw new IllegalArgumentException("Unexpected elements at " + equals);
+			return;
+		}
+		if (limit - equals < 3 || buf.get(equals + 1) != '[' || buf.get(limit - 1) != ']') {
+			throw new IllegalArgumentException("Expected =[...] at " + equals);
+		}
+		int end = limit - 1;
+		pos = equals + 2;
+		for(int i = 0; i < n; i++) {
+			if (i > 0) {
+				if (pos == end || buf.get(pos) != ';') throw new IllegalArgumentException("Expected ; at " + pos);
+				pos++;
+			}
+			int next = ByteBufferDecoder.findSeparator(buf, pos, end, (byte) ';');
+			buf.limit(next).position(pos);
+			nextElement().readAsciiFrom(buf); // through nextElement() to keep the auto-generated subclasses in sync
+			buf.limit(limit);
+			pos = next;
+		}
+		if (pos != end) throw new IllegalArgumentException("More than " + n + " elements at " + pos);
+		buf.position(limit);
+	}
+	
+	@Override
+	public void appendTo(StringBuilder sb) {
 		int n = getNumberOfElements();
-		StringBuilder sb = new StringBuilder(n * 64);
 		sb.append(n);
 		if (n > 0) {
 			sb.append("=[");
 			for(int i = 0; i < n; i++) {
 				if (i > 0) sb.append(';');
-				sb.append(groupFields.get(i).toString());
+				groupFields.get(i).appendTo(sb);
 			}
 			sb.append(']');
 		}
-		
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(getNumberOfElements() * 64 + 8);
+		appendTo(sb);
 		return sb.toString();
 	}
 
+	@Override
+	public void copyFrom(ProtoField other) {
+		RepeatingGroupField rgf = (RepeatingGroupField) other;
+		clear();
+		for(int i = 0; i < rgf.numberOfElements; i++) {
+			// nextElement() reuses the elements already allocated and keeps the auto-generated subclasses in sync
+			nextElement().copyFrom(rgf.groupFields.get(i));
+		}
+	}
+
 	@Override
 	public ProtoField newInstance() {
 		ProtoField[] copyFields = new ProtoField[protoFields.length];
@@ -214,6 +393,6 @@ public class RepeatingGroupField implements ProtoField {
 	}
 	
 	protected RepeatingGroupField newInstance(ProtoField[] protoFields) {
-		return new RepeatingGroupField(null, protoFields);
+		return new RepeatingGroupField(null, varintCount, presenceBitmap, protoFields);
 	}
 }
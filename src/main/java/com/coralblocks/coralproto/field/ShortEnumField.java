@@ -27,6 +27,7 @@ public class ShortEnumField<E extends ShortEnum> implements ProtoField {
 	private final boolean isOptional;
 	private boolean isPresent;
 	private E value;
+	private EnumValues enumValues; // to read ascii, found the first time (or when the map changes)
 	private IntMap<E> intMap;
 	
 	public ShortEnumField(IntMap<E> intMap) {
@@ -74,6 +75,14 @@ public class ShortEnumField<E extends ShortEnum> implements ProtoField {
 	public ProtoField newInstance() {
 		return new ShortEnumField<E>(null, intMap, this.isOptional);
 	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void copyFrom(ProtoField other) {
+		ShortEnumField<E> f = (ShortEnumField<E>) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -83,6 +92,11 @@ public class ShortEnumField<E extends ShortEnum> implements ProtoField {
 			return 2;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 2;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -108,6 +122,16 @@ public class ShortEnumField<E extends ShortEnum> implements ProtoField {
 		this.value = intMap.get(s);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 2);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -123,6 +147,14 @@ public class ShortEnumField<E extends ShortEnum> implements ProtoField {
 		ByteBufferUtils.appendCharSequence(buf, s);
 	}
 	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (enumValues == null || !enumValues.isFor(intMap.size())) enumValues = EnumValues.of(intMap, intMap.size(), code -> intMap.get(code), Short.MIN_VALUE, Short.MAX_VALUE);
+		set((E) enumValues.get(buf));
+		buf.position(buf.limit());
+	}
+	
 	public final E get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -134,6 +166,15 @@ public class ShortEnumField<E extends ShortEnum> implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
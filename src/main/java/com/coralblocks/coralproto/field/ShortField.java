@@ -18,7 +18,9 @@ package com.coralblocks.coralproto.field;
 import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
 import com.coralblocks.coralproto.util.ByteBufferEncoder;
+import com.coralblocks.coralproto.util.UnalignedAccess;
 
 public class ShortField implements ProtoField {
 	
@@ -71,6 +73,13 @@ public class ShortField implements ProtoField {
 	public ProtoField newInstance() {
 		return new ShortField(null, this.isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		ShortField f = (ShortField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -80,6 +89,11 @@ public class ShortField implements ProtoField {
 			return 2;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 2;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -104,18 +118,49 @@ public class ShortField implements ProtoField {
 		this.value = buf.getShort();
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 2);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		buf.putShort(value);
 	}
 	
+	/**
+	 * Reads the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void readFrom(ByteBuffer buf, int index) {
+		if (isOptional) this.isPresent = true;
+		this.value = UnalignedAccess.getShort(buf, index);
+	}
+	
+	/**
+	 * Writes the value at the given absolute index of the buffer, without changing its position. The caller checks the limit.
+	 */
+	public final void writeTo(ByteBuffer buf, int index) {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
+		UnalignedAccess.putShort(buf, index, value);
+	}
+	
 	@Override
 	public final void writeAsciiTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
 		bbEncoder.append(buf, value);
 	}
 	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		set((short) ByteBufferDecoder.parseLong(buf, Short.MIN_VALUE, Short.MAX_VALUE));
+	}
+	
 	public final short get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -131,6 +176,15 @@ public class ShortField implements ProtoField {
 		set((short) value);
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
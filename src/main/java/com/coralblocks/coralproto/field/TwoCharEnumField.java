@@ -28,6 +28,7 @@ public class TwoCharEnumField<E extends TwoCharEnum> implements ProtoField {
 	private final boolean isOptional;
 	private boolean isPresent;
 	private E value;
+	private EnumValues enumValues; // to read ascii, found the first time (or when the map changes)
 	private IntMap<E> intMap;
 	
 	public TwoCharEnumField(IntMap<E> intMap) {
@@ -75,6 +76,14 @@ public class TwoCharEnumField<E extends TwoCharEnum> implements ProtoField {
 	public ProtoField newInstance() {
 		return new TwoCharEnumField<E>(null, intMap, this.isOptional);
 	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void copyFrom(ProtoField other) {
+		TwoCharEnumField<E> f = (TwoCharEnumField<E>) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
 
 	@Override
 	public final int size() {
@@ -84,6 +93,11 @@ public class TwoCharEnumField<E extends TwoCharEnum> implements ProtoField {
 			return 2;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return isOptional ? -1 : 2;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -111,6 +125,16 @@ public class TwoCharEnumField<E extends TwoCharEnum> implements ProtoField {
 		this.value = intMap.get(i);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		buf.position(buf.position() + 2);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -129,6 +153,14 @@ public class TwoCharEnumField<E extends TwoCharEnum> implements ProtoField {
 		ByteBufferUtils.appendCharSequence(buf, s);
 	}
 	
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (enumValues == null || !enumValues.isFor(intMap.size())) enumValues = EnumValues.of(intMap, intMap.size(), code -> intMap.get(code), Short.MIN_VALUE, Short.MAX_VALUE);
+		set((E) enumValues.get(buf));
+		buf.position(buf.limit());
+	}
+	
 	public final E get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
 		return value;
@@ -142,6 +174,15 @@ public class TwoCharEnumField<E extends TwoCharEnum> implements ProtoField {
 		this.value = value;
 	}
 	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		if (isOptional) {
@@ -87,6 +87,11 @@ public class VarBytes {
 		this.size = byteBuffer.remaining();
 	}
 	
+	public final void copyFrom(VarBytes other) {
+		other.byteBuffer.limit(other.size).position(0);
+		set(other.byteBuffer);
+	}
+	
 	public final void readFrom(ByteBuffer src) {
 		int len = ReadUtils.readLength(src, byteBuffer.capacity());
 		byteBuffer.clear();
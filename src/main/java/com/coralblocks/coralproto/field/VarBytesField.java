@@ -19,6 +19,7 @@ import java.nio.ByteBuffer;
 
 import com.coralblocks.coralproto.AbstractProto;
 import com.coralblocks.coralproto.util.ByteBufferUtils;
+import com.coralblocks.coralproto.util.ByteBufferView;
 import com.coralblocks.coralproto.util.CharUtils;
 
 public class VarBytesField implements ProtoField {
@@ -26,6 +27,8 @@ public class VarBytesField implements ProtoField {
 	private final boolean isOptional;
 	private boolean isPresent;
 	private final ByteBuffer byteBuffer;
+	private final ByteBufferView view = new ByteBufferView();
+	private boolean isWrapped = false;
 	private int size;
 	
 	public VarBytesField(int maxLength) {	
@@ -54,9 +57,7 @@ public class VarBytesField implements ProtoField {
 			boolean present = this.isPresent();
 			if (vbf.isPresent() != present) return false;
 			if (!present) return true;
-			vbf.byteBuffer.limit(vbf.size).position(0);
-			this.byteBuffer.limit(this.size).position(0);
-			return vbf.byteBuffer.equals(this.byteBuffer);
+			return vbf.buffer().equals(this.buffer());
 		}
 		return false;
 	}
@@ -64,13 +65,13 @@ public class VarBytesField implements ProtoField {
 	@Override
 	public int hashCode() {
 		if (!isPresent()) return 0;
-		byteBuffer.limit(size).position(0);
-		return byteBuffer.hashCode();
+		return buffer().hashCode();
 	}
 	
 	@Override
 	public void reset() {
 		this.isPresent = false;
+		this.isWrapped = false;
 		this.size = 0;
 	}
 	
@@ -82,6 +83,16 @@ public class VarBytesField implements ProtoField {
 	public ProtoField newInstance() {
 		return new VarBytesField(null, byteBuffer.capacity(), isOptional);
 	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		VarBytesField f = (VarBytesField) other;
+		if (f.isPresent()) {
+			set(f.buffer());
+		} else {
+			this.isPresent = false;
+		}
+	}
 
 	@Override
 	public final int size() {
@@ -91,6 +102,11 @@ public class VarBytesField implements ProtoField {
 			return 4 + size;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return -1;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -111,12 +127,18 @@ public class VarBytesField implements ProtoField {
 	
 	public final ByteBuffer get() {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
+		return buffer();
+	}
+	
+	private final ByteBuffer buffer() {
+		if (isWrapped) return view.get();
 		byteBuffer.limit(size).position(0);
 		return byteBuffer;
 	}
 	
 	private final ByteBuffer getAndMarkAsPresent() {
 		if (isOptional) isPresent = true;
+		isWrapped = false;
 		return get();
 	}
 	
@@ -148,6 +170,7 @@ public class VarBytesField implements ProtoField {
 	public final void readFrom(ByteBuffer src) {
 		int len = ReadUtils.readLength(src, byteBuffer.capacity());
 		if (isOptional) this.isPresent = true;
+		isWrapped = false;
 		byteBuffer.clear();
 		int savedLim = src.limit();
 		src.limit(src.position() + len);
@@ -157,6 +180,23 @@ public class VarBytesField implements ProtoField {
 		this.size = len;
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer src) {
+		int len = ReadUtils.readLength(src, byteBuffer.capacity());
+		if (isOptional) this.isPresent = true;
+		int pos = src.position();
+		view.wrap(src, pos, len);
+		isWrapped = true;
+		this.size = len;
+		src.position(pos + len);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer src) {
+		int len = ReadUtils.readLength(src, byteBuffer.capacity());
+		src.position(src.position() + len);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -180,21 +220,25 @@ public class VarBytesField implements ProtoField {
 	}
 	
 	@Override
-	public String toString() {
-		if (isOptional) {
-			if (isPresent) {
-				ByteBuffer byteBuffer = get();
-				StringBuilder sb = new StringBuilder(byteBuffer.remaining());
-				sb.append(ByteBufferUtils.parseString(byteBuffer));
-				return sb.toString();
-			} else {
-				return "BLANK";
-			}
+	public final void readAsciiFrom(ByteBuffer buf) {
+		if (buf.remaining() > byteBuffer.capacity()) throw new IllegalArgumentException("Field length " + buf.remaining() + " exceeds maximum " + byteBuffer.capacity());
+		set(buf);
+	}
+	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
 		} else {
-			ByteBuffer byteBuffer = get();
-			StringBuilder sb = new StringBuilder(byteBuffer.remaining());
-			sb.append(ByteBufferUtils.parseString(byteBuffer));
-			return sb.toString();
+			ByteBufferUtils.parseString(get(), sb);
 		}
 	}
+	
+	@Override
+	public String toString() {
+		if (isOptional && !isPresent) return "BLANK";
+		StringBuilder sb = new StringBuilder(size);
+		appendTo(sb);
+		return sb.toString();
+	}
 }
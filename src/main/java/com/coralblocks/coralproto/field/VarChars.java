@@ -86,6 +86,14 @@ public class VarChars {
 		for(int i = 0; i < len; i++) byteBuffer.put((byte) array[i]);
 	}
 	
+	public final void copyFrom(VarChars other) {
+		ByteBuffer src = other.bbcs.getByteBuffer();
+		int len = src.remaining();
+		enforceMaxLength(len);
+		bbcs.setSize(len);
+		bbcs.getByteBuffer().put(src);
+	}
+	
 	public final void readFrom(ByteBuffer src) {
 		int len = ReadUtils.readLength(src, maxLength);
 		int savedLim = src.limit();
@@ -75,6 +75,21 @@ public class VarCharsField implements ProtoField {
 		return new VarCharsField(null, maxLength, isOptional);
 	}
 	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		VarCharsField f = (VarCharsField) other;
+		if (f.isPresent()) {
+			ByteBuffer src = f.bbcs.getByteBuffer();
+			int len = src.remaining();
+			enforceMaxLength(len);
+			ByteBufferCharSequence bacs = getAndMarkAsPresent();
+			bacs.setSize(len);
+			bacs.getByteBuffer().put(src);
+		} else {
+			this.isPresent = false;
+		}
+	}
+	
 	public final int getMaxLength() {
 		return maxLength;
 	}
@@ -93,6 +108,11 @@ public class VarCharsField implements ProtoField {
 			return 4 + len;
 		}
 	}
+	
+	@Override
+	public final int fixedSize() {
+		return -1;
+	}
 
 	@Override
 	public final boolean isPresent() {
@@ -165,6 +185,21 @@ public class VarCharsField implements ProtoField {
 		src.limit(savedLim);
 	}
 	
+	@Override
+	public final void wrapFrom(ByteBuffer src) {
+		int len = ReadUtils.readLength(src, maxLength);
+		if (isOptional) this.isPresent = true;
+		int pos = src.position();
+		bbcs.wrap(src, pos, len);
+		src.position(pos + len);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer src) {
+		int len = ReadUtils.readLength(src, maxLength);
+		src.position(src.position() + len);
+	}
+	
 	@Override
 	public final void writeTo(ByteBuffer buf) {
 		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
@@ -180,19 +215,28 @@ public class VarCharsField implements ProtoField {
 	}
 	
 	@Override
-	public String toString() {
-		if (isOptional) {
-			if (isPresent) {
-				StringBuilder sb = new StringBuilder(bbcs.length());
-				sb.append(bbcs);
-				return sb.toString();
-			} else {
-				return "BLANK";
-			}
+	public final void readAsciiFrom(ByteBuffer buf) {
+		int len = buf.remaining();
+		enforceMaxLength(len);
+		ByteBufferCharSequence bacs = getAndMarkAsPresent();
+		bacs.setSize(len);
+		bacs.getByteBuffer().put(buf);
+	}
+	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
 		} else {
-			StringBuilder sb = new StringBuilder(bbcs.length());
 			sb.append(bbcs);
-			return sb.toString();
 		}
 	}
+	
+	@Override
+	public String toString() {
+		if (isOptional && !isPresent) return "BLANK";
+		StringBuilder sb = new StringBuilder(bbcs.length());
+		appendTo(sb);
+		return sb.toString();
+	}
 }
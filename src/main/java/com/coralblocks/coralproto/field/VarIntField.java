@@ -0,0 +1,179 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.field;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.AbstractProto;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
+import com.coralblocks.coralproto.util.ByteBufferEncoder;
+import com.coralblocks.coralproto.util.VarIntUtils;
+
+/**
+ * A int field written as a zigzag LEB128 varint (see {@link VarIntUtils}), taking from 1 to 5 bytes on the wire instead of 4. Small values,
+ * positive or negative, take fewer bytes.
+ */
+public class VarIntField implements ProtoField {
+	
+	private final ByteBufferEncoder bbEncoder = new ByteBufferEncoder();
+	private final boolean isOptional;
+	private boolean isPresent;
+	private int value;
+	
+	public VarIntField() {
+		this(null);
+	}
+	
+	public VarIntField(AbstractProto proto) {
+		this(proto, false);
+	}
+	
+	public VarIntField(boolean isOptional) {
+		this(null, isOptional);
+	}
+	
+	public VarIntField(AbstractProto proto, boolean isOptional) {
+		if (proto != null) proto.add(this);
+		this.isOptional = isOptional;
+		reset();
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof VarIntField) {
+			VarIntField cf = (VarIntField) o;
+			boolean present = this.isPresent();
+			if (cf.isPresent() != present) return false;
+			return !present || cf.value == this.value;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return isPresent() ? value : 0;
+	}
+	
+	@Override
+	public void reset() {
+		this.isPresent = false;
+		this.value = 0;
+	}
+	
+	@Override
+	public ProtoField newInstance() {
+		return new VarIntField(null, this.isOptional);
+	}
+	
+	@Override
+	public final void copyFrom(ProtoField other) {
+		VarIntField f = (VarIntField) other;
+		this.isPresent = f.isPresent;
+		this.value = f.value;
+	}
+
+	@Override
+	public final int size() {
+		if (isOptional) {
+			return isPresent ? 1 + VarIntUtils.sizeOfVarInt(value) : 1;
+		} else {
+			return VarIntUtils.sizeOfVarInt(value);
+		}
+	}
+	
+	@Override
+	public final int fixedSize() {
+		return -1;
+	}
+
+	@Override
+	public final boolean isPresent() {
+		if (!isOptional) return true;
+		return isPresent;
+	}
+
+	@Override
+	public final boolean isOptional() {
+		return isOptional;
+	}
+	
+	@Override
+	public final void markAsNotPresent() {
+		if (!isOptional) throw new IllegalStateException("Cannot mark a required field as not present!");
+		this.isPresent = false;
+	}
+	
+	@Override
+	public final void readFrom(ByteBuffer buf) {
+		if (isOptional) this.isPresent = true;
+		this.value = VarIntUtils.getVarInt(buf);
+	}
+	
+	@Override
+	public final void wrapFrom(ByteBuffer buf) {
+		readFrom(buf);
+	}
+	
+	@Override
+	public final void skip(ByteBuffer buf) {
+		VarIntUtils.skip(buf);
+	}
+	
+	@Override
+	public final void writeTo(ByteBuffer buf) {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
+		VarIntUtils.putVarInt(buf, value);
+	}
+	
+	@Override
+	public final void writeAsciiTo(ByteBuffer buf) {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot write a value that is not present!");
+		bbEncoder.append(buf, value);
+	}
+	
+	@Override
+	public final void readAsciiFrom(ByteBuffer buf) {
+		set((int) ByteBufferDecoder.parseLong(buf, Integer.MIN_VALUE, Integer.MAX_VALUE));
+	}
+	
+	public final int get() {
+		if (isOptional && !isPresent) throw new IllegalStateException("Cannot get an optional field that is not present!");
+		return value;
+	}
+	
+	public final void set(int value) {
+		if (isOptional) this.isPresent = true;
+		this.value = value;
+	}
+	
+	@Override
+	public final void appendTo(StringBuilder sb) {
+		if (isOptional && !isPresent) {
+			sb.append("BLANK");
+		} else {
+			sb.append(value);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		if (isOptional) {
+			return isPresent ? String.valueOf(value) : "BLANK";
+		} else {
+			return String.valueOf(value);
+		}
+	}
+}
@@ -20,6 +20,8 @@ import java.nio.ByteBuffer;
 public class ByteBufferCharSequence implements CharSequence {
 
     private final ByteBuffer byteBuffer;
+    private final ByteBufferView view = new ByteBufferView();
+    private boolean isWrapped = false;
     private int actualSize;
 
     public ByteBufferCharSequence(int maxSize) {
@@ -31,10 +33,30 @@ public class ByteBufferCharSequence implements CharSequence {
     	if (size > byteBuffer.capacity()) {
     		throw new IllegalArgumentException("size bigger than buffer capacity: " + size + " (capacity=" + byteBuffer.capacity() + ")");
     	}
+    	this.isWrapped = false;
     	this.actualSize = size;
     }
     
+    /**
+     * Makes this char sequence a view over the given region of the source buffer, without copying its bytes.
+     * The view is valid until the source buffer is overwritten. Calling {@link #setSize(int)} goes back to the internal buffer.
+     * 
+     * @param src the source buffer
+     * @param offset the absolute position of the first char
+     * @param size the number of chars
+     */
+    public void wrap(ByteBuffer src, int offset, int size) {
+    	view.wrap(src, offset, size);
+    	this.isWrapped = true;
+    	this.actualSize = size;
+    }
+    
+    public boolean isWrapped() {
+    	return isWrapped;
+    }
+    
     public ByteBuffer getByteBuffer() {
+    	if (isWrapped) return view.get();
     	byteBuffer.limit(actualSize).position(0);
     	return byteBuffer;
     }
@@ -63,6 +85,7 @@ public class ByteBufferCharSequence implements CharSequence {
     	if (index >= actualSize) {
     		throw new IllegalArgumentException("index greater or equal than length: " + index + " (length=" + actualSize + ")");
     	}
+    	if (isWrapped) return (char) view.get(index);
     	byteBuffer.limit(actualSize).position(0);
         return (char) byteBuffer.get(index);
     }
@@ -74,7 +97,6 @@ public class ByteBufferCharSequence implements CharSequence {
 
     @Override
     public String toString() {
-    	byteBuffer.limit(actualSize).position(0);
-        return ByteBufferUtils.parseString(byteBuffer);
+        return ByteBufferUtils.parseString(getByteBuffer());
     }
 }
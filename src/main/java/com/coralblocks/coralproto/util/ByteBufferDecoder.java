@@ -0,0 +1,180 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back, without going through a <code>String</code>, the ascii written by {@link ByteBufferEncoder} and by the <code>writeAsciiTo</code>
+ * methods of the fields. Each token (a number, a <code>BLANK</code>, etc.) goes from the position to the limit of the buffer, so the caller
+ * sets the limit to the next separator first (see {@link #findSeparator(ByteBuffer, int, int, byte)}).
+ */
+public class ByteBufferDecoder {
+	
+	private static final String BLANK = "BLANK";
+	
+	/**
+	 * Parses the integer from the position to the limit of the buffer, moving the position to the limit.
+	 * 
+	 * @param buf the buffer with the integer
+	 * @return the integer
+	 * @throws IllegalArgumentException if it is not an integer or it does not fit in a long
+	 */
+	public static final long parseLong(ByteBuffer buf) {
+		return parseScaled(buf, 0);
+	}
+	
+	/**
+	 * Parses the integer from the position to the limit of the buffer, moving the position to the limit.
+	 * 
+	 * @param buf the buffer with the integer
+	 * @param min the minimum value
+	 * @param max the maximum value
+	 * @return the integer
+	 * @throws IllegalArgumentException if it is not an integer or it is not between the minimum and the maximum
+	 */
+	public static final long parseLong(ByteBuffer buf, long min, long max) {
+		int pos = buf.position();
+		long value = parseScaled(buf, 0);
+		if (value < min || value > max) throw new IllegalArgumentException("Value out of range at " + pos + ": " + value);
+		return value;
+	}
+	
+	/**
+	 * Parses the decimal number (written by {@link ByteBufferEncoder#append(ByteBuffer, double, int)}) from the position to the limit of the
+	 * buffer as a long scaled by the given precision, which is exactly how float and double fields go on the wire. For example, <code>200.15</code>
+	 * with a precision of 4 is <code>2001500</code>. The position is moved to the limit.
+	 * 
+	 * @param buf the buffer with the number
+	 * @param precision the number of decimal places
+	 * @return the number scaled by 10 to the power of the precision
+	 * @throws IllegalArgumentException if it is not a number, it has more decimal places than the precision or it does not fit in a long
+	 */
+	public static final long parseScaled(ByteBuffer buf, int precision) {
+		
+		int pos = buf.position();
+		int limit = buf.limit();
+		
+		boolean negative = pos < limit && buf.get(pos) == '-';
+		if (negative) pos++;
+		
+		// accumulates a negative number, which has room for Long.MIN_VALUE
+		long value = 0;
+		int digits = 0;
+		int decimals = -1; // -1 before the dot
+		
+		for(; pos < limit; pos++) {
+			byte b = buf.get(pos);
+			if (b == '.' && decimals < 0 && precision > 0) {
+				decimals = 0;
+				continue;
+			}
+			if (b < '0' || b > '9') throw new IllegalArgumentException("Not a number at " + pos + ": " + (char) b);
+			if (decimals >= 0 && ++decimals > precision) throw new IllegalArgumentException("More than " + precision + " decimal places at " + pos);
+			value = appendDigit(value, b - '0', pos);
+			digits++;
+		}
+		
+		if (digits == 0 || decimals == 0) throw new IllegalArgumentException("Not a number at " + buf.position());
+		
+		for(int i = Math.max(decimals, 0); i < precision; i++) value = appendDigit(value, 0, pos);
+		
+		if (!negative) {
+			if (value == Long.MIN_VALUE) throw new IllegalArgumentException("Number does not fit in a long at " + buf.position());
+			value = -value;
+		}
+		
+		buf.position(limit);
+		return value;
+	}
+	
+	private static long appendDigit(long value, int digit, int pos) {
+		if (value < Long.MIN_VALUE / 10) throw new IllegalArgumentException("Number does not fit in a long at " + pos);
+		value *= 10;
+		if (value < Long.MIN_VALUE + digit) throw new IllegalArgumentException("Number does not fit in a long at " + pos);
+		return value - digit;
+	}
+	
+	/**
+	 * Returns true if the bytes from the position to the limit of the buffer are the given chars. The position is not changed.
+	 * 
+	 * @param buf the buffer
+	 * @param s the chars
+	 * @return true if they are the same
+	 */
+	public static final boolean equals(ByteBuffer buf, CharSequence s) {
+		int len = s.length();
+		if (buf.remaining() != len) return false;
+		int pos = buf.position();
+		for(int i = 0; i < len; i++) {
+			if (buf.get(pos + i) != (byte) s.charAt(i)) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns true if the bytes from the position to the limit of the buffer are <code>BLANK</code>, the ascii of an optional field that is not
+	 * present. The position is not changed.
+	 * 
+	 * @param buf the buffer
+	 * @return true if it is BLANK
+	 */
+	public static final boolean isBlank(ByteBuffer buf) {
+		return equals(buf, BLANK);
+	}
+	
+	/**
+	 * Returns the index of the first occurrence of the given byte, between the given indexes of the buffer.
+	 * 
+	 * @param buf the buffer
+	 * @param from the first index (inclusive)
+	 * @param to the last index (exclusive)
+	 * @param b the byte to look for
+	 * @return the index of the byte or <code>to</code> if it is not found
+	 */
+	public static final int indexOf(ByteBuffer buf, int from, int to, byte b) {
+		for(int i = from; i < to; i++) {
+			if (buf.get(i) == b) return i;
+		}
+		return to;
+	}
+	
+	/**
+	 * Returns the index of the first occurrence of the given separator that is not inside brackets (the elements of a repeating group,
+	 * written as <code>n=[...]</code>), between the given indexes of the buffer. A closing bracket outside of any brackets also ends the search.
+	 * 
+	 * @param buf the buffer
+	 * @param from the first index (inclusive)
+	 * @param to the last index (exclusive)
+	 * @param separator the separator to look for
+	 * @return the index of the separator (or of the unmatched closing bracket) or <code>to</code> if it is not found
+	 */
+	public static final int findSeparator(ByteBuffer buf, int from, int to, byte separator) {
+		int depth = 0;
+		for(int i = from; i < to; i++) {
+			byte b = buf.get(i);
+			if (b == '[') {
+				depth++;
+			} else if (b == ']') {
+				if (depth == 0) return i;
+				depth--;
+			} else if (b == separator && depth == 0) {
+				return i;
+			}
+		}
+		return to;
+	}
+}
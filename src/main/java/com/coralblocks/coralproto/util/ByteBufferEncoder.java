@@ -15,15 +15,23 @@
  */
 package com.coralblocks.coralproto.util;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 
+/**
+ * Writes numbers in ascii straight into a <code>ByteBuffer</code>, without going through a <code>String</code> or a <code>StringBuilder</code>.
+ * The integers are written from right to left, two digits at a time, from a table with the 100 pairs of digits.
+ */
 public class ByteBufferEncoder {
-
-	private final StringBuilder sb;
 	
-	public ByteBufferEncoder() {
-		int maxLength = String.valueOf(Long.MIN_VALUE).length();
-		this.sb = new StringBuilder(maxLength);
+	private static final byte[] TENS = new byte[100];
+	private static final byte[] ONES = new byte[100];
+	
+	static {
+		for(int i = 0; i < 100; i++) {
+			TENS[i] = (byte) ('0' + i / 10);
+			ONES[i] = (byte) ('0' + i % 10);
+		}
 	}
 	
 	public final void append(ByteBuffer buf, char c) {
@@ -35,15 +43,91 @@ public class ByteBufferEncoder {
 	}
 	
 	public final void append(ByteBuffer buf, int number) {
-		sb.setLength(0);
-		sb.append(number);
-		ByteBufferUtils.appendCharSequence(buf, sb);
+		int len = size(number);
+		int pos = buf.position();
+		if (buf.remaining() < len) throw new BufferOverflowException();
+		int index = pos + len;
+		int n = number < 0 ? number : -number; // negative, so that MIN_VALUE works too
+		while(n <= -100) {
+			int q = n / 100;
+			int r = q * 100 - n;
+			buf.put(--index, ONES[r]);
+			buf.put(--index, TENS[r]);
+			n = q;
+		}
+		index = putLastDigits(buf, index, -n);
+		if (number < 0) buf.put(--index, (byte) '-');
+		buf.position(pos + len);
 	}
 	
 	public final void append(ByteBuffer buf, long number) {
-		sb.setLength(0);
-		sb.append(number);
-		ByteBufferUtils.appendCharSequence(buf, sb);
+		if (number == (int) number) {
+			append(buf, (int) number);
+			return;
+		}
+		int len = size(number);
+		int pos = buf.position();
+		if (buf.remaining() < len) throw new BufferOverflowException();
+		int index = pos + len;
+		long n = number < 0 ? number : -number; // negative, so that MIN_VALUE works too
+		while(n < Integer.MIN_VALUE) { // until it fits in an int
+			long q = n / 100;
+			int r = (int) (q * 100 - n);
+			buf.put(--index, ONES[r]);
+			buf.put(--index, TENS[r]);
+			n = q;
+		}
+		int m = (int) n;
+		while(m <= -100) {
+			int q = m / 100;
+			int r = q * 100 - m;
+			buf.put(--index, ONES[r]);
+			buf.put(--index, TENS[r]);
+			m = q;
+		}
+		index = putLastDigits(buf, index, -m);
+		if (number < 0) buf.put(--index, (byte) '-');
+		buf.position(pos + len);
+	}
+	
+	private static int putLastDigits(ByteBuffer buf, int index, int r) { // r is between 0 and 99
+		buf.put(--index, ONES[r]);
+		if (r >= 10) buf.put(--index, TENS[r]);
+		return index;
+	}
+	
+	/**
+	 * Returns the number of chars of the given number in ascii, including the minus sign.
+	 * 
+	 * @param number the number
+	 * @return the number of chars
+	 */
+	public static final int size(int number) {
+		int sign = number < 0 ? 1 : 0;
+		int n = number < 0 ? number : -number;
+		int p = -10;
+		for(int i = 1; i < 10; i++) {
+			if (n > p) return i + sign;
+			p = 10 * p;
+		}
+		return 10 + sign;
+	}
+	
+	/**
+	 * Returns the number of chars of the given number in ascii, including the minus sign.
+	 * 
+	 * @param number the number
+	 * @return the number of chars
+	 */
+	public static final int size(long number) {
+		int sign = number < 0 ? 1 : 0;
+		long n = number < 0 ? number : -number;
+		long p = -10;
+		for(int i = 1; i < 19; i++) {
+			if (n > p) return i + sign;
+			p = 10 * p;
+		}
+		return 19 + sign;
 	}
 
 	public final void append(ByteBuffer buf, float number, int precision) {
@@ -0,0 +1,70 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only window over a region of another <code>ByteBuffer</code>. It is used by the fields in flyweight mode to expose
+ * their value straight from the wire bytes, without copying them.
+ * 
+ * The read-only copy of the source buffer is only created when the source buffer changes, so wrapping the same receive buffer
+ * over and over again does not produce any garbage.
+ */
+public class ByteBufferView {
+	
+	private ByteBuffer src = null;
+	private ByteBuffer view = null;
+	private int offset;
+	private int length;
+	
+	/**
+	 * Points this view to the given region of the source buffer. The position and the limit of the source buffer are not changed.
+	 * 
+	 * @param src the source buffer
+	 * @param offset the absolute position where the region starts
+	 * @param length the length of the region
+	 */
+	public void wrap(ByteBuffer src, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > src.capacity()) {
+			throw new IndexOutOfBoundsException("Invalid region: offset=" + offset + " length=" + length + " (capacity=" + src.capacity() + ")");
+		}
+		if (src != this.src) {
+			this.src = src;
+			this.view = src.asReadOnlyBuffer();
+		}
+		this.offset = offset;
+		this.length = length;
+	}
+	
+	public int length() {
+		return length;
+	}
+	
+	public byte get(int index) {
+		return get().get(offset + index);
+	}
+	
+	/**
+	 * Returns the (read-only) buffer with its position and limit set to the wrapped region.
+	 * 
+	 * @return the buffer for the wrapped region
+	 */
+	public ByteBuffer get() {
+		view.limit(offset + length).position(offset);
+		return view;
+	}
+}
@@ -0,0 +1,113 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.util;
+
+/**
+ * A map from primitive longs to objects with open addressing (linear probing), so no object is created to look up or insert a key. It only
+ * allocates when it grows.
+ * 
+ * @param <E> the type of the values
+ */
+public class LongObjectMap<E> {
+	
+	private static final float LOAD_FACTOR = 0.5f;
+	
+	private long[] keys;
+	private E[] values;
+	private boolean[] used;
+	private int size = 0;
+	private int mask;
+	
+	public LongObjectMap() {
+		this(128);
+	}
+	
+	public LongObjectMap(int initialCapacity) {
+		int capacity = Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1;
+		allocate(capacity);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.values = (E[]) new Object[capacity];
+		this.used = new boolean[capacity];
+		this.mask = capacity - 1;
+	}
+	
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L; // fibonacci hashing
+		return (int) (h ^ (h >>> 32));
+	}
+	
+	public final E get(long key) {
+		int i = hash(key) & mask;
+		while(used[i]) {
+			if (keys[i] == key) return values[i];
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+	
+	public final boolean containsKey(long key) {
+		return get(key) != null;
+	}
+	
+	public final E put(long key, E value) {
+		if (value == null) throw new IllegalArgumentException("Value cannot be null");
+		int i = hash(key) & mask;
+		while(used[i]) {
+			if (keys[i] == key) {
+				E old = values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		used[i] = true;
+		keys[i] = key;
+		values[i] = value;
+		if (++size > keys.length * LOAD_FACTOR) rehash();
+		return null;
+	}
+	
+	private void rehash() {
+		long[] oldKeys = keys;
+		E[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(oldKeys.length * 2);
+		size = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+		}
+	}
+	
+	public final int size() {
+		return size;
+	}
+	
+	public final boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public final void clear() {
+		for(int i = 0; i < keys.length; i++) {
+			used[i] = false;
+			values[i] = null;
+		}
+		size = 0;
+	}
+}
@@ -0,0 +1,69 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads the presence bitmap that replaces the <code>'Y'</code>/<code>'N'</code> byte of each optional field when a message is
+ * defined with <code>PRESENCE_BITMAP = true</code>. The bit <i>k</i> is set when the optional field number <i>k</i> (counting only the optional
+ * fields) is present. The bitmap takes one byte per 8 optional fields, the first byte having the bits 0 to 7.
+ */
+public class PresenceBitmapUtils {
+	
+	/**
+	 * The maximum number of optional fields of a message (or of a repeating group element) with a presence bitmap
+	 */
+	public static final int MAX_OPTIONAL_FIELDS = Long.SIZE;
+	
+	private PresenceBitmapUtils() {
+		
+	}
+	
+	public static final int size(int numberOfOptionalFields) {
+		if (numberOfOptionalFields > MAX_OPTIONAL_FIELDS) {
+			throw new IllegalStateException("A presence bitmap supports at most " + MAX_OPTIONAL_FIELDS + " optional fields: " + numberOfOptionalFields);
+		}
+		return (numberOfOptionalFields + 7) / 8;
+	}
+	
+	public static final void write(ByteBuffer buf, long bitmap, int size) {
+		for(int i = 0; i < size; i++) {
+			buf.put((byte) (bitmap >>> (i * 8)));
+		}
+	}
+	
+	/**
+	 * Reads a bitmap of the given size. The bytes missing at the end of the buffer are read as zeros (fields not present).
+	 * 
+	 * @param buf the buffer to read from
+	 * @param size the size of the bitmap
+	 * @return the bitmap
+	 */
+	public static final long read(ByteBuffer buf, int size) {
+		long bitmap = 0;
+		int n = Math.min(size, buf.remaining());
+		for(int i = 0; i < n; i++) {
+			bitmap |= (buf.get() & 0xFFL) << (i * 8);
+		}
+		return bitmap;
+	}
+	
+	public static final void set(ByteBuffer buf, int bitmapPosition, int bit) {
+		int pos = bitmapPosition + (bit >>> 3);
+		buf.put(pos, (byte) (buf.get(pos) | (1 << (bit & 7))));
+	}
+}
@@ -0,0 +1,90 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Absolute reads and writes of shorts, ints and longs at any index of a <code>ByteBuffer</code>, in the byte order of the buffer. For heap
+ * buffers they go straight to the backing array through <code>VarHandle</code> views, so each one is a single (possibly unaligned) load or store,
+ * byte-swapped only when the order of the buffer is not the native order. Direct and read-only buffers use the absolute methods of the buffer.
+ * 
+ * The caller must check that the bytes are within the limit of the buffer, as the array views only check the bounds of the array.
+ */
+public class UnalignedAccess {
+	
+	private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	private UnalignedAccess() {
+		
+	}
+	
+	public static final short getShort(ByteBuffer buf, int index) {
+		if (!buf.hasArray()) return buf.getShort(index);
+		if (buf.order() == ByteOrder.LITTLE_ENDIAN) return (short) SHORT_LE.get(buf.array(), buf.arrayOffset() + index);
+		return (short) SHORT_BE.get(buf.array(), buf.arrayOffset() + index);
+	}
+	
+	public static final int getInt(ByteBuffer buf, int index) {
+		if (!buf.hasArray()) return buf.getInt(index);
+		if (buf.order() == ByteOrder.LITTLE_ENDIAN) return (int) INT_LE.get(buf.array(), buf.arrayOffset() + index);
+		return (int) INT_BE.get(buf.array(), buf.arrayOffset() + index);
+	}
+	
+	public static final long getLong(ByteBuffer buf, int index) {
+		if (!buf.hasArray()) return buf.getLong(index);
+		if (buf.order() == ByteOrder.LITTLE_ENDIAN) return (long) LONG_LE.get(buf.array(), buf.arrayOffset() + index);
+		return (long) LONG_BE.get(buf.array(), buf.arrayOffset() + index);
+	}
+	
+	public static final void putShort(ByteBuffer buf, int index, short value) {
+		if (!buf.hasArray()) {
+			buf.putShort(index, value);
+		} else if (buf.order() == ByteOrder.LITTLE_ENDIAN) {
+			SHORT_LE.set(buf.array(), buf.arrayOffset() + index, value);
+		} else {
+			SHORT_BE.set(buf.array(), buf.arrayOffset() + index, value);
+		}
+	}
+	
+	public static final void putInt(ByteBuffer buf, int index, int value) {
+		if (!buf.hasArray()) {
+			buf.putInt(index, value);
+		} else if (buf.order() == ByteOrder.LITTLE_ENDIAN) {
+			INT_LE.set(buf.array(), buf.arrayOffset() + index, value);
+		} else {
+			INT_BE.set(buf.array(), buf.arrayOffset() + index, value);
+		}
+	}
+	
+	public static final void putLong(ByteBuffer buf, int index, long value) {
+		if (!buf.hasArray()) {
+			buf.putLong(index, value);
+		} else if (buf.order() == ByteOrder.LITTLE_ENDIAN) {
+			LONG_LE.set(buf.array(), buf.arrayOffset() + index, value);
+		} else {
+			LONG_BE.set(buf.array(), buf.arrayOffset() + index, value);
+		}
+	}
+}
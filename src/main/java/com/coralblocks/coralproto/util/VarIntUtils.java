@@ -0,0 +1,135 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads integers as LEB128 varints: 7 bits per byte, least significant group first, with the high bit of each byte set when more
+ * bytes follow. Signed values are zigzag encoded first (0, -1, 1, -2, 2 become 0, 1, 2, 3, 4), so small negative values are small on the wire too.
+ */
+public class VarIntUtils {
+	
+	/**
+	 * The maximum number of bytes of a varint int
+	 */
+	public static final int MAX_INT_SIZE = 5;
+	
+	/**
+	 * The maximum number of bytes of a varint long
+	 */
+	public static final int MAX_LONG_SIZE = 10;
+	
+	private VarIntUtils() {
+		
+	}
+	
+	public static final int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+	
+	public static final int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	public static final long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	public static final long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	public static final void putUnsignedVarInt(ByteBuffer buf, int value) {
+		while((value & ~0x7F) != 0) {
+			buf.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+	
+	public static final void putUnsignedVarLong(ByteBuffer buf, long value) {
+		while((value & ~0x7FL) != 0) {
+			buf.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+	
+	public static final int getUnsignedVarInt(ByteBuffer buf) {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			byte b = buf.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalStateException("Varint int is longer than " + MAX_INT_SIZE + " bytes");
+	}
+	
+	public static final long getUnsignedVarLong(ByteBuffer buf) {
+		long value = 0;
+		for(int shift = 0; shift < 70; shift += 7) {
+			byte b = buf.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalStateException("Varint long is longer than " + MAX_LONG_SIZE + " bytes");
+	}
+	
+	public static final int sizeOfUnsignedVarInt(int value) {
+		// 1 byte for every 7 bits used (at least 1 byte)
+		return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+	
+	public static final int sizeOfUnsignedVarLong(long value) {
+		return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+	
+	public static final void putVarInt(ByteBuffer buf, int value) {
+		putUnsignedVarInt(buf, zigZag(value));
+	}
+	
+	public static final void putVarLong(ByteBuffer buf, long value) {
+		putUnsignedVarLong(buf, zigZag(value));
+	}
+	
+	public static final int getVarInt(ByteBuffer buf) {
+		return unZigZag(getUnsignedVarInt(buf));
+	}
+	
+	public static final long getVarLong(ByteBuffer buf) {
+		return unZigZag(getUnsignedVarLong(buf));
+	}
+	
+	public static final int sizeOfVarInt(int value) {
+		return sizeOfUnsignedVarInt(zigZag(value));
+	}
+	
+	public static final int sizeOfVarLong(long value) {
+		return sizeOfUnsignedVarLong(zigZag(value));
+	}
+	
+	/**
+	 * Moves the position of the given buffer past the varint (int or long) at its position.
+	 * 
+	 * @param buf the buffer with the varint
+	 */
+	public static final void skip(ByteBuffer buf) {
+		int pos = buf.position();
+		while(buf.get(pos++) < 0);
+		buf.position(pos);
+	}
+}
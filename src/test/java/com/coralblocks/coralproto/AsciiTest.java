@@ -0,0 +1,206 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.field.BytesField;
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.VarBytesField;
+import com.coralblocks.coralproto.field.VarCharsField;
+import com.coralblocks.coralproto.util.ByteBufferEncoder;
+
+public class AsciiTest {
+	
+	private static final ByteBufferEncoder ENCODER = new ByteBufferEncoder();
+	
+	private static final long[] LONGS = { 0, 1, 9, 10, 11, 99, 100, 101, 999, 1000, 12345, 100000, 999999999, 1000000000,
+										  Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L,
+										  10000000000L, 99999999999L, 1234567890123456789L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1 };
+	
+	private static String encode(long value) {
+		ByteBuffer bb = ByteBuffer.allocate(64);
+		bb.put((byte) '>');
+		ENCODER.append(bb, value);
+		Assert.assertEquals(1 + ByteBufferEncoder.size(value), bb.position());
+		bb.flip();
+		return StandardCharsets.US_ASCII.decode(bb).toString();
+	}
+	
+	private static String encode(int value) {
+		ByteBuffer bb = ByteBuffer.allocate(64);
+		bb.put((byte) '>');
+		ENCODER.append(bb, value);
+		Assert.assertEquals(1 + ByteBufferEncoder.size(value), bb.position());
+		bb.flip();
+		return StandardCharsets.US_ASCII.decode(bb).toString();
+	}
+	
+	private static String appendTo(ProtoField field) {
+		StringBuilder sb = new StringBuilder();
+		sb.append('>');
+		field.appendTo(sb);
+		return sb.substring(1);
+	}
+	
+	private static PriceChangeMessage createPriceChange() {
+		PriceChangeMessage proto = ProtoTestUtils.createPriceChange(2);
+		// the last order gets the extremes: the smallest long, a price with a leading zero and no legs
+		proto.orders.levelId.set(Long.MIN_VALUE);
+		proto.orders.priceLevel.set(0.5);
+		proto.orders.legs.clear();
+		return proto;
+	}
+	
+	@Test
+	public void testEncodeLong() {
+		for(long value : LONGS) {
+			Assert.assertEquals(">" + value, encode(value));
+			Assert.assertEquals(">" + (-value), encode(-value));
+		}
+		for(long value = -100000; value <= 100000; value++) {
+			Assert.assertEquals(">" + value, encode(value));
+		}
+	}
+	
+	@Test
+	public void testEncodeInt() {
+		for(long value : LONGS) {
+			int i = (int) value;
+			Assert.assertEquals(">" + i, encode(i));
+		}
+		for(long value = 1; value <= Integer.MAX_VALUE; value = value * 10) {
+			Assert.assertEquals(">" + (value - 1), encode((int) (value - 1)));
+			Assert.assertEquals(">" + value, encode((int) value));
+			Assert.assertEquals(">" + (-value), encode((int) -value));
+		}
+	}
+	
+	@Test
+	public void testEncodeOverflow() {
+		ByteBuffer bb = ByteBuffer.allocate(4);
+		bb.put((byte) 'x');
+		Assert.assertThrows(BufferOverflowException.class, () -> ENCODER.append(bb, 1234));
+		Assert.assertThrows(BufferOverflowException.class, () -> ENCODER.append(bb, -123L));
+		Assert.assertEquals(1, bb.position()); // nothing was written
+		ENCODER.append(bb, -12L);
+		Assert.assertEquals(4, bb.position());
+	}
+	
+	@Test
+	public void testFieldAppendTo() {
+		
+		IntField i = new IntField(true);
+		Assert.assertEquals("BLANK", appendTo(i));
+		i.set(-42);
+		Assert.assertEquals("-42", appendTo(i));
+		
+		DoubleField d = new DoubleField();
+		d.set(1.25);
+		Assert.assertEquals(d.toString(), appendTo(d));
+		
+		CharsField chars = new CharsField(4, true);
+		Assert.assertEquals("BLANK", appendTo(chars));
+		chars.set("AB");
+		Assert.assertEquals("[AB  ]", appendTo(chars));
+		Assert.assertEquals(chars.toString(), appendTo(chars));
+		
+		VarCharsField varChars = new VarCharsField(16);
+		varChars.set("Hello");
+		Assert.assertEquals("Hello", appendTo(varChars));
+		Assert.assertEquals(varChars.toString(), appendTo(varChars));
+		
+		BytesField bytes = new BytesField(3);
+		bytes.set(new byte[] { 'a', 1, 'c' });
+		Assert.assertEquals("[a?c]", appendTo(bytes));
+		Assert.assertEquals(bytes.toString(), appendTo(bytes));
+		
+		VarBytesField varBytes = new VarBytesField(8, true);
+		Assert.assertEquals("BLANK", appendTo(varBytes));
+		varBytes.set("xyz".getBytes());
+		Assert.assertEquals("xyz", appendTo(varBytes));
+		Assert.assertEquals(varBytes.toString(), appendTo(varBytes));
+	}
+	
+	@Test
+	public void testGroupsAppendTo() {
+		
+		PriceChangeMessage proto = createPriceChange();
+		
+		Assert.assertEquals("2=[true,0,200.15,1000,1=[0,[myLeg0  ]],1234;false,-9223372036854775808,0.5,1001,0,1235]", appendTo(proto.orders));
+		Assert.assertEquals(proto.orders.toString(), appendTo(proto.orders));
+		
+		Assert.assertEquals("Proto:{Type=P Subtype=C Version=0 | 1111 IBM BLANK 2=[true,0,200.15,1000,1=[0,[myLeg0  ]],1234;" + 
+							"false,-9223372036854775808,0.5,1001,0,1235] 100 BLANK}", proto.toString());
+		
+		Assert.assertEquals("PC (PriceChangeMessage)|1111|IBM|BLANK|2=[Y,0,200.15,1000,1=[0,myLeg0  ],1234;" +
+							"N,-9223372036854775808,0.5,1001,0,1235]|100|BLANK", ProtoTestUtils.ascii(proto, false));
+	}
+	
+	@Test
+	public void testNoAllocation() {
+		
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!mx.isThreadAllocatedMemorySupported()) return;
+		
+		PriceChangeMessage proto = createPriceChange();
+		StringBuilder sb = new StringBuilder(1024);
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		long threadId = Thread.currentThread().getId();
+		
+		final int iterations = 10000;
+		
+		for(int i = 0; i < iterations; i++) { // warm up
+			sb.setLength(0);
+			proto.toString(sb);
+			bb.clear();
+			proto.writeAscii(false, bb);
+		}
+		
+		long before = mx.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < iterations; i++) {
+			sb.setLength(0);
+			proto.toString(sb);
+			bb.clear();
+			proto.writeAscii(false, bb);
+		}
+		long allocated = mx.getThreadAllocatedBytes(threadId) - before;
+		
+		// a String per field would be several hundred bytes per iteration, so allow only for some noise from the JIT
+		Assert.assertTrue("Allocated " + allocated + " bytes", allocated < iterations);
+	}
+	
+	@Test
+	public void testAppendPlainField() {
+		
+		// a field that does not implement appendTo appends its toString
+		PlainIntField field = new PlainIntField();
+		field.value = 42;
+		StringBuilder sb = new StringBuilder("x");
+		field.appendTo(sb);
+		Assert.assertEquals("x42", sb.toString());
+	}
+}
@@ -126,6 +126,9 @@ public class CharsAndBytesTest {
         public static final char TYPE = 'C';
         public static final char SUBTYPE = 'B';
 
+        public static final int MY_CHARS_OFFSET = 4;
+        public static final int MY_VAR_CHARS_OFFSET = 12;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -0,0 +1,167 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.CharsAndBytesTest.CharsAndBytesProtoMessage;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.SampleProtoMessage;
+
+public class CopyFromTest {
+	
+	@Test
+	public void testCopyWithGroups() {
+		
+		PriceChangeMessage from = ProtoTestUtils.createPriceChange(5);
+		PriceChangeMessage to = new PriceChangeMessage();
+		
+		to.copyFrom(from);
+		
+		Assert.assertEquals(from, to);
+		Assert.assertEquals(from.hashCode(), to.hashCode());
+		Assert.assertEquals(ProtoTestUtils.write(from), ProtoTestUtils.write(to));
+		Assert.assertFalse(to.mqReqId.isPresent());
+		Assert.assertFalse(to.lastTradePrice.isPresent());
+		Assert.assertEquals(5, to.orders.getNumberOfElements());
+		
+		// the named fields point to the last element, as after parsing
+		Assert.assertEquals(1238L, to.orders.orderId.get());
+		Assert.assertEquals(5, to.orders.legs.getNumberOfElements());
+		
+		// nothing is shared with the source message
+		from.orders.clear();
+		from.symbolDesc.set("AAPL");
+		Assert.assertEquals(5, to.orders.getNumberOfElements());
+		Assert.assertEquals("IBM", to.symbolDesc.get().toString());
+	}
+	
+	@Test
+	public void testCopyOverPreviousContents() {
+		
+		PriceChangeMessage to = ProtoTestUtils.createPriceChange(5);
+		to.mqReqId.set(33L);
+		to.lastTradePrice.set(22.5);
+		
+		PriceChangeMessage from = new PriceChangeMessage();
+		from.symbolId.set(2222L);
+		from.symbolDesc.set("MSFT");
+		from.mqReqId.markAsNotPresent();
+		from.orders.clear();
+		from.orders.nextElement();
+		from.orders.side.set(true);
+		from.orders.levelId.markAsNotPresent();
+		from.orders.priceLevel.set(1.5);
+		from.orders.qty.set(7);
+		from.orders.legs.clear();
+		from.orders.orderId.set(9L);
+		from.lastTradeQty.set(1);
+		from.lastTradePrice.markAsNotPresent();
+		
+		to.copyFrom(from);
+		
+		Assert.assertEquals(from, to);
+		Assert.assertEquals(ProtoTestUtils.write(from), ProtoTestUtils.write(to));
+		Assert.assertFalse(to.mqReqId.isPresent());
+		Assert.assertEquals(1, to.orders.getNumberOfElements());
+		Assert.assertEquals(0, to.orders.legs.getNumberOfElements());
+		
+		// and back again, reusing the elements already allocated
+		PriceChangeMessage big = ProtoTestUtils.createPriceChange(5);
+		to.copyFrom(big);
+		Assert.assertEquals(big, to);
+		Assert.assertEquals(ProtoTestUtils.write(big), ProtoTestUtils.write(to));
+	}
+	
+	@Test
+	public void testCopyFromWrappedMessage() {
+		
+		CharsAndBytesProtoMessage proto = new CharsAndBytesProtoMessage();
+		proto.myChars.set("ABCD");
+		proto.myVarChars.set("Hello copy!");
+		proto.myBytes.set("12345678".getBytes());
+		proto.myVarBytes.set("xyz".getBytes());
+		
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		bb.position(4); // skip type, subtype and version
+		CharsAndBytesProtoMessage wrapped = new CharsAndBytesProtoMessage();
+		wrapped.wrap(bb);
+		
+		CharsAndBytesProtoMessage copy = new CharsAndBytesProtoMessage();
+		copy.copyFrom(wrapped);
+		Assert.assertEquals(proto, copy);
+		
+		// overwrite the source buffer: the wrapped message changes but the copy does not
+		for(int i = 4; i < bb.limit(); i++) bb.put(i, (byte) 'Z');
+		Assert.assertNotEquals(proto, wrapped);
+		Assert.assertEquals(proto, copy);
+		Assert.assertEquals("Hello copy!", copy.myVarChars.get().toString());
+		Assert.assertEquals("ABCD    ", copy.myChars.get().toString());
+	}
+	
+	@Test
+	public void testCopyHandWrittenMessage() {
+		
+		SampleProtoMessage from = new SampleProtoMessage();
+		from.aByte = -23;
+		from.aShort = 3333;
+		from.aInt = -1111111;
+		from.aLong = 2222222222L;
+		from.aChar = 'c';
+		from.aBoolean = true;
+		from.chars.set("ABCDEFGH");
+		from.bytes.set("abcdefgh".getBytes());
+		from.varChars.set("XXXX");
+		from.varBytes.set("YYYY".getBytes());
+		
+		SampleProtoMessage to = new SampleProtoMessage();
+		to.varChars.set("a longer value");
+		to.copyFrom(from);
+		
+		Assert.assertEquals(ProtoTestUtils.write(from), ProtoTestUtils.write(to));
+		Assert.assertThrows(IllegalArgumentException.class, () -> to.copyFrom(new PriceChangeMessage()));
+	}
+	
+	@Test
+	public void testCopyDifferentMessage() {
+		
+		MarketDataMessage other = new MarketDataMessage();
+		Assert.assertThrows(IllegalArgumentException.class, () -> new PriceChangeMessage().copyFrom(other));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoMessage1().copyFrom(other));
+	}
+	
+	@Test
+	public void testCopyItself() {
+		
+		PriceChangeMessage proto = ProtoTestUtils.createPriceChange(5);
+		ByteBuffer before = ProtoTestUtils.write(proto);
+		proto.copyFrom(proto);
+		Assert.assertEquals(before, ProtoTestUtils.write(proto));
+	}
+	
+	@Test
+	public void testCopyPlainField() {
+		
+		// a field that does not implement copyFrom cannot be copied
+		PlainIntField field = new PlainIntField();
+		Assert.assertThrows(UnsupportedOperationException.class, () -> field.copyFrom(new PlainIntField()));
+	}
+}
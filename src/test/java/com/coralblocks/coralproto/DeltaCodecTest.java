@@ -0,0 +1,111 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+
+public class DeltaCodecTest {
+	
+	private static PriceChangeMessage roundTrip(ProtoDeltaEncoder encoder, ProtoDeltaDecoder decoder, PriceChangeMessage proto, ByteBuffer bb) {
+		bb.clear();
+		int length = encoder.write(proto, bb);
+		Assert.assertEquals(length, bb.position());
+		bb.flip();
+		PriceChangeMessage received = (PriceChangeMessage) decoder.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(proto, received);
+		return received;
+	}
+	
+	@Test
+	public void testDeltas() {
+		
+		ProtoDeltaEncoder encoder = new ProtoDeltaEncoder(new PriceChangeMessage(), "symbolId", 1024);
+		ProtoDeltaDecoder decoder = new ProtoDeltaDecoder(new PriceChangeMessage(), "symbolId", 1024);
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		
+		PriceChangeMessage ibm = ProtoTestUtils.createPriceChange(3);
+		ibm.mqReqId.set(2L);
+		ibm.lastTradePrice.set(200.55);
+		PriceChangeMessage aapl = ProtoTestUtils.createPriceChange(3);
+		aapl.symbolId.set(2222L);
+		aapl.symbolDesc.set("AAPL");
+		aapl.mqReqId.set(2L);
+		aapl.lastTradePrice.set(200.55);
+		
+		roundTrip(encoder, decoder, ibm, bb);
+		int fullLength = bb.limit();
+		Assert.assertEquals(ibm.getLength() - 8 + 2 + 1 + 1, fullLength); // all the fields with the key as a varint plus the bitmaps
+		
+		roundTrip(encoder, decoder, aapl, bb);
+		
+		// nothing changed: just the header, the key and the bitmaps
+		roundTrip(encoder, decoder, ibm, bb);
+		Assert.assertEquals(4 + 2 + 1 + 1, bb.limit());
+		
+		// small price changes are sent as small deltas
+		ibm.lastTradePrice.set(200.56);
+		ibm.lastTradeQty.set(90);
+		roundTrip(encoder, decoder, ibm, bb);
+		Assert.assertEquals(4 + 2 + 1 + 1 + 3 + 1, bb.limit()); // 0.01 is 1000000 with the default precision
+		
+		aapl.lastTradePrice.set(150.01);
+		PriceChangeMessage received = roundTrip(encoder, decoder, aapl, bb);
+		Assert.assertEquals(150.01, received.lastTradePrice.get(), 0.0);
+		
+		// an optional field going away and coming back is sent in full
+		ibm.mqReqId.markAsNotPresent();
+		received = roundTrip(encoder, decoder, ibm, bb);
+		Assert.assertFalse(received.mqReqId.isPresent());
+		ibm.mqReqId.set(-7L);
+		received = roundTrip(encoder, decoder, ibm, bb);
+		Assert.assertEquals(-7L, received.mqReqId.get());
+		
+		// a change inside the repeating group sends the whole group
+		ibm.orders.beginIteration();
+		ibm.orders.iterNext();
+		ibm.orders.qty.set(5);
+		received = roundTrip(encoder, decoder, ibm, bb);
+		Assert.assertEquals(ibm.orders, received.orders);
+		
+		ibm.symbolDesc.set("IBM2");
+		roundTrip(encoder, decoder, ibm, bb);
+		
+		// the decoder lost its state
+		decoder.reset();
+		bb.clear();
+		encoder.write(ibm, bb);
+		bb.flip();
+		Assert.assertThrows(IllegalStateException.class, () -> decoder.read(bb));
+		
+		// after both are reset the key goes in full again
+		encoder.reset();
+		roundTrip(encoder, decoder, ibm, bb);
+	}
+	
+	@Test
+	public void testBadKey() {
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoDeltaEncoder(new PriceChangeMessage(), "mqReqId", 1024)); // optional
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoDeltaEncoder(new PriceChangeMessage(), "symbolDesc", 1024));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoDeltaEncoder(new PriceChangeMessage(), "foo", 1024));
+	}
+}
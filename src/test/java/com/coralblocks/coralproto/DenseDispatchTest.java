@@ -0,0 +1,152 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+import com.coralblocks.coralproto.versioning.NewOrderMessage;
+import com.coralblocks.coralproto.versioning.NewOrderMessage_1;
+import com.coralblocks.coralproto.versioning.NewOrderMessage_2;
+
+public class DenseDispatchTest {
+	
+	public static class DenseProtoParser extends ProtoParser {
+		
+		@Override
+		protected Proto[] defineProtoMessages() {
+			return new Proto[] {
+					new ProtoMessage1(),
+					new NewOrderMessage(),
+					new NewOrderMessage_2(),
+					new ProtoMessage2(),
+					new NewOrderMessage_1()
+			};
+		}
+		
+		@Override
+		protected boolean useDenseDispatch() {
+			return true;
+		}
+	}
+	
+	@Test
+	public void testParse() {
+		
+		DenseProtoParser parser = new DenseProtoParser();
+		Assert.assertTrue(parser.hasDenseDispatch());
+		Assert.assertFalse(new ProtoParserTest.ProtoParser().hasDenseDispatch());
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolId.set(2L);
+		p1.symbolDesc.set("IBM");
+		Proto proto = parser.parse(ProtoTestUtils.write(p1));
+		Assert.assertTrue(proto instanceof ProtoMessage1);
+		Assert.assertEquals(p1, proto);
+		
+		ProtoMessage2 p2 = new ProtoMessage2();
+		p2.orderId.set(33L);
+		p2.symbolDesc.markAsNotPresent();
+		p2.isMine.set(true);
+		proto = parser.parse(ProtoTestUtils.write(p2));
+		Assert.assertTrue(proto instanceof ProtoMessage2);
+		Assert.assertEquals(p2, proto);
+	}
+	
+	@Test
+	public void testVersions() {
+		
+		DenseProtoParser parser = new DenseProtoParser();
+		
+		NewOrderMessage nom = new NewOrderMessage();
+		nom.symbol.set("IBM");
+		nom.side.set(true);
+		nom.size.set(200);
+		nom.price.set(123.45);
+		Assert.assertTrue(parser.parse(ProtoTestUtils.write(nom)) instanceof NewOrderMessage);
+		
+		NewOrderMessage_1 nom_1 = new NewOrderMessage_1();
+		nom_1.clientId.set(123);
+		nom_1.symbol.set("AAPL");
+		nom_1.symbolId.set(2);
+		nom_1.side.set(false);
+		nom_1.size.set(300);
+		nom_1.price.set(223.45);
+		Proto proto = parser.parse(ProtoTestUtils.write(nom_1));
+		Assert.assertTrue(proto instanceof NewOrderMessage_1);
+		Assert.assertEquals(123, ((NewOrderMessage_1) proto).clientId.get());
+		
+		NewOrderMessage_2 nom_2 = new NewOrderMessage_2();
+		nom_2.clientId.set(123);
+		nom_2.symbol.set("AAPL");
+		nom_2.symbolId.set(2);
+		nom_2.side.set(false);
+		nom_2.size.set(300);
+		nom_2.price.set(22345);
+		Assert.assertTrue(parser.wrap(ProtoTestUtils.write(nom_2)) instanceof NewOrderMessage_2);
+		
+		Assert.assertEquals(2, parser.getIndex(new NewOrderMessage_2()));
+		Assert.assertEquals(4, parser.getIndex(new NewOrderMessage_1()));
+	}
+	
+	@Test
+	public void testUnknownMessages() {
+		
+		DenseProtoParser parser = new DenseProtoParser();
+		
+		ByteBuffer bb = ByteBuffer.allocate(16);
+		bb.put((byte) 'N').put((byte) 'O').putShort((short) 3); // known type and subtype, unknown version
+		bb.flip();
+		Assert.assertNull(parser.parse(bb));
+		
+		bb.clear();
+		bb.put((byte) 'N').put((byte) 'X').putShort((short) 0);
+		bb.flip();
+		Assert.assertNull(parser.parse(bb));
+		
+		bb.clear();
+		bb.put((byte) 0xFF).put((byte) 0xFE).putShort((short) 0); // negative bytes
+		bb.flip();
+		Assert.assertNull(parser.parse(bb));
+		
+		bb.clear();
+		bb.put((byte) 'P').put((byte) 'A').flip();
+		Assert.assertNull(parser.parse(bb));
+	}
+	
+	@Test
+	public void testProjectionAndFactory() {
+		
+		DenseProtoParser parser = new DenseProtoParser();
+		parser.setProjection(ProtoMessage1.TYPE, ProtoMessage1.SUBTYPE, (short) 0, "symbolId");
+		Assert.assertThrows(IllegalArgumentException.class, () -> parser.setProjection('N', 'O', (short) 3, "symbol"));
+		
+		ProtoParser other = new ProtoParserFactory(parser).newParser();
+		Assert.assertTrue(other.hasDenseDispatch());
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolId.set(2L);
+		p1.symbolDesc.set("IBM");
+		ProtoMessage1 parsed = (ProtoMessage1) other.parse(ProtoTestUtils.write(p1));
+		Assert.assertNotSame(parser.parse(ProtoTestUtils.write(p1)), parsed);
+		Assert.assertEquals(2L, parsed.symbolId.get());
+		Assert.assertFalse(parsed.symbolDesc.isPresent());
+	}
+}
@@ -0,0 +1,146 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.bench.LoopMarketDataMessage;
+import com.coralblocks.coralproto.bench.LoopPriceChangeMessage;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+
+public class DirectAccessGenerationTest {
+	
+	@Test
+	public void testSameWireFormatAsLoop() {
+		
+		PriceChangeMessage direct = ProtoTestUtils.createPriceChange(2);
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		direct.write(bb);
+		bb.flip();
+		
+		Assert.assertEquals(direct.getLength(), bb.remaining());
+		
+		LoopPriceChangeMessage loop = new LoopPriceChangeMessage();
+		Assert.assertEquals('P', (char) bb.get());
+		Assert.assertEquals('C', (char) bb.get());
+		Assert.assertEquals(0, bb.getShort());
+		loop.read(bb);
+		
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(direct.getLength(), loop.getLength());
+		Assert.assertEquals(ProtoTestUtils.ascii(direct, true), ProtoTestUtils.ascii(loop, true));
+		
+		ByteBuffer bb2 = ByteBuffer.allocate(1024);
+		loop.write(bb2);
+		bb.flip();
+		bb2.flip();
+		Assert.assertEquals(bb, bb2);
+	}
+	
+	@Test
+	public void testNestedGroupsRoundTrip() {
+		
+		MarketDataMessage proto = ProtoTestUtils.createMarketData(3);
+		
+		ByteBuffer bb = ByteBuffer.allocate(2048);
+		proto.write(bb);
+		bb.flip();
+		
+		Assert.assertEquals(proto.getLength(), bb.remaining());
+		
+		bb.position(4);
+		MarketDataMessage received = new MarketDataMessage();
+		received.read(bb);
+		
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(proto, received);
+		Assert.assertEquals(ProtoTestUtils.ascii(proto, true), ProtoTestUtils.ascii(received, true));
+		
+		Assert.assertEquals(3, received.bids.getNumberOfElements());
+		received.bids.beginIteration();
+		received.bids.iterNext();
+		received.bids.iterNext();
+		Assert.assertFalse(received.bids.levelId.isPresent());
+		Assert.assertEquals(99L, received.bids.priceLevel.get());
+		received.bids.legs.beginIteration();
+		received.bids.legs.iterNext();
+		Assert.assertEquals("leg1", received.bids.legs.legDesc.get().toString());
+		
+		LoopMarketDataMessage loop = new LoopMarketDataMessage();
+		bb.position(4);
+		loop.read(bb);
+		Assert.assertEquals(ProtoTestUtils.ascii(proto, true), ProtoTestUtils.ascii(loop, true));
+		Assert.assertEquals(proto.getLength(), loop.getLength());
+	}
+	
+	@Test
+	public void testMissingTrailingFieldsLikeLoop() {
+		
+		PriceChangeMessage proto = ProtoTestUtils.createPriceChange(2);
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		proto.write(bb);
+		bb.flip();
+		
+		// cut the message right after the orders repeating group
+		int len = 4 + proto.symbolId.size() + proto.symbolDesc.size() + proto.mqReqId.size() + proto.orders.size();
+		bb.limit(len);
+		bb.position(4);
+		
+		PriceChangeMessage received = new PriceChangeMessage();
+		received.lastTradeQty.set(1L);
+		received.read(bb);
+		
+		Assert.assertEquals(2, received.orders.getNumberOfElements());
+		Assert.assertFalse(received.lastTradeQty.isPresent());
+		Assert.assertFalse(received.lastTradePrice.isPresent());
+	}
+	
+	@Test
+	public void testGeneratedCode() {
+		
+		String text = """
+				TYPE = X
+				SUBTYPE = Y
+				VERSION = 2
+				DIRECT_ACCESS = true
+				
+				id: long
+				desc: varchars(8)!
+				items:
+				    qty: int
+				    price: double!
+		""";
+		
+		String code = new IDL(text).getCode();
+		
+		Assert.assertTrue(code.contains("public void read(ByteBuffer buf) {"));
+		Assert.assertTrue(code.contains("public void write(ByteBuffer buf) {"));
+		Assert.assertTrue(code.contains("public int getLength() {"));
+		Assert.assertTrue(code.contains("buf.putShort(VERSION);"));
+		Assert.assertTrue(code.contains("public void readFrom(ByteBuffer buf) {"));
+		Assert.assertTrue(code.contains("DoubleField price = (DoubleField) fields[1];"));
+		
+		code = new IDL(text.replace("DIRECT_ACCESS = true", "")).getCode();
+		
+		Assert.assertFalse(code.contains("ByteBuffer"));
+	}
+}
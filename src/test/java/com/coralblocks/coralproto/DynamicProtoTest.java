@@ -0,0 +1,353 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.DynamicProto.Group;
+import com.coralblocks.coralproto.EnumTest.CancelReason;
+import com.coralblocks.coralproto.EnumTest.EnumProtoMessage;
+import com.coralblocks.coralproto.EnumTest.ReduceRejectReason;
+import com.coralblocks.coralproto.EnumTest.RejectReason;
+import com.coralblocks.coralproto.EnumTest.Side;
+import com.coralblocks.coralproto.RepeatingGroupsTest.RepeatingGroupProtoMessage;
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class DynamicProtoTest {
+	
+	// the same IDL as RepeatingGroupsTest.RepeatingGroupProtoMessage
+	private static final String GROUPS_IDL = """
+			
+			TYPE = A
+			SUBTYPE = F
+			
+			myBoolean: boolean 
+			myLong: long!
+			
+			bids:
+			   levelId: long!
+			   qty: int
+			   legs:
+			      legId: int
+			      legCode: long!
+			   orders: int
+			
+			""";
+	
+	// the same IDL as ProtoMessage1
+	private static final String MESSAGE1_IDL = """
+			
+			TYPE = P
+			SUBTYPE = A
+			
+			symbolId: long
+			symbolDesc: varchars(128)!
+			""";
+	
+	private static final String ALL_TYPES_IDL = """
+			
+			TYPE = D
+			SUBTYPE = Y
+			VERSION = 2
+			
+			aBoolean: boolean
+			aByte: byte
+			aChar: char!
+			aShort: short
+			anInt: int
+			aLong: long!
+			aFloat: float(3)
+			aDouble: double
+			aVarInt: varint
+			aVarLong: varlong!
+			someChars: chars(4)
+			someVarChars: varchars(16)!
+			someBytes: bytes(2)
+			someVarBytes: varbytes(8)
+			""";
+	
+	private static final String ENUMS_IDL = """
+			
+			TYPE = E
+			SUBTYPE = T
+			
+			myCharEnum:     charEnum(Side) 
+			myShortEnum:    shortEnum(RejectReason)
+			myIntEnum:      intEnum(ReduceRejectReason)
+			myTwoCharEnum:  twoCharEnum(CancelReason)
+			""";
+	
+	private static ByteBuffer skipHeader(ByteBuffer bb) {
+		bb.position(4); // type, subtype and version
+		return bb;
+	}
+	
+	@Test
+	public void testAllTypes() {
+		
+		DynamicProto proto = new DynamicProto(ALL_TYPES_IDL);
+		Assert.assertEquals('D', proto.getType());
+		Assert.assertEquals('Y', proto.getSubtype());
+		Assert.assertEquals(2, proto.getVersion());
+		Assert.assertEquals(14, proto.getNumberOfFields());
+		
+		int aBoolean = proto.getHandle("aBoolean");
+		int aByte = proto.getHandle("aByte");
+		int aChar = proto.getHandle("aChar");
+		int aShort = proto.getHandle("aShort");
+		int anInt = proto.getHandle("anInt");
+		int aLong = proto.getHandle("aLong");
+		int aFloat = proto.getHandle("aFloat");
+		int aDouble = proto.getHandle("aDouble");
+		int aVarInt = proto.getHandle("aVarInt");
+		int aVarLong = proto.getHandle("aVarLong");
+		int someChars = proto.getHandle("someChars");
+		int someVarChars = proto.getHandle("someVarChars");
+		int someBytes = proto.getHandle("someBytes");
+		int someVarBytes = proto.getHandle("someVarBytes");
+		
+		proto.setBoolean(aBoolean, true);
+		proto.setByte(aByte, (byte) -3);
+		proto.setChar(aChar, 'x');
+		proto.setShort(aShort, (short) 1234);
+		proto.setInt(anInt, -98765);
+		proto.markAsNotPresent(aLong);
+		proto.setFloat(aFloat, 1.125f);
+		proto.setDouble(aDouble, 3.14);
+		proto.setInt(aVarInt, 300);
+		proto.setLong(aVarLong, 1L << 40);
+		proto.setChars(someChars, "AB");
+		proto.setChars(someVarChars, "hello");
+		proto.setBytes(someBytes, new byte[] { 1, 2 });
+		proto.setBytes(someVarBytes, new byte[] { 9, 8, 7 });
+		
+		DynamicProto received = new DynamicProto(proto.getSchema());
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		received.read(skipHeader(bb));
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(proto, received);
+		
+		Assert.assertTrue(received.getBoolean(aBoolean));
+		Assert.assertEquals(-3, received.getByte(aByte));
+		Assert.assertTrue(received.isPresent(aChar));
+		Assert.assertEquals('x', received.getChar(aChar));
+		Assert.assertEquals(1234, received.getShort(aShort));
+		Assert.assertEquals(-98765, received.getInt(anInt));
+		Assert.assertFalse(received.isPresent(aLong));
+		Assert.assertEquals(1.125f, received.getFloat(aFloat), 0.0f);
+		Assert.assertEquals(3.14, received.getDouble(aDouble), 0.0);
+		Assert.assertEquals(300, received.getInt(aVarInt));
+		Assert.assertEquals(1L << 40, received.getLong(aVarLong));
+		Assert.assertEquals("AB  ", received.getChars(someChars).toString());
+		Assert.assertEquals("hello", received.getChars(someVarChars).toString());
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2 }), received.getBytes(someBytes));
+		Assert.assertEquals(ByteBuffer.wrap(new byte[] { 9, 8, 7 }), received.getBytes(someVarBytes));
+	}
+	
+	@Test
+	public void testWrongTypeAndName() {
+		
+		DynamicProto proto = new DynamicProto(ALL_TYPES_IDL);
+		int aShort = proto.getHandle("aShort");
+		
+		Assert.assertThrows(IllegalArgumentException.class, () -> proto.getLong(aShort));
+		Assert.assertThrows(IllegalArgumentException.class, () -> proto.setInt(aShort, 1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> proto.getGroup(aShort));
+		Assert.assertThrows(IllegalArgumentException.class, () -> proto.getHandle("noSuchField"));
+	}
+	
+	@Test
+	public void testSameWireAsGenerated() {
+		
+		RepeatingGroupProtoMessage generated = new RepeatingGroupProtoMessage();
+		generated.myBoolean.set(true);
+		generated.myLong.markAsNotPresent();
+		generated.bids.clear();
+		for(int i = 0; i < 3; i++) {
+			generated.bids.nextElement();
+			generated.bids.levelId.set(10 + i);
+			generated.bids.qty.set(100 + i);
+			generated.bids.legs.clear();
+			for(int j = 0; j < i; j++) {
+				generated.bids.legs.nextElement();
+				generated.bids.legs.legId.set(j);
+				generated.bids.legs.legCode.set(j * 1000L);
+			}
+			generated.bids.orders.set(i);
+		}
+		
+		// generated => dynamic
+		
+		DynamicProto dynamic = new DynamicProto(GROUPS_IDL);
+		dynamic.read(skipHeader(ProtoTestUtils.write(generated)));
+		
+		Assert.assertTrue(dynamic.getBoolean(dynamic.getHandle("myBoolean")));
+		Assert.assertFalse(dynamic.isPresent(dynamic.getHandle("myLong")));
+		
+		Group bids = dynamic.getGroup(dynamic.getHandle("bids"));
+		int levelId = bids.getHandle("levelId");
+		int qty = bids.getHandle("qty");
+		int legs = bids.getHandle("legs");
+		int orders = bids.getHandle("orders");
+		Assert.assertEquals(3, bids.getNumberOfElements());
+		Assert.assertEquals(12, bids.getLong(levelId)); // the last element, as after parsing
+		
+		bids.beginIteration();
+		for(int i = 0; bids.iterHasNext(); i++) {
+			bids.iterNext();
+			Assert.assertEquals(10 + i, bids.getLong(levelId));
+			Assert.assertEquals(100 + i, bids.getInt(qty));
+			Assert.assertEquals(i, bids.getInt(orders));
+			Group legsGroup = bids.getGroup(legs);
+			Assert.assertEquals(i, legsGroup.getNumberOfElements());
+			for(int j = 0; j < i; j++) {
+				legsGroup.selectElement(j);
+				Assert.assertEquals(j, legsGroup.getInt(legsGroup.getHandle("legId")));
+				Assert.assertEquals(j * 1000L, legsGroup.getLong(legsGroup.getHandle("legCode")));
+			}
+		}
+		
+		Assert.assertEquals(ProtoTestUtils.write(generated), ProtoTestUtils.write(dynamic));
+		
+		// dynamic => generated
+		
+		bids.clear();
+		bids.nextElement();
+		bids.markAsNotPresent(levelId);
+		bids.setInt(qty, 7);
+		bids.getGroup(legs).clear();
+		bids.getGroup(legs).nextElement();
+		bids.getGroup(legs).setInt(0, 55);
+		bids.getGroup(legs).markAsNotPresent(1);
+		bids.setInt(orders, 8);
+		
+		RepeatingGroupProtoMessage received = new RepeatingGroupProtoMessage();
+		received.read(skipHeader(ProtoTestUtils.write(dynamic)));
+		Assert.assertEquals(1, received.bids.getNumberOfElements());
+		Assert.assertFalse(received.bids.levelId.isPresent());
+		Assert.assertEquals(7, received.bids.qty.get());
+		Assert.assertEquals(55, received.bids.legs.legId.get());
+		Assert.assertFalse(received.bids.legs.legCode.isPresent());
+		Assert.assertEquals(8, received.bids.orders.get());
+		Assert.assertEquals(ProtoTestUtils.write(dynamic), ProtoTestUtils.write(received));
+	}
+	
+	@Test
+	public void testEnumsByCode() {
+		
+		EnumProtoMessage generated = new EnumProtoMessage();
+		generated.myCharEnum.set(Side.SELL);
+		generated.myShortEnum.set(RejectReason.BAD_LOT);
+		generated.myIntEnum.set(ReduceRejectReason.NOT_FOUND);
+		generated.myTwoCharEnum.set(CancelReason.values()[0]);
+		
+		DynamicProto dynamic = new DynamicProto(ENUMS_IDL);
+		dynamic.read(skipHeader(ProtoTestUtils.write(generated)));
+		
+		Assert.assertEquals(Side.SELL.getChar(), dynamic.getChar(0));
+		Assert.assertEquals(RejectReason.BAD_LOT.getShort(), dynamic.getShort(1));
+		Assert.assertEquals(ReduceRejectReason.NOT_FOUND.getInt(), dynamic.getInt(2));
+		Assert.assertEquals(CancelReason.values()[0].getString(), dynamic.getChars(3).toString());
+		Assert.assertEquals(ProtoTestUtils.write(generated), ProtoTestUtils.write(dynamic));
+	}
+	
+	public static class MixedProtoParser extends ProtoParser {
+		
+		private static final ProtoSchema SCHEMA = new IDL(MESSAGE1_IDL).getSchema(); // shared by all the instances
+		
+		@Override
+		protected Proto[] defineProtoMessages() {
+			return new Proto[] { new DynamicProto(SCHEMA), new ProtoMessage2(), new DynamicProto(ALL_TYPES_IDL) };
+		}
+	}
+	
+	@Test
+	public void testProtoParser() {
+		
+		MixedProtoParser parser = new MixedProtoParser();
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolId.set(77L);
+		p1.symbolDesc.set("IBM");
+		Proto parsed = parser.parse(ProtoTestUtils.write(p1));
+		Assert.assertTrue(parsed instanceof DynamicProto);
+		DynamicProto dynamic = (DynamicProto) parsed;
+		Assert.assertEquals(77L, dynamic.getLong(dynamic.getHandle("symbolId")));
+		Assert.assertEquals("IBM", dynamic.getChars(dynamic.getHandle("symbolDesc")).toString());
+		
+		ProtoMessage2 p2 = new ProtoMessage2();
+		p2.orderId.set(5L);
+		p2.symbolDesc.markAsNotPresent();
+		p2.isMine.set(true);
+		Assert.assertEquals(p2, parser.parse(ProtoTestUtils.write(p2)));
+		
+		// each parser of a factory gets its own instances
+		ProtoParser other = new ProtoParserFactory(parser).newParser();
+		Assert.assertNotSame(parsed, other.parse(ProtoTestUtils.write(p1)));
+		Assert.assertEquals(parsed, other.parse(ProtoTestUtils.write(p1)));
+	}
+	
+	@Test
+	public void testGeneratedCodec() {
+		
+		ProtoParser parser = new MixedProtoParser() {
+			@Override
+			protected boolean useGeneratedCodecs() {
+				return true;
+			}
+		};
+		
+		DynamicProto dynamic = (DynamicProto) parser.getProtoMessages()[0];
+		Assert.assertTrue(dynamic.hasCodec());
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolId.set(78L);
+		p1.symbolDesc.markAsNotPresent();
+		Assert.assertSame(dynamic, parser.parse(ProtoTestUtils.write(p1)));
+		Assert.assertEquals(78L, dynamic.getLong(0));
+		Assert.assertFalse(dynamic.isPresent(1));
+		Assert.assertEquals(ProtoTestUtils.write(p1), ProtoTestUtils.write(dynamic));
+	}
+	
+	@Test
+	public void testPresenceBitmap() {
+		
+		String idl = """
+				TYPE = B
+				SUBTYPE = M
+				PRESENCE_BITMAP = true
+				
+				a: int!
+				b: long
+				c: varchars(8)!
+				""";
+		
+		DynamicProto proto = new DynamicProto(idl);
+		proto.markAsNotPresent(0);
+		proto.setLong(1, 9L);
+		proto.setChars(2, "abc");
+		Assert.assertEquals(4 + 1 + 8 + 4 + 3, proto.getLength()); // the bitmap and no presence bytes
+		
+		DynamicProto received = new DynamicProto(idl);
+		received.read(skipHeader(ProtoTestUtils.write(proto)));
+		Assert.assertEquals(proto, received);
+		Assert.assertFalse(received.isPresent(0));
+	}
+}
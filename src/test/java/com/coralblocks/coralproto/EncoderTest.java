@@ -0,0 +1,399 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.EnumTest.CancelReason;
+import com.coralblocks.coralproto.EnumTest.ReduceRejectReason;
+import com.coralblocks.coralproto.EnumTest.RejectReason;
+import com.coralblocks.coralproto.EnumTest.Side;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.field.BooleanField;
+import com.coralblocks.coralproto.field.ByteField;
+import com.coralblocks.coralproto.field.BytesField;
+import com.coralblocks.coralproto.field.CharEnumField;
+import com.coralblocks.coralproto.field.CharField;
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.FloatField;
+import com.coralblocks.coralproto.field.IntEnumField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ShortEnumField;
+import com.coralblocks.coralproto.field.ShortField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TwoCharEnumField;
+import com.coralblocks.coralproto.field.TypeField;
+import com.coralblocks.coralproto.field.VarBytesField;
+import com.coralblocks.coralproto.field.VarCharsField;
+
+public class EncoderTest {
+	
+	public static class AllTypesMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = A
+				SUBTYPE = T
+				ENCODER = true
+				
+				myBoolean: boolean
+				myByte: byte
+				myChar: char
+				myShort: short
+				myInt: int
+				myLong: long!
+				myFloat: float(2)
+				myDouble: double
+				myChars: chars(4)
+				myVarChars: varchars(16)!
+				myBytes: bytes(3)
+				myVarBytes: varbytes(8)
+				myCharEnum: charEnum(Side)
+				myShortEnum: shortEnum(RejectReason)
+				myIntEnum: intEnum(ReduceRejectReason)
+				myTwoCharEnum: twoCharEnum(CancelReason)!
+				
+		""";
+		
+		public static void main(String[] args) throws IOException {
+			IDL idl = new IDL(IDL_CODE, IDL.INDENT + IDL.INDENT);
+			String filePath = "src/test/java/com/coralblocks/coralproto/" + EncoderTest.class.getSimpleName() + ".java";
+			String sourceCode = idl.getCode();
+			IDL.replaceAutoGeneratedCode(filePath, sourceCode);
+		}
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'A';
+        public static final char SUBTYPE = 'T';
+
+        public static final int MY_BOOLEAN_OFFSET = 4;
+        public static final int MY_BYTE_OFFSET = 5;
+        public static final int MY_CHAR_OFFSET = 6;
+        public static final int MY_SHORT_OFFSET = 7;
+        public static final int MY_INT_OFFSET = 9;
+        public static final int MY_LONG_OFFSET = 13;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final BooleanField myBoolean = new BooleanField(this);
+
+        public final ByteField myByte = new ByteField(this);
+
+        public final CharField myChar = new CharField(this);
+
+        public final ShortField myShort = new ShortField(this);
+
+        public final IntField myInt = new IntField(this);
+
+        public final LongField myLong = new LongField(this, true);
+
+        public final FloatField myFloat = new FloatField(this, 2);
+
+        public final DoubleField myDouble = new DoubleField(this);
+
+        public final CharsField myChars = new CharsField(this, 4);
+
+        public final VarCharsField myVarChars = new VarCharsField(this, 16, true);
+
+        public final BytesField myBytes = new BytesField(this, 3);
+
+        public final VarBytesField myVarBytes = new VarBytesField(this, 8);
+
+        public final CharEnumField<Side> myCharEnum = new CharEnumField<Side>(this, Side.ALL);
+
+        public final ShortEnumField<RejectReason> myShortEnum = new ShortEnumField<RejectReason>(this, RejectReason.ALL);
+
+        public final IntEnumField<ReduceRejectReason> myIntEnum = new IntEnumField<ReduceRejectReason>(this, ReduceRejectReason.ALL);
+
+        public final TwoCharEnumField<CancelReason> myTwoCharEnum = new TwoCharEnumField<CancelReason>(this, CancelReason.ALL, true);
+
+        public static final class Encoder extends AbstractProtoEncoder {
+
+            public Encoder() {
+                super(TYPE, SUBTYPE, (short) 0, 16);
+            }
+
+            public Encoder wrap(ByteBuffer buf) {
+                begin(buf);
+                return this;
+            }
+
+            public Encoder myBoolean(boolean value) {
+                next(0);
+                putBoolean(value);
+                return this;
+            }
+
+            public Encoder myByte(byte value) {
+                next(1);
+                putByte(value);
+                return this;
+            }
+
+            public Encoder myChar(char value) {
+                next(2);
+                putChar(value);
+                return this;
+            }
+
+            public Encoder myShort(short value) {
+                next(3);
+                putShort(value);
+                return this;
+            }
+
+            public Encoder myInt(int value) {
+                next(4);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder myLong(long value) {
+                next(5);
+                putPresent(true);
+                putLong(value);
+                return this;
+            }
+
+            public Encoder myLongNotPresent() {
+                next(5);
+                putPresent(false);
+                return this;
+            }
+
+            public Encoder myFloat(float value) {
+                next(6);
+                putFloat(value, 2);
+                return this;
+            }
+
+            public Encoder myDouble(double value) {
+                next(7);
+                putDouble(value);
+                return this;
+            }
+
+            public Encoder myChars(CharSequence value) {
+                next(8);
+                putChars(value, 4);
+                return this;
+            }
+
+            public Encoder myVarChars(CharSequence value) {
+                next(9);
+                putPresent(true);
+                putVarChars(value, 16);
+                return this;
+            }
+
+            public Encoder myVarCharsNotPresent() {
+                next(9);
+                putPresent(false);
+                return this;
+            }
+
+            public Encoder myBytes(byte[] value) {
+                next(10);
+                putBytes(value, 3);
+                return this;
+            }
+
+            public Encoder myVarBytes(byte[] value) {
+                next(11);
+                putVarBytes(value, 8);
+                return this;
+            }
+
+            public Encoder myCharEnum(Side value) {
+                next(12);
+                putCharEnum(value);
+                return this;
+            }
+
+            public Encoder myShortEnum(RejectReason value) {
+                next(13);
+                putShortEnum(value);
+                return this;
+            }
+
+            public Encoder myIntEnum(ReduceRejectReason value) {
+                next(14);
+                putIntEnum(value);
+                return this;
+            }
+
+            public Encoder myTwoCharEnum(CancelReason value) {
+                next(15);
+                putPresent(true);
+                putTwoCharEnum(value);
+                return this;
+            }
+
+            public Encoder myTwoCharEnumNotPresent() {
+                next(15);
+                putPresent(false);
+                return this;
+            }
+
+        }
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	@Test
+	public void testAllTypes() {
+		
+		AllTypesMessage proto = new AllTypesMessage();
+		proto.myBoolean.set(true);
+		proto.myByte.set((byte) 7);
+		proto.myChar.set('x');
+		proto.myShort.set((short) 300);
+		proto.myInt.set(70000);
+		proto.myLong.markAsNotPresent();
+		proto.myFloat.set(1.25f);
+		proto.myDouble.set(3.14159);
+		proto.myChars.set("AB");
+		proto.myVarChars.set("varchars");
+		proto.myBytes.set(new byte[] { 1, 2, 3 });
+		proto.myVarBytes.set(new byte[] { 4, 5 });
+		proto.myCharEnum.set(Side.SELL);
+		proto.myShortEnum.set(RejectReason.BAD_LOT);
+		proto.myIntEnum.set(ReduceRejectReason.NOT_FOUND);
+		proto.myTwoCharEnum.set(CancelReason.PURGED);
+		
+		ByteBuffer expected = ByteBuffer.allocate(256);
+		proto.write(expected);
+		expected.flip();
+		
+		ByteBuffer bb = ByteBuffer.allocate(256);
+		bb.put((byte) 0); // encoder starts at the current position
+		
+		AllTypesMessage.Encoder encoder = new AllTypesMessage.Encoder();
+		encoder.wrap(bb)
+			.myBoolean(true)
+			.myByte((byte) 7)
+			.myChar('x')
+			.myShort((short) 300)
+			.myInt(70000)
+			.myLongNotPresent()
+			.myFloat(1.25f)
+			.myDouble(3.14159)
+			.myChars("AB")
+			.myVarChars("varchars")
+			.myBytes(new byte[] { 1, 2, 3 })
+			.myVarBytes(new byte[] { 4, 5 })
+			.myCharEnum(Side.SELL)
+			.myShortEnum(RejectReason.BAD_LOT)
+			.myIntEnum(ReduceRejectReason.NOT_FOUND)
+			.myTwoCharEnum(CancelReason.PURGED);
+		
+		Assert.assertEquals(proto.getLength(), encoder.finish());
+		
+		bb.flip();
+		bb.position(1);
+		Assert.assertEquals(expected, bb);
+	}
+	
+	@Test
+	public void testNestedGroups() {
+		
+		PriceChangeMessage proto = new PriceChangeMessage();
+		proto.symbolId.set(1111L);
+		proto.symbolDesc.set("IBM");
+		proto.mqReqId.set(22L);
+		proto.orders.clear();
+		proto.orders.nextElement();
+		proto.orders.side.set(true);
+		proto.orders.levelId.set(11111111L);
+		proto.orders.priceLevel.set(200.15);
+		proto.orders.qty.set(1000);
+		proto.orders.legs.clear();
+		proto.orders.legs.nextElement();
+		proto.orders.legs.legId.set(1);
+		proto.orders.legs.legDesc.markAsNotPresent();
+		proto.orders.legs.nextElement();
+		proto.orders.legs.legId.set(2);
+		proto.orders.legs.legDesc.set("myLeg2");
+		proto.orders.orderId.set(1234L);
+		proto.orders.nextElement();
+		proto.orders.side.set(false);
+		proto.orders.levelId.markAsNotPresent();
+		proto.orders.priceLevel.set(200.75);
+		proto.orders.qty.set(800);
+		proto.orders.legs.clear();
+		proto.orders.orderId.set(5678L);
+		proto.lastTradeQty.set(100);
+		proto.lastTradePrice.markAsNotPresent();
+		
+		ByteBuffer expected = ByteBuffer.allocate(1024);
+		proto.write(expected);
+		expected.flip();
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		PriceChangeMessage.Encoder encoder = new PriceChangeMessage.Encoder();
+		encoder.wrap(bb).symbolId(1111L).symbolDesc("IBM").mqReqId(22L);
+		PriceChangeMessage.Encoder.OrdersEncoder orders = encoder.orders(2);
+		orders.side(true).levelId(11111111L).priceLevel(200.15).qty(1000);
+		orders.legs(2).legId(1).legDescNotPresent().legId(2).legDesc("myLeg2");
+		orders.orderId(1234L);
+		orders.side(false).levelIdNotPresent().priceLevel(200.75).qty(800).legs(0);
+		orders.orderId(5678L);
+		encoder.lastTradeQty(100).lastTradePriceNotPresent();
+		
+		Assert.assertEquals(proto.getLength(), encoder.finish());
+		bb.flip();
+		Assert.assertEquals(expected, bb);
+		
+		PriceChangeMessage received = new PriceChangeMessage();
+		bb.position(4);
+		received.read(bb);
+		Assert.assertEquals(proto, received);
+	}
+	
+	@Test
+	public void testWrongOrder() {
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		PriceChangeMessage.Encoder encoder = new PriceChangeMessage.Encoder();
+		
+		encoder.wrap(bb).symbolId(1111L);
+		Assert.assertThrows(IllegalStateException.class, () -> encoder.mqReqId(22L)); // skipped symbolDesc
+		
+		encoder.wrap(bb).symbolId(1111L).symbolDesc("IBM").mqReqIdNotPresent();
+		PriceChangeMessage.Encoder.OrdersEncoder orders = encoder.orders(1);
+		orders.side(true).levelIdNotPresent().priceLevel(200.15).qty(1000).legs(0);
+		orders.orderId(1L);
+		Assert.assertThrows(IllegalStateException.class, () -> orders.side(false)); // more elements than declared
+		
+		encoder.wrap(bb).symbolId(1111L).symbolDesc("IBM").mqReqIdNotPresent();
+		encoder.orders(1).side(true).levelIdNotPresent();
+		Assert.assertThrows(IllegalStateException.class, () -> encoder.lastTradeQty(100)); // group element not complete
+		
+		encoder.wrap(bb).symbolId(1111L).symbolDesc("IBM");
+		Assert.assertThrows(IllegalStateException.class, () -> encoder.finish()); // missing fields
+	}
+}
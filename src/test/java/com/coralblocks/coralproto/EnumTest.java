@@ -67,6 +67,12 @@ public class EnumTest {
         public static final char TYPE = 'E';
         public static final char SUBTYPE = 'T';
 
+        public static final int MY_CHAR_ENUM_OFFSET = 4;
+        public static final int MY_SHORT_ENUM_OFFSET = 5;
+        public static final int MY_INT_ENUM_OFFSET = 7;
+        public static final int MY_TWO_CHAR_ENUM_OFFSET = 11;
+        public static final int FIXED_LENGTH = 13;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -64,6 +64,14 @@ public class FieldsTest {
         public static final char TYPE = 'A';
         public static final char SUBTYPE = 'F';
 
+        public static final int MY_BOOLEAN_OFFSET = 4;
+        public static final int MY_BYTE_OFFSET = 5;
+        public static final int MY_CHAR_OFFSET = 6;
+        public static final int MY_INT_OFFSET = 7;
+        public static final int MY_LONG_OFFSET = 11;
+        public static final int MY_SHORT_OFFSET = 19;
+        public static final int FIXED_LENGTH = 21;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
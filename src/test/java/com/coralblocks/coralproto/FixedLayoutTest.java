@@ -0,0 +1,315 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.FieldsTest.AllFieldsProtoMessage;
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.GroupField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.RepeatingGroupField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TypeField;
+import com.coralblocks.coralproto.field.VarCharsField;
+
+public class FixedLayoutTest {
+	
+	public static class FixedPrefixMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = F
+				SUBTYPE = L
+				DIRECT_ACCESS = true
+				
+				id: long
+				code: chars(4)
+				qty: int
+				levels:
+				   price: double
+				   size: int
+				desc: varchars(32)
+				
+		""";
+		
+		public static void main(String[] args) throws IOException {
+			IDL idl = new IDL(IDL_CODE, IDL.INDENT + IDL.INDENT);
+			String filePath = "src/test/java/com/coralblocks/coralproto/" + FixedLayoutTest.class.getSimpleName() + ".java";
+			String sourceCode = idl.getCode();
+			IDL.replaceAutoGeneratedCode(filePath, sourceCode);
+		}
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'F';
+        public static final char SUBTYPE = 'L';
+
+        public static final int ID_OFFSET = 4;
+        public static final int CODE_OFFSET = 12;
+        public static final int QTY_OFFSET = 16;
+        public static final int LEVELS_OFFSET = 20;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final LongField id = new LongField(this);
+
+        public final CharsField code = new CharsField(this, 4);
+
+        public final IntField qty = new IntField(this);
+
+        public static class LevelsRepeatingGroup extends RepeatingGroupField {
+
+            public DoubleField price;
+
+            public IntField size;
+
+            public LevelsRepeatingGroup(AbstractProto proto) {
+                this(proto, new DoubleField(), new IntField());
+            }
+
+            public LevelsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.price = (DoubleField) groupField.internalArray()[0];
+                this.size = (IntField) groupField.internalArray()[1];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.price = (DoubleField) groupField.internalArray()[0];
+                    this.size = (IntField) groupField.internalArray()[1];
+                }
+                return groupField;
+            } 
+
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                short n = buf.getShort();
+                if (n < 0) {
+                    throw new IllegalArgumentException("Negative repeating group element count: " + n);
+                }
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    price.readFrom(buf);
+                    size.readFrom(buf);
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                buf.putShort((short) n);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    DoubleField price = (DoubleField) fields[0];
+                    IntField size = (IntField) fields[1];
+                    price.writeTo(buf);
+                    size.writeTo(buf);
+                }
+            }
+
+            @Override
+            public int size() {
+                return 2 + getNumberOfElements() * 12;
+            }
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new LevelsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public final LevelsRepeatingGroup levels = new LevelsRepeatingGroup(this);
+
+        public final VarCharsField desc = new VarCharsField(this, 32);
+
+        @Override
+        public int getLength() {
+            int len = LEVELS_OFFSET; // type + subtype + version + fixed-size fields
+            len += levels.size();
+            len += desc.size();
+            return len;
+        }
+
+        @Override
+        public void read(ByteBuffer buf) {
+            if (getProjection() != ALL_FIELDS) {
+                super.read(buf); // skips the fields outside the projection
+                return;
+            }
+            if (buf.hasRemaining()) {
+                id.readFrom(buf);
+            } else {
+                id.reset();
+            }
+            if (buf.hasRemaining()) {
+                code.readFrom(buf);
+            } else {
+                code.reset();
+            }
+            if (buf.hasRemaining()) {
+                qty.readFrom(buf);
+            } else {
+                qty.reset();
+            }
+            if (buf.hasRemaining()) {
+                levels.readFrom(buf);
+            } else {
+                levels.reset();
+            }
+            if (buf.hasRemaining()) {
+                desc.readFrom(buf);
+            } else {
+                desc.reset();
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buf) {
+            buf.put((byte) TYPE);
+            buf.put((byte) SUBTYPE);
+            buf.putShort((short) 0);
+            id.writeTo(buf);
+            code.writeTo(buf);
+            qty.writeTo(buf);
+            levels.writeTo(buf);
+            desc.writeTo(buf);
+        }
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	@Test
+	public void testFixedLengthMessage() {
+		
+		AllFieldsProtoMessage proto = new AllFieldsProtoMessage();
+		proto.myBoolean.set(true);
+		proto.myByte.set(33);
+		proto.myChar.set('X');
+		proto.myInt.set(1111);
+		proto.myLong.set(222222L);
+		proto.myShort.set(3300);
+		
+		Assert.assertTrue(proto.isFixedLength());
+		Assert.assertEquals(AllFieldsProtoMessage.FIXED_LENGTH, proto.getLength());
+		Assert.assertEquals(AllFieldsProtoMessage.MY_INT_OFFSET, proto.getOffset(proto.myInt));
+		Assert.assertEquals(AllFieldsProtoMessage.MY_LONG_OFFSET, proto.getOffset(proto.myLong));
+		Assert.assertEquals(AllFieldsProtoMessage.MY_SHORT_OFFSET, proto.getOffset(proto.myShort));
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		proto.write(bb);
+		Assert.assertEquals(AllFieldsProtoMessage.FIXED_LENGTH, bb.position());
+		
+		// random access without parsing
+		Assert.assertEquals(222222L, bb.getLong(AllFieldsProtoMessage.MY_LONG_OFFSET));
+		Assert.assertEquals(3300, bb.getShort(AllFieldsProtoMessage.MY_SHORT_OFFSET));
+	}
+	
+	@Test
+	public void testFixedPrefix() {
+		
+		FixedPrefixMessage proto = new FixedPrefixMessage();
+		proto.id.set(77L);
+		proto.code.set("ABCD");
+		proto.qty.set(500);
+		proto.levels.clear();
+		for(int i = 0; i < 3; i++) {
+			proto.levels.nextElement();
+			proto.levels.price.set(10.5 + i);
+			proto.levels.size.set(i);
+		}
+		proto.desc.set("hello");
+		
+		Assert.assertFalse(proto.isFixedLength());
+		Assert.assertEquals(4, FixedPrefixMessage.ID_OFFSET);
+		Assert.assertEquals(12, FixedPrefixMessage.CODE_OFFSET);
+		Assert.assertEquals(16, FixedPrefixMessage.QTY_OFFSET);
+		Assert.assertEquals(20, FixedPrefixMessage.LEVELS_OFFSET);
+		Assert.assertEquals(FixedPrefixMessage.QTY_OFFSET, proto.getOffset(proto.qty));
+		Assert.assertEquals(FixedPrefixMessage.LEVELS_OFFSET, proto.getOffset(proto.levels));
+		Assert.assertEquals(-1, proto.getOffset(proto.desc));
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		proto.write(bb);
+		Assert.assertEquals(bb.position(), proto.getLength());
+		Assert.assertEquals(2 + 3 * 12, proto.levels.size());
+		Assert.assertEquals(500, bb.getInt(FixedPrefixMessage.QTY_OFFSET));
+		
+		bb.flip();
+		bb.position(4);
+		FixedPrefixMessage received = new FixedPrefixMessage();
+		received.read(bb);
+		Assert.assertEquals(proto, received);
+	}
+	
+	@Test
+	public void testFixedSizeGroupElements() {
+		
+		RepeatingGroupField fixed = new RepeatingGroupField(new IntField(), new LongField());
+		RepeatingGroupField variable = new RepeatingGroupField(new IntField(), new VarCharsField(16));
+		RepeatingGroupField optional = new RepeatingGroupField(new IntField(), new LongField(true));
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		
+		for(int i = 0; i < 5; i++) {
+			ProtoField[] fields = fixed.nextElement().internalArray();
+			((IntField) fields[0]).set(i);
+			((LongField) fields[1]).set(i);
+			fields = variable.nextElement().internalArray();
+			((IntField) fields[0]).set(i);
+			((VarCharsField) fields[1]).set("x" + i);
+			fields = optional.nextElement().internalArray();
+			((IntField) fields[0]).set(i);
+			if (i % 2 == 0) ((LongField) fields[1]).set(i); else fields[1].markAsNotPresent();
+		}
+		
+		for(RepeatingGroupField group : new RepeatingGroupField[] { fixed, variable, optional }) {
+			bb.clear();
+			group.writeTo(bb);
+			Assert.assertEquals(bb.position(), group.size());
+		}
+		
+		Assert.assertEquals(12, new GroupField(new IntField(), new LongField()).fixedSize());
+		Assert.assertEquals(-1, new GroupField(true, new IntField(), new LongField()).fixedSize());
+		Assert.assertEquals(-1, new GroupField(new IntField(), new LongField(true)).fixedSize());
+		Assert.assertEquals(8, new CharsField(8).fixedSize());
+		Assert.assertEquals(8, new DoubleField().fixedSize());
+		
+		// a field that does not know its size does not get a fixed layout
+		Assert.assertEquals(-1, new PlainIntField().fixedSize());
+	}
+}
@@ -62,6 +62,10 @@ public class FloatDoubleTest {
         public static final char TYPE = 'F';
         public static final char SUBTYPE = 'D';
 
+        public static final int MY_FLOAT1_OFFSET = 4;
+        public static final int MY_FLOAT2_OFFSET = 8;
+        public static final int MY_FLOAT3_OFFSET = 12;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -0,0 +1,296 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.CharsAndBytesTest.CharsAndBytesProtoMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.SampleProtoMessage;
+
+public class FlyweightTest {
+	
+	private static CharsAndBytesProtoMessage createCharsAndBytes() {
+		CharsAndBytesProtoMessage proto = new CharsAndBytesProtoMessage();
+		proto.myChars.set("ABCD");
+		proto.myVarChars.set("Hello flyweight!");
+		proto.myBytes.set("12345678".getBytes());
+		proto.myVarBytes.set("xyz".getBytes());
+		return proto;
+	}
+	
+	@Test
+	public void testWrapSameAsRead() {
+		
+		ByteBuffer bb = ProtoTestUtils.write(createCharsAndBytes());
+		int limit = bb.limit();
+		
+		bb.position(4); // skip type, subtype and version
+		CharsAndBytesProtoMessage read = new CharsAndBytesProtoMessage();
+		read.read(bb);
+		
+		bb.position(4);
+		CharsAndBytesProtoMessage wrapped = new CharsAndBytesProtoMessage();
+		wrapped.wrap(bb);
+		
+		Assert.assertEquals(limit, bb.position());
+		Assert.assertEquals(limit, bb.limit());
+		
+		Assert.assertEquals(read, wrapped);
+		Assert.assertEquals(read.hashCode(), wrapped.hashCode());
+		Assert.assertEquals("ABCD    ", wrapped.myChars.get().toString());
+		Assert.assertEquals("Hello flyweight!", wrapped.myVarChars.get().toString());
+		Assert.assertEquals('f', wrapped.myVarChars.get().charAt(6));
+		Assert.assertEquals(3, wrapped.myVarBytes.get().remaining());
+		
+		ByteBuffer bb2 = ProtoTestUtils.write(wrapped);
+		bb.position(0);
+		Assert.assertEquals(bb, bb2);
+	}
+	
+	@Test
+	public void testViewOverSourceBuffer() {
+		
+		ByteBuffer bb = ProtoTestUtils.write(createCharsAndBytes());
+		
+		bb.position(4);
+		CharsAndBytesProtoMessage wrapped = new CharsAndBytesProtoMessage();
+		wrapped.wrap(bb);
+		
+		CharSequence varChars = wrapped.myVarChars.get();
+		int index = 4 + 8 + 4; // type/subtype/version + chars(8) + length of varchars
+		Assert.assertEquals('H', varChars.charAt(0));
+		bb.put(index, (byte) 'J');
+		Assert.assertEquals('J', varChars.charAt(0)); // not a copy
+		
+		// setting a value goes back to the field's own storage and does not touch the source buffer
+		wrapped.myVarChars.set("Other");
+		wrapped.myChars.set("WXYZ");
+		wrapped.myBytes.set("87654321".getBytes());
+		Assert.assertEquals('J', bb.get(index));
+		Assert.assertEquals('A', bb.get(4));
+		Assert.assertEquals("Other", wrapped.myVarChars.get().toString());
+		Assert.assertEquals("WXYZ    ", wrapped.myChars.get().toString());
+		Assert.assertEquals("87654321", new String(toArray(wrapped.myBytes.get())));
+	}
+	
+	private static byte[] toArray(ByteBuffer buf) {
+		byte[] array = new byte[buf.remaining()];
+		buf.get(array);
+		return array;
+	}
+	
+	@Test
+	public void testParserWrapWithGroups() {
+		
+		PriceChangeMessage proto = new PriceChangeMessage();
+		proto.symbolId.set(1111L);
+		proto.symbolDesc.set("IBM");
+		proto.mqReqId.markAsNotPresent();
+		proto.orders.clear();
+		proto.orders.nextElement();
+		proto.orders.side.set(true);
+		proto.orders.levelId.set(11111111L);
+		proto.orders.priceLevel.set(200.15);
+		proto.orders.qty.set(1000);
+		proto.orders.legs.clear();
+		proto.orders.legs.nextElement();
+		proto.orders.legs.legId.set(1);
+		proto.orders.legs.legDesc.markAsNotPresent();
+		proto.orders.legs.nextElement();
+		proto.orders.legs.legId.set(2);
+		proto.orders.legs.legDesc.set("myLeg2  ");
+		proto.orders.orderId.set(1234L);
+		proto.lastTradeQty.set(100);
+		proto.lastTradePrice.markAsNotPresent();
+		
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		
+		ProtoParser parser = new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { new PriceChangeMessage() };
+			}
+		};
+		
+		Proto p = parser.wrap(bb);
+		Assert.assertTrue(p instanceof PriceChangeMessage);
+		Assert.assertFalse(bb.hasRemaining());
+		
+		PriceChangeMessage wrapped = (PriceChangeMessage) p;
+		Assert.assertEquals(proto, wrapped);
+		Assert.assertEquals("IBM", wrapped.symbolDesc.get().toString());
+		
+		wrapped.orders.beginIteration();
+		Assert.assertTrue(wrapped.orders.iterHasNext());
+		wrapped.orders.iterNext();
+		wrapped.orders.legs.beginIteration();
+		wrapped.orders.legs.iterNext();
+		wrapped.orders.legs.iterNext();
+		Assert.assertEquals("myLeg2  ", wrapped.orders.legs.legDesc.get().toString());
+		
+		bb.position(0);
+		Assert.assertEquals(bb, ProtoTestUtils.write(wrapped));
+	}
+	
+	public static class HandWrittenMessage extends AbstractProto {
+		
+		public long value;
+		
+		@Override
+		public char getType() {
+			return 'H';
+		}
+		
+		@Override
+		public char getSubtype() {
+			return 'W';
+		}
+		
+		@Override
+		public short getVersion() {
+			return 0;
+		}
+		
+		@Override
+		public int getLength() {
+			return 4 + 8;
+		}
+		
+		@Override
+		public void read(ByteBuffer buf) {
+			value = buf.getLong();
+		}
+		
+		@Override
+		public void write(ByteBuffer buf) {
+			buf.put((byte) getType());
+			buf.put((byte) getSubtype());
+			buf.putShort(getVersion());
+			buf.putLong(value);
+		}
+	}
+	
+	@Test
+	public void testWrapHandWrittenMessage() {
+		
+		SampleProtoMessage proto = new SampleProtoMessage();
+		proto.aByte = -23;
+		proto.aShort = 3333;
+		proto.aInt = -1111111;
+		proto.aLong = 2222222222L;
+		proto.aChar = 'c';
+		proto.aBoolean = true;
+		proto.chars.set("ABCDEFGH");
+		proto.bytes.set("abcdefgh".getBytes());
+		proto.varChars.set("XXXX");
+		proto.varBytes.set("YYYY".getBytes());
+		
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		
+		ProtoParser parser = new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { new SampleProtoMessage(), new HandWrittenMessage() };
+			}
+		};
+		
+		Proto p = parser.wrap(bb);
+		Assert.assertTrue(p instanceof SampleProtoMessage);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(2222222222L, ((SampleProtoMessage) p).aLong);
+		Assert.assertEquals("XXXX", ((SampleProtoMessage) p).varChars.toString());
+		
+		bb.position(0);
+		Assert.assertEquals(bb, ProtoTestUtils.write(p));
+		
+		// a hand-written message that only has its own read (the fallback of AbstractProto.wrap)
+		HandWrittenMessage handWritten = new HandWrittenMessage();
+		handWritten.value = 77L;
+		bb = ProtoTestUtils.write(handWritten);
+		
+		p = parser.wrap(bb);
+		Assert.assertTrue(p instanceof HandWrittenMessage);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(77L, ((HandWrittenMessage) p).value);
+	}
+	
+	@Test
+	public void testDefaultWrap() {
+		
+		PlainIntField field = new PlainIntField();
+		field.value = 42;
+		
+		ByteBuffer bb = ByteBuffer.allocate(16);
+		field.writeTo(bb);
+		bb.flip();
+		
+		PlainIntField wrapped = new PlainIntField();
+		wrapped.wrapFrom(bb);
+		Assert.assertEquals(42, wrapped.value);
+		Assert.assertFalse(bb.hasRemaining());
+		
+		// a message written against the original interface wraps by reading
+		HandWrittenMessage handWritten = new HandWrittenMessage();
+		handWritten.value = 88L;
+		ByteBuffer buf = ByteBuffer.allocate(64);
+		handWritten.write(buf);
+		buf.flip().position(4);
+		
+		long[] read = new long[1];
+		Proto plain = new Proto() {
+			
+			@Override
+			public char getType() {
+				return 'H';
+			}
+			
+			@Override
+			public char getSubtype() {
+				return 'W';
+			}
+			
+			@Override
+			public short getVersion() {
+				return 0;
+			}
+			
+			@Override
+			public void read(ByteBuffer buf) {
+				read[0] = buf.getLong();
+			}
+			
+			@Override
+			public void write(ByteBuffer buf) {
+			}
+			
+			@Override
+			public void writeAscii(boolean shortVersion, ByteBuffer buf) {
+			}
+			
+			@Override
+			public int getLength() {
+				return 12;
+			}
+		};
+		plain.wrap(buf);
+		Assert.assertEquals(88L, read[0]);
+		Assert.assertFalse(buf.hasRemaining());
+	}
+}
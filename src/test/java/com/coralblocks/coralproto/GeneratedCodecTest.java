@@ -0,0 +1,266 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.PresenceBitmapTest.BitmapMessage;
+import com.coralblocks.coralproto.RepeatingGroupsTest.RepeatingGroupProtoMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.SampleProtoMessage;
+import com.coralblocks.coralproto.field.BooleanField;
+import com.coralblocks.coralproto.field.BytesField;
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.GroupField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ShortField;
+import com.coralblocks.coralproto.field.VarCharsField;
+import com.coralblocks.coralproto.field.VarIntField;
+
+public class GeneratedCodecTest {
+	
+	/**
+	 * A message built by hand, without the IDL.
+	 */
+	public static class HandBuiltMessage extends AbstractProto {
+		
+		public final IntField id = new IntField(this);
+		public final LongField timestamp = new LongField(this, true);
+		public final CharsField symbol = new CharsField(this, 4);
+		public final VarCharsField desc = new VarCharsField(this, 32, true);
+		public final DoubleField price = new DoubleField(this);
+		public final BooleanField flag = new BooleanField(this, true);
+		public final VarIntField qty = new VarIntField(this);
+		public final BytesField tag = new BytesField(this, 2, true);
+		public final IntField custom = new IntField(this) { }; // an anonymous subclass
+		public final IntField pairA = new IntField();
+		public final ShortField pairB = new ShortField(true);
+		public final GroupField pair = new GroupField(this, pairA, pairB);
+		
+		public HandBuiltMessage() {
+			setType('H');
+			setSubtype('B');
+		}
+	}
+	
+	public static class CodecProtoParser extends ProtoParser {
+		
+		@Override
+		protected Proto[] defineProtoMessages() {
+			return new Proto[] {
+					new HandBuiltMessage(),
+					new RepeatingGroupProtoMessage(),
+					new PriceChangeMessage(),
+					new BitmapMessage(),
+					new SampleProtoMessage()
+			};
+		}
+		
+		@Override
+		protected boolean useGeneratedCodecs() {
+			return true;
+		}
+	}
+	
+	public static class LoopProtoParser extends CodecProtoParser {
+		
+		@Override
+		protected boolean useGeneratedCodecs() {
+			return false;
+		}
+	}
+	
+	private static HandBuiltMessage createHandBuilt(boolean optionals) {
+		HandBuiltMessage proto = new HandBuiltMessage();
+		proto.id.set(42);
+		if (optionals) proto.timestamp.set(123456789L); else proto.timestamp.markAsNotPresent();
+		proto.symbol.set("IBM");
+		if (optionals) proto.desc.set("International"); else proto.desc.markAsNotPresent();
+		proto.price.set(123.45);
+		if (optionals) proto.flag.set(true); else proto.flag.markAsNotPresent();
+		proto.qty.set(300_000);
+		if (optionals) proto.tag.set("XY".getBytes()); else proto.tag.markAsNotPresent();
+		proto.custom.set(-7);
+		proto.pairA.set(1);
+		if (optionals) proto.pairB.set((short) 2); else proto.pairB.markAsNotPresent();
+		return proto;
+	}
+	
+	private static RepeatingGroupProtoMessage createGroups() {
+		RepeatingGroupProtoMessage proto = new RepeatingGroupProtoMessage();
+		proto.myBoolean.set(true);
+		proto.myLong.markAsNotPresent();
+		proto.bids.clear();
+		for(int i = 0; i < 3; i++) {
+			proto.bids.nextElement();
+			proto.bids.levelId.set(i);
+			proto.bids.qty.set(100 + i);
+			proto.bids.legs.clear();
+			for(int j = 0; j < i; j++) {
+				proto.bids.legs.nextElement();
+				proto.bids.legs.legId.set(j);
+				proto.bids.legs.legCode.markAsNotPresent();
+			}
+			proto.bids.orders.set(i * 2);
+		}
+		return proto;
+	}
+	
+	@Test
+	public void testCodecsAreInstalled() {
+		
+		CodecProtoParser parser = new CodecProtoParser();
+		Assert.assertTrue(parser.hasGeneratedCodecs());
+		Assert.assertFalse(new LoopProtoParser().hasGeneratedCodecs());
+		
+		Proto[] protos = parser.getProtoMessages();
+		Assert.assertTrue(((AbstractProto) protos[0]).hasCodec());
+		Assert.assertTrue(((AbstractProto) protos[1]).hasCodec());
+		Assert.assertFalse(((AbstractProto) protos[2]).hasCodec()); // direct access
+		Assert.assertFalse(((AbstractProto) protos[3]).hasCodec()); // presence bitmap
+		Assert.assertFalse(((AbstractProto) protos[4]).hasCodec()); // hand-written read and write
+	}
+	
+	@Test
+	public void testSameAsLoop() {
+		
+		CodecProtoParser codecParser = new CodecProtoParser();
+		LoopProtoParser loopParser = new LoopProtoParser();
+		
+		Proto[] messages = {
+				createHandBuilt(true), createHandBuilt(false), createGroups(), ProtoTestUtils.createPriceChange(1), createBitmap()
+		};
+		
+		for(Proto message : messages) {
+			
+			ByteBuffer bytes = ProtoTestUtils.write(message);
+			
+			Proto fromCodec = codecParser.parse(bytes.duplicate());
+			Proto fromLoop = loopParser.parse(bytes.duplicate());
+			Assert.assertEquals(message, fromCodec);
+			Assert.assertEquals(fromLoop, fromCodec);
+			Assert.assertEquals(message.getLength(), fromCodec.getLength());
+			Assert.assertEquals(bytes, ProtoTestUtils.write(fromCodec));
+			
+			fromCodec = codecParser.wrap(bytes.duplicate());
+			Assert.assertEquals(message, fromCodec);
+			Assert.assertEquals(bytes, ProtoTestUtils.write(fromCodec));
+		}
+	}
+	
+	@Test
+	public void testWriteWithCodec() {
+		
+		CodecProtoParser parser = new CodecProtoParser();
+		HandBuiltMessage withCodec = (HandBuiltMessage) parser.getProtoMessages()[0];
+		Assert.assertTrue(withCodec.hasCodec());
+		
+		for(boolean optionals : new boolean[] { true, false }) {
+			HandBuiltMessage message = createHandBuilt(optionals);
+			withCodec.copyFrom(message);
+			Assert.assertEquals(message.getLength(), withCodec.getLength());
+			Assert.assertEquals(ProtoTestUtils.write(message), ProtoTestUtils.write(withCodec));
+		}
+	}
+	
+	@Test
+	public void testTruncatedMessage() {
+		
+		// an older version of the message without the last fields: the required fields are reset and the optional ones are not present
+		HandBuiltMessage message = createHandBuilt(true);
+		ByteBuffer bytes = ProtoTestUtils.write(message);
+		bytes.limit(4 + 4 + 9 + 4); // id, timestamp and symbol
+		
+		HandBuiltMessage fromCodec = (HandBuiltMessage) new CodecProtoParser().parse(bytes.duplicate());
+		HandBuiltMessage fromLoop = (HandBuiltMessage) new LoopProtoParser().parse(bytes.duplicate());
+		
+		Assert.assertEquals(fromLoop, fromCodec);
+		Assert.assertEquals(42, fromCodec.id.get());
+		Assert.assertEquals(123456789L, fromCodec.timestamp.get());
+		Assert.assertEquals("IBM ", fromCodec.symbol.get().toString());
+		Assert.assertFalse(fromCodec.desc.isPresent());
+		Assert.assertEquals(0, fromCodec.qty.get());
+		Assert.assertFalse(fromCodec.tag.isPresent());
+	}
+	
+	@Test
+	public void testProjectionUsesTheLoop() {
+		
+		CodecProtoParser parser = new CodecProtoParser();
+		HandBuiltMessage message = createHandBuilt(true);
+		
+		HandBuiltMessage parsed = (HandBuiltMessage) parser.parse(ProtoTestUtils.write(message));
+		Assert.assertEquals(message, parsed);
+		
+		parser.setProjection('H', 'B', (short) 0, "id", "qty");
+		message.id.set(43);
+		message.qty.set(5);
+		message.price.set(1.5);
+		parsed = (HandBuiltMessage) parser.parse(ProtoTestUtils.write(message));
+		Assert.assertEquals(43, parsed.id.get());
+		Assert.assertEquals(5, parsed.qty.get());
+		Assert.assertEquals(123.45, parsed.price.get(), 0.0); // not read
+		
+		parser.setProjection('H', 'B', (short) 0, AbstractProto.ALL_FIELDS);
+		parsed = (HandBuiltMessage) parser.parse(ProtoTestUtils.write(message));
+		Assert.assertEquals(message, parsed);
+	}
+	
+	@Test
+	public void testFactoryAndPool() {
+		
+		CodecProtoParser parser = new CodecProtoParser();
+		
+		ProtoParser other = new ProtoParserFactory(parser).newParser();
+		Assert.assertTrue(other.hasGeneratedCodecs());
+		Assert.assertTrue(((AbstractProto) other.getProtoMessages()[0]).hasCodec());
+		
+		HandBuiltMessage message = createHandBuilt(true);
+		Proto parsed = other.parse(ProtoTestUtils.write(message));
+		Assert.assertNotSame(parser.getProtoMessages()[0], parsed);
+		Assert.assertEquals(message, parsed);
+		
+		PooledProtoParser pooled = new PooledProtoParser(parser, 4, 2);
+		Proto p1 = pooled.parse(ProtoTestUtils.write(message));
+		Proto p2 = pooled.parse(ProtoTestUtils.write(createHandBuilt(false)));
+		Assert.assertTrue(((AbstractProto) p1).hasCodec());
+		Assert.assertTrue(((AbstractProto) p2).hasCodec());
+		Assert.assertEquals(message, p1);
+		Assert.assertEquals(createHandBuilt(false), p2);
+	}
+	
+	@Test
+	public void testAddFieldDropsTheCodec() {
+		
+		HandBuiltMessage message = (HandBuiltMessage) new CodecProtoParser().getProtoMessages()[0];
+		Assert.assertTrue(message.hasCodec());
+		message.add(new IntField());
+		Assert.assertFalse(message.hasCodec());
+	}
+	
+	private static BitmapMessage createBitmap() {
+		BitmapMessage proto = new BitmapMessage();
+		for(int i = 0; i < proto.getNumberOfFields(); i++) {
+			if (proto.getField(i).isOptional()) proto.getField(i).markAsNotPresent();
+		}
+		return proto;
+	}
+}
@@ -64,6 +64,8 @@ public class OptionalFieldsTest {
         public static final char TYPE = 'O';
         public static final char SUBTYPE = 'F';
 
+        public static final int MY_BOOLEAN_OFFSET = 4;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -0,0 +1,86 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import com.coralblocks.coralproto.field.ProtoField;
+
+/**
+ * A minimal field implementing only the abstract methods of {@link ProtoField}, to test its default methods.
+ */
+class PlainIntField implements ProtoField {
+	
+	int value;
+	
+	PlainIntField() {
+		
+	}
+	
+	PlainIntField(AbstractProto proto) {
+		proto.add(this);
+	}
+	
+	@Override
+	public int size() {
+		return 4;
+	}
+	
+	@Override
+	public boolean isPresent() {
+		return true;
+	}
+	
+	@Override
+	public boolean isOptional() {
+		return false;
+	}
+	
+	@Override
+	public void markAsNotPresent() {
+		throw new IllegalStateException("Not optional");
+	}
+	
+	@Override
+	public void readFrom(ByteBuffer buf) {
+		value = buf.getInt();
+	}
+	
+	@Override
+	public void writeTo(ByteBuffer buf) {
+		buf.putInt(value);
+	}
+	
+	@Override
+	public void writeAsciiTo(ByteBuffer buf) {
+		buf.put(String.valueOf(value).getBytes());
+	}
+	
+	@Override
+	public ProtoField newInstance() {
+		return new PlainIntField();
+	}
+	
+	@Override
+	public void reset() {
+		value = 0;
+	}
+	
+	@Override
+	public String toString() {
+		return String.valueOf(value);
+	}
+}
@@ -0,0 +1,112 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class PooledProtoParserTest {
+	
+	@Test
+	public void testAcquireAndRelease() {
+		
+		PooledProtoParser parser = new PooledProtoParser(new ProtoParserTest.ProtoParser(), 4, 2);
+		
+		ProtoMessage1 m = new ProtoMessage1();
+		m.symbolDesc.set("IBM");
+		
+		ProtoMessage1[] parsed = new ProtoMessage1[3];
+		for(int i = 0; i < parsed.length; i++) {
+			m.symbolId.set(i);
+			parsed[i] = (ProtoMessage1) parser.parse(ProtoTestUtils.write(m));
+		}
+		
+		// three different instances, none of them overwritten
+		Assert.assertNotSame(parsed[0], parsed[1]);
+		Assert.assertNotSame(parsed[1], parsed[2]);
+		for(int i = 0; i < parsed.length; i++) Assert.assertEquals(i, parsed[i].symbolId.get());
+		Assert.assertEquals(1, parser.getMisses()); // only two were ready
+		
+		parser.release(parsed[1]);
+		m.symbolId.set(10);
+		Assert.assertSame(parsed[1], parser.parse(ProtoTestUtils.write(m)));
+		Assert.assertEquals(10, parsed[1].symbolId.get());
+		Assert.assertEquals(0, parsed[0].symbolId.get());
+		
+		// the miss above also filled the pool of the other message
+		ProtoMessage2 m2 = new ProtoMessage2();
+		m2.orderId.set(5L);
+		for(int i = 0; i < 3; i++) Assert.assertEquals(m2, parser.parse(ProtoTestUtils.write(m2)));
+		Assert.assertEquals(1, parser.getMisses());
+		
+		// projections of the parser are used
+		parser.setProjection(ProtoMessage1.TYPE, ProtoMessage1.SUBTYPE, (short) 0, "symbolId");
+		ProtoMessage1 projected = (ProtoMessage1) parser.parse(ProtoTestUtils.write(m));
+		Assert.assertFalse(projected.symbolDesc.isPresent());
+		
+		Assert.assertThrows(IllegalArgumentException.class, () -> parser.release(new ProtoMessage2() {
+			@Override
+			public char getSubtype() {
+				return 'Z';
+			}
+		}));
+	}
+	
+	@Test
+	public void testPipeline() throws Exception {
+		
+		final int messages = 100_000;
+		
+		PooledProtoParser parser = new PooledProtoParser(new ProtoParserTest.ProtoParser(), 64, 64);
+		ArrayBlockingQueue<ProtoMessage1> queue = new ArrayBlockingQueue<ProtoMessage1>(32);
+		long[] errors = new long[1];
+		
+		Thread consumer = new Thread(() -> {
+			try {
+				for(int i = 0; i < messages; i++) {
+					ProtoMessage1 proto = queue.take();
+					if (proto.symbolId.get() != i || !proto.symbolDesc.get().toString().equals("SYM" + (i % 10))) errors[0]++;
+					parser.release(proto);
+				}
+			} catch(InterruptedException e) {
+				errors[0]++;
+			}
+		});
+		consumer.start();
+		
+		ProtoMessage1 m = new ProtoMessage1();
+		ByteBuffer bb = ByteBuffer.allocate(256);
+		for(int i = 0; i < messages; i++) {
+			m.symbolId.set(i);
+			m.symbolDesc.set("SYM" + (i % 10));
+			bb.clear();
+			m.write(bb);
+			bb.flip();
+			queue.put((ProtoMessage1) parser.parse(bb));
+		}
+		
+		consumer.join();
+		
+		Assert.assertEquals(0, errors[0]);
+		Assert.assertEquals(0, parser.getMisses()); // at most 32 in the queue, 1 in the consumer and 1 being parsed
+	}
+}
@@ -0,0 +1,872 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.field.CharsField;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.GroupField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.RepeatingGroupField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TypeField;
+import com.coralblocks.coralproto.field.VarCharsField;
+
+public class PresenceBitmapTest {
+	
+	public static class BitmapMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = B
+				SUBTYPE = M
+				PRESENCE_BITMAP = true
+				ENCODER = true
+				
+				id: long
+				o1: int!
+				o2: long!
+				qty: int
+				o3: varchars(16)!
+				items:
+				   x: int
+				   y: long!
+				   z: chars(2)!
+				o4: int!
+				o5: int!
+				o6: int!
+				o7: int!
+				o8: int!
+				o9: double!
+				
+		""";
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'B';
+        public static final char SUBTYPE = 'M';
+
+        public static final int ID_OFFSET = 6;
+        public static final int O1_OFFSET = 14;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final LongField id = new LongField(this);
+
+        public final IntField o1 = new IntField(this, true);
+
+        public final LongField o2 = new LongField(this, true);
+
+        public final IntField qty = new IntField(this);
+
+        public final VarCharsField o3 = new VarCharsField(this, 16, true);
+
+        public static class ItemsRepeatingGroup extends RepeatingGroupField {
+
+            public IntField x;
+
+            public LongField y;
+
+            public CharsField z;
+
+            public ItemsRepeatingGroup(AbstractProto proto) {
+                this(proto, new IntField(), new LongField(true), new CharsField(2, true));
+            }
+
+            public ItemsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, false, true, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.x = (IntField) groupField.internalArray()[0];
+                this.y = (LongField) groupField.internalArray()[1];
+                this.z = (CharsField) groupField.internalArray()[2];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.x = (IntField) groupField.internalArray()[0];
+                    this.y = (LongField) groupField.internalArray()[1];
+                    this.z = (CharsField) groupField.internalArray()[2];
+                }
+                return groupField;
+            } 
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new ItemsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public final ItemsRepeatingGroup items = new ItemsRepeatingGroup(this);
+
+        public final IntField o4 = new IntField(this, true);
+
+        public final IntField o5 = new IntField(this, true);
+
+        public final IntField o6 = new IntField(this, true);
+
+        public final IntField o7 = new IntField(this, true);
+
+        public final IntField o8 = new IntField(this, true);
+
+        public final DoubleField o9 = new DoubleField(this, true);
+
+        @Override
+        protected boolean hasPresenceBitmap() {
+            return true;
+        }
+
+        public static final class Encoder extends AbstractProtoEncoder {
+
+            private final ItemsEncoder itemsEncoder = new ItemsEncoder();
+
+            public Encoder() {
+                super(TYPE, SUBTYPE, (short) 0, 12);
+                usePresenceBitmap(9);
+            }
+
+            public Encoder wrap(ByteBuffer buf) {
+                begin(buf);
+                return this;
+            }
+
+            public Encoder id(long value) {
+                next(0);
+                putLong(value);
+                return this;
+            }
+
+            public Encoder o1(int value) {
+                next(1);
+                putPresent(0);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o1NotPresent() {
+                next(1);
+                return this;
+            }
+
+            public Encoder o2(long value) {
+                next(2);
+                putPresent(1);
+                putLong(value);
+                return this;
+            }
+
+            public Encoder o2NotPresent() {
+                next(2);
+                return this;
+            }
+
+            public Encoder qty(int value) {
+                next(3);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o3(CharSequence value) {
+                next(4);
+                putPresent(2);
+                putVarChars(value, 16);
+                return this;
+            }
+
+            public Encoder o3NotPresent() {
+                next(4);
+                return this;
+            }
+
+            public ItemsEncoder items(int numberOfElements) {
+                next(5);
+                return beginGroup(itemsEncoder, numberOfElements);
+            }
+
+            public Encoder o4(int value) {
+                next(6);
+                putPresent(3);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o4NotPresent() {
+                next(6);
+                return this;
+            }
+
+            public Encoder o5(int value) {
+                next(7);
+                putPresent(4);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o5NotPresent() {
+                next(7);
+                return this;
+            }
+
+            public Encoder o6(int value) {
+                next(8);
+                putPresent(5);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o6NotPresent() {
+                next(8);
+                return this;
+            }
+
+            public Encoder o7(int value) {
+                next(9);
+                putPresent(6);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o7NotPresent() {
+                next(9);
+                return this;
+            }
+
+            public Encoder o8(int value) {
+                next(10);
+                putPresent(7);
+                putInt(value);
+                return this;
+            }
+
+            public Encoder o8NotPresent() {
+                next(10);
+                return this;
+            }
+
+            public Encoder o9(double value) {
+                next(11);
+                putPresent(8);
+                putDouble(value);
+                return this;
+            }
+
+            public Encoder o9NotPresent() {
+                next(11);
+                return this;
+            }
+
+            public static final class ItemsEncoder extends AbstractProtoEncoder {
+
+                private ItemsEncoder() {
+                    super(3);
+                    usePresenceBitmap(2);
+                }
+
+                public ItemsEncoder x(int value) {
+                    next(0);
+                    putInt(value);
+                    return this;
+                }
+
+                public ItemsEncoder y(long value) {
+                    next(1);
+                    putPresent(0);
+                    putLong(value);
+                    return this;
+                }
+
+                public ItemsEncoder yNotPresent() {
+                    next(1);
+                    return this;
+                }
+
+                public ItemsEncoder z(CharSequence value) {
+                    next(2);
+                    putPresent(1);
+                    putChars(value, 2);
+                    return this;
+                }
+
+                public ItemsEncoder zNotPresent() {
+                    next(2);
+                    return this;
+                }
+
+            }
+
+        }
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	public static class BitmapDirectMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = B
+				SUBTYPE = D
+				PRESENCE_BITMAP = true
+				DIRECT_ACCESS = true
+				
+				id: long
+				o1: int!
+				o2: long!
+				qty: int
+				o3: varchars(16)!
+				items:
+				   x: int
+				   y: long!
+				   z: chars(2)!
+				o4: int!
+				o5: int!
+				o6: int!
+				o7: int!
+				o8: int!
+				o9: double!
+				
+		""";
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'B';
+        public static final char SUBTYPE = 'D';
+
+        public static final int ID_OFFSET = 6;
+        public static final int O1_OFFSET = 14;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final LongField id = new LongField(this);
+
+        public final IntField o1 = new IntField(this, true);
+
+        public final LongField o2 = new LongField(this, true);
+
+        public final IntField qty = new IntField(this);
+
+        public final VarCharsField o3 = new VarCharsField(this, 16, true);
+
+        public static class ItemsRepeatingGroup extends RepeatingGroupField {
+
+            public IntField x;
+
+            public LongField y;
+
+            public CharsField z;
+
+            public ItemsRepeatingGroup(AbstractProto proto) {
+                this(proto, new IntField(), new LongField(true), new CharsField(2, true));
+            }
+
+            public ItemsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, false, true, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.x = (IntField) groupField.internalArray()[0];
+                this.y = (LongField) groupField.internalArray()[1];
+                this.z = (CharsField) groupField.internalArray()[2];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.x = (IntField) groupField.internalArray()[0];
+                    this.y = (LongField) groupField.internalArray()[1];
+                    this.z = (CharsField) groupField.internalArray()[2];
+                }
+                return groupField;
+            } 
+
+            @Override
+            public void readFrom(ByteBuffer buf) {
+                clear();
+                short n = buf.getShort();
+                if (n < 0) {
+                    throw new IllegalArgumentException("Negative repeating group element count: " + n);
+                }
+                for(int i = 0; i < n; i++) {
+                    nextElement();
+                    long bitmap = readPresenceBitmap(buf);
+                    x.readFrom(buf);
+                    if ((bitmap & 1L) != 0) {
+                        y.readFrom(buf);
+                    } else {
+                        y.markAsNotPresent();
+                    }
+                    if ((bitmap & (1L << 1)) != 0) {
+                        z.readFrom(buf);
+                    } else {
+                        z.markAsNotPresent();
+                    }
+                }
+            }
+
+            @Override
+            public void writeTo(ByteBuffer buf) {
+                int n = getNumberOfElements();
+                buf.putShort((short) n);
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    IntField x = (IntField) fields[0];
+                    LongField y = (LongField) fields[1];
+                    CharsField z = (CharsField) fields[2];
+                    long bitmap = 0;
+                    if (y.isPresent()) bitmap |= 1L;
+                    if (z.isPresent()) bitmap |= (1L << 1);
+                    writePresenceBitmap(buf, bitmap);
+                    x.writeTo(buf);
+                    if (y.isPresent()) y.writeTo(buf);
+                    if (z.isPresent()) z.writeTo(buf);
+                }
+            }
+
+            @Override
+            public int size() {
+                int size = 2;
+                int n = getNumberOfElements();
+                for(int i = 0; i < n; i++) {
+                    ProtoField[] fields = getElement(i).internalArray();
+                    IntField x = (IntField) fields[0];
+                    LongField y = (LongField) fields[1];
+                    CharsField z = (CharsField) fields[2];
+                    size += 1; // presence bitmap
+                    size += x.size();
+                    size += y.size() - 1; // no presence byte
+                    size += z.size() - 1; // no presence byte
+                }
+                return size;
+            }
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new ItemsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public final ItemsRepeatingGroup items = new ItemsRepeatingGroup(this);
+
+        public final IntField o4 = new IntField(this, true);
+
+        public final IntField o5 = new IntField(this, true);
+
+        public final IntField o6 = new IntField(this, true);
+
+        public final IntField o7 = new IntField(this, true);
+
+        public final IntField o8 = new IntField(this, true);
+
+        public final DoubleField o9 = new DoubleField(this, true);
+
+        @Override
+        protected boolean hasPresenceBitmap() {
+            return true;
+        }
+
+        @Override
+        public int getLength() {
+            int len = O1_OFFSET; // type + subtype + version + presence bitmap + fixed-size fields
+            len += o1.size() - 1; // no presence byte
+            len += o2.size() - 1; // no presence byte
+            len += qty.size();
+            len += o3.size() - 1; // no presence byte
+            len += items.size();
+            len += o4.size() - 1; // no presence byte
+            len += o5.size() - 1; // no presence byte
+            len += o6.size() - 1; // no presence byte
+            len += o7.size() - 1; // no presence byte
+            len += o8.size() - 1; // no presence byte
+            len += o9.size() - 1; // no presence byte
+            return len;
+        }
+
+        @Override
+        public void read(ByteBuffer buf) {
+            if (getProjection() != ALL_FIELDS) {
+                super.read(buf); // skips the fields outside the projection
+                return;
+            }
+            long bitmap = readPresenceBitmap(buf);
+            if (buf.hasRemaining()) {
+                id.readFrom(buf);
+            } else {
+                id.reset();
+            }
+            if ((bitmap & 1L) != 0) {
+                o1.readFrom(buf);
+            } else {
+                o1.markAsNotPresent();
+            }
+            if ((bitmap & (1L << 1)) != 0) {
+                o2.readFrom(buf);
+            } else {
+                o2.markAsNotPresent();
+            }
+            if (buf.hasRemaining()) {
+                qty.readFrom(buf);
+            } else {
+                qty.reset();
+            }
+            if ((bitmap & (1L << 2)) != 0) {
+                o3.readFrom(buf);
+            } else {
+                o3.markAsNotPresent();
+            }
+            if (buf.hasRemaining()) {
+                items.readFrom(buf);
+            } else {
+                items.reset();
+            }
+            if ((bitmap & (1L << 3)) != 0) {
+                o4.readFrom(buf);
+            } else {
+                o4.markAsNotPresent();
+            }
+            if ((bitmap & (1L << 4)) != 0) {
+                o5.readFrom(buf);
+            } else {
+                o5.markAsNotPresent();
+            }
+            if ((bitmap & (1L << 5)) != 0) {
+                o6.readFrom(buf);
+            } else {
+                o6.markAsNotPresent();
+            }
+            if ((bitmap & (1L << 6)) != 0) {
+                o7.readFrom(buf);
+            } else {
+                o7.markAsNotPresent();
+            }
+            if ((bitmap & (1L << 7)) != 0) {
+                o8.readFrom(buf);
+            } else {
+                o8.markAsNotPresent();
+            }
+            if ((bitmap & (1L << 8)) != 0) {
+                o9.readFrom(buf);
+            } else {
+                o9.markAsNotPresent();
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buf) {
+            buf.put((byte) TYPE);
+            buf.put((byte) SUBTYPE);
+            buf.putShort((short) 0);
+            long bitmap = 0;
+            if (o1.isPresent()) bitmap |= 1L;
+            if (o2.isPresent()) bitmap |= (1L << 1);
+            if (o3.isPresent()) bitmap |= (1L << 2);
+            if (o4.isPresent()) bitmap |= (1L << 3);
+            if (o5.isPresent()) bitmap |= (1L << 4);
+            if (o6.isPresent()) bitmap |= (1L << 5);
+            if (o7.isPresent()) bitmap |= (1L << 6);
+            if (o8.isPresent()) bitmap |= (1L << 7);
+            if (o9.isPresent()) bitmap |= (1L << 8);
+            writePresenceBitmap(buf, bitmap);
+            id.writeTo(buf);
+            if (o1.isPresent()) o1.writeTo(buf);
+            if (o2.isPresent()) o2.writeTo(buf);
+            qty.writeTo(buf);
+            if (o3.isPresent()) o3.writeTo(buf);
+            items.writeTo(buf);
+            if (o4.isPresent()) o4.writeTo(buf);
+            if (o5.isPresent()) o5.writeTo(buf);
+            if (o6.isPresent()) o6.writeTo(buf);
+            if (o7.isPresent()) o7.writeTo(buf);
+            if (o8.isPresent()) o8.writeTo(buf);
+            if (o9.isPresent()) o9.writeTo(buf);
+        }
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	public static class PresenceByteMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = B
+				SUBTYPE = P
+				
+				id: long
+				o1: int!
+				o2: long!
+				qty: int
+				o3: varchars(16)!
+				items:
+				   x: int
+				   y: long!
+				   z: chars(2)!
+				o4: int!
+				o5: int!
+				o6: int!
+				o7: int!
+				o8: int!
+				o9: double!
+				
+		""";
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'B';
+        public static final char SUBTYPE = 'P';
+
+        public static final int ID_OFFSET = 4;
+        public static final int O1_OFFSET = 12;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final LongField id = new LongField(this);
+
+        public final IntField o1 = new IntField(this, true);
+
+        public final LongField o2 = new LongField(this, true);
+
+        public final IntField qty = new IntField(this);
+
+        public final VarCharsField o3 = new VarCharsField(this, 16, true);
+
+        public static class ItemsRepeatingGroup extends RepeatingGroupField {
+
+            public IntField x;
+
+            public LongField y;
+
+            public CharsField z;
+
+            public ItemsRepeatingGroup(AbstractProto proto) {
+                this(proto, new IntField(), new LongField(true), new CharsField(2, true));
+            }
+
+            public ItemsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.x = (IntField) groupField.internalArray()[0];
+                this.y = (LongField) groupField.internalArray()[1];
+                this.z = (CharsField) groupField.internalArray()[2];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.x = (IntField) groupField.internalArray()[0];
+                    this.y = (LongField) groupField.internalArray()[1];
+                    this.z = (CharsField) groupField.internalArray()[2];
+                }
+                return groupField;
+            } 
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new ItemsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public final ItemsRepeatingGroup items = new ItemsRepeatingGroup(this);
+
+        public final IntField o4 = new IntField(this, true);
+
+        public final IntField o5 = new IntField(this, true);
+
+        public final IntField o6 = new IntField(this, true);
+
+        public final IntField o7 = new IntField(this, true);
+
+        public final IntField o8 = new IntField(this, true);
+
+        public final DoubleField o9 = new DoubleField(this, true);
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	private static void fill(AbstractProto proto, boolean allPresent) {
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		BitmapMessage m = new BitmapMessage();
+		m.id.set(1111L);
+		m.o1.set(7);
+		if (allPresent) m.o2.set(-8L); else m.o2.markAsNotPresent();
+		m.qty.set(100);
+		m.o3.set("IBM");
+		m.items.clear();
+		for(int i = 0; i < 3; i++) {
+			m.items.nextElement();
+			m.items.x.set(i);
+			if (allPresent || i == 1) m.items.y.set(10L * i); else m.items.y.markAsNotPresent();
+			if (allPresent) m.items.z.set("AB"); else m.items.z.markAsNotPresent();
+		}
+		m.o4.markAsNotPresent();
+		if (allPresent) m.o5.set(5); else m.o5.markAsNotPresent();
+		m.o6.markAsNotPresent();
+		m.o7.set(77);
+		m.o8.markAsNotPresent();
+		m.o9.set(200.55);
+		if (allPresent) {
+			m.o4.set(4);
+			m.o6.set(6);
+			m.o8.set(8);
+		}
+		// same schema, so the other bitmap message reads the same bytes
+		m.write(bb);
+		bb.flip().position(4);
+		if (proto instanceof BitmapMessage) {
+			proto.read(bb);
+		} else {
+			BitmapDirectMessage d = new BitmapDirectMessage();
+			d.read(bb);
+			Assert.assertEquals(m.toString().substring(m.toString().indexOf('|')), d.toString().substring(d.toString().indexOf('|')));
+			if (proto instanceof BitmapDirectMessage) {
+				bb.position(4);
+				proto.read(bb);
+			} else {
+				// same values into the message with a presence byte for each optional field
+				PresenceByteMessage p = (PresenceByteMessage) proto;
+				p.id.set(m.id.get());
+				p.o1.set(m.o1.get());
+				if (m.o2.isPresent()) p.o2.set(m.o2.get()); else p.o2.markAsNotPresent();
+				p.qty.set(m.qty.get());
+				p.o3.set(m.o3.get());
+				p.items.clear();
+				m.items.beginIteration();
+				while(m.items.iterHasNext()) {
+					m.items.iterNext();
+					p.items.nextElement();
+					p.items.x.set(m.items.x.get());
+					if (m.items.y.isPresent()) p.items.y.set(m.items.y.get()); else p.items.y.markAsNotPresent();
+					if (m.items.z.isPresent()) p.items.z.set(m.items.z.get()); else p.items.z.markAsNotPresent();
+				}
+				if (m.o4.isPresent()) p.o4.set(m.o4.get()); else p.o4.markAsNotPresent();
+				if (m.o5.isPresent()) p.o5.set(m.o5.get()); else p.o5.markAsNotPresent();
+				if (m.o6.isPresent()) p.o6.set(m.o6.get()); else p.o6.markAsNotPresent();
+				p.o7.set(m.o7.get());
+				if (m.o8.isPresent()) p.o8.set(m.o8.get()); else p.o8.markAsNotPresent();
+				p.o9.set(m.o9.get());
+			}
+		}
+	}
+	
+	@Test
+	public void testWireFormat() {
+		
+		for(boolean allPresent : new boolean[] { true, false }) {
+			
+			BitmapMessage m = new BitmapMessage();
+			BitmapDirectMessage d = new BitmapDirectMessage();
+			PresenceByteMessage p = new PresenceByteMessage();
+			fill(m, allPresent);
+			fill(d, allPresent);
+			fill(p, allPresent);
+			
+			ByteBuffer mb = ProtoTestUtils.write(m);
+			ByteBuffer db = ProtoTestUtils.write(d);
+			ByteBuffer pb = ProtoTestUtils.write(p);
+			
+			// the same bytes, except for the subtype
+			Assert.assertEquals(mb.remaining(), db.remaining());
+			for(int i = 0; i < mb.remaining(); i++) {
+				if (i != 1) Assert.assertEquals("byte " + i, mb.get(i), db.get(i));
+			}
+			
+			// 2 bytes of bitmap for the 9 optional fields + 1 byte for each of the 3 elements instead of 9 + 3 * 2 presence bytes
+			Assert.assertEquals(pb.remaining() - (9 + 3 * 2) + (2 + 3), mb.remaining());
+			
+			// the id starts right after the bitmap
+			Assert.assertEquals(6, BitmapMessage.ID_OFFSET);
+			Assert.assertEquals(6, m.getOffset(m.id));
+			Assert.assertEquals(1111L, mb.getLong(BitmapMessage.ID_OFFSET));
+			
+			mb.position(4);
+			BitmapMessage received = new BitmapMessage();
+			received.read(mb);
+			Assert.assertFalse(mb.hasRemaining());
+			Assert.assertEquals(m, received);
+			
+			db.position(4);
+			BitmapDirectMessage receivedDirect = new BitmapDirectMessage();
+			receivedDirect.read(db);
+			Assert.assertFalse(db.hasRemaining());
+			Assert.assertEquals(d, receivedDirect);
+			
+			// flyweight and projection (skips the group)
+			mb.position(4);
+			received.wrap(mb);
+			Assert.assertEquals(m, received);
+			received.setProjection(received.toProjection("o7", "o9"));
+			mb.position(4);
+			received.read(mb);
+			Assert.assertFalse(mb.hasRemaining());
+			Assert.assertEquals(77, received.o7.get());
+			Assert.assertEquals(200.55, received.o9.get(), 0.0);
+		}
+	}
+	
+	@Test
+	public void testEncoder() {
+		
+		BitmapMessage m = new BitmapMessage();
+		fill(m, false);
+		ByteBuffer expected = ProtoTestUtils.write(m);
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		BitmapMessage.Encoder encoder = new BitmapMessage.Encoder();
+		BitmapMessage.Encoder.ItemsEncoder items = encoder.wrap(bb).id(1111L).o1(7).o2NotPresent().qty(100).o3("IBM").items(3);
+		items.x(0).yNotPresent().zNotPresent();
+		items.x(1).y(10L).zNotPresent();
+		items.x(2).yNotPresent().zNotPresent();
+		int length = encoder.o4NotPresent().o5NotPresent().o6NotPresent().o7(77).o8NotPresent().o9(200.55).finish();
+		
+		Assert.assertEquals(m.getLength(), length);
+		bb.flip();
+		Assert.assertEquals(expected, bb);
+	}
+}
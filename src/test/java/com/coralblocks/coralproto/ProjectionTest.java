@@ -0,0 +1,174 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.EncoderTest.AllTypesMessage;
+import com.coralblocks.coralproto.EnumTest.CancelReason;
+import com.coralblocks.coralproto.EnumTest.ReduceRejectReason;
+import com.coralblocks.coralproto.EnumTest.RejectReason;
+import com.coralblocks.coralproto.EnumTest.Side;
+import com.coralblocks.coralproto.FixedLayoutTest.FixedPrefixMessage;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TypeField;
+
+public class ProjectionTest {
+	
+	@Test
+	public void testParserProjection() {
+		
+		MarketDataMessage proto = ProtoTestUtils.createMarketData(50);
+		ByteBuffer bb = ByteBuffer.allocate(64 * 1024);
+		proto.write(bb);
+		bb.flip();
+		
+		ProtoParser parser = new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { new MarketDataMessage() };
+			}
+		};
+		
+		parser.setProjection(MarketDataMessage.TYPE, MarketDataMessage.SUBTYPE, (short) 0, "symbolId", "mqReqId", "lastTradePrice");
+		
+		MarketDataMessage received = (MarketDataMessage) parser.parse(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(2222L, received.symbolId.get());
+		Assert.assertEquals(3L, received.mqReqId.get());
+		Assert.assertEquals(99L, received.lastTradePrice.get());
+		Assert.assertEquals(0, received.bids.getNumberOfElements()); // skipped, never read
+		Assert.assertEquals(0, received.asks.getNumberOfElements());
+		
+		parser.setProjection(MarketDataMessage.TYPE, MarketDataMessage.SUBTYPE, (short) 0, AbstractProto.ALL_FIELDS);
+		bb.position(0);
+		received = (MarketDataMessage) parser.parse(bb);
+		Assert.assertEquals(proto, received);
+		
+		bb.position(0);
+		received.setProjection(received.toProjection("asks"));
+		Assert.assertNotNull(parser.wrap(bb));
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(50, received.asks.getNumberOfElements());
+	}
+	
+	@Test
+	public void testBadProjection() {
+		MarketDataMessage proto = new MarketDataMessage();
+		Assert.assertEquals(1L | (1L << 3), proto.toProjection("symbolId", "bids"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> proto.toProjection("foo"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> proto.toProjection("typeField"));
+	}
+	
+	@Test
+	public void testSkipAllTypes() {
+		
+		AllTypesMessage proto = new AllTypesMessage();
+		proto.myBoolean.set(true);
+		proto.myByte.set((byte) 7);
+		proto.myChar.set('x');
+		proto.myShort.set((short) 300);
+		proto.myInt.set(70000);
+		proto.myLong.markAsNotPresent();
+		proto.myFloat.set(1.25f);
+		proto.myDouble.set(3.14159);
+		proto.myChars.set("AB");
+		proto.myVarChars.set("varchars");
+		proto.myBytes.set(new byte[] { 1, 2, 3 });
+		proto.myVarBytes.set(new byte[] { 4, 5 });
+		proto.myCharEnum.set(Side.SELL);
+		proto.myShortEnum.set(RejectReason.BAD_LOT);
+		proto.myIntEnum.set(ReduceRejectReason.NOT_FOUND);
+		proto.myTwoCharEnum.set(CancelReason.PURGED);
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		proto.write(bb);
+		bb.flip();
+		
+		AllTypesMessage received = new AllTypesMessage();
+		received.setProjection(received.toProjection("myTwoCharEnum")); // the last one
+		bb.position(4);
+		received.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(CancelReason.PURGED, received.myTwoCharEnum.get());
+		
+		received.setProjection(0); // nothing
+		bb.position(4);
+		received.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+	}
+	
+	@Test
+	public void testSkipFixedSizeGroup() {
+		
+		FixedPrefixMessage proto = new FixedPrefixMessage();
+		proto.id.set(1L);
+		proto.code.set("CODE");
+		proto.qty.set(2);
+		proto.levels.clear();
+		for(int i = 0; i < 10; i++) {
+			proto.levels.nextElement();
+			proto.levels.price.set(i);
+			proto.levels.size.set(i);
+		}
+		proto.desc.set("desc");
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		proto.write(bb);
+		bb.flip();
+		bb.position(4);
+		
+		FixedPrefixMessage received = new FixedPrefixMessage();
+		received.setProjection(received.toProjection("desc"));
+		received.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals("desc", received.desc.get().toString());
+	}
+	
+	public static class PlainFieldMessage extends AbstractProto {
+		
+		public final TypeField typeField = new TypeField(this, 'P');
+		public final SubtypeField subtypeField = new SubtypeField(this, 'F');
+		public final PlainIntField plain = new PlainIntField(this);
+		public final LongField value = new LongField(this);
+	}
+	
+	@Test
+	public void testSkipPlainField() {
+		
+		PlainFieldMessage proto = new PlainFieldMessage();
+		proto.plain.value = 42;
+		proto.value.set(88L);
+		
+		ByteBuffer bb = ByteBuffer.allocate(64);
+		proto.write(bb);
+		bb.flip();
+		bb.position(4);
+		
+		// a field that does not implement skip is skipped by reading it into a new instance
+		PlainFieldMessage received = new PlainFieldMessage();
+		received.setProjection(received.toProjection("value"));
+		received.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(0, received.plain.value);
+		Assert.assertEquals(88L, received.value.get());
+	}
+}
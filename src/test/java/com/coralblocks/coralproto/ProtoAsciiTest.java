@@ -0,0 +1,407 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.EncoderTest.AllTypesMessage;
+import com.coralblocks.coralproto.EnumTest.CancelReason;
+import com.coralblocks.coralproto.EnumTest.ReduceRejectReason;
+import com.coralblocks.coralproto.EnumTest.RejectReason;
+import com.coralblocks.coralproto.EnumTest.Side;
+import com.coralblocks.coralds.map.IntMap;
+import com.coralblocks.coralproto.enums.IntEnum;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.field.IntEnumField;
+import com.coralblocks.coralproto.util.ByteBufferDecoder;
+import com.coralblocks.coralproto.versioning.NewOrderMessage_1;
+
+public class ProtoAsciiTest {
+	
+	public static class AsciiProtoParser extends ProtoParser {
+		
+		@Override
+		protected Proto[] defineProtoMessages() {
+			return new Proto[] {
+					new PriceChangeMessage(),
+					new AllTypesMessage(),
+					new ProtoMessage1(),
+					new NewOrderMessage_1()
+			};
+		}
+	}
+	
+	private static ByteBuffer ascii(String s) {
+		return ByteBuffer.wrap(s.getBytes(StandardCharsets.ISO_8859_1));
+	}
+	
+	private static AllTypesMessage createAllTypes() {
+		AllTypesMessage proto = new AllTypesMessage();
+		proto.myBoolean.set(true);
+		proto.myByte.set(Byte.MIN_VALUE);
+		proto.myChar.set('x');
+		proto.myShort.set(Short.MAX_VALUE);
+		proto.myInt.set(Integer.MIN_VALUE);
+		proto.myLong.set(Long.MIN_VALUE);
+		proto.myFloat.set(-1.25f);
+		proto.myDouble.set(3.14159);
+		proto.myChars.set("AB");
+		proto.myVarChars.set("var chars");
+		proto.myBytes.set("abc".getBytes());
+		proto.myVarBytes.set("xy".getBytes());
+		proto.myCharEnum.set(Side.SELL);
+		proto.myShortEnum.set(RejectReason.BAD_LOT);
+		proto.myIntEnum.set(ReduceRejectReason.NOT_FOUND);
+		proto.myTwoCharEnum.set(CancelReason.PURGED);
+		return proto;
+	}
+	
+	private static void assertRoundTrip(Proto proto) {
+		
+		ProtoAsciiParser asciiParser = new ProtoAsciiParser(new AsciiProtoParser());
+		
+		for(boolean shortVersion : new boolean[] { true, false }) {
+			ByteBuffer line = ascii(ProtoTestUtils.ascii(proto, shortVersion));
+			Proto parsed = asciiParser.parse(line);
+			Assert.assertNotNull(parsed);
+			Assert.assertEquals(proto.getClass(), parsed.getClass());
+			Assert.assertEquals(line.limit(), line.position());
+			Assert.assertEquals(ProtoTestUtils.write(proto), ProtoTestUtils.write(parsed));
+			Assert.assertEquals(ProtoTestUtils.ascii(proto, shortVersion), ProtoTestUtils.ascii(parsed, shortVersion));
+		}
+	}
+	
+	@Test
+	public void testRoundTrip() {
+		
+		assertRoundTrip(ProtoTestUtils.createPriceChange(3));
+		assertRoundTrip(createAllTypes());
+		
+		PriceChangeMessage pc = ProtoTestUtils.createPriceChange(3);
+		pc.orders.priceLevel.set(-200.15);
+		pc.orders.legs.clear();
+		assertRoundTrip(pc);
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolId.set(-2L);
+		p1.symbolDesc.markAsNotPresent();
+		assertRoundTrip(p1);
+		
+		NewOrderMessage_1 newOrder = new NewOrderMessage_1();
+		newOrder.clientId.set(3);
+		newOrder.symbol.set("AAPL");
+		newOrder.symbolId.set(33);
+		newOrder.price.set(0.01);
+		newOrder.side.set(false);
+		newOrder.size.set(200);
+		assertRoundTrip(newOrder);
+	}
+	
+	@Test
+	public void testEmptyAndNotPresent() {
+		
+		AllTypesMessage proto = createAllTypes();
+		proto.myLong.markAsNotPresent();
+		proto.myVarChars.markAsNotPresent();
+		proto.myTwoCharEnum.markAsNotPresent();
+		proto.myVarBytes.set(new byte[0]);
+		assertRoundTrip(proto);
+		
+		PriceChangeMessage pc = ProtoTestUtils.createPriceChange(3);
+		pc.orders.clear();
+		pc.mqReqId.set(7L);
+		pc.lastTradePrice.set(0.5);
+		assertRoundTrip(pc);
+	}
+	
+	@Test
+	public void testReusesMessage() {
+		
+		ProtoAsciiParser asciiParser = new ProtoAsciiParser(new AsciiProtoParser());
+		
+		Proto first = asciiParser.parse(ascii(ProtoTestUtils.ascii(ProtoTestUtils.createPriceChange(3), true)));
+		
+		PriceChangeMessage small = ProtoTestUtils.createPriceChange(3);
+		small.orders.clear();
+		small.symbolDesc.set("A");
+		Proto second = asciiParser.parse(ascii(ProtoTestUtils.ascii(small, true)));
+		
+		Assert.assertSame(first, second);
+		Assert.assertEquals(ProtoTestUtils.write(small), ProtoTestUtils.write(second));
+	}
+	
+	@Test
+	public void testUnknownMessage() {
+		
+		ProtoAsciiParser asciiParser = new ProtoAsciiParser(new AsciiProtoParser());
+		
+		Assert.assertNull(asciiParser.parse(ascii("ZZ|1|2")));
+		Assert.assertNull(asciiParser.parse(ascii("NO-2|1|AAPL|33|0.01|N|200"))); // only version 1 is known
+		Assert.assertNull(asciiParser.parse(ascii("PA-1|1|IBM")));
+	}
+	
+	@Test
+	public void testFewerFields() {
+		
+		ProtoAsciiParser asciiParser = new ProtoAsciiParser(new AsciiProtoParser());
+		
+		ProtoMessage1 p1 = (ProtoMessage1) asciiParser.parse(ascii("PA|33|IBM"));
+		Assert.assertEquals(33L, p1.symbolId.get());
+		Assert.assertTrue(p1.symbolDesc.isPresent());
+		
+		p1 = (ProtoMessage1) asciiParser.parse(ascii("PA (ProtoMessage1)|34"));
+		Assert.assertEquals(34L, p1.symbolId.get());
+		Assert.assertFalse(p1.symbolDesc.isPresent());
+		
+		NewOrderMessage_1 newOrder = (NewOrderMessage_1) asciiParser.parse(ascii("NO-1|3|AAPL\r"));
+		Assert.assertEquals(3, newOrder.clientId.get());
+		Assert.assertEquals("AAPL", newOrder.symbol.get().toString());
+		Assert.assertEquals(0, newOrder.symbolId.get());
+		Assert.assertEquals(0L, newOrder.size.get());
+	}
+	
+	@Test
+	public void testInvalid() {
+		
+		ProtoAsciiParser asciiParser = new ProtoAsciiParser(new AsciiProtoParser());
+		
+		String[] invalid = new String[] {
+				"",
+				"P",
+				"PA1|2",
+				"NO-x|3",
+				"PA|abc|IBM",
+				"PA|1|IBM|extra",
+				"PA|BLANK|IBM", // symbolId is not optional
+				"PA|99999999999999999999|IBM", // long overflow
+				"NO-1|3|AAPL|2147483648|0.01|N|200", // int overflow
+				"NO-1|3|AAPL|33|0.012345678901|N|200", // more decimals than the precision
+				"NO-1|3|AAPL|33|0.01|X|200", // not Y or N
+				"AT|Y|1|xx|1|1|1|1.25|1.0|AB  |v|abc|xy|S|BAD_LOT|NOT_FOUND|PURGED", // char with two bytes
+				"AT|Y|1|x|1|1|1|1.25|1.0|ABC|v|abc|xy|S|BAD_LOT|NOT_FOUND|PURGED", // chars with the wrong size
+				"AT|Y|1|x|1|1|1|1.25|1.0|AB  |v|abc|xy|S|BAD_LOT|NOT_FOUND|CANCELED", // unknown enum
+				"PC|1|IBM|BLANK|2=[Y,1,1.0,1,0,1]|1|BLANK", // fewer elements than n
+				"PC|1|IBM|BLANK|1=[Y,1,1.0,1,0,1,2]|1|BLANK", // too many fields in the group
+				"PC|1|IBM|BLANK|1[Y,1,1.0,1,0,1]|1|BLANK", // missing =
+				"PC|1|IBM|BLANK|1=[Y,1,1.0,1,0,1|1|BLANK", // missing ]
+		};
+		
+		for(String s : invalid) {
+			boolean thrown = false;
+			try {
+				asciiParser.parse(ascii(s));
+			} catch(IllegalArgumentException e) {
+				thrown = true;
+			}
+			Assert.assertTrue("Should not parse: " + s, thrown);
+		}
+		
+		// still fine after the errors
+		Assert.assertNotNull(asciiParser.parse(ascii("PC|1|IBM|BLANK|1=[Y,1,1.0,1,0,1]|1|BLANK")));
+	}
+	
+	@Test
+	public void testDecoder() {
+		
+		Assert.assertEquals(Long.MIN_VALUE, ByteBufferDecoder.parseLong(ascii(String.valueOf(Long.MIN_VALUE))));
+		Assert.assertEquals(Long.MAX_VALUE, ByteBufferDecoder.parseLong(ascii(String.valueOf(Long.MAX_VALUE))));
+		Assert.assertEquals(0L, ByteBufferDecoder.parseLong(ascii("-0")));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseLong(ascii("9223372036854775808")));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseLong(ascii("-")));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseLong(ascii("")));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseLong(ascii("1 ")));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseLong(ascii("128"), Byte.MIN_VALUE, Byte.MAX_VALUE));
+		
+		Assert.assertEquals(-125L, ByteBufferDecoder.parseScaled(ascii("-1.25"), 2));
+		Assert.assertEquals(120L, ByteBufferDecoder.parseScaled(ascii("1.2"), 2));
+		Assert.assertEquals(100L, ByteBufferDecoder.parseScaled(ascii("1"), 2));
+		Assert.assertEquals(5L, ByteBufferDecoder.parseScaled(ascii("0.05"), 2));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseScaled(ascii("0.005"), 2));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseScaled(ascii("1."), 2));
+		Assert.assertThrows(IllegalArgumentException.class, () -> ByteBufferDecoder.parseScaled(ascii("92233720368547758.08"), 2));
+		
+		ByteBuffer bb = ascii("a,[b,c],d]");
+		Assert.assertEquals(1, ByteBufferDecoder.findSeparator(bb, 0, bb.limit(), (byte) ','));
+		Assert.assertEquals(7, ByteBufferDecoder.findSeparator(bb, 2, bb.limit(), (byte) ','));
+		Assert.assertEquals(9, ByteBufferDecoder.findSeparator(bb, 8, bb.limit(), (byte) ','));
+		Assert.assertEquals(bb.limit(), ByteBufferDecoder.indexOf(bb, 0, bb.limit(), (byte) '|'));
+		
+		Assert.assertTrue(ByteBufferDecoder.isBlank(ascii("BLANK")));
+		Assert.assertFalse(ByteBufferDecoder.isBlank(ascii("BLANKS")));
+	}
+	
+	@Test
+	public void testReader() throws IOException {
+		
+		File file = File.createTempFile("ProtoAsciiTest", ".log");
+		file.deleteOnExit();
+		
+		PriceChangeMessage pc = ProtoTestUtils.createPriceChange(3);
+		AllTypesMessage allTypes = createAllTypes();
+		
+		StringBuilder sb = new StringBuilder();
+		int count = 0;
+		for(int i = 0; i < 50; i++) {
+			pc.symbolId.set(i);
+			allTypes.myInt.set(i);
+			sb.append(ProtoTestUtils.ascii(pc, false)).append('\n');
+			sb.append(ProtoTestUtils.ascii(allTypes, true)).append("\r\n");
+			if (i % 10 == 0) sb.append("\n\r\nZZ|unknown\n");
+			count += 2;
+		}
+		sb.setLength(sb.length() - 2); // no line terminator at the end
+		Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+		
+		try (ProtoAsciiReader reader = new ProtoAsciiReader(file, new AsciiProtoParser(), 512)) {
+			
+			int read = 0;
+			Proto proto;
+			while((proto = reader.next()) != null) {
+				int i = read / 2;
+				if (read % 2 == 0) {
+					pc.symbolId.set(i);
+					Assert.assertEquals(ProtoTestUtils.write(pc), ProtoTestUtils.write(proto));
+				} else {
+					allTypes.myInt.set(i);
+					Assert.assertEquals(ProtoTestUtils.write(allTypes), ProtoTestUtils.write(proto));
+				}
+				read++;
+			}
+			
+			Assert.assertEquals(count, read);
+			Assert.assertEquals(5, reader.getUnknownMessages());
+			Assert.assertEquals(count + 15, reader.getLineNumber());
+			Assert.assertNull(reader.next());
+		}
+		
+		try (ProtoAsciiReader reader = new ProtoAsciiReader(file, new AsciiProtoParser(), 64)) {
+			Assert.assertThrows(IOException.class, () -> reader.next());
+		}
+	}
+	
+	@Test
+	public void testNoGarbage() {
+		
+		ProtoAsciiParser asciiParser = new ProtoAsciiParser(new AsciiProtoParser() {
+			@Override
+			protected boolean useDenseDispatch() {
+				return true; // the lookup does not depend on the map implementation
+			}
+		});
+		
+		ByteBuffer[] lines = new ByteBuffer[] {
+				ascii(ProtoTestUtils.ascii(ProtoTestUtils.createPriceChange(3), true)),
+				ascii(ProtoTestUtils.ascii(createAllTypes(), false))
+		};
+		
+		for(int i = 0; i < 20000; i++) { // warm up (enum names are resolved the first time)
+			for(ByteBuffer line : lines) asciiParser.parse(line.position(0));
+		}
+		
+		com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		
+		long before = mx.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < 10000; i++) {
+			for(ByteBuffer line : lines) asciiParser.parse(line.position(0));
+		}
+		long allocated = mx.getThreadAllocatedBytes(threadId) - before;
+		
+		Assert.assertTrue("allocated " + allocated + " bytes", allocated < 10000);
+	}
+	
+	@Test
+	public void testReadAsciiPlainField() {
+		
+		// a field that does not implement readAsciiFrom cannot be read from ascii
+		PlainIntField field = new PlainIntField();
+		Assert.assertThrows(UnsupportedOperationException.class, () -> field.readAsciiFrom(ascii("42")));
+	}
+	
+	private static class Code implements IntEnum { // not a Java enum
+		
+		private final int code;
+		
+		Code(int code) {
+			this.code = code;
+		}
+		
+		@Override
+		public int getInt() {
+			return code;
+		}
+		
+		@Override
+		public String toString() {
+			return "CODE" + code;
+		}
+	}
+	
+	private static enum FarCode implements IntEnum {
+		
+		NEAR(7),
+		FAR(50000000);
+		
+		private final int code;
+		
+		private FarCode(int code) {
+			this.code = code;
+		}
+		
+		@Override
+		public int getInt() {
+			return code;
+		}
+	}
+	
+	@Test
+	public void testIntEnumCodes() {
+		
+		IntMap<Code> codes = new IntMap<Code>();
+		codes.put(-3, new Code(-3));
+		codes.put(900000, new Code(900000));
+		IntEnumField<Code> field = new IntEnumField<Code>(codes);
+		field.readAsciiFrom(ascii("CODE900000"));
+		Assert.assertEquals(900000, field.get().getInt());
+		
+		// a Java enum only needs one of its codes near zero
+		IntMap<FarCode> farCodes = new IntMap<FarCode>();
+		for(FarCode fc : FarCode.values()) farCodes.put(fc.getInt(), fc);
+		IntEnumField<FarCode> farField = new IntEnumField<FarCode>(farCodes);
+		farField.readAsciiFrom(ascii("FAR"));
+		Assert.assertSame(FarCode.FAR, farField.get());
+		
+		// values that cannot be found fail when the field is built, not when reading ascii
+		codes.put(50000000, new Code(50000000));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new IntEnumField<Code>(codes));
+		
+		// and a field built before the map changed finds the values again
+		Assert.assertThrows(IllegalArgumentException.class, () -> field.readAsciiFrom(ascii("CODE900000")));
+		codes.remove(50000000);
+		codes.put(-70, new Code(-70));
+		field.readAsciiFrom(ascii("CODE-70"));
+		Assert.assertEquals(-70, field.get().getInt());
+	}
+}
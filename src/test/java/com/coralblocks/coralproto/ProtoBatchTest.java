@@ -0,0 +1,135 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+
+public class ProtoBatchTest {
+	
+	private static class CopySender implements ProtoBatchWriter.Sender {
+		
+		final List<ByteBuffer> batches = new ArrayList<ByteBuffer>();
+		
+		@Override
+		public void send(ByteBuffer batch) {
+			ByteBuffer copy = ByteBuffer.allocate(batch.remaining());
+			copy.put(batch).flip();
+			batches.add(copy);
+		}
+	}
+	
+	@Test
+	public void testFlushWhenFull() {
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolDesc.set("IBM");
+		
+		int frameLength = ProtoFramer.HEADER_LENGTH + p1.getLength();
+		
+		CopySender sender = new CopySender();
+		ProtoBatchWriter writer = new ProtoBatchWriter(ByteBuffer.allocate(ProtoBatchWriter.HEADER_LENGTH + 3 * frameLength + 1), Long.MAX_VALUE, sender, 100);
+		
+		for(int i = 0; i < 7; i++) {
+			p1.symbolId.set(i);
+			Assert.assertEquals(100 + i, writer.write(p1));
+		}
+		
+		Assert.assertEquals(2, sender.batches.size()); // 3 + 3
+		Assert.assertEquals(1, writer.getCount());
+		
+		writer.flush();
+		Assert.assertEquals(3, sender.batches.size());
+		Assert.assertEquals(0, writer.getCount());
+		
+		ProtoBatchReader reader = new ProtoBatchReader(new ProtoParserTest.ProtoParser());
+		
+		int expectedCount[] = { 3, 3, 1 };
+		long expectedSeq = 100;
+		
+		for(int b = 0; b < 3; b++) {
+			ByteBuffer batch = sender.batches.get(b);
+			Assert.assertEquals(expectedCount[b], reader.begin(batch));
+			Assert.assertEquals(expectedSeq, reader.getFirstSequence());
+			Proto proto;
+			while((proto = reader.next()) != null) {
+				Assert.assertEquals(expectedSeq, reader.getSequence());
+				Assert.assertEquals(expectedSeq - 100, ((ProtoMessage1) proto).symbolId.get());
+				Assert.assertEquals("IBM", ((ProtoMessage1) proto).symbolDesc.get().toString());
+				expectedSeq++;
+			}
+			Assert.assertEquals(0, batch.position());
+		}
+		
+		Assert.assertEquals(107, expectedSeq);
+	}
+	
+	@Test
+	public void testFlushOnDeadline() throws InterruptedException {
+		
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolDesc.set("IBM");
+		
+		CopySender sender = new CopySender();
+		ProtoBatchWriter writer = new ProtoBatchWriter(ByteBuffer.allocate(1500), 1_000_000L, sender); // 1 millisecond
+		
+		writer.write(p1);
+		writer.write(p1);
+		
+		Thread.sleep(5);
+		
+		Assert.assertTrue(writer.flushIfDue());
+		Assert.assertEquals(1, sender.batches.size());
+		Assert.assertFalse(writer.flushIfDue()); // empty
+		
+		ProtoBatchReader reader = new ProtoBatchReader(new ProtoParserTest.ProtoParser());
+		Assert.assertEquals(2, reader.begin(sender.batches.get(0)));
+		Assert.assertEquals(1L, reader.getFirstSequence());
+		
+		// zero delay sends every message right away
+		writer = new ProtoBatchWriter(ByteBuffer.allocate(1500), 0, sender);
+		writer.write(p1);
+		Assert.assertEquals(2, sender.batches.size());
+	}
+	
+	@Test
+	public void testMessageTooBig() {
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolDesc.set("IBM");
+		ProtoBatchWriter writer = new ProtoBatchWriter(ByteBuffer.allocate(ProtoBatchWriter.HEADER_LENGTH + 8), Long.MAX_VALUE, new CopySender());
+		Assert.assertThrows(IllegalArgumentException.class, () -> writer.write(p1));
+	}
+	
+	@Test
+	public void testBadFrameLength() {
+		
+		ProtoBatchReader reader = new ProtoBatchReader(new ProtoParserTest.ProtoParser());
+		
+		for(int length : new int[] { -1, 5, Integer.MAX_VALUE }) { // the last one would overflow the end of the frame
+			ByteBuffer batch = ByteBuffer.allocate(64);
+			batch.putInt(1).putLong(1L).putInt(length).putInt(0);
+			batch.flip();
+			Assert.assertEquals(1, reader.begin(batch));
+			Assert.assertThrows(IllegalStateException.class, () -> reader.next());
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ProtoFramerTest {
+	
+	private static ProtoMessage1 message1(long symbolId, String symbolDesc) {
+		ProtoMessage1 p1 = new ProtoMessage1();
+		p1.symbolId.set(symbolId);
+		p1.symbolDesc.set(symbolDesc);
+		return p1;
+	}
+	
+	@Test
+	public void testManyFramesInOneBuffer() {
+		
+		ByteBuffer stream = ByteBuffer.allocate(1024);
+		
+		ProtoMessage2 p2 = new ProtoMessage2();
+		p2.orderId.set(33L);
+		p2.symbolDesc.markAsNotPresent();
+		p2.isMine.set(true);
+		
+		Assert.assertEquals(ProtoFramer.HEADER_LENGTH + message1(1L, "IBM").getLength(), ProtoFramer.write(message1(1L, "IBM"), stream));
+		ProtoFramer.write(p2, stream);
+		ProtoFramer.write(message1(2L, "AAPL"), stream);
+		
+		ProtoFramer framer = new ProtoFramer(new ProtoParserTest.ProtoParser());
+		
+		Proto proto = framer.next(stream);
+		Assert.assertTrue(proto instanceof ProtoMessage1);
+		Assert.assertEquals(1L, ((ProtoMessage1) proto).symbolId.get());
+		Assert.assertEquals("IBM", ((ProtoMessage1) proto).symbolDesc.get().toString());
+		
+		proto = framer.next(stream);
+		Assert.assertTrue(proto instanceof ProtoMessage2);
+		Assert.assertEquals(33L, ((ProtoMessage2) proto).orderId.get());
+		
+		proto = framer.next(stream);
+		Assert.assertTrue(proto instanceof ProtoMessage1);
+		Assert.assertEquals("AAPL", ((ProtoMessage1) proto).symbolDesc.get().toString());
+		
+		Assert.assertNull(framer.next(stream));
+		Assert.assertEquals(0, framer.pending(stream));
+		
+		framer.compact(stream);
+		Assert.assertEquals(0, stream.position());
+	}
+	
+	@Test
+	public void testPartialFrames() {
+		
+		ByteBuffer frames = ByteBuffer.allocate(1024);
+		for(int i = 0; i < 10; i++) ProtoFramer.write(message1(i, "SYM" + i), frames);
+		frames.flip();
+		
+		// a small stream buffer receiving the frames a few bytes at a time
+		ByteBuffer stream = ByteBuffer.allocate(64);
+		ProtoFramer framer = new ProtoFramer(new ProtoParserTest.ProtoParser());
+		
+		int received = 0;
+		
+		while(frames.hasRemaining()) {
+			int n = Math.min(7, Math.min(stream.remaining(), frames.remaining()));
+			for(int i = 0; i < n; i++) stream.put(frames.get());
+			Proto proto;
+			while((proto = framer.next(stream)) != null) {
+				ProtoMessage1 p1 = (ProtoMessage1) proto;
+				Assert.assertEquals(received, p1.symbolId.get());
+				Assert.assertEquals("SYM" + received, p1.symbolDesc.get().toString());
+				received++;
+			}
+			framer.compact(stream);
+			Assert.assertTrue(stream.position() < ProtoFramer.HEADER_LENGTH + message1(0, "SYM0").getLength());
+		}
+		
+		Assert.assertEquals(10, received);
+		Assert.assertEquals(0, framer.pending(stream));
+	}
+	
+	@Test
+	public void testNoRoomAndUnknownFrames() {
+		
+		ProtoMessage1 p1 = message1(1L, "IBM");
+		
+		ByteBuffer small = ByteBuffer.allocate(p1.getLength());
+		Assert.assertEquals(-1, ProtoFramer.write(p1, small));
+		Assert.assertEquals(0, small.position());
+		
+		ByteBuffer stream = ByteBuffer.allocate(256);
+		stream.putInt(4).put((byte) 'X').put((byte) 'X').putShort((short) 0); // unknown message
+		ProtoFramer.write(p1, stream);
+		
+		ProtoFramer framer = new ProtoFramer(new ProtoParserTest.ProtoParser());
+		
+		Proto proto = framer.next(stream);
+		Assert.assertTrue(proto instanceof ProtoMessage1);
+		Assert.assertEquals(1, framer.getUnknownFrames());
+	}
+	
+	@Test
+	public void testBadFrameLength() {
+		ByteBuffer stream = ByteBuffer.allocate(64);
+		stream.putInt(1000); // can never fit in the stream buffer
+		ProtoFramer framer = new ProtoFramer(new ProtoParserTest.ProtoParser());
+		Assert.assertThrows(IllegalStateException.class, () -> framer.next(stream));
+	}
+	
+	@Test
+	public void testFrameThatFailsToParse() {
+		
+		ByteBuffer stream = ByteBuffer.allocate(256);
+		ProtoFramer.write(message1(-1L, "BAD"), stream);
+		ProtoFramer.write(message1(2L, "AAPL"), stream);
+		
+		ProtoFramer framer = new ProtoFramer(new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] {
+					new ProtoMessage1() {
+						@Override
+						public void read(ByteBuffer buf) {
+							super.read(buf);
+							if (symbolId.get() < 0) throw new IllegalArgumentException("Bad symbolId: " + symbolId.get());
+						}
+					}
+				};
+			}
+		});
+		
+		Assert.assertThrows(IllegalArgumentException.class, () -> framer.next(stream));
+		
+		// the bad frame was consumed, so the next one is parsed
+		Proto proto = framer.next(stream);
+		Assert.assertTrue(proto instanceof ProtoMessage1);
+		Assert.assertEquals(2L, ((ProtoMessage1) proto).symbolId.get());
+		Assert.assertNull(framer.next(stream));
+		Assert.assertEquals(0, framer.pending(stream));
+	}
+}
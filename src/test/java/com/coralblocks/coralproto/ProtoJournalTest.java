@@ -0,0 +1,209 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ProtoJournalTest {
+	
+	@Test
+	public void testAppendAndReplay() throws IOException {
+		
+		File dir = Files.createTempDirectory("journal").toFile();
+		
+		try {
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			ProtoMessage2 p2 = new ProtoMessage2();
+			p2.symbolDesc.markAsNotPresent();
+			
+			// small segments to force rolling
+			try (ProtoJournal journal = new ProtoJournal(dir, "test", 100)) {
+				for(int i = 0; i < 20; i++) {
+					if (i % 2 == 0) {
+						p1.symbolId.set(i);
+						p1.symbolDesc.set("SYM" + i);
+						Assert.assertEquals(i + 1, journal.append(p1, 1000L + i));
+					} else {
+						p2.orderId.set(i);
+						Assert.assertEquals(i + 1, journal.append(p2, 1000L + i));
+					}
+				}
+			}
+			
+			Assert.assertTrue(ProtoJournal.getSegmentFile(dir, "test", 1).exists());
+			
+			try (ProtoJournal journal = new ProtoJournal(dir, "test", 100)) {
+				Assert.assertEquals(21, journal.getNextSequence());
+			}
+			
+			try (ProtoJournalReader reader = new ProtoJournalReader(dir, "test", new ProtoParserTest.ProtoParser())) {
+				for(int i = 0; i < 20; i++) {
+					Proto proto = reader.next();
+					Assert.assertNotNull(proto);
+					Assert.assertEquals(i + 1, reader.getSequence());
+					Assert.assertEquals(1000L + i, reader.getTimestamp());
+					if (i % 2 == 0) {
+						Assert.assertEquals(i, ((ProtoMessage1) proto).symbolId.get());
+						Assert.assertEquals("SYM" + i, ((ProtoMessage1) proto).symbolDesc.get().toString());
+					} else {
+						Assert.assertEquals(i, ((ProtoMessage2) proto).orderId.get());
+					}
+				}
+				Assert.assertNull(reader.next());
+			}
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testReopenAndTail() throws IOException {
+		
+		File dir = Files.createTempDirectory("journal").toFile();
+		
+		try {
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			p1.symbolDesc.set("IBM");
+			
+			try (ProtoJournal journal = new ProtoJournal(dir, "test", 1024)) {
+				journal.append(p1);
+				journal.append(p1);
+			}
+			
+			try (ProtoJournal journal = new ProtoJournal(dir, "test", 1024);
+				 ProtoJournalReader reader = new ProtoJournalReader(dir, "test", new ProtoParserTest.ProtoParser())) {
+				
+				Assert.assertEquals(3, journal.getNextSequence());
+				
+				Assert.assertNotNull(reader.next());
+				Assert.assertNotNull(reader.next());
+				Assert.assertNull(reader.next());
+				
+				p1.symbolId.set(33L);
+				Assert.assertEquals(3, journal.append(p1));
+				
+				Proto proto = reader.wrapNext(); // sees the new record
+				Assert.assertNotNull(proto);
+				Assert.assertEquals(3, reader.getSequence());
+				Assert.assertEquals(33L, ((ProtoMessage1) proto).symbolId.get());
+				Assert.assertEquals("IBM", ((ProtoMessage1) proto).symbolDesc.get().toString());
+			}
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testTailNewSegmentNotSizedYet() throws IOException {
+		
+		File dir = Files.createTempDirectory("journal").toFile();
+		
+		try {
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			p1.symbolDesc.set("IBM");
+			
+			int inFirstSegment = 0;
+			
+			try (ProtoJournal journal = new ProtoJournal(dir, "test", 100)) {
+				while(!ProtoJournal.getSegmentFile(dir, "test", 1).exists()) {
+					p1.symbolId.set(inFirstSegment);
+					journal.append(p1);
+					inFirstSegment++;
+				}
+			}
+			
+			inFirstSegment--; // the last one went to the second segment
+			
+			// the second segment as the reader may see it: created by the journal but not sized yet
+			try (RandomAccessFile raf = new RandomAccessFile(ProtoJournal.getSegmentFile(dir, "test", 1), "rw")) {
+				raf.setLength(0);
+			}
+			
+			try (ProtoJournalReader reader = new ProtoJournalReader(dir, "test", new ProtoParserTest.ProtoParser())) {
+				
+				for(int i = 0; i < inFirstSegment; i++) {
+					Assert.assertNotNull(reader.next());
+					Assert.assertEquals(i + 1, reader.getSequence());
+				}
+				
+				Assert.assertNull(reader.next());
+				Assert.assertNull(reader.next()); // still waiting at the end of the first segment
+				
+				try (ProtoJournal journal = new ProtoJournal(dir, "test", 100)) { // sizes the second segment
+					p1.symbolId.set(77L);
+					Assert.assertEquals(inFirstSegment + 1, journal.append(p1));
+				}
+				
+				Proto proto = reader.next();
+				Assert.assertNotNull(proto);
+				Assert.assertEquals(inFirstSegment + 1, reader.getSequence());
+				Assert.assertEquals(77L, ((ProtoMessage1) proto).symbolId.get());
+				Assert.assertNull(reader.next());
+			}
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testCorruptedLength() throws IOException {
+		
+		File dir = Files.createTempDirectory("journal").toFile();
+		
+		try {
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			p1.symbolDesc.set("IBM");
+			
+			try (ProtoJournal journal = new ProtoJournal(dir, "test", 1024)) {
+				journal.append(p1);
+				journal.append(p1);
+			}
+			
+			// the length of the second record, so big that the end of the record would overflow
+			try (RandomAccessFile raf = new RandomAccessFile(ProtoJournal.getSegmentFile(dir, "test", 0), "rw")) {
+				int length = raf.readInt();
+				raf.seek((ProtoJournal.HEADER_LENGTH + length + 3) & ~3);
+				raf.writeInt(Integer.MAX_VALUE);
+			}
+			
+			try (ProtoJournalReader reader = new ProtoJournalReader(dir, "test", new ProtoParserTest.ProtoParser())) {
+				Assert.assertNotNull(reader.next());
+				Assert.assertThrows(IOException.class, () -> reader.next());
+			}
+			
+			Assert.assertThrows(IOException.class, () -> new ProtoJournal(dir, "test", 1024));
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+}
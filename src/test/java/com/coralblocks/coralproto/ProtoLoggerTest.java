@@ -0,0 +1,291 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ProtoLoggerTest {
+	
+	private static List<String> readLines(File dir, String name) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		for(int i = 0; ProtoLogger.getLogFile(dir, name, i).exists(); i++) {
+			lines.addAll(Files.readAllLines(ProtoLogger.getLogFile(dir, name, i).toPath(), StandardCharsets.US_ASCII));
+		}
+		return lines;
+	}
+	
+	@Test
+	public void testLogAndRoll() throws IOException {
+		
+		File dir = Files.createTempDirectory("logger").toFile();
+		
+		try {
+			
+			ProtoLogger logger = new ProtoLogger(dir, "test", 4096, new ProtoParserFactory(new ProtoParserTest.ProtoParser()), 64 * 1024, 256, false, ProtoQueue.BACKOFF);
+			
+			List<String> expected = new ArrayList<String>();
+			ProtoMessage1 m1 = new ProtoMessage1();
+			ProtoMessage2 m2 = new ProtoMessage2();
+			ByteBuffer bb = ByteBuffer.allocate(256);
+			
+			for(int i = 0; i < 1000; i++) {
+				Proto proto;
+				if (i % 2 == 0) {
+					m1.symbolId.set(i);
+					m1.symbolDesc.set("IBM" + i);
+					proto = m1;
+				} else {
+					m2.orderId.set(i);
+					m2.symbolDesc.set("AAPL" + i);
+					m2.isMine.markAsNotPresent();
+					proto = m2;
+				}
+				expected.add(ProtoTestUtils.ascii(proto, false));
+				if (i % 3 == 0) {
+					bb.clear();
+					proto.write(bb);
+					bb.flip();
+					while(!logger.log(bb)) Thread.yield();
+					Assert.assertEquals(0, bb.position()); // not changed
+				} else {
+					while(!logger.log(proto)) Thread.yield();
+				}
+			}
+			
+			logger.close();
+			
+			Assert.assertNull(logger.getError());
+			Assert.assertEquals(1000, logger.getLogged());
+			Assert.assertEquals(1000, logger.getWritten());
+			Assert.assertEquals(0, logger.getQueueDepth());
+			Assert.assertEquals(0, logger.getTruncated());
+			
+			Assert.assertTrue(ProtoLogger.getLogFile(dir, "test", 5).exists()); // rolled many times
+			for(int i = 0; ProtoLogger.getLogFile(dir, "test", i).exists(); i++) {
+				Assert.assertTrue(ProtoLogger.getLogFile(dir, "test", i).length() <= 4096);
+			}
+			Assert.assertEquals(expected, readLines(dir, "test"));
+			
+			// opening again continues the last file
+			int files = dir.listFiles().length;
+			logger = new ProtoLogger(dir, "test", 4096, new ProtoParserFactory(new ProtoParserTest.ProtoParser()), 1024, 256, true, ProtoQueue.BACKOFF);
+			Assert.assertTrue(logger.log(m1));
+			logger.close();
+			expected.add(ProtoTestUtils.ascii(m1, true));
+			Assert.assertEquals(files, dir.listFiles().length);
+			Assert.assertEquals(expected, readLines(dir, "test"));
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testDropsAndQueueDepth() throws Exception {
+		
+		File dir = Files.createTempDirectory("logger").toFile();
+		
+		try {
+			
+			CountDownLatch latch = new CountDownLatch(1);
+			
+			ProtoParserFactory factory = new ProtoParserFactory(new ProtoParserTest.ProtoParser()) {
+				@Override
+				public ProtoParser newParser() {
+					try {
+						latch.await(); // holds the background thread until the queue is full
+					} catch(InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+					return super.newParser();
+				}
+			};
+			
+			ProtoLogger logger = new ProtoLogger(dir, "test", 1024 * 1024, factory, 1024, 128, true, ProtoQueue.BACKOFF);
+			
+			ProtoMessage1 m1 = new ProtoMessage1();
+			m1.symbolId.set(1L);
+			m1.symbolDesc.set("IBM");
+			
+			PriceChangeMessage unknown = new PriceChangeMessage(); // not known by the parser
+			unknown.symbolId.set(2L);
+			unknown.symbolDesc.set("AAPL");
+			unknown.mqReqId.markAsNotPresent();
+			unknown.orders.clear();
+			unknown.lastTradeQty.markAsNotPresent();
+			unknown.lastTradePrice.markAsNotPresent();
+			Assert.assertTrue(logger.log(unknown));
+			
+			int logged = 1;
+			while(logger.log(m1)) logged++;
+			for(int i = 0; i < 9; i++) Assert.assertFalse(logger.log(m1));
+			
+			Assert.assertEquals(logged, logger.getLogged());
+			Assert.assertEquals(10, logger.getDropped());
+			Assert.assertEquals(logged, logger.getQueueDepth());
+			
+			latch.countDown();
+			logger.close();
+			
+			Assert.assertEquals(0, logger.getQueueDepth());
+			Assert.assertEquals(1, logger.getUnknownMessages());
+			Assert.assertEquals(logged - 1, logger.getWritten());
+			
+			List<String> lines = readLines(dir, "test");
+			Assert.assertEquals(logged - 1, lines.size());
+			for(String line : lines) Assert.assertEquals(ProtoTestUtils.ascii(m1, true), line);
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testTruncatedLine() throws IOException {
+		
+		File dir = Files.createTempDirectory("logger").toFile();
+		
+		try {
+			
+			ProtoLogger logger = new ProtoLogger(dir, "test", 1024 * 1024, new ProtoParserFactory(new ProtoParserTest.ProtoParser()), 1024, 16, true, ProtoQueue.BACKOFF);
+			
+			ProtoMessage1 m1 = new ProtoMessage1();
+			m1.symbolId.set(1234567890L);
+			m1.symbolDesc.set("A long description");
+			Assert.assertTrue(logger.log(m1));
+			logger.close();
+			
+			Assert.assertEquals(1, logger.getTruncated());
+			List<String> lines = readLines(dir, "test");
+			Assert.assertEquals(1, lines.size());
+			Assert.assertEquals(ProtoTestUtils.ascii(m1, true).substring(0, 15), lines.get(0));
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+		
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoLogger(dir, "test", 100, null, 1024, 1000, true, ProtoQueue.BACKOFF));
+	}
+	
+	@Test
+	public void testFailedMessage() throws IOException {
+		
+		File dir = Files.createTempDirectory("logger").toFile();
+		
+		try {
+			
+			ProtoParser parser = new ProtoParser() {
+				@Override
+				protected Proto[] defineProtoMessages() {
+					return new Proto[] {
+						new ProtoMessage1() {
+							@Override
+							public void read(ByteBuffer buf) {
+								super.read(buf);
+								if (symbolId.get() == -1) throw new IllegalStateException("Cannot parse");
+							}
+							@Override
+							public void writeAscii(boolean shortVersion, ByteBuffer buf) {
+								if (symbolId.get() == -2) throw new IllegalStateException("Cannot write");
+								super.writeAscii(shortVersion, buf);
+							}
+						}
+					};
+				}
+			};
+			
+			ProtoLogger logger = new ProtoLogger(dir, "test", 1024 * 1024, new ProtoParserFactory(parser), 1024, 256, true, ProtoQueue.BACKOFF);
+			
+			ProtoMessage1 m1 = new ProtoMessage1();
+			m1.symbolDesc.set("IBM");
+			
+			long[] symbolIds = { 1L, -1L, -2L, 2L };
+			for(long symbolId : symbolIds) {
+				m1.symbolId.set(symbolId);
+				Assert.assertTrue(logger.log(m1));
+			}
+			logger.close();
+			
+			Assert.assertNull(logger.getError());
+			Assert.assertEquals(2, logger.getFailed());
+			Assert.assertEquals(0, logger.getQueueDepth());
+			Assert.assertEquals(4, logger.getWritten());
+			
+			List<String> lines = readLines(dir, "test");
+			Assert.assertEquals(4, lines.size());
+			m1.symbolId.set(1L);
+			Assert.assertEquals(ProtoTestUtils.ascii(m1, true), lines.get(0));
+			Assert.assertEquals("FAILED: java.lang.IllegalStateException: Cannot parse", lines.get(1));
+			Assert.assertEquals("FAILED: java.lang.IllegalStateException: Cannot write", lines.get(2));
+			m1.symbolId.set(2L);
+			Assert.assertEquals(ProtoTestUtils.ascii(m1, true), lines.get(3)); // kept logging
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testMessageTooLargeForQueue() throws IOException {
+		
+		File dir = Files.createTempDirectory("logger").toFile();
+		
+		try {
+			
+			ProtoLogger logger = new ProtoLogger(dir, "test", 1024 * 1024, new ProtoParserFactory(new ProtoParserTest.ProtoParser()), 1024, 4096, true, ProtoQueue.BACKOFF);
+			
+			PriceChangeMessage big = new PriceChangeMessage();
+			big.symbolDesc.set("IBM");
+			big.mqReqId.markAsNotPresent();
+			big.orders.clear();
+			for(int i = 0; i < 50; i++) {
+				big.orders.nextElement();
+				big.orders.legs.clear();
+			}
+			big.lastTradePrice.markAsNotPresent();
+			
+			Assert.assertTrue(big.getLength() > 1024 / 2);
+			Assert.assertFalse(logger.log(big)); // dropped, not thrown
+			Assert.assertFalse(logger.log(ByteBuffer.allocate(1024)));
+			
+			ProtoMessage1 m1 = new ProtoMessage1();
+			m1.symbolDesc.set("IBM");
+			Assert.assertTrue(logger.log(m1));
+			logger.close();
+			
+			Assert.assertEquals(2, logger.getDropped());
+			Assert.assertEquals(1, logger.getLogged());
+			Assert.assertEquals(1, readLines(dir, "test").size());
+			
+		} finally {
+			ProtoTestUtils.delete(dir);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ProtoMemoryTest {
+	
+	private static ProtoParser newParser() {
+		return new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { new ProtoMessage1(), new ProtoMessage2() };
+			}
+		};
+	}
+	
+	@Test
+	public void testMappedChunks() throws IOException {
+		
+		File f = File.createTempFile("memory", ".shm");
+		
+		try {
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			ProtoParser parser = newParser();
+			
+			// chunks of 1024 bytes, so some messages start close to the end of a chunk
+			try (ProtoMemory memory = new ProtoMemory(f, 10 * 1024 + 100, 256, 10)) {
+				
+				Assert.assertEquals(10 * 1024 + 100, memory.size());
+				
+				long offset = 0;
+				for(int i = 0; i < 300; i++) {
+					p1.symbolId.set(i);
+					p1.symbolDesc.set("SYM" + i);
+					int length = memory.write(p1, offset + 4);
+					Assert.assertEquals(p1.getLength(), length);
+					memory.putInt(offset, length);
+					offset += 4 + length;
+				}
+				
+				// another mapping of the same file (as another process would do) sees the messages
+				try (ProtoMemory other = new ProtoMemory(f, 10 * 1024 + 100, 256, 10)) {
+					
+					ProtoMessage1 received = new ProtoMessage1();
+					offset = 0;
+					for(int i = 0; i < 300; i++) {
+						int length = other.getInt(offset);
+						if (i % 2 == 0) {
+							other.read(received, offset + 4, length);
+						} else {
+							Proto proto = other.parse(parser, offset + 4, length);
+							Assert.assertTrue(proto instanceof ProtoMessage1);
+							received = (ProtoMessage1) proto;
+						}
+						Assert.assertEquals(i, received.symbolId.get());
+						Assert.assertEquals("SYM" + i, received.symbolDesc.get().toString());
+						offset += 4 + length;
+					}
+				}
+				
+				p1.symbolDesc.set("X");
+				Assert.assertThrows(IllegalArgumentException.class, () -> memory.write(p1, memory.size() - 10));
+				Assert.assertThrows(IllegalArgumentException.class, () -> memory.getLong(-1));
+			}
+			
+			// a 1 GB chunk plus the max message length must fit in a single mapping
+			Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoMemory(f, 1024, 1 << 30));
+			Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoMemory(f, 1024, 0));
+			
+		} finally {
+			f.delete();
+		}
+	}
+	
+	@Test
+	public void testBuffer() {
+		
+		ByteBuffer bb = ByteBuffer.allocateDirect(1024);
+		bb.position(10).limit(20);
+		
+		ProtoMemory memory = new ProtoMemory(bb).order(ByteOrder.LITTLE_ENDIAN);
+		
+		ProtoMessage2 p2 = new ProtoMessage2();
+		p2.orderId.set(12345L);
+		p2.symbolDesc.set("FLYWEIGHT");
+		int length = memory.write(p2, 500);
+		
+		memory.putLong(0, 1L);
+		Assert.assertEquals(1, bb.get(0));
+		
+		ProtoMessage2 received = new ProtoMessage2();
+		memory.wrap(received, 500, length);
+		Assert.assertEquals(12345L, received.orderId.get());
+		Assert.assertEquals("FLYWEIGHT", received.symbolDesc.get().toString());
+		Assert.assertEquals(p2, memory.wrap(newParser(), 500, length));
+		
+		// the given buffer is untouched
+		Assert.assertEquals(10, bb.position());
+		Assert.assertEquals(20, bb.limit());
+		Assert.assertEquals(ByteOrder.BIG_ENDIAN, bb.order());
+	}
+}
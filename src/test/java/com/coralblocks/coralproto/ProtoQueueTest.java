@@ -0,0 +1,154 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ProtoQueueTest {
+	
+	private static ProtoParser newParser(Proto ... protos) {
+		return new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return protos;
+			}
+		};
+	}
+	
+	@Test
+	public void testWrapAround() throws IOException {
+		
+		File f = File.createTempFile("queue", ".shm");
+		
+		try (ProtoQueue queue = new ProtoQueue(f, 256, ProtoQueue.BUSY_SPIN)) {
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			ProtoMessage2 p2 = new ProtoMessage2();
+			ProtoParser parser = newParser(new ProtoMessage1());
+			
+			Assert.assertNull(queue.poll(parser));
+			
+			int written = 0;
+			int read = 0;
+			
+			for(int round = 0; round < 50; round++) {
+				// fill it up
+				while(true) {
+					p1.symbolId.set(written);
+					p1.symbolDesc.set(written % 3 == 0 ? "A" : "ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+					if (!queue.offer(p1)) break;
+					written++;
+					if (written % 7 == 0) Assert.assertTrue(queue.offer(p2)); // not known by the parser
+				}
+				Assert.assertTrue(written - read > 1);
+				// and drain part of it
+				for(int i = 0; i < 3; i++) {
+					ProtoMessage1 received = (ProtoMessage1) queue.poll(parser);
+					Assert.assertEquals(read, received.symbolId.get());
+					read++;
+				}
+			}
+			
+			Proto proto;
+			while((proto = queue.poll(parser)) != null) {
+				Assert.assertEquals(read++, ((ProtoMessage1) proto).symbolId.get());
+			}
+			
+			Assert.assertEquals(written, read);
+			Assert.assertEquals(written / 7, queue.getUnknownMessages());
+			
+			p1.symbolDesc.set("X".repeat(128));
+			Assert.assertThrows(IllegalArgumentException.class, () -> queue.offer(p1));
+			
+		} finally {
+			f.delete();
+		}
+	}
+	
+	@Test
+	public void testTwoThreads() throws Exception {
+		
+		File f = File.createTempFile("queue", ".shm");
+		
+		final int messages = 100_000;
+		
+		try (ProtoQueue producer = new ProtoQueue(f, 4096, ProtoQueue.BACKOFF);
+			 ProtoQueue consumer = new ProtoQueue(f, 4096, ProtoQueue.BACKOFF)) {
+			
+			Thread thread = new Thread(() -> {
+				ProtoMessage1 p1 = new ProtoMessage1();
+				p1.symbolDesc.set("IBM");
+				for(int i = 0; i < messages; i++) {
+					p1.symbolId.set(i);
+					producer.put(p1);
+				}
+			});
+			
+			thread.start();
+			
+			ProtoParser parser = newParser(new ProtoMessage1());
+			for(int i = 0; i < messages; i++) {
+				ProtoMessage1 received = (ProtoMessage1) consumer.take(parser);
+				Assert.assertEquals(i, received.symbolId.get());
+				Assert.assertEquals("IBM", received.symbolDesc.get().toString());
+			}
+			
+			thread.join();
+			Assert.assertNull(consumer.poll(parser));
+			
+			Assert.assertThrows(IllegalStateException.class, () -> new ProtoQueue(f, 8192, ProtoQueue.BACKOFF));
+			
+		} finally {
+			f.delete();
+		}
+	}
+	
+	@Test
+	public void testParseFailure() throws IOException {
+		
+		try (ProtoQueue queue = new ProtoQueue(256, ProtoQueue.BUSY_SPIN)) {
+			
+			ProtoParser parser = newParser(new ProtoMessage1() {
+				@Override
+				public void read(ByteBuffer buf) {
+					super.read(buf);
+					if (symbolId.get() < 0) throw new IllegalArgumentException("Bad symbolId: " + symbolId.get());
+				}
+			});
+			
+			ProtoMessage1 p1 = new ProtoMessage1();
+			p1.symbolDesc.set("IBM");
+			p1.symbolId.set(-1L);
+			queue.put(p1);
+			p1.symbolId.set(1L);
+			queue.put(p1);
+			
+			// the bad message is consumed, so it does not block the ones after it
+			Assert.assertThrows(IllegalArgumentException.class, () -> queue.poll(parser));
+			ProtoMessage1 received = (ProtoMessage1) queue.poll(parser);
+			Assert.assertEquals(1L, received.symbolId.get());
+			Assert.assertNull(queue.poll(parser));
+		}
+	}
+}
@@ -0,0 +1,374 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.PresenceBitmapTest.BitmapMessage;
+import com.coralblocks.coralproto.ProtoSchema.FieldType;
+import com.coralblocks.coralproto.example.CompactMarketDataMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ProtoStreamParserTest {
+	
+	private static final String PRICE_CHANGE_IDL = """
+			
+		  TYPE = P
+		  SUBTYPE = C
+		  
+		  symbolId: long
+		  symbolDesc: varchars(128)
+		  mqReqId: long!
+		  
+		  orders:
+		      side: boolean
+		      levelId: long!
+		      priceLevel: double
+		      qty: int
+		      legs:
+		        legId: int
+		        legDesc: chars(8)!
+		      orderId: long
+		  
+		  lastTradeQty: long!
+		  lastTradePrice: double!
+			
+	""";
+	
+	private static final String COMPACT_MARKET_DATA_IDL = """
+			
+			TYPE = P
+			SUBTYPE = K
+			VARINT_COUNTS = true
+			
+			symbolId: varlong
+			symbolDesc: varchars(128)
+			mqReqId: varlong!
+			
+			bids:
+			    levelId: varlong!
+			    priceLevel: varlong
+			    qty: varint
+			    legs:
+			      legId: varint
+			      legDesc: varchars(128)!
+			    orders: varint
+			
+			asks:
+			    levelId: varlong!
+			    priceLevel: varlong
+			    qty: varint
+			    legs:
+			      legId: varint
+			      legDesc: varchars(128)!
+			    orders: varint
+			
+			lastTradeQty: varlong!
+			lastTradePrice: varlong!
+			
+	""";
+	
+	private static final String BITMAP_IDL = """
+			
+			TYPE = B
+			SUBTYPE = M
+			PRESENCE_BITMAP = true
+			
+			id: long
+			o1: int!
+			o2: long!
+			qty: int
+			o3: varchars(16)!
+			items:
+			   x: int
+			   y: long!
+			   z: chars(2)!
+			o4: int!
+			o5: int!
+			o6: int!
+			o7: int!
+			o8: int!
+			o9: double!
+			
+	""";
+	
+	private static final String PROTO_MESSAGE_1A_IDL = """
+			
+			TYPE = P
+			SUBTYPE = A
+			
+			symbolId: long
+			symbolDesc: varchars(128)!
+			extraField: int
+	""";
+	
+	/**
+	 * Writes down everything it gets, as <code>index=value</code>, so it can be compared with a string.
+	 */
+	private static class RecordingListener implements ProtoStreamParser.Listener {
+		
+		final StringBuilder sb = new StringBuilder(1024);
+		
+		private void append(int fieldIndex, Object value) {
+			if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '{') sb.append('|');
+			sb.append(fieldIndex).append('=').append(value);
+		}
+		
+		@Override
+		public void onNotPresent(int fieldIndex) {
+			append(fieldIndex, "-");
+		}
+		
+		@Override
+		public void onBoolean(int fieldIndex, boolean value) {
+			append(fieldIndex, value);
+		}
+		
+		@Override
+		public void onChar(int fieldIndex, char value) {
+			append(fieldIndex, value);
+		}
+		
+		@Override
+		public void onInt(int fieldIndex, int value) {
+			append(fieldIndex, value);
+		}
+		
+		@Override
+		public void onLong(int fieldIndex, long value) {
+			append(fieldIndex, value);
+		}
+		
+		@Override
+		public void onDouble(int fieldIndex, double value) {
+			append(fieldIndex, value);
+		}
+		
+		@Override
+		public void onChars(int fieldIndex, ByteBuffer buf, int offset, int length) {
+			StringBuilder chars = new StringBuilder(length);
+			for(int i = 0; i < length; i++) chars.append((char) buf.get(offset + i));
+			append(fieldIndex, chars);
+		}
+		
+		@Override
+		public void onGroupStart(int fieldIndex, int count) {
+			append(fieldIndex, count + "[");
+		}
+		
+		@Override
+		public void onElement(int elementIndex) {
+			sb.append('{');
+		}
+		
+		@Override
+		public void onGroupEnd(int fieldIndex) {
+			sb.append(']');
+		}
+	}
+	
+	@Test
+	public void testSchema() {
+		
+		ProtoSchema schema = new IDL(PRICE_CHANGE_IDL).getSchema();
+		
+		Assert.assertEquals(PriceChangeMessage.TYPE, schema.getType());
+		Assert.assertEquals(PriceChangeMessage.SUBTYPE, schema.getSubtype());
+		Assert.assertEquals(0, schema.getVersion());
+		Assert.assertEquals(6, schema.getNumberOfFields());
+		Assert.assertEquals(0, schema.getPresenceBitmapSize());
+		
+		Assert.assertEquals(1, schema.getFieldIndex("symbolDesc"));
+		Assert.assertEquals(FieldType.VARCHARS, schema.getField(1).getType());
+		Assert.assertEquals(128, schema.getField(1).getSize());
+		Assert.assertEquals(8, schema.getField(0).getFixedSize());
+		Assert.assertTrue(schema.getField(2).isOptional());
+		Assert.assertEquals(-1, schema.getField(2).getFixedSize());
+		Assert.assertThrows(IllegalArgumentException.class, () -> schema.getFieldIndex("foo"));
+		
+		ProtoSchema orders = schema.getField(3).getGroup();
+		Assert.assertEquals(FieldType.GROUP, schema.getField(3).getType());
+		Assert.assertEquals(0, orders.getType());
+		Assert.assertEquals(6, orders.getNumberOfFields());
+		Assert.assertEquals(8, orders.getField(2).getSize()); // the default precision of a double
+		
+		ProtoSchema legs = orders.getField(4).getGroup();
+		Assert.assertEquals(FieldType.CHARS, legs.getField(1).getType());
+		Assert.assertEquals(8, legs.getField(1).getSize());
+		Assert.assertNull(schema.getField(0).getGroup());
+		
+		Assert.assertEquals(2, new IDL(BITMAP_IDL).getSchema().getPresenceBitmapSize()); // 9 optional fields
+		Assert.assertEquals(1, new IDL(BITMAP_IDL).getSchema().getField(5).getGroup().getPresenceBitmapSize());
+	}
+	
+	@Test
+	public void testPriceChangeMessage() {
+		
+		PriceChangeMessage proto = new PriceChangeMessage();
+		proto.symbolId.set(1111L);
+		proto.symbolDesc.set("IBM");
+		proto.mqReqId.markAsNotPresent();
+		proto.orders.clear();
+		proto.orders.nextElement();
+		proto.orders.side.set(true);
+		proto.orders.levelId.set(11111111L);
+		proto.orders.priceLevel.set(200.15);
+		proto.orders.qty.set(1000);
+		proto.orders.legs.clear();
+		proto.orders.legs.nextElement();
+		proto.orders.legs.legId.set(1);
+		proto.orders.legs.legDesc.markAsNotPresent();
+		proto.orders.legs.nextElement();
+		proto.orders.legs.legId.set(2);
+		proto.orders.legs.legDesc.set("myLeg2  ");
+		proto.orders.orderId.set(1234L);
+		proto.orders.nextElement();
+		proto.orders.side.set(false);
+		proto.orders.levelId.markAsNotPresent();
+		proto.orders.priceLevel.set(1.5);
+		proto.orders.qty.set(7);
+		proto.orders.legs.clear();
+		proto.orders.orderId.set(9L);
+		proto.lastTradeQty.set(100);
+		proto.lastTradePrice.markAsNotPresent();
+		
+		ProtoSchema schema = new IDL(PRICE_CHANGE_IDL).getSchema();
+		ProtoStreamParser parser = new ProtoStreamParser(schema);
+		RecordingListener listener = new RecordingListener();
+		
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		Assert.assertSame(schema, parser.parse(bb, listener));
+		Assert.assertFalse(bb.hasRemaining());
+		
+		Assert.assertEquals("0=1111|1=IBM|2=-|3=2[{0=true|1=11111111|2=200.15|3=1000|4=2[{0=1|1=-{0=2|1=myLeg2  ]|5=1234" 
+							+ "{0=false|1=-|2=1.5|3=7|4=0[]|5=9]|4=100|5=-", listener.sb.toString());
+	}
+	
+	@Test
+	public void testVarintsAndVarintCounts() {
+		
+		CompactMarketDataMessage proto = new CompactMarketDataMessage();
+		proto.symbolId.set(-2222L);
+		proto.symbolDesc.set("AAPL");
+		proto.mqReqId.set(3L);
+		proto.bids.clear();
+		proto.asks.clear();
+		for(int i = 0; i < 200; i++) { // count bigger than one byte of varint
+			proto.bids.nextElement();
+			proto.bids.levelId.markAsNotPresent();
+			proto.bids.priceLevel.set(100_000 - i);
+			proto.bids.qty.set(-i);
+			proto.bids.legs.clear();
+			proto.bids.orders.set(i + 1);
+		}
+		proto.lastTradeQty.set(300L);
+		proto.lastTradePrice.markAsNotPresent();
+		
+		ProtoStreamParser parser = new ProtoStreamParser(new IDL(COMPACT_MARKET_DATA_IDL).getSchema());
+		
+		long[] sums = new long[2];
+		ProtoStreamParser.Listener listener = new ProtoStreamParser.Listener() {
+			
+			private int group = -1; // the top-level group we are in
+			private int depth = 0;
+			
+			@Override
+			public void onGroupStart(int fieldIndex, int count) {
+				if (depth++ == 0) {
+					group = fieldIndex;
+					if (fieldIndex == 3) Assert.assertEquals(200, count);
+				}
+			}
+			
+			@Override
+			public void onGroupEnd(int fieldIndex) {
+				if (--depth == 0) group = -1;
+			}
+			
+			@Override
+			public void onInt(int fieldIndex, int value) {
+				if (depth == 1 && group == 3 && fieldIndex == 2) sums[0] += value; // bids.qty
+			}
+			
+			@Override
+			public void onLong(int fieldIndex, long value) {
+				if (group == -1 && fieldIndex == 0) Assert.assertEquals(-2222L, value);
+				if (depth == 1 && group == 3 && fieldIndex == 1) sums[1] += value; // bids.priceLevel
+			}
+		};
+		
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		Assert.assertNotNull(parser.parse(bb, listener));
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(-(199 * 200 / 2), sums[0]);
+		Assert.assertEquals(200 * 100_000 - 199 * 200 / 2, sums[1]);
+	}
+	
+	@Test
+	public void testPresenceBitmap() {
+		
+		BitmapMessage proto = new BitmapMessage();
+		proto.id.set(7L);
+		proto.o1.markAsNotPresent();
+		proto.o2.set(22L);
+		proto.qty.set(100);
+		proto.o3.set("hello");
+		proto.items.clear();
+		proto.items.nextElement();
+		proto.items.x.set(1);
+		proto.items.y.markAsNotPresent();
+		proto.items.z.set("ab");
+		proto.o4.markAsNotPresent();
+		proto.o5.markAsNotPresent();
+		proto.o6.markAsNotPresent();
+		proto.o7.markAsNotPresent();
+		proto.o8.set(8);
+		proto.o9.set(9.5);
+		
+		ProtoStreamParser parser = new ProtoStreamParser(new IDL(BITMAP_IDL).getSchema());
+		RecordingListener listener = new RecordingListener();
+		
+		ByteBuffer bb = ProtoTestUtils.write(proto);
+		Assert.assertNotNull(parser.parse(bb, listener));
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals("0=7|1=-|2=22|3=100|4=hello|5=1[{0=1|1=-|2=ab]|6=-|7=-|8=-|9=-|10=8|11=9.5", listener.sb.toString());
+	}
+	
+	@Test
+	public void testOlderVersionAndUnknownMessages() {
+		
+		ProtoMessage1 proto = new ProtoMessage1(); // without the extra field appended to ProtoMessage1A
+		proto.symbolId.set(2L);
+		proto.symbolDesc.set("IBM");
+		
+		ProtoStreamParser parser = new ProtoStreamParser(new IDL(PROTO_MESSAGE_1A_IDL).getSchema());
+		RecordingListener listener = new RecordingListener();
+		
+		Assert.assertNotNull(parser.parse(ProtoTestUtils.write(proto), listener));
+		Assert.assertEquals("0=2|1=IBM|2=-", listener.sb.toString());
+		
+		ByteBuffer bb = ProtoTestUtils.write(new ProtoMessage2());
+		Assert.assertNull(parser.parse(bb, listener));
+		Assert.assertEquals(4, bb.position());
+		
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ProtoStreamParser(new IDL(PROTO_MESSAGE_1A_IDL).getSchema(), new IDL(PROTO_MESSAGE_1A_IDL).getSchema()));
+	}
+}
@@ -0,0 +1,150 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+
+import com.coralblocks.coralproto.example.MarketDataMessage;
+import com.coralblocks.coralproto.example.PriceChangeMessage;
+
+/**
+ * Helpers shared by the tests.
+ */
+final class ProtoTestUtils {
+	
+	private ProtoTestUtils() {
+		
+	}
+	
+	/**
+	 * Writes the given message to a new buffer, checking that it takes {@link Proto#getLength()} bytes.
+	 * 
+	 * @param proto the message to write
+	 * @return the buffer with the message, ready to be read
+	 */
+	static ByteBuffer write(Proto proto) {
+		ByteBuffer bb = ByteBuffer.allocate(4096);
+		proto.write(bb);
+		Assert.assertEquals(proto.getLength(), bb.position());
+		bb.flip();
+		return bb;
+	}
+	
+	/**
+	 * Returns the ascii of the given message, as written by {@link Proto#writeAscii(boolean, ByteBuffer)}.
+	 * 
+	 * @param proto the message
+	 * @param shortVersion true to leave out the class name of the message
+	 * @return the ascii of the message
+	 */
+	static String ascii(Proto proto, boolean shortVersion) {
+		ByteBuffer bb = ByteBuffer.allocate(4096);
+		proto.writeAscii(shortVersion, bb);
+		bb.flip();
+		return StandardCharsets.ISO_8859_1.decode(bb).toString();
+	}
+	
+	/**
+	 * Creates a <code>PriceChangeMessage</code> with the given number of orders. Order <code>i</code> has <code>i + 1</code> legs, its
+	 * <code>levelId</code> is not present when <code>i</code> is odd and the odd legs have no <code>legDesc</code>.
+	 * 
+	 * @param numberOfOrders the number of elements of the orders repeating group
+	 * @return the populated message
+	 */
+	static PriceChangeMessage createPriceChange(int numberOfOrders) {
+		PriceChangeMessage proto = new PriceChangeMessage();
+		proto.symbolId.set(1111L);
+		proto.symbolDesc.set("IBM");
+		proto.mqReqId.markAsNotPresent();
+		proto.orders.clear();
+		for(int i = 0; i < numberOfOrders; i++) {
+			proto.orders.nextElement();
+			proto.orders.side.set(i % 2 == 0);
+			if (i % 2 == 0) {
+				proto.orders.levelId.set(-7L * i);
+			} else {
+				proto.orders.levelId.markAsNotPresent();
+			}
+			proto.orders.priceLevel.set(200.15 + i);
+			proto.orders.qty.set(1000 + i);
+			proto.orders.legs.clear();
+			for(int j = 0; j <= i; j++) {
+				proto.orders.legs.nextElement();
+				proto.orders.legs.legId.set(j);
+				if (j % 2 == 0) {
+					proto.orders.legs.legDesc.set("myLeg" + j + "  ");
+				} else {
+					proto.orders.legs.legDesc.markAsNotPresent();
+				}
+			}
+			proto.orders.orderId.set(1234L + i);
+		}
+		proto.lastTradeQty.set(100);
+		proto.lastTradePrice.markAsNotPresent();
+		return proto;
+	}
+	
+	/**
+	 * Creates a <code>MarketDataMessage</code> with the given number of bid and ask levels. Bid <code>i</code> has one leg and its
+	 * <code>levelId</code> is not present when <code>i</code> is odd. The asks have no legs and <code>lastTradeQty</code> is not present.
+	 * 
+	 * @param levels the number of elements of the bids and asks repeating groups
+	 * @return the populated message
+	 */
+	static MarketDataMessage createMarketData(int levels) {
+		MarketDataMessage proto = new MarketDataMessage();
+		proto.symbolId.set(2222L);
+		proto.symbolDesc.set("AAPL");
+		proto.mqReqId.set(3L);
+		proto.bids.clear();
+		proto.asks.clear();
+		for(int i = 0; i < levels; i++) {
+			proto.bids.nextElement();
+			if (i % 2 == 0) proto.bids.levelId.set(i); else proto.bids.levelId.markAsNotPresent();
+			proto.bids.priceLevel.set(100 - i);
+			proto.bids.qty.set(10 * i);
+			proto.bids.legs.clear();
+			proto.bids.legs.nextElement();
+			proto.bids.legs.legId.set(i);
+			proto.bids.legs.legDesc.set("leg" + i);
+			proto.bids.orders.set(i + 1);
+			proto.asks.nextElement();
+			proto.asks.levelId.set(i);
+			proto.asks.priceLevel.set(101 + i);
+			proto.asks.qty.set(7);
+			proto.asks.legs.clear();
+			proto.asks.orders.set(1);
+		}
+		proto.lastTradeQty.markAsNotPresent();
+		proto.lastTradePrice.set(99L);
+		return proto;
+	}
+	
+	/**
+	 * Deletes the given directory and the files in it.
+	 * 
+	 * @param dir the directory to delete
+	 */
+	static void delete(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) for(File f : files) f.delete();
+		dir.delete();
+	}
+}
@@ -69,6 +69,9 @@ public class RepeatingGroupsTest {
         public static final char TYPE = 'A';
         public static final char SUBTYPE = 'F';
 
+        public static final int MY_BOOLEAN_OFFSET = 4;
+        public static final int MY_LONG_OFFSET = 5;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
@@ -0,0 +1,193 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.ProtoMessage1;
+import com.coralblocks.coralproto.example.ProtoMessage2;
+
+public class ShardedProtoDecoderTest {
+	
+	@Test
+	public void testParserFactory() throws Exception {
+		
+		ProtoParserTest.ProtoParser parser = new ProtoParserTest.ProtoParser();
+		parser.setProjection(ProtoMessage1.TYPE, ProtoMessage1.SUBTYPE, (short) 0, "symbolId");
+		
+		ProtoParserFactory factory = new ProtoParserFactory(parser);
+		
+		ProtoParser p1 = factory.newParser();
+		ProtoParser p2 = factory.getParser();
+		Assert.assertSame(p2, factory.getParser());
+		
+		ProtoParser[] other = new ProtoParser[1];
+		Thread thread = new Thread(() -> other[0] = factory.getParser());
+		thread.start();
+		thread.join();
+		Assert.assertNotSame(p2, other[0]);
+		
+		ProtoMessage1 m = new ProtoMessage1();
+		m.symbolId.set(22L);
+		m.symbolDesc.set("IBM");
+		ByteBuffer bb = ByteBuffer.allocate(256);
+		m.write(bb);
+		bb.flip();
+		
+		ProtoMessage1 parsed1 = (ProtoMessage1) p1.parse(bb.duplicate());
+		ProtoMessage1 parsed2 = (ProtoMessage1) p2.parse(bb.duplicate());
+		Assert.assertNotSame(parsed1, parsed2);
+		Assert.assertEquals(22L, parsed1.symbolId.get());
+		Assert.assertEquals(22L, parsed2.symbolId.get());
+		Assert.assertFalse(parsed1.symbolDesc.isPresent()); // the projection was copied
+		
+		// only the parsers that need them keep the indexes of the messages
+		Assert.assertThrows(IllegalStateException.class, () -> p1.getIndex(m));
+		
+		// a parser that does not define new instances each time cannot be used
+		ProtoMessage2 shared = new ProtoMessage2();
+		ProtoParser sharing = new ProtoParser() {
+			@Override
+			protected Proto[] defineProtoMessages() {
+				return new Proto[] { shared };
+			}
+		};
+		Assert.assertThrows(IllegalStateException.class, () -> new ProtoParserFactory(sharing).newParser());
+	}
+	
+	@Test
+	public void testRoutingByKey() throws Exception {
+		
+		final int workers = 4;
+		final int messages = 50_000;
+		final int keys = 37;
+		
+		long[][] lastSymbolId = new long[workers][keys]; // each worker only writes its own row
+		int[] received = new int[workers];
+		int[] outOfOrder = new int[workers];
+		
+		ShardedProtoDecoder decoder = new ShardedProtoDecoder(new ProtoParserFactory(new ProtoParserTest.ProtoParser()), workers, 4096,
+				buf -> buf.getLong(buf.position() + 4) % keys, // the symbolId of ProtoMessage1 (after type, subtype and version)
+				(worker, proto) -> {
+					long symbolId = ((ProtoMessage1) proto).symbolId.get();
+					int key = (int) (symbolId % keys);
+					if (symbolId < lastSymbolId[worker][key]) outOfOrder[worker]++;
+					lastSymbolId[worker][key] = symbolId;
+					received[worker]++;
+				}, ProtoQueue.BACKOFF);
+		
+		Assert.assertEquals(workers, decoder.getNumberOfWorkers());
+		
+		ProtoMessage1 m = new ProtoMessage1();
+		m.symbolDesc.set("IBM");
+		ByteBuffer bb = ByteBuffer.allocate(256);
+		
+		int[] routed = new int[workers];
+		
+		for(int i = 1; i <= messages; i++) {
+			m.symbolId.set(i);
+			bb.clear();
+			m.write(bb);
+			bb.flip();
+			int worker = decoder.decode(bb);
+			Assert.assertEquals(decoder.getWorker(i % keys), worker);
+			Assert.assertEquals(0, bb.position());
+			routed[worker]++;
+		}
+		
+		decoder.close();
+		
+		int total = 0;
+		for(int i = 0; i < workers; i++) {
+			Assert.assertEquals(routed[i], received[i]);
+			Assert.assertEquals(0, outOfOrder[i]);
+			Assert.assertTrue(received[i] > 0);
+			total += received[i];
+		}
+		Assert.assertEquals(messages, total);
+	}
+	
+	@Test
+	public void testListenerThrows() throws Exception {
+		
+		final int messages = 1000;
+		
+		int[] received = new int[1];
+		
+		ShardedProtoDecoder decoder = new ShardedProtoDecoder(new ProtoParserFactory(new ProtoParserTest.ProtoParser()), 1, 4096,
+				buf -> 0L,
+				(worker, proto) -> {
+					long symbolId = ((ProtoMessage1) proto).symbolId.get();
+					if (symbolId % 2 != 0) throw new IllegalArgumentException("Odd symbolId: " + symbolId);
+					received[0]++;
+				}, ProtoQueue.BACKOFF);
+		
+		ProtoMessage1 m = new ProtoMessage1();
+		m.symbolDesc.set("IBM");
+		
+		for(int i = 0; i < messages; i++) {
+			m.symbolId.set(i);
+			decoder.decode(ProtoTestUtils.write(m));
+		}
+		
+		decoder.close();
+		
+		// the worker survived the exceptions and went on with the next messages
+		Assert.assertEquals(messages / 2, received[0]);
+		Assert.assertEquals(messages / 2, decoder.getErrors());
+		Assert.assertEquals("Odd symbolId: " + (messages - 1), decoder.getLastError().getMessage());
+	}
+	
+	@Test
+	public void testDeadWorker() throws Exception {
+		
+		Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler((thread, e) -> { }); // the error below is expected
+		
+		try {
+			
+			ShardedProtoDecoder decoder = new ShardedProtoDecoder(new ProtoParserFactory(new ProtoParserTest.ProtoParser()), 1, 4096,
+					buf -> 0L,
+					(worker, proto) -> {
+						throw new AssertionError("Not an exception");
+					}, ProtoQueue.BACKOFF);
+			
+			ProtoMessage1 m = new ProtoMessage1();
+			m.symbolDesc.set("IBM");
+			
+			// decode fails instead of filling the queue of a worker that is gone
+			boolean failed = false;
+			for(int i = 0; i < 1000 && !failed; i++) {
+				try {
+					m.symbolId.set(i);
+					decoder.decode(ProtoTestUtils.write(m));
+					Thread.sleep(5);
+				} catch(IllegalStateException e) {
+					failed = true;
+				}
+			}
+			Assert.assertTrue(failed);
+			
+			decoder.close();
+			
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(handler);
+		}
+	}
+}
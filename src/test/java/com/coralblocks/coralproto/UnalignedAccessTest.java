@@ -0,0 +1,364 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.SampleProtoMessage;
+import com.coralblocks.coralproto.field.DoubleField;
+import com.coralblocks.coralproto.field.FloatField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.LongField;
+import com.coralblocks.coralproto.field.ShortField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TypeField;
+import com.coralblocks.coralproto.field.VarCharsField;
+import com.coralblocks.coralproto.util.UnalignedAccess;
+
+public class UnalignedAccessTest {
+	
+	public static class BlockMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = U
+				SUBTYPE = B
+				DIRECT_ACCESS = true
+				
+				symbolId: long
+				priceLevel: double
+				qty: int
+				side: short
+				rate: float(3)
+				symbolDesc: varchars(16)
+				lastQty: long!
+				
+		""";
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'U';
+        public static final char SUBTYPE = 'B';
+
+        public static final int SYMBOL_ID_OFFSET = 4;
+        public static final int PRICE_LEVEL_OFFSET = 12;
+        public static final int QTY_OFFSET = 20;
+        public static final int SIDE_OFFSET = 24;
+        public static final int RATE_OFFSET = 26;
+        public static final int SYMBOL_DESC_OFFSET = 30;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final LongField symbolId = new LongField(this);
+
+        public final DoubleField priceLevel = new DoubleField(this);
+
+        public final IntField qty = new IntField(this);
+
+        public final ShortField side = new ShortField(this);
+
+        public final FloatField rate = new FloatField(this, 3);
+
+        public final VarCharsField symbolDesc = new VarCharsField(this, 16);
+
+        public final LongField lastQty = new LongField(this, true);
+
+        @Override
+        public int getLength() {
+            int len = SYMBOL_DESC_OFFSET; // type + subtype + version + fixed-size fields
+            len += symbolDesc.size();
+            len += lastQty.size();
+            return len;
+        }
+
+        @Override
+        public void read(ByteBuffer buf) {
+            if (getProjection() != ALL_FIELDS) {
+                super.read(buf); // skips the fields outside the projection
+                return;
+            }
+            int start = buf.position() - SYMBOL_ID_OFFSET;
+            if (buf.remaining() >= SYMBOL_DESC_OFFSET - SYMBOL_ID_OFFSET) { // all the fields of the block at once
+                symbolId.readFrom(buf, start + SYMBOL_ID_OFFSET);
+                priceLevel.readFrom(buf, start + PRICE_LEVEL_OFFSET);
+                qty.readFrom(buf, start + QTY_OFFSET);
+                side.readFrom(buf, start + SIDE_OFFSET);
+                rate.readFrom(buf, start + RATE_OFFSET);
+                buf.position(start + SYMBOL_DESC_OFFSET);
+            } else {
+                if (buf.hasRemaining()) {
+                    symbolId.readFrom(buf);
+                } else {
+                    symbolId.reset();
+                }
+                if (buf.hasRemaining()) {
+                    priceLevel.readFrom(buf);
+                } else {
+                    priceLevel.reset();
+                }
+                if (buf.hasRemaining()) {
+                    qty.readFrom(buf);
+                } else {
+                    qty.reset();
+                }
+                if (buf.hasRemaining()) {
+                    side.readFrom(buf);
+                } else {
+                    side.reset();
+                }
+                if (buf.hasRemaining()) {
+                    rate.readFrom(buf);
+                } else {
+                    rate.reset();
+                }
+            }
+            if (buf.hasRemaining()) {
+                symbolDesc.readFrom(buf);
+            } else {
+                symbolDesc.reset();
+            }
+            if (buf.hasRemaining() && buf.get() == 'Y') {
+                lastQty.readFrom(buf);
+            } else {
+                lastQty.markAsNotPresent();
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buf) {
+            buf.put((byte) TYPE);
+            buf.put((byte) SUBTYPE);
+            buf.putShort((short) 0);
+            int start = buf.position() - SYMBOL_ID_OFFSET;
+            if (buf.remaining() >= SYMBOL_DESC_OFFSET - SYMBOL_ID_OFFSET) { // all the fields of the block at once
+                symbolId.writeTo(buf, start + SYMBOL_ID_OFFSET);
+                priceLevel.writeTo(buf, start + PRICE_LEVEL_OFFSET);
+                qty.writeTo(buf, start + QTY_OFFSET);
+                side.writeTo(buf, start + SIDE_OFFSET);
+                rate.writeTo(buf, start + RATE_OFFSET);
+                buf.position(start + SYMBOL_DESC_OFFSET);
+            } else {
+                symbolId.writeTo(buf);
+                priceLevel.writeTo(buf);
+                qty.writeTo(buf);
+                side.writeTo(buf);
+                rate.writeTo(buf);
+            }
+            symbolDesc.writeTo(buf);
+            if (lastQty.isPresent()) {
+                buf.put((byte) 'Y');
+                lastQty.writeTo(buf);
+            } else {
+                buf.put((byte) 'N');
+            }
+        }
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	public static class LoopBlockMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = U
+				SUBTYPE = B
+				
+				symbolId: long
+				priceLevel: double
+				qty: int
+				side: short
+				rate: float(3)
+				symbolDesc: varchars(16)
+				lastQty: long!
+				
+		""";
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'U';
+        public static final char SUBTYPE = 'B';
+
+        public static final int SYMBOL_ID_OFFSET = 4;
+        public static final int PRICE_LEVEL_OFFSET = 12;
+        public static final int QTY_OFFSET = 20;
+        public static final int SIDE_OFFSET = 24;
+        public static final int RATE_OFFSET = 26;
+        public static final int SYMBOL_DESC_OFFSET = 30;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final LongField symbolId = new LongField(this);
+
+        public final DoubleField priceLevel = new DoubleField(this);
+
+        public final IntField qty = new IntField(this);
+
+        public final ShortField side = new ShortField(this);
+
+        public final FloatField rate = new FloatField(this, 3);
+
+        public final VarCharsField symbolDesc = new VarCharsField(this, 16);
+
+        public final LongField lastQty = new LongField(this, true);
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	private static ByteBuffer[] allBuffers() {
+		ByteBuffer sliced = ByteBuffer.allocate(256).position(3).slice(); // arrayOffset() != 0
+		return new ByteBuffer[] {
+			ByteBuffer.allocate(128), ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN),
+			ByteBuffer.allocateDirect(128), ByteBuffer.allocateDirect(128).order(ByteOrder.LITTLE_ENDIAN),
+			sliced, sliced.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+		};
+	}
+	
+	@Test
+	public void testSameAsByteBuffer() {
+		
+		for(ByteBuffer bb : allBuffers()) {
+			
+			UnalignedAccess.putShort(bb, 1, (short) -12345);
+			UnalignedAccess.putInt(bb, 3, 0x01020304);
+			UnalignedAccess.putLong(bb, 7, 0x0102030405060708L);
+			
+			Assert.assertEquals((short) -12345, bb.getShort(1));
+			Assert.assertEquals(0x01020304, bb.getInt(3));
+			Assert.assertEquals(0x0102030405060708L, bb.getLong(7));
+			Assert.assertEquals(bb.order() == ByteOrder.BIG_ENDIAN ? 1 : 4, bb.get(3));
+			
+			bb.putShort(20, (short) 777);
+			bb.putInt(23, -99999);
+			bb.putLong(29, Long.MIN_VALUE + 1);
+			
+			for(ByteBuffer b : new ByteBuffer[] { bb, bb.asReadOnlyBuffer().order(bb.order()) }) {
+				Assert.assertEquals((short) 777, UnalignedAccess.getShort(b, 20));
+				Assert.assertEquals(-99999, UnalignedAccess.getInt(b, 23));
+				Assert.assertEquals(Long.MIN_VALUE + 1, UnalignedAccess.getLong(b, 29));
+			}
+			
+			Assert.assertEquals(0, bb.position());
+		}
+	}
+	
+	private static void fill(BlockMessage m) {
+		m.symbolId.set(1111L);
+		m.priceLevel.set(200.55);
+		m.qty.set(800);
+		m.side.set((short) -1);
+		m.rate.set(1.125f);
+		m.symbolDesc.set("IBM");
+		m.lastQty.set(300L);
+	}
+	
+	@Test
+	public void testFixedBlock() {
+		
+		Assert.assertEquals(4, BlockMessage.SYMBOL_ID_OFFSET);
+		Assert.assertEquals(30, BlockMessage.SYMBOL_DESC_OFFSET);
+		
+		BlockMessage m = new BlockMessage();
+		fill(m);
+		
+		for(ByteBuffer bb : allBuffers()) {
+			
+			bb.clear();
+			bb.put((byte) 'X'); // not aligned
+			m.write(bb);
+			Assert.assertEquals(1 + m.getLength(), bb.position());
+			bb.flip();
+			
+			// the same bytes as the regular field by field path
+			LoopBlockMessage loop = new LoopBlockMessage();
+			ByteBuffer expected = ByteBuffer.allocate(128).order(bb.order());
+			bb.position(5);
+			loop.read(bb);
+			loop.write(expected);
+			expected.flip();
+			bb.position(1);
+			Assert.assertEquals(expected, bb);
+			
+			bb.position(5);
+			BlockMessage received = new BlockMessage();
+			received.read(bb);
+			Assert.assertFalse(bb.hasRemaining());
+			Assert.assertEquals(m, received);
+		}
+	}
+	
+	@Test
+	public void testShortBuffers() {
+		
+		BlockMessage m = new BlockMessage();
+		fill(m);
+		
+		ByteBuffer bb = ByteBuffer.allocate(128);
+		m.write(bb);
+		
+		// an older version of the message without the last fields of the block goes field by field
+		bb.flip().limit(BlockMessage.SYMBOL_ID_OFFSET + 8 + 8).position(4);
+		BlockMessage received = new BlockMessage();
+		received.read(bb);
+		Assert.assertEquals(1111L, received.symbolId.get());
+		Assert.assertEquals(200.55, received.priceLevel.get(), 0.0);
+		Assert.assertEquals(0, received.qty.get());
+		Assert.assertFalse(received.lastQty.isPresent());
+		
+		// writing goes field by field too and runs out of room like before
+		ByteBuffer small = ByteBuffer.allocate(BlockMessage.SYMBOL_ID_OFFSET + 10);
+		Assert.assertThrows(java.nio.BufferOverflowException.class, () -> m.write(small));
+		Assert.assertEquals(BlockMessage.SYMBOL_ID_OFFSET + 8, small.position());
+	}
+	
+	@Test
+	public void testSampleProtoMessage() {
+		
+		SampleProtoMessage spm = new SampleProtoMessage();
+		spm.aByte = -23;
+		spm.aShort = 3333;
+		spm.aInt = -1111111;
+		spm.aLong = 2222222222L;
+		spm.chars.set("ABCDEFGH");
+		spm.bytes.set("abcdefgh".getBytes());
+		
+		for(ByteBuffer bb : allBuffers()) {
+			bb.clear();
+			spm.write(bb);
+			Assert.assertEquals(spm.getLength(), bb.position());
+			Assert.assertEquals(2222222222L, bb.getLong(4 + 7));
+			bb.flip().position(4);
+			SampleProtoMessage received = new SampleProtoMessage();
+			received.read(bb);
+			Assert.assertFalse(bb.hasRemaining());
+			Assert.assertEquals(spm.aByte, received.aByte);
+			Assert.assertEquals(spm.aShort, received.aShort);
+			Assert.assertEquals(spm.aInt, received.aInt);
+			Assert.assertEquals(spm.aLong, received.aLong);
+		}
+	}
+}
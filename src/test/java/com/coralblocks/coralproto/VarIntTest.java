@@ -0,0 +1,411 @@
+/* 
+ * Copyright 2015-2024 (c) CoralBlocks LLC - http://www.coralblocks.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package com.coralblocks.coralproto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.coralblocks.coralproto.example.CompactMarketDataMessage;
+import com.coralblocks.coralproto.example.MarketDataMessage;
+import com.coralblocks.coralproto.field.GroupField;
+import com.coralblocks.coralproto.field.IntField;
+import com.coralblocks.coralproto.field.ProtoField;
+import com.coralblocks.coralproto.field.RepeatingGroupField;
+import com.coralblocks.coralproto.field.SubtypeField;
+import com.coralblocks.coralproto.field.TypeField;
+import com.coralblocks.coralproto.field.VarCharsField;
+import com.coralblocks.coralproto.field.VarIntField;
+import com.coralblocks.coralproto.field.VarLongField;
+import com.coralblocks.coralproto.util.VarIntUtils;
+
+public class VarIntTest {
+	
+	public static class VarIntEncoderMessage extends AbstractProto {
+		
+		private static final String IDL_CODE = """
+				
+				TYPE = V
+				SUBTYPE = I
+				ENCODER = true
+				VARINT_COUNTS = true
+				
+				id: varlong
+				delta: varint!
+				items:
+				   qty: varint
+				   price: varlong
+				note: varchars(16)
+				
+		""";
+		
+		public static void main(String[] args) throws IOException {
+			IDL idl = new IDL(IDL_CODE, IDL.INDENT + IDL.INDENT);
+			String filePath = "src/test/java/com/coralblocks/coralproto/" + VarIntTest.class.getSimpleName() + ".java";
+			String sourceCode = idl.getCode();
+			IDL.replaceAutoGeneratedCode(filePath, sourceCode);
+		}
+		
+		// Auto-generated code. Do not edit or change anything below here
+		
+		// BEGIN_AUTO_GENERATED_CODE
+
+        public static final char TYPE = 'V';
+        public static final char SUBTYPE = 'I';
+
+        public static final int ID_OFFSET = 4;
+
+        public final TypeField typeField = new TypeField(this, TYPE);
+        public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
+
+        public final VarLongField id = new VarLongField(this);
+
+        public final VarIntField delta = new VarIntField(this, true);
+
+        public static class ItemsRepeatingGroup extends RepeatingGroupField {
+
+            public VarIntField qty;
+
+            public VarLongField price;
+
+            public ItemsRepeatingGroup(AbstractProto proto) {
+                this(proto, new VarIntField(), new VarLongField());
+            }
+
+            public ItemsRepeatingGroup(AbstractProto proto, ProtoField ... protoFields) {
+                super(proto, true, protoFields);
+            }
+
+            @Override
+            public GroupField nextElement() {
+                GroupField groupField = super.nextElement();
+                this.qty = (VarIntField) groupField.internalArray()[0];
+                this.price = (VarLongField) groupField.internalArray()[1];
+                return groupField;
+            } 
+
+            @Override
+            public GroupField iterNext() {
+                GroupField groupField = super.iterNext();
+                if (groupField != null) {
+                    this.qty = (VarIntField) groupField.internalArray()[0];
+                    this.price = (VarLongField) groupField.internalArray()[1];
+                }
+                return groupField;
+            } 
+
+            @Override
+            protected final RepeatingGroupField newInstance(ProtoField[] protoFields) {
+                return new ItemsRepeatingGroup(null, protoFields);
+            } 
+
+        }
+
+        public final ItemsRepeatingGroup items = new ItemsRepeatingGroup(this);
+
+        public final VarCharsField note = new VarCharsField(this, 16);
+
+        public static final class Encoder extends AbstractProtoEncoder {
+
+            private final ItemsEncoder itemsEncoder = new ItemsEncoder();
+
+            public Encoder() {
+                super(TYPE, SUBTYPE, (short) 0, 4);
+            }
+
+            public Encoder wrap(ByteBuffer buf) {
+                begin(buf);
+                return this;
+            }
+
+            public Encoder id(long value) {
+                next(0);
+                putVarLong(value);
+                return this;
+            }
+
+            public Encoder delta(int value) {
+                next(1);
+                putPresent(true);
+                putVarInt(value);
+                return this;
+            }
+
+            public Encoder deltaNotPresent() {
+                next(1);
+                putPresent(false);
+                return this;
+            }
+
+            public ItemsEncoder items(int numberOfElements) {
+                next(2);
+                return beginGroup(itemsEncoder, numberOfElements, true);
+            }
+
+            public Encoder note(CharSequence value) {
+                next(3);
+                putVarChars(value, 16);
+                return this;
+            }
+
+            public static final class ItemsEncoder extends AbstractProtoEncoder {
+
+                private ItemsEncoder() {
+                    super(2);
+                }
+
+                public ItemsEncoder qty(int value) {
+                    next(0);
+                    putVarInt(value);
+                    return this;
+                }
+
+                public ItemsEncoder price(long value) {
+                    next(1);
+                    putVarLong(value);
+                    return this;
+                }
+
+            }
+
+        }
+
+
+		// END_AUTO_GENERATED_CODE
+	}
+	
+	@Test
+	public void testVarIntUtils() {
+		
+		ByteBuffer bb = ByteBuffer.allocate(64);
+		
+		int[] ints = { 0, 1, -1, 63, -64, 64, -65, 8191, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		int[] intSizes = { 1, 1, 1, 1, 1, 2, 2, 2, 3, 5, 5 };
+		
+		for(int i = 0; i < ints.length; i++) {
+			bb.clear();
+			VarIntUtils.putVarInt(bb, ints[i]);
+			Assert.assertEquals(intSizes[i], bb.position());
+			Assert.assertEquals(intSizes[i], VarIntUtils.sizeOfVarInt(ints[i]));
+			bb.flip();
+			Assert.assertEquals(ints[i], VarIntUtils.getVarInt(bb));
+			Assert.assertFalse(bb.hasRemaining());
+			bb.position(0);
+			VarIntUtils.skip(bb);
+			Assert.assertFalse(bb.hasRemaining());
+		}
+		
+		long[] longs = { 0L, -1L, 100_000L, Integer.MAX_VALUE + 1L, Long.MAX_VALUE, Long.MIN_VALUE };
+		int[] longSizes = { 1, 1, 3, 5, 10, 10 };
+		
+		for(int i = 0; i < longs.length; i++) {
+			bb.clear();
+			VarIntUtils.putVarLong(bb, longs[i]);
+			Assert.assertEquals(longSizes[i], bb.position());
+			Assert.assertEquals(longSizes[i], VarIntUtils.sizeOfVarLong(longs[i]));
+			bb.flip();
+			Assert.assertEquals(longs[i], VarIntUtils.getVarLong(bb));
+			Assert.assertFalse(bb.hasRemaining());
+		}
+		
+		bb.clear();
+		VarIntUtils.putUnsignedVarInt(bb, 127);
+		VarIntUtils.putUnsignedVarInt(bb, 128);
+		Assert.assertEquals(1 + 2, bb.position());
+	}
+	
+	@Test
+	public void testCompactMarketDataMessage() {
+		
+		MarketDataMessage md = ProtoTestUtils.createMarketData(50);
+		
+		ByteBuffer bb = ByteBuffer.allocate(8192);
+		md.write(bb);
+		bb.flip();
+		bb.position(4);
+		
+		// the same schema with varints, so the contents can be read through the wire
+		CompactMarketDataMessage compact = new CompactMarketDataMessage();
+		MarketDataMessage mdCopy = new MarketDataMessage();
+		mdCopy.read(bb);
+		Assert.assertEquals(md, mdCopy);
+		
+		copy(md, compact);
+		
+		ByteBuffer compactBuf = ByteBuffer.allocate(8192);
+		compact.write(compactBuf);
+		Assert.assertEquals(compact.getLength(), compactBuf.position());
+		
+		// at least 40% smaller
+		Assert.assertTrue(compact.getLength() + " vs " + md.getLength(), compact.getLength() <= md.getLength() * 0.6);
+		
+		compactBuf.flip();
+		compactBuf.position(4);
+		CompactMarketDataMessage received = new CompactMarketDataMessage();
+		received.read(compactBuf);
+		Assert.assertFalse(compactBuf.hasRemaining());
+		Assert.assertEquals(compact.toString(), received.toString());
+		Assert.assertEquals(1, getLastAskOrders(received));
+		
+		// skipping the groups (projection) walks the varints too
+		received.setProjection(received.toProjection("lastTradePrice"));
+		compactBuf.position(4);
+		received.read(compactBuf);
+		Assert.assertFalse(compactBuf.hasRemaining());
+		Assert.assertEquals(99L, received.lastTradePrice.get());
+	}
+	
+	private static int getLastAskOrders(CompactMarketDataMessage proto) {
+		int orders = 0;
+		proto.asks.beginIteration();
+		while(proto.asks.iterHasNext()) {
+			proto.asks.iterNext();
+			orders = proto.asks.orders.get();
+		}
+		return orders;
+	}
+	
+	private static void copy(MarketDataMessage from, CompactMarketDataMessage to) {
+		to.symbolId.set(from.symbolId.get());
+		to.symbolDesc.set(from.symbolDesc.get());
+		to.mqReqId.set(from.mqReqId.get());
+		to.bids.clear();
+		from.bids.beginIteration();
+		while(from.bids.iterHasNext()) {
+			from.bids.iterNext();
+			to.bids.nextElement();
+			if (from.bids.levelId.isPresent()) to.bids.levelId.set(from.bids.levelId.get()); else to.bids.levelId.markAsNotPresent();
+			to.bids.priceLevel.set(from.bids.priceLevel.get());
+			to.bids.qty.set(from.bids.qty.get());
+			to.bids.legs.clear();
+			from.bids.legs.beginIteration();
+			while(from.bids.legs.iterHasNext()) {
+				from.bids.legs.iterNext();
+				to.bids.legs.nextElement();
+				to.bids.legs.legId.set(from.bids.legs.legId.get());
+				to.bids.legs.legDesc.set(from.bids.legs.legDesc.get());
+			}
+			to.bids.orders.set(from.bids.orders.get());
+		}
+		to.asks.clear();
+		from.asks.beginIteration();
+		while(from.asks.iterHasNext()) {
+			from.asks.iterNext();
+			to.asks.nextElement();
+			if (from.asks.levelId.isPresent()) to.asks.levelId.set(from.asks.levelId.get()); else to.asks.levelId.markAsNotPresent();
+			to.asks.priceLevel.set(from.asks.priceLevel.get());
+			to.asks.qty.set(from.asks.qty.get());
+			to.asks.legs.clear();
+			to.asks.orders.set(from.asks.orders.get());
+		}
+		if (from.lastTradeQty.isPresent()) to.lastTradeQty.set(from.lastTradeQty.get()); else to.lastTradeQty.markAsNotPresent();
+		if (from.lastTradePrice.isPresent()) to.lastTradePrice.set(from.lastTradePrice.get()); else to.lastTradePrice.markAsNotPresent();
+	}
+	
+	@Test
+	public void testEncoderAndAbstractProto() {
+		
+		VarIntEncoderMessage proto = new VarIntEncoderMessage();
+		proto.id.set(-5L);
+		proto.delta.markAsNotPresent();
+		proto.items.clear();
+		for(int i = 0; i < 200; i++) { // more than 127 elements, so the count takes 2 bytes
+			proto.items.nextElement();
+			proto.items.qty.set(i - 100);
+			proto.items.price.set(1_000_000L * i);
+		}
+		proto.note.set("note");
+		
+		ByteBuffer expected = ByteBuffer.allocate(4096);
+		proto.write(expected);
+		Assert.assertEquals(proto.getLength(), expected.position());
+		expected.flip();
+		
+		ByteBuffer bb = ByteBuffer.allocate(4096);
+		VarIntEncoderMessage.Encoder encoder = new VarIntEncoderMessage.Encoder();
+		VarIntEncoderMessage.Encoder.ItemsEncoder items = encoder.wrap(bb).id(-5L).deltaNotPresent().items(200);
+		for(int i = 0; i < 200; i++) items.qty(i - 100).price(1_000_000L * i);
+		encoder.note("note").finish();
+		bb.flip();
+		
+		Assert.assertEquals(expected, bb);
+		
+		bb.position(4);
+		VarIntEncoderMessage received = new VarIntEncoderMessage();
+		received.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(proto, received);
+		Assert.assertEquals(-5L, received.id.get());
+		Assert.assertFalse(received.delta.isPresent());
+		Assert.assertEquals(200, received.items.getNumberOfElements());
+		Assert.assertEquals("note", received.note.get().toString());
+	}
+	
+	public static class NestedFlagsMessage extends AbstractProto {
+		
+		public final TypeField typeField = new TypeField(this, 'N');
+		public final SubtypeField subtypeField = new SubtypeField(this, 'F');
+		
+		// built by hand: the inner group has a varint count and a presence bitmap
+		public final RepeatingGroupField outer = new RepeatingGroupField(this, 
+				new IntField(), new RepeatingGroupField(null, true, true, new IntField(true), new IntField(true)));
+	}
+	
+	@Test
+	public void testNestedGroupKeepsFlags() {
+		
+		NestedFlagsMessage proto = new NestedFlagsMessage();
+		proto.outer.clear();
+		for(int i = 0; i < 3; i++) {
+			GroupField element = proto.outer.nextElement();
+			((IntField) element.internalArray()[0]).set(100 + i);
+			RepeatingGroupField inner = (RepeatingGroupField) element.internalArray()[1];
+			Assert.assertTrue(inner.hasVarintCount());
+			inner.clear();
+			GroupField innerElement = inner.nextElement();
+			((IntField) innerElement.internalArray()[0]).set(i);
+			((IntField) innerElement.internalArray()[1]).markAsNotPresent();
+		}
+		
+		ByteBuffer bb = ByteBuffer.allocate(1024);
+		proto.write(bb);
+		bb.flip();
+		
+		// header (4) + outer count (2) + 3 x (int (4) + inner count varint (1) + bitmap (1) + int (4))
+		Assert.assertEquals(4 + 2 + 3 * 10, bb.remaining());
+		Assert.assertEquals(bb.remaining(), proto.getLength());
+		
+		bb.position(4);
+		NestedFlagsMessage received = new NestedFlagsMessage();
+		received.read(bb);
+		Assert.assertFalse(bb.hasRemaining());
+		Assert.assertEquals(proto, received);
+		
+		received.outer.beginIteration();
+		for(int i = 0; i < 3; i++) {
+			GroupField element = received.outer.iterNext();
+			Assert.assertEquals(100 + i, ((IntField) element.internalArray()[0]).get());
+			RepeatingGroupField inner = (RepeatingGroupField) element.internalArray()[1];
+			Assert.assertEquals(1, inner.getNumberOfElements());
+			inner.beginIteration();
+			GroupField innerElement = inner.iterNext();
+			Assert.assertEquals(i, ((IntField) innerElement.internalArray()[0]).get());
+			Assert.assertFalse(innerElement.internalArray()[1].isPresent());
+		}
+	}
+}
@@ -39,6 +39,8 @@ public class NewOrderMessage extends AbstractProto {
         public static final char TYPE = 'N';
         public static final char SUBTYPE = 'O';
 
+        public static final int SYMBOL_OFFSET = 4;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
 
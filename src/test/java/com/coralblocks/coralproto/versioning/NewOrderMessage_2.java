@@ -45,6 +45,9 @@ public class NewOrderMessage_2 extends AbstractProto {
         public static final char SUBTYPE = 'O';
         public static final short VERSION = 2;
 
+        public static final int CLIENT_ID_OFFSET = 4;
+        public static final int SYMBOL_OFFSET = 8;
+
         public final TypeField typeField = new TypeField(this, TYPE);
         public final SubtypeField subtypeField = new SubtypeField(this, SUBTYPE);
         public final VersionField versionField = new VersionField(this, VERSION);